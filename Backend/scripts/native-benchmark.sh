@@ -0,0 +1,104 @@
+#!/usr/bin/env bash
+# Smoke-tests and compares the JVM and native builds against local stubs. A fake
+# Gemini API (python3) answers generateContent, so requests go through the real
+# google-genai client and its Jackson mapping, which is what the native hints cover.
+# For each build it reports time to the first successful /health, RSS after the load
+# run, and steady-state /generate throughput.
+#
+# Usage (from Backend/):
+#   mvn -Pnative native:compile        # target/webcraft
+#   mvn -DskipTests package            # target/WebCraft-*.jar
+#   scripts/native-benchmark.sh [requests] [concurrency]
+set -euo pipefail
+
+REQUESTS=${1:-2000}
+CONCURRENCY=${2:-8}
+PORT=${PORT:-18081}
+GEMINI_PORT=${GEMINI_PORT:-18082}
+JAVA=${JAVA:-java}
+JAVA_OPTS=${JAVA_OPTS:-"-XX:+UseSerialGC -XX:MaxRAMPercentage=75 -Xss512k"}
+WORK=$(mktemp -d)
+PIDS=()
+trap 'kill "${PIDS[@]}" 2> /dev/null || true; rm -rf "$WORK"' EXIT
+
+APP_ARGS=(--server.port="$PORT" --google.ai.api.key=benchmark --google.ai.base-url="http://127.0.0.1:$GEMINI_PORT"
+          --google.ai.context-cache=false --google.ai.models=gemini-2.5-flash:BALANCED:64
+          --webcraft.ratelimit.enabled=false --webcraft.repository.dir="$WORK/sites" --netlify.token=)
+
+now_ms() { date +%s%3N; }
+
+cat > "$WORK/gemini.py" << 'EOF'
+import json, sys
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+
+SITE = json.dumps({"html": "<header><h1>Bakery</h1></header><main><p>Fresh bread</p></main>",
+                   "css": "body { margin: 0; } h1 { color: #333; }",
+                   "js": "document.querySelector('h1').addEventListener('click', () => {});"})
+REPLY = json.dumps({"candidates": [{"content": {"role": "model", "parts": [{"text": SITE}]}, "finishReason": "STOP"}],
+                    "usageMetadata": {"promptTokenCount": 900, "candidatesTokenCount": 60}}).encode()
+
+class Handler(BaseHTTPRequestHandler):
+    protocol_version = "HTTP/1.1"
+    def do_POST(self):
+        self.rfile.read(int(self.headers.get("Content-Length", 0)))
+        self.send_response(200)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(REPLY)))
+        self.end_headers()
+        self.wfile.write(REPLY)
+    def log_message(self, *args):
+        pass
+
+ThreadingHTTPServer(("127.0.0.1", int(sys.argv[1])), Handler).serve_forever()
+EOF
+python3 "$WORK/gemini.py" "$GEMINI_PORT" &
+PIDS+=($!)
+
+check() {
+    local name=$1 path=$2 expect=$3; shift 3
+    local body
+    body=$(curl -sf "$@" "http://localhost:$PORT$path") || { echo "$name: $path failed" >&2; return 1; }
+    grep -q "$expect" <<< "$body" || { echo "$name: $path missing '$expect': ${body:0:200}" >&2; return 1; }
+}
+
+run() {
+    local name=$1; shift
+    local start pid health rss hwm elapsed
+    start=$(now_ms)
+    "$@" "${APP_ARGS[@]}" > "$WORK/$name.log" 2>&1 &
+    pid=$!
+    PIDS+=("$pid")
+    until curl -sf "http://localhost:$PORT/health" > /dev/null 2>&1; do
+        kill -0 "$pid" 2> /dev/null || { echo "$name exited:" >&2; tail -30 "$WORK/$name.log" >&2; exit 1; }
+        sleep 0.01
+    done
+    health=$(( $(now_ms) - start ))
+
+    # Smoke test: the generation paths that go through the google-genai client
+    check "$name" /generate '"html"' -H 'Content-Type: application/json' -d '{"prompt": "A bakery landing page"}'
+    check "$name" /generate/batch '"succeeded":2' -H 'Content-Type: application/json' \
+        -d '{"prompts": ["A bakery landing page", "A bike shop"]}'
+    check "$name" /generation-stats '"usage"'
+    check "$name" /health '"status"'
+
+    printf '{"prompt": "A bakery landing page"}' > "$WORK/body.json"
+    curl -s --no-progress-meter -Z --parallel-max "$CONCURRENCY" -H 'Content-Type: application/json' -d @"$WORK/body.json" \
+        "http://localhost:$PORT/generate?warmup=[1-$(( REQUESTS / 4 ))]" > /dev/null
+    start=$(now_ms)
+    curl -s --no-progress-meter -Z --parallel-max "$CONCURRENCY" -H 'Content-Type: application/json' -d @"$WORK/body.json" \
+        "http://localhost:$PORT/generate?n=[1-$REQUESTS]" > /dev/null
+    elapsed=$(( $(now_ms) - start ))
+
+    rss=$(awk '/VmRSS/ {print int($2 / 1024)}' "/proc/$pid/status")
+    hwm=$(awk '/VmHWM/ {print int($2 / 1024)}' "/proc/$pid/status")
+    kill "$pid"; wait "$pid" 2> /dev/null || true
+    printf '%-7s first /health %6d ms   RSS %4d MB (peak %4d MB)   %7.1f req/s\n' \
+        "$name" "$health" "$rss" "$hwm" "$(awk -v n="$REQUESTS" -v ms="$elapsed" 'BEGIN {print n * 1000 / ms}')"
+}
+
+run jvm "$JAVA" $JAVA_OPTS -jar "$(ls target/WebCraft-*.jar | head -1)"
+if [[ -x target/webcraft ]]; then
+    run native target/webcraft
+else
+    echo "native  skipped: build target/webcraft with mvn -Pnative native:compile"
+fi
@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+# Compares cold-start time of the plain fat jar with the startup-optimized layout the
+# Dockerfile builds (AOT + extracted jar + AppCDS archive). For each variant it starts
+# the app against the stub model provider and reports the time from launch to the
+# first successful /health and to the first successful /generate.
+#
+# Usage: scripts/startup-benchmark.sh [runs]   (from Backend/, after mvn -Pstartup package)
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+JAVA=${JAVA:-java}
+JAVA_OPTS=${JAVA_OPTS:-"-XX:+UseSerialGC -XX:MaxRAMPercentage=75 -Xss512k"}
+JAR=$(ls target/WebCraft-*.jar | head -1)
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+APP_ARGS=(--webcraft.models.stub.enabled=true --webcraft.routing.pinned-provider=stub
+          --webcraft.repository.dir="$WORK/sites" --google.ai.api.key=benchmark --netlify.token=)
+
+now_ms() { date +%s%3N; }
+
+# Prepares app.jar + lib/ and the CDS archive the same way the Dockerfile does
+"$JAVA" -Djarmode=tools -jar "$JAR" extract --layers --destination "$WORK/extracted" > /dev/null
+mkdir -p "$WORK/app"
+for layer in dependencies spring-boot-loader snapshot-dependencies application; do
+    cp -r "$WORK/extracted/$layer/." "$WORK/app/"
+done
+mv "$WORK"/app/WebCraft-*.jar "$WORK/app/app.jar"
+(cd "$WORK/app" && "$JAVA" $JAVA_OPTS -XX:ArchiveClassesAtExit=app.jsa -Dspring.aot.enabled=true -jar app.jar \
+    "${APP_ARGS[@]}" --server.port=0 --webcraft.training.enabled=true --webcraft.ratelimit.enabled=false > "$WORK/training.log" 2>&1) \
+    || { echo "Training run failed:" >&2; tail -20 "$WORK/training.log" >&2; exit 1; }
+APP_ARGS+=(--server.port="$PORT")
+
+measure() {
+    local name=$1; shift
+    local health_total=() generate_total=()
+    for ((i = 1; i <= RUNS; i++)); do
+        local start health generate pid
+        start=$(now_ms)
+        "$@" > "$WORK/$name.log" 2>&1 &
+        pid=$!
+        until curl -sf "http://localhost:$PORT/health" > /dev/null 2>&1; do
+            kill -0 "$pid" 2> /dev/null || { echo "$name exited, see $WORK/$name.log" >&2; exit 1; }
+            sleep 0.02
+        done
+        health=$(( $(now_ms) - start ))
+        curl -sf -H 'Content-Type: application/json' -d '{"prompt": "A landing page for a bakery"}' \
+            "http://localhost:$PORT/generate" > /dev/null
+        generate=$(( $(now_ms) - start ))
+        kill "$pid"; wait "$pid" 2> /dev/null || true
+        health_total+=("$health"); generate_total+=("$generate")
+    done
+    printf '%-10s first /health: median %5d ms   first /generate: median %5d ms\n' "$name" \
+        "$(printf '%s\n' "${health_total[@]}" | sort -n | sed -n "$(( (RUNS + 1) / 2 ))p")" \
+        "$(printf '%s\n' "${generate_total[@]}" | sort -n | sed -n "$(( (RUNS + 1) / 2 ))p")"
+}
+
+measure fat-jar "$JAVA" $JAVA_OPTS -jar "$JAR" "${APP_ARGS[@]}"
+measure aot-cds bash -c 'cd "$0" && exec "$1" $2 -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -jar app.jar "${@:3}"' \
+    "$WORK/app" "$JAVA" "$JAVA_OPTS" "${APP_ARGS[@]}"
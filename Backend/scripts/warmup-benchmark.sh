@@ -0,0 +1,85 @@
+#!/usr/bin/env bash
+# Measures what the readiness warm-up buys: for each variant it starts the jar against a
+# fake Gemini API (python3) that answers with a full recorded page, waits for /health to
+# report ready, then times the first /generate and the median of the next ones.
+#
+# Usage (from Backend/, after mvn -DskipTests package): scripts/warmup-benchmark.sh [runs]
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18083}
+GEMINI_PORT=${GEMINI_PORT:-18084}
+JAVA=${JAVA:-java}
+JAVA_OPTS=${JAVA_OPTS:-"-XX:+UseSerialGC -XX:MaxRAMPercentage=75 -Xss512k"}
+JAR=$(ls target/WebCraft-*.jar | head -1)
+WORK=$(mktemp -d)
+PIDS=()
+trap 'kill "${PIDS[@]}" 2> /dev/null || true; rm -rf "$WORK"' EXIT
+
+APP_ARGS=(--server.port="$PORT" --google.ai.api.key=benchmark --google.ai.base-url="http://127.0.0.1:$GEMINI_PORT"
+          --google.ai.context-cache=false --google.ai.models=gemini-2.5-flash:BALANCED:8
+          --webcraft.ratelimit.enabled=false --webcraft.repository.dir="$WORK/sites" --netlify.token=)
+
+now_ms() { date +%s%3N; }
+
+cat > "$WORK/gemini.py" << 'EOF'
+import json, sys
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+
+SITE = open(sys.argv[2]).read()
+REPLY = json.dumps({"candidates": [{"content": {"role": "model", "parts": [{"text": SITE}]}, "finishReason": "STOP"}],
+                    "usageMetadata": {"promptTokenCount": 900, "candidatesTokenCount": 1500}}).encode()
+
+class Handler(BaseHTTPRequestHandler):
+    protocol_version = "HTTP/1.1"
+    def do_POST(self):
+        self.rfile.read(int(self.headers.get("Content-Length", 0)))
+        self.send_response(200)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(REPLY)))
+        self.end_headers()
+        self.wfile.write(REPLY)
+    def log_message(self, *args):
+        pass
+
+ThreadingHTTPServer(("127.0.0.1", int(sys.argv[1])), Handler).serve_forever()
+EOF
+python3 "$WORK/gemini.py" "$GEMINI_PORT" src/main/resources/warmup/01-structured.txt &
+PIDS+=($!)
+
+generate_ms() {
+    curl -s -o /dev/null -w '%{time_total}' -H 'Content-Type: application/json' \
+        -d "{\"prompt\": \"A landing page for a bakery #$1\"}" "http://localhost:$PORT/generate" \
+        | awk '{print int($1 * 1000)}'
+}
+
+median() { sort -n | sed -n "$(( ($1 + 1) / 2 ))p"; }
+
+measure() {
+    local name=$1; shift
+    local ready=() warmup=() first=() steady=()
+    for ((i = 1; i <= RUNS; i++)); do
+        local start pid health duration later=()
+        start=$(now_ms)
+        "$JAVA" $JAVA_OPTS -jar "$JAR" "${APP_ARGS[@]}" "$@" > "$WORK/$name.log" 2>&1 &
+        pid=$!
+        PIDS+=("$pid")
+        until health=$(curl -sf "http://localhost:$PORT/health" 2> /dev/null); do
+            kill -0 "$pid" 2> /dev/null || { echo "$name exited:" >&2; tail -20 "$WORK/$name.log" >&2; exit 1; }
+            sleep 0.02
+        done
+        ready+=($(( $(now_ms) - start )))
+        duration=$(grep -o '"durationMs":[0-9]*' <<< "$health" | tail -1 | cut -d: -f2 || true)
+        warmup+=("${duration:-0}")
+        first+=("$(generate_ms 0)")
+        for ((n = 1; n <= 9; n++)); do later+=("$(generate_ms "$n")"); done
+        steady+=("$(printf '%s\n' "${later[@]}" | median 9)")
+        kill "$pid"; wait "$pid" 2> /dev/null || true
+    done
+    printf '%-9s ready %6d ms   warm-up %5d ms   first /generate %5d ms   steady /generate %4d ms\n' "$name" \
+        "$(printf '%s\n' "${ready[@]}" | median "$RUNS")" "$(printf '%s\n' "${warmup[@]}" | median "$RUNS")" \
+        "$(printf '%s\n' "${first[@]}" | median "$RUNS")" "$(printf '%s\n' "${steady[@]}" | median "$RUNS")"
+}
+
+measure cold --webcraft.warmup.enabled=false
+measure warm --webcraft.warmup.enabled=true
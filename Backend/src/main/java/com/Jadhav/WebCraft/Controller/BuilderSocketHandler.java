@@ -0,0 +1,511 @@
+package com.Jadhav.WebCraft.Controller;
+
+import com.Jadhav.WebCraft.Service.CircuitBreaker;
+import com.Jadhav.WebCraft.Service.ClientRateLimiter;
+import com.Jadhav.WebCraft.Service.DeploymentUpload;
+import com.Jadhav.WebCraft.Service.GenerationMode;
+import com.Jadhav.WebCraft.Service.GenerationPriority;
+import com.Jadhav.WebCraft.Service.GenerationScheduler;
+import com.Jadhav.WebCraft.Service.LatencyTier;
+import com.Jadhav.WebCraft.Service.NetlifyDeploymentService;
+import com.Jadhav.WebCraft.Service.RefinementService;
+import com.Jadhav.WebCraft.Service.SiteRepository;
+import com.Jadhav.WebCraft.Service.TemplateLibrary;
+import com.Jadhav.WebCraft.Service.WebsiteGeneratorService;
+import com.Jadhav.WebCraft.config.RateLimitFilter;
+import com.Jadhav.WebCraft.dto.DeployRequest;
+import com.Jadhav.WebCraft.dto.DeployResponse;
+import com.Jadhav.WebCraft.dto.ErrorResponse;
+import com.Jadhav.WebCraft.dto.GenerateRequest;
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import com.Jadhav.WebCraft.dto.RefineRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * One long-lived connection for the builder page. Generate, refine and deploy requests
+ * arrive as JSON frames and their progress goes back as events tagged with the request
+ * id, so an action costs a frame instead of a cross-origin request and its preflight.
+ *
+ * <p>Client frames are {"id": ..., "op": "generate" | "refine" | "deploy" | "cancel", "body": {...}},
+ * where body is what the matching HTTP endpoint accepts. Server frames are
+ * {"id": ..., "type": "accepted" | "progress" | "result" | "fallback" | "error" | "cancelled", ...};
+ * progress frames name their "stage". "cancelled" is sent once a cancelled operation has
+ * stopped and its slot is free again.
+ *
+ * <p>A connection runs at most {@code webcraft.ws.max-operations} operations at once and
+ * refuses further ones rather than queueing them. Outgoing frames go through a bounded
+ * buffer, and a client that stops reading is disconnected once it fills.
+ */
+@Component
+public class BuilderSocketHandler extends TextWebSocketHandler {
+    private static final Logger logger = LoggerFactory.getLogger(BuilderSocketHandler.class);
+
+    @Autowired
+    private WebsiteGeneratorService websiteGeneratorService;
+
+    @Autowired
+    private RefinementService refinementService;
+
+    @Autowired
+    private NetlifyDeploymentService netlifyDeploymentService;
+
+    @Autowired
+    private GenerationScheduler generationScheduler;
+
+    @Autowired
+    private SiteRepository siteRepository;
+
+    @Autowired
+    private TemplateLibrary templateLibrary;
+
+    @Autowired
+    private ClientRateLimiter rateLimiter;
+
+    @Value("${netlify.token:}")
+    private String netlifyToken;
+
+    @Value("${webcraft.ws.max-operations:4}")
+    private int maxOperations;
+
+    @Value("${webcraft.ws.max-message-bytes:2097152}")
+    private int maxMessageBytes;
+
+    @Value("${webcraft.ws.send-buffer-bytes:8388608}")
+    private int sendBufferBytes;
+
+    @Value("${webcraft.ws.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter frameWriter;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+
+    private static final class Connection {
+        final WebSocketSession session;
+        final String client;
+        final Semaphore operations;
+        final Map<String, Operation> running = new ConcurrentHashMap<>();
+
+        Connection(WebSocketSession session, String client, int maxOperations) {
+            this.session = session;
+            this.client = client;
+            this.operations = new Semaphore(maxOperations);
+        }
+    }
+
+    /**
+     * A running request. Cancelling interrupts its thread, but never during a send: an
+     * interrupted socket write fails and takes the whole session down with it.
+     */
+    private static final class Operation {
+        final String id;
+        private Thread thread;
+        private boolean cancelled;
+
+        Operation(String id) {
+            this.id = id;
+        }
+
+        synchronized boolean start() {
+            thread = Thread.currentThread();
+            return !cancelled;
+        }
+
+        // Clears a pending interrupt so the thread can still send the "cancelled" event
+        synchronized void finish() {
+            thread = null;
+            Thread.interrupted();
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    @Autowired
+    void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.frameWriter = objectMapper.writer();
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        session.setTextMessageSizeLimit(maxMessageBytes);
+        Object client = session.getAttributes().get(RateLimitFilter.CLIENT_ATTRIBUTE);
+        String clientId = client != null ? client.toString()
+                : "ip:" + (session.getRemoteAddress() != null ? session.getRemoteAddress().getAddress().getHostAddress() : "unknown");
+        WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, sendBufferBytes);
+        connections.put(session.getId(), new Connection(decorated, clientId, maxOperations));
+        logger.info("WebSocket session {} opened for {}", session.getId(), clientId);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Connection connection = connections.remove(session.getId());
+        if (connection == null) {
+            return;
+        }
+        // Nobody is left to receive the results
+        int cancelled = connection.running.size();
+        connection.running.values().forEach(Operation::cancel);
+        logger.info("WebSocket session {} closed ({}), {} operation(s) cancelled",
+                session.getId(), status.getCode(), cancelled);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        Connection connection = connections.get(session.getId());
+        if (connection == null) {
+            return;
+        }
+
+        JsonNode frame;
+        try {
+            frame = objectMapper.readTree(message.getPayload());
+        } catch (JsonProcessingException e) {
+            sendFrame(connection, null, "error", Map.of("error",
+                    new ErrorResponse("Invalid Request", "Malformed frame: " + e.getOriginalMessage())));
+            return;
+        }
+        String id = frame.path("id").asText("");
+        String op = frame.path("op").asText("");
+        if (id.isBlank()) {
+            sendFrame(connection, null, "error", Map.of("error", new ErrorResponse("Invalid Request", "Every frame needs an id")));
+            return;
+        }
+
+        if (op.equals("cancel")) {
+            Operation running = connection.running.get(id);
+            if (running != null) {
+                running.cancel();
+            }
+            return;
+        }
+
+        ClientRateLimiter.Operation limited = switch (op) {
+            case "generate", "refine" -> ClientRateLimiter.Operation.GENERATE;
+            case "deploy" -> ClientRateLimiter.Operation.DEPLOY;
+            default -> null;
+        };
+        if (limited == null) {
+            error(connection, id, new ErrorResponse("Invalid Request", "Unknown op '" + op + "', expected generate, refine, deploy or cancel"));
+            return;
+        }
+        if (connection.running.containsKey(id)) {
+            error(connection, id, new ErrorResponse("Invalid Request", "Request id " + id + " is already in progress"));
+            return;
+        }
+        if (!connection.operations.tryAcquire()) {
+            error(connection, id, new ErrorResponse("Server Busy",
+                    "Too many operations in progress on this connection (max " + maxOperations + ")"));
+            return;
+        }
+        if (rateLimiter.isEnabled()) {
+            ClientRateLimiter.Decision decision = rateLimiter.tryAcquire(connection.client, limited);
+            if (!decision.allowed()) {
+                connection.operations.release();
+                error(connection, id, new ErrorResponse("Rate Limit Exceeded",
+                        "Too many requests. Please retry in " + decision.retryAfterSeconds() + " seconds."));
+                return;
+            }
+        }
+
+        JsonNode body = frame.path("body");
+        Operation operation = new Operation(id);
+        // Registered before it starts, so a fast operation cannot finish before it is listed
+        connection.running.put(id, operation);
+        send(connection, operation, "accepted", Map.of("op", op));
+        executor.execute(() -> {
+            try {
+                if (!operation.start()) {
+                    return;
+                }
+                switch (op) {
+                    case "generate" -> generate(connection, operation, objectMapper.treeToValue(body, GenerateRequest.class));
+                    case "refine" -> refine(connection, operation, objectMapper.treeToValue(body, RefineRequest.class));
+                    default -> deploy(connection, operation, objectMapper.treeToValue(body, DeployRequest.class));
+                }
+            } catch (JsonProcessingException e) {
+                error(connection, operation, new ErrorResponse("Invalid Request", "Malformed body: " + e.getOriginalMessage()));
+            } finally {
+                operation.finish();
+                connection.running.remove(id);
+                connection.operations.release();
+                if (operation.isCancelled()) {
+                    sendFrame(connection, id, "cancelled", Map.of());
+                }
+            }
+        });
+    }
+
+    private void generate(Connection connection, Operation operation, GenerateRequest request) {
+        String invalid = WebsiteGeneratorController.validatePrompt(request);
+        if (invalid != null) {
+            error(connection, operation, new ErrorResponse("Validation Error", invalid));
+            return;
+        }
+        LatencyTier tier;
+        GenerationMode mode;
+        GenerationPriority priority;
+        try {
+            tier = LatencyTier.fromString(request.getLatencyTier());
+            mode = GenerationMode.fromString(request.getMode());
+            priority = GenerationPriority.fromString(request.getPriority());
+        } catch (IllegalArgumentException e) {
+            error(connection, operation, new ErrorResponse("Validation Error", e.getMessage()));
+            return;
+        }
+
+        String prompt = request.getPrompt();
+        TemplateLibrary.Match match = templateLibrary.match(prompt);
+        GenerateResponse skeleton = templateLibrary.render(match, prompt);
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("stage", "skeleton");
+        first.put("template", match.template().getId());
+        first.put("site", skeleton);
+        send(connection, operation, "progress", first);
+
+        try {
+            send(connection, operation, "progress", Map.of("stage", "queued"));
+            GenerateResponse response = generationScheduler.run(connection.client, priority,
+                    mode == GenerationMode.FANOUT ? 4 : 1,
+                    () -> websiteGeneratorService.generateWebsite(prompt, tier, mode,
+                            stage -> send(connection, operation, "progress", Map.of("stage", stage))));
+            if (response == null || response.getHtml() == null || response.getHtml().trim().isEmpty()) {
+                throw new IllegalStateException("Failed to generate valid HTML content");
+            }
+            saveVersion(siteRepository.newSiteId(), response);
+            send(connection, operation, "result", Map.of("site", response));
+        } catch (Exception e) {
+            if (operation.isCancelled()) {
+                return;
+            }
+            ErrorResponse error = failure(e, "Generation Error", "Website generation failed, the template was kept instead.");
+            if (!isRefusal(e)) {
+                saveVersion(siteRepository.newSiteId(), skeleton);
+            }
+            Map<String, Object> last = new LinkedHashMap<>();
+            last.put("template", match.template().getId());
+            last.put("error", error);
+            last.put("site", skeleton);
+            send(connection, operation, "fallback", last);
+        }
+    }
+
+    private void refine(Connection connection, Operation operation, RefineRequest request) {
+        if (request.getInstruction() == null || request.getInstruction().isBlank()) {
+            error(connection, operation, new ErrorResponse("Validation Error", "Instruction cannot be empty"));
+            return;
+        }
+        if (request.getInstruction().length() > 2000) {
+            error(connection, operation, new ErrorResponse("Validation Error", "Instruction is too long (max 2000 characters)"));
+            return;
+        }
+        boolean stored = request.getSiteId() != null && !request.getSiteId().isBlank();
+        GenerateResponse site = stored
+                ? siteRepository.load(request.getSiteId(), request.getVersion()).orElse(null)
+                : new GenerateResponse(request.getHtml(), request.getCss(), request.getJs());
+        if (site == null) {
+            error(connection, operation, new ErrorResponse("Not Found", "Site version not found: " + request.getSiteId()));
+            return;
+        }
+        if (site.getHtml() == null || site.getHtml().trim().isEmpty()) {
+            error(connection, operation, new ErrorResponse("Validation Error", "HTML content cannot be empty"));
+            return;
+        }
+        LatencyTier tier;
+        try {
+            tier = LatencyTier.fromString(request.getLatencyTier());
+        } catch (IllegalArgumentException e) {
+            error(connection, operation, new ErrorResponse("Validation Error", e.getMessage()));
+            return;
+        }
+
+        try {
+            send(connection, operation, "progress", Map.of("stage", "queued"));
+            GenerateResponse response = generationScheduler.run(connection.client, GenerationPriority.INTERACTIVE, 1, () -> {
+                send(connection, operation, "progress", Map.of("stage", "refining"));
+                return refinementService.refine(site, request.getInstruction(), request.getTarget(), tier);
+            });
+            saveVersion(stored ? request.getSiteId() : siteRepository.newSiteId(), response);
+            send(connection, operation, "result", Map.of("site", response));
+        } catch (Exception e) {
+            if (!operation.isCancelled()) {
+                error(connection, operation, failure(e, "Refinement Error",
+                        "An unexpected error occurred while refining the website. Please try again later."));
+            }
+        }
+    }
+
+    private void deploy(Connection connection, Operation operation, DeployRequest request) {
+        if (netlifyToken == null || netlifyToken.trim().isEmpty()) {
+            error(connection, operation, new ErrorResponse("Configuration Error",
+                    "Deployment service is not properly configured. Please check server configuration."));
+            return;
+        }
+        DeploymentUpload upload;
+        if (request.getSiteId() != null && !request.getSiteId().isBlank()) {
+            GenerateResponse site = siteRepository.load(request.getSiteId(), request.getVersion()).orElse(null);
+            if (site == null) {
+                error(connection, operation, new ErrorResponse("Not Found", "Site version not found: " + request.getSiteId()));
+                return;
+            }
+            upload = DeploymentUpload.of(site);
+        } else {
+            upload = DeploymentUpload.of(request.getHtml(), request.getCss(), request.getJs());
+        }
+
+        try (upload) {
+            if (upload.getHtml().isBlank()) {
+                error(connection, operation, new ErrorResponse("Validation Error", "HTML content cannot be empty"));
+                return;
+            }
+            String projectName = WebsiteGeneratorController.sanitizeProjectName(request.getProjectName());
+            if (!WebsiteGeneratorController.isValidProjectName(projectName)) {
+                projectName = WebsiteGeneratorController.generateFallbackProjectName();
+            }
+
+            send(connection, operation, "progress", Map.of("stage", "packaging"));
+            NetlifyDeploymentService.Deployment deployment = netlifyDeploymentService.deployToNetlify(upload, projectName,
+                    new NetlifyDeploymentService.DeployListener() {
+                        @Override
+                        public void packaged(long zipBytes) {
+                            send(connection, operation, "progress", Map.of("stage", "packaged", "zipBytes", zipBytes));
+                        }
+
+                        @Override
+                        public void uploading(int percent) {
+                            send(connection, operation, "progress", Map.of("stage", "uploading", "percent", percent));
+                        }
+
+                        @Override
+                        public void uploaded(NetlifyDeploymentService.Deployment deployment) {
+                            send(connection, operation, "progress", Map.of("stage", "uploaded",
+                                    "deploymentUrl", deployment.url(), "deployId", deployment.deployId()));
+                        }
+
+                        @Override
+                        public void live(boolean live) {
+                            send(connection, operation, "progress", Map.of("stage", "ready", "live", live));
+                        }
+                    });
+
+            DeployResponse response = new DeployResponse();
+            response.setDeployId(deployment.deployId());
+            response.setDeploymentUrl(deployment.url());
+            response.setProjectName(projectName);
+            response.setDeployed(true);
+            response.setSiteId(request.getSiteId());
+            response.setVersion(request.getVersion());
+            send(connection, operation, "result", Map.of("deployment", response));
+        } catch (Exception e) {
+            if (!operation.isCancelled()) {
+                logger.error("WebSocket deployment error: {}", e.getMessage(), e);
+                CircuitBreaker.OpenException open = CircuitBreaker.OpenException.findIn(e);
+                error(connection, operation, open != null
+                        ? new ErrorResponse("Service Unavailable", open.getMessage())
+                        : new ErrorResponse("Deployment Error", "Failed to deploy website: " + e.getMessage()));
+            }
+        }
+    }
+
+    // The scheduler was full or the circuit was open, so nothing was generated
+    private static boolean isRefusal(Exception e) {
+        return e instanceof TimeoutException || CircuitBreaker.OpenException.findIn(e) != null;
+    }
+
+    private static ErrorResponse failure(Exception e, String title, String message) {
+        CircuitBreaker.OpenException open = CircuitBreaker.OpenException.findIn(e);
+        if (open != null) {
+            return new ErrorResponse("Service Unavailable", open.getMessage());
+        }
+        if (e instanceof TimeoutException) {
+            return new ErrorResponse("Server Busy", e.getMessage());
+        }
+        logger.error("WebSocket operation failed: {}", e.getMessage(), e);
+        return new ErrorResponse(title, message);
+    }
+
+    private void saveVersion(String siteId, GenerateResponse response) {
+        try {
+            response.setVersion(siteRepository.save(siteId, response));
+            response.setSiteId(siteId);
+        } catch (Exception e) {
+            // The generated site is still returned, it just cannot be referred to by id
+            logger.warn("Failed to store site {}: {}", siteId, e.getMessage());
+        }
+    }
+
+    private void error(Connection connection, String id, ErrorResponse error) {
+        sendFrame(connection, id, "error", Map.of("error", error));
+    }
+
+    private void error(Connection connection, Operation operation, ErrorResponse error) {
+        send(connection, operation, "error", Map.of("error", error));
+    }
+
+    // Events of a cancelled operation are dropped
+    private void send(Connection connection, Operation operation, String type, Map<String, Object> details) {
+        synchronized (operation) {
+            if (!operation.isCancelled()) {
+                sendFrame(connection, operation.id, type, details);
+            }
+        }
+    }
+
+    /**
+     * Sends one event. The decorated session serializes concurrent senders and buffers
+     * for a slow reader; past the buffer or time limit it closes the session, which
+     * cancels the connection's operations.
+     */
+    private void sendFrame(Connection connection, String id, String type, Map<String, Object> details) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        if (id != null) {
+            event.put("id", id);
+        }
+        event.put("type", type);
+        event.putAll(details);
+        try {
+            connection.session.sendMessage(new TextMessage(frameWriter.writeValueAsBytes(event)));
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("WebSocket session {} did not take a {} event: {}", connection.session.getId(), type, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
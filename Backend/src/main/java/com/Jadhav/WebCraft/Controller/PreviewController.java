@@ -0,0 +1,165 @@
+package com.Jadhav.WebCraft.Controller;
+
+import com.Jadhav.WebCraft.Service.PreviewStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Optional;
+
+/**
+ * Local preview host: {@code /preview/{siteId}/} serves the latest version of a stored
+ * site the way Netlify would, with styles.css and script.js next to the page. Bodies
+ * come ready-made from the {@link PreviewStore}; the gzip variant is sent as is when
+ * the client accepts it, and an If-None-Match on the current ETag gets a 304.
+ *
+ * Files the store keeps on disk go out through Tomcat's sendfile when the connector
+ * supports it (no copy through the JVM), otherwise through {@link FileChannel#transferTo}.
+ * The page runs in a sandboxed origin so its scripts cannot call the API as this host.
+ * Like a static host, misses get a bare status rather than a JSON error body.
+ */
+@RestController
+public class PreviewController {
+    private static final Logger logger = LoggerFactory.getLogger(PreviewController.class);
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String SANDBOX = "sandbox allow-scripts allow-forms allow-popups allow-modals";
+
+    @Autowired
+    private PreviewStore previewStore;
+
+    @GetMapping("/preview/{siteId}/**")
+    public ResponseEntity<?> preview(@PathVariable String siteId,
+                                     HttpServletRequest request,
+                                     HttpServletResponse response) throws IOException {
+        String prefix = request.getContextPath() + "/preview/" + siteId;
+        String uri = request.getRequestURI();
+        if (!uri.startsWith(prefix)) {
+            // Site ids never need escaping
+            return ResponseEntity.notFound().build();
+        }
+        String path = uri.substring(prefix.length());
+        if (path.isEmpty()) {
+            // Relative asset links only resolve below the trailing slash
+            return ResponseEntity.status(HttpStatus.MOVED_PERMANENTLY)
+                    .header(HttpHeaders.LOCATION, prefix + "/")
+                    .build();
+        }
+
+        Optional<PreviewStore.Preview> preview;
+        try {
+            preview = previewStore.get(siteId);
+        } catch (Exception e) {
+            logger.error("Failed to build preview of site {}: {}", siteId, e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
+        }
+        if (preview.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String name = path.equals("/") ? PreviewStore.INDEX : path.substring(1);
+        PreviewStore.PreviewFile file = preview.get().file(name);
+        PreviewStore.Variant variant = file.gzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))
+                ? file.gzip()
+                : file.identity();
+
+        // Revalidated on every view; a 304 costs no body
+        response.setHeader(HttpHeaders.ETAG, variant.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), file)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return null;
+        }
+
+        response.setContentType(file.contentType());
+        response.setContentLengthLong(variant.length());
+        if (variant == file.gzip()) {
+            // Also keeps Tomcat's own compression off this response
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setHeader("Content-Security-Policy", SANDBOX);
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if ("HEAD".equals(request.getMethod())) {
+            return null;
+        }
+
+        if (!variant.onDisk()) {
+            response.getOutputStream().write(variant.bytes());
+        } else if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, variant.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, variant.length());
+        } else {
+            try (FileChannel channel = FileChannel.open(variant.file())) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = 0;
+                while (position < variant.length()) {
+                    position += channel.transferTo(position, variant.length() - position, out);
+                }
+            }
+        }
+        return null;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] params = coding.split(";");
+            String token = params[0].trim();
+            if (!token.equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // Weak comparison, as If-None-Match calls for; either encoding's tag is current
+    private static boolean matches(String ifNoneMatch, PreviewStore.PreviewFile file) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals("*")) {
+                return true;
+            }
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(file.identity().etag()) || file.gzip() != null && candidate.equals(file.gzip().etag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+package com.Jadhav.WebCraft.Controller;
+
+import com.Jadhav.WebCraft.Service.SiteRepository;
+import com.Jadhav.WebCraft.dto.ErrorResponse;
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+@RestController
+@RequestMapping("/sites")
+@CrossOrigin(origins ="https://webcraft-iota.vercel.app/")
+public class SiteController {
+    private static final Logger logger = LoggerFactory.getLogger(SiteController.class);
+
+    @Autowired
+    private SiteRepository siteRepository;
+
+    @GetMapping("/stats")
+    public ResponseEntity<?> getRepositoryStatistics() {
+        return ResponseEntity.ok(siteRepository.stats());
+    }
+
+    @GetMapping("/{siteId}/versions")
+    public ResponseEntity<?> listVersions(@PathVariable String siteId) {
+        List<Map<String, Object>> versions = siteRepository.versions(siteId);
+        if (versions.isEmpty()) {
+            return notFound(siteId);
+        }
+        return ResponseEntity.ok(versions);
+    }
+
+    @GetMapping({"/{siteId}", "/{siteId}/versions/{version}"})
+    public ResponseEntity<?> getVersion(@PathVariable String siteId,
+                                        @PathVariable(required = false) Integer version) {
+        try {
+            Optional<GenerateResponse> site = siteRepository.load(siteId, version);
+            if (site.isEmpty()) {
+                return notFound(siteId);
+            }
+            GenerateResponse response = site.get();
+            response.setSiteId(siteId);
+            response.setVersion(version != null ? version : latestVersion(siteId));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Failed to read site {}: {}", siteId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Repository Error", "Failed to read the stored site"));
+        }
+    }
+
+    @GetMapping("/{siteId}/diff")
+    public ResponseEntity<?> diffVersions(@PathVariable String siteId,
+                                          @RequestParam int from,
+                                          @RequestParam int to) {
+        try {
+            Optional<Map<String, String>> diff = siteRepository.diff(siteId, from, to);
+            if (diff.isEmpty()) {
+                return notFound(siteId);
+            }
+            return ResponseEntity.ok(diff.get());
+        } catch (Exception e) {
+            logger.error("Failed to diff site {}: {}", siteId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Repository Error", "Failed to diff the stored site"));
+        }
+    }
+
+    private Integer latestVersion(String siteId) {
+        OptionalInt latest = siteRepository.latestVersion(siteId);
+        return latest.isPresent() ? latest.getAsInt() : null;
+    }
+
+    private ResponseEntity<ErrorResponse> notFound(String siteId) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse("Not Found", "Site version not found: " + siteId));
+    }
+}
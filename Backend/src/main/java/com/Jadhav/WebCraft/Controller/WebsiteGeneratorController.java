@@ -1,23 +1,62 @@
 package com.Jadhav.WebCraft.Controller;
 
+import com.Jadhav.WebCraft.Service.AdmissionBudget;
+import com.Jadhav.WebCraft.Service.BatchGenerationService;
+import com.Jadhav.WebCraft.Service.BulkDeploymentService;
+import com.Jadhav.WebCraft.Service.CircuitBreaker;
+import com.Jadhav.WebCraft.Service.CircuitBreakers;
+import com.Jadhav.WebCraft.Service.ClientRateLimiter;
+import com.Jadhav.WebCraft.Service.DeployRequestReader;
+import com.Jadhav.WebCraft.Service.DeploymentUpload;
+import com.Jadhav.WebCraft.Service.GenerationMode;
+import com.Jadhav.WebCraft.Service.GenerationPriority;
+import com.Jadhav.WebCraft.Service.GenerationScheduler;
+import com.Jadhav.WebCraft.Service.GoogleGenAIService;
+import com.Jadhav.WebCraft.Service.LatencyTier;
+import com.Jadhav.WebCraft.Service.ModelRouter;
+import com.Jadhav.WebCraft.Service.NetlifyRateLimiter;
+import com.Jadhav.WebCraft.Service.RefinementService;
+import com.Jadhav.WebCraft.Service.SiteRepository;
+import com.Jadhav.WebCraft.Service.TemplateLibrary;
+import com.Jadhav.WebCraft.Service.WarmUpService;
 import com.Jadhav.WebCraft.Service.WebsiteGeneratorService;
 import com.Jadhav.WebCraft.Service.NetlifyDeploymentService;
+import com.Jadhav.WebCraft.config.RateLimitFilter;
+import com.Jadhav.WebCraft.dto.BatchGenerateRequest;
 import com.Jadhav.WebCraft.dto.ErrorResponse;
 import com.Jadhav.WebCraft.dto.GenerateRequest;
 import com.Jadhav.WebCraft.dto.GenerateResponse;
-import com.Jadhav.WebCraft.dto.DeployRequest;
 import com.Jadhav.WebCraft.dto.DeployResponse;
+import com.Jadhav.WebCraft.dto.RefineRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.validation.BindingResult;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 
 @RestController
@@ -28,6 +67,7 @@ public class WebsiteGeneratorController {
     private static final Pattern VALID_PROJECT_NAME = Pattern.compile("^[a-z0-9]([a-z0-9-]*[a-z0-9])?$");
     private static final int MAX_PROJECT_NAME_LENGTH = 63;
     private static final int MIN_PROJECT_NAME_LENGTH = 3;
+    private static final Set<String> ECHOABLE_FIELDS = Set.of("html", "css", "js");
 
     @Autowired
     private WebsiteGeneratorService websiteGeneratorService;
@@ -35,36 +75,102 @@ public class WebsiteGeneratorController {
     @Autowired
     private NetlifyDeploymentService netlifyDeploymentService;
 
+    @Autowired
+    private GoogleGenAIService googleGenAIService;
+
+    @Autowired
+    private ModelRouter modelRouter;
+
+    @Autowired
+    private RefinementService refinementService;
+
+    @Autowired
+    private SiteRepository siteRepository;
+
+    @Autowired
+    private DeployRequestReader deployRequestReader;
+
+    @Autowired
+    private AdmissionBudget admissionBudget;
+
+    @Autowired
+    private ClientRateLimiter clientRateLimiter;
+
+    @Autowired
+    private GenerationScheduler generationScheduler;
+
+    @Autowired
+    private BatchGenerationService batchGenerationService;
+
+    @Autowired
+    private BulkDeploymentService bulkDeploymentService;
+
+    @Autowired
+    private NetlifyRateLimiter netlifyRateLimiter;
+
+    @Autowired
+    private WarmUpService warmUpService;
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Autowired
+    private CircuitBreakers circuitBreakers;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader batchRequestReader;
+    private ObjectReader generateRequestReader;
+    private ObjectReader promptReader;
+
+    @Autowired
+    private TemplateLibrary templateLibrary;
+
+    @Autowired
+    void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.batchRequestReader = objectMapper.readerFor(BatchGenerateRequest.class);
+        this.generateRequestReader = objectMapper.readerFor(GenerateRequest.class);
+        this.promptReader = objectMapper.readerFor(String.class);
+    }
+
     @Value("${netlify.token:}")
     private String netlifyToken;
 
+    @Value("${webcraft.admission.retry-after-seconds:2}")
+    private int retryAfterSeconds;
+
     @PostMapping("/generate")
     public ResponseEntity<?> generateWebsite(
             @Valid @RequestBody GenerateRequest request,
-            BindingResult bindingResult) {
+            BindingResult bindingResult,
+            HttpServletRequest httpRequest) {
 
         try {
-            if (bindingResult.hasErrors()) {
-                String errorMsg = bindingResult.getFieldError() != null ?
-                        bindingResult.getFieldError().getDefaultMessage() : "Validation failed";
+            String invalid = validatePrompt(request, bindingResult);
+            if (invalid != null) {
                 return ResponseEntity.badRequest()
-                        .body(new ErrorResponse("Validation Error", errorMsg));
+                        .body(new ErrorResponse("Validation Error", invalid));
             }
 
-            if (request.getPrompt() == null || request.getPrompt().trim().isEmpty()) {
+            LatencyTier tier;
+            GenerationMode mode;
+            GenerationPriority priority;
+            try {
+                tier = LatencyTier.fromString(request.getLatencyTier());
+                mode = GenerationMode.fromString(request.getMode());
+                priority = GenerationPriority.fromString(request.getPriority());
+            } catch (IllegalArgumentException e) {
                 return ResponseEntity.badRequest()
-                        .body(new ErrorResponse("Validation Error", "Prompt cannot be empty"));
-            }
-
-            if (request.getPrompt().length() > 5000) {
-                return ResponseEntity.badRequest()
-                        .body(new ErrorResponse("Validation Error", "Prompt is too long (max 5000 characters)"));
+                        .body(new ErrorResponse("Validation Error", e.getMessage()));
             }
 
             logger.info("Generating website for prompt: {}",
                     request.getPrompt().substring(0, Math.min(100, request.getPrompt().length())));
 
-            GenerateResponse response = websiteGeneratorService.generateWebsite(request.getPrompt());
+            // Fan-out makes four model calls, so it counts for more of the client's share
+            GenerateResponse response = generationScheduler.run(clientOf(httpRequest), priority,
+                    mode == GenerationMode.FANOUT ? 4 : 1,
+                    () -> websiteGeneratorService.generateWebsite(request.getPrompt(), tier, mode));
 
             if (response == null || response.getHtml() == null || response.getHtml().trim().isEmpty()) {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -72,8 +178,13 @@ public class WebsiteGeneratorController {
             }
 
             logger.info("Website generated successfully with HTML length: {}", response.getHtml().length());
+            saveVersion(siteRepository.newSiteId(), response);
             return ResponseEntity.ok(response);
 
+        } catch (TimeoutException e) {
+            logger.warn("Generation not scheduled: {}", e.getMessage());
+            return serverBusy(e.getMessage());
+
         } catch (JsonProcessingException e) {
             logger.error("JSON parsing error: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -87,6 +198,10 @@ public class WebsiteGeneratorController {
                             "The AI response is missing required fields. Please try again."));
 
         } catch (Exception e) {
+            CircuitBreaker.OpenException open = CircuitBreaker.OpenException.findIn(e);
+            if (open != null) {
+                return serviceUnavailable(open);
+            }
             logger.error("Unexpected error during generation: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponse("Generation Error",
@@ -94,11 +209,304 @@ public class WebsiteGeneratorController {
         }
     }
 
+    /**
+     * Streams NDJSON: a matching template skeleton straight away, then the generated site.
+     * If generation fails the skeleton is stored and sent again as the fallback.
+     */
+    @PostMapping("/generate/stream")
+    public ResponseEntity<?> generateStream(
+            @Valid @RequestBody GenerateRequest request,
+            BindingResult bindingResult,
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse) {
+
+        String invalid = validatePrompt(request, bindingResult);
+        if (invalid != null) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Validation Error", invalid));
+        }
+
+        LatencyTier tier;
+        GenerationMode mode;
+        GenerationPriority priority;
+        try {
+            tier = LatencyTier.fromString(request.getLatencyTier());
+            mode = GenerationMode.fromString(request.getMode());
+            priority = GenerationPriority.fromString(request.getPriority());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Validation Error", e.getMessage()));
+        }
+
+        String prompt = request.getPrompt();
+        TemplateLibrary.Match match = templateLibrary.match(prompt);
+        GenerateResponse skeleton = templateLibrary.render(match, prompt);
+
+        httpResponse.setStatus(HttpStatus.OK.value());
+        httpResponse.setContentType("application/x-ndjson");
+        httpResponse.setCharacterEncoding("UTF-8");
+        try {
+            OutputStream out = httpResponse.getOutputStream();
+            Map<String, Object> first = new LinkedHashMap<>();
+            first.put("type", "skeleton");
+            first.put("template", match.template().getId());
+            first.put("score", match.score());
+            first.put("site", skeleton);
+            writeLine(out, first);
+
+            Map<String, Object> last = new LinkedHashMap<>();
+            try {
+                GenerateResponse response = generationScheduler.run(clientOf(httpRequest), priority,
+                        mode == GenerationMode.FANOUT ? 4 : 1,
+                        () -> websiteGeneratorService.generateWebsite(prompt, tier, mode));
+                if (response == null || response.getHtml() == null || response.getHtml().trim().isEmpty()) {
+                    throw new IllegalStateException("Failed to generate valid HTML content");
+                }
+                saveVersion(siteRepository.newSiteId(), response);
+                last.put("type", "site");
+                last.put("site", response);
+            } catch (Exception e) {
+                ErrorResponse error;
+                CircuitBreaker.OpenException open = CircuitBreaker.OpenException.findIn(e);
+                if (open != null) {
+                    error = new ErrorResponse("Service Unavailable", open.getMessage());
+                } else if (e instanceof TimeoutException) {
+                    error = new ErrorResponse("Server Busy", e.getMessage());
+                } else {
+                    logger.error("Streamed generation failed, serving template {}: {}", match.template().getId(), e.getMessage());
+                    error = new ErrorResponse("Generation Error", "Website generation failed, the template was kept instead.");
+                    // Busy and outage refusals get the template too, but only a real failure keeps it
+                    saveVersion(siteRepository.newSiteId(), skeleton);
+                }
+                last.put("type", "fallback");
+                last.put("template", match.template().getId());
+                last.put("error", error);
+                last.put("site", skeleton);
+            }
+            writeLine(out, last);
+        } catch (IOException e) {
+            // Headers are already sent, so there is no error response to give
+            logger.warn("Streamed generation aborted: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Generates many sites in one request. Accepts a JSON body ({@link BatchGenerateRequest})
+     * or JSON Lines, one prompt string or GenerateRequest object per line, with batch
+     * settings as query parameters. Results stream back as NDJSON in completion order.
+     */
+    @PostMapping("/generate/batch")
+    public ResponseEntity<?> generateBatch(
+            @RequestParam(required = false) String latencyTier,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) Integer parallelism,
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse) {
+
+        List<BatchGenerationService.BatchItem> items = new ArrayList<>();
+        LatencyTier defaultTier;
+        GenerationMode defaultMode;
+        GenerationPriority batchPriority;
+        try {
+            String contentType = httpRequest.getContentType() == null ? "" : httpRequest.getContentType();
+            if (contentType.contains("ndjson") || contentType.contains("jsonl")) {
+                defaultTier = LatencyTier.fromString(latencyTier);
+                defaultMode = GenerationMode.fromString(mode);
+                batchPriority = GenerationPriority.fromString(priority == null ? "batch" : priority)
+                        .atMost(GenerationPriority.BATCH);
+                readJsonLines(httpRequest, items, defaultTier, defaultMode);
+            } else {
+                BatchGenerateRequest request = batchRequestReader.readValue(httpRequest.getInputStream());
+                defaultTier = LatencyTier.fromString(request.getLatencyTier() != null ? request.getLatencyTier() : latencyTier);
+                defaultMode = GenerationMode.fromString(request.getMode() != null ? request.getMode() : mode);
+                String requestedPriority = request.getPriority() != null ? request.getPriority() : priority;
+                // A batch never jumps ahead of interactive work, whatever it asks for
+                batchPriority = GenerationPriority.fromString(requestedPriority == null ? "batch" : requestedPriority)
+                        .atMost(GenerationPriority.BATCH);
+                if (request.getParallelism() != null) {
+                    parallelism = request.getParallelism();
+                }
+                if (request.getPrompts() != null) {
+                    for (String prompt : request.getPrompts()) {
+                        items.add(new BatchGenerationService.BatchItem(items.size(), prompt, defaultTier, defaultMode, null));
+                    }
+                }
+                if (request.getItems() != null) {
+                    for (GenerateRequest item : request.getItems()) {
+                        items.add(toBatchItem(items.size(), item, defaultTier, defaultMode));
+                    }
+                }
+            }
+        } catch (JsonProcessingException e) {
+            logger.error("Malformed batch request: {}", e.getOriginalMessage());
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Validation Error", "Malformed batch request body"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Validation Error", e.getMessage()));
+        } catch (IOException e) {
+            logger.error("Failed to read batch request: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Validation Error", "Failed to read batch request body"));
+        }
+
+        if (items.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Validation Error", "Batch must contain at least one prompt"));
+        }
+        if (items.size() > batchGenerationService.getMaxItems()) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Validation Error",
+                            "Batch is too large (max " + batchGenerationService.getMaxItems() + " prompts)"));
+        }
+
+        // Each prompt is a generation, so each is charged; prompts past what the bucket covers fail
+        String client = clientOf(httpRequest);
+        int chargeable = (int) items.stream().filter(item -> BatchGenerationService.validate(item) == null).count();
+        ClientRateLimiter.Decision decision = chargeItems(client, ClientRateLimiter.Operation.GENERATE, chargeable, httpResponse);
+        if (decision != null && !decision.allowed()) {
+            return rateLimited(decision);
+        }
+        if (decision != null && decision.units() < chargeable) {
+            String limited = overLimit(decision);
+            int granted = decision.units();
+            for (int i = 0; i < items.size(); i++) {
+                BatchGenerationService.BatchItem item = items.get(i);
+                if (BatchGenerationService.validate(item) == null && granted-- <= 0) {
+                    items.set(i, new BatchGenerationService.BatchItem(item.index(), item.prompt(), item.tier(), item.mode(), limited));
+                }
+            }
+        }
+
+        logger.info("Generating batch of {} sites with {} priority", items.size(), batchPriority);
+        httpResponse.setStatus(HttpStatus.OK.value());
+        httpResponse.setContentType("application/x-ndjson");
+        httpResponse.setCharacterEncoding("UTF-8");
+        try {
+            batchGenerationService.run(items, client, batchPriority,
+                    parallelism == null ? Integer.MAX_VALUE : parallelism, httpResponse.getOutputStream());
+        } catch (IOException e) {
+            // Headers are already sent, so there is no error response to give
+            logger.warn("Batch generation aborted: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    private void readJsonLines(HttpServletRequest httpRequest, List<BatchGenerationService.BatchItem> items,
+                               LatencyTier defaultTier, GenerationMode defaultMode) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(httpRequest.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (items.size() >= batchGenerationService.getMaxItems()) {
+                    throw new IllegalArgumentException(
+                            "Batch is too large (max " + batchGenerationService.getMaxItems() + " prompts)");
+                }
+                try {
+                    if (line.startsWith("{")) {
+                        items.add(toBatchItem(items.size(), generateRequestReader.readValue(line),
+                                defaultTier, defaultMode));
+                    } else {
+                        items.add(new BatchGenerationService.BatchItem(items.size(),
+                                promptReader.readValue(line), defaultTier, defaultMode, null));
+                    }
+                } catch (JsonProcessingException e) {
+                    items.add(new BatchGenerationService.BatchItem(items.size(), null, defaultTier, defaultMode,
+                            "Malformed line: " + e.getOriginalMessage()));
+                }
+            }
+        }
+    }
+
+    private static BatchGenerationService.BatchItem toBatchItem(int index, GenerateRequest request,
+                                                                LatencyTier defaultTier, GenerationMode defaultMode) {
+        try {
+            LatencyTier tier = request.getLatencyTier() != null ? LatencyTier.fromString(request.getLatencyTier()) : defaultTier;
+            GenerationMode mode = request.getMode() != null ? GenerationMode.fromString(request.getMode()) : defaultMode;
+            return new BatchGenerationService.BatchItem(index, request.getPrompt(), tier, mode, null);
+        } catch (IllegalArgumentException e) {
+            return new BatchGenerationService.BatchItem(index, request.getPrompt(), defaultTier, defaultMode, e.getMessage());
+        }
+    }
+
+    @PostMapping("/refine")
+    public ResponseEntity<?> refineWebsite(
+            @Valid @RequestBody RefineRequest request,
+            BindingResult bindingResult,
+            HttpServletRequest httpRequest) {
+
+        try {
+            if (bindingResult.hasErrors()) {
+                String errorMsg = bindingResult.getFieldError() != null ?
+                        bindingResult.getFieldError().getDefaultMessage() : "Validation failed";
+                return ResponseEntity.badRequest()
+                        .body(new ErrorResponse("Validation Error", errorMsg));
+            }
+
+            GenerateResponse site;
+            if (request.getSiteId() != null && !request.getSiteId().isBlank()) {
+                site = siteRepository.load(request.getSiteId(), request.getVersion()).orElse(null);
+                if (site == null) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(new ErrorResponse("Not Found", "Site version not found: " + request.getSiteId()));
+                }
+            } else {
+                site = new GenerateResponse(request.getHtml(), request.getCss(), request.getJs());
+            }
+
+            if (site.getHtml() == null || site.getHtml().trim().isEmpty()) {
+                return ResponseEntity.badRequest()
+                        .body(new ErrorResponse("Validation Error", "HTML content cannot be empty"));
+            }
+
+            if (request.getInstruction().length() > 2000) {
+                return ResponseEntity.badRequest()
+                        .body(new ErrorResponse("Validation Error", "Instruction is too long (max 2000 characters)"));
+            }
+
+            LatencyTier tier;
+            try {
+                tier = LatencyTier.fromString(request.getLatencyTier());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest()
+                        .body(new ErrorResponse("Validation Error", e.getMessage()));
+            }
+
+            logger.info("Refining website: {}", request);
+            GenerateResponse response = generationScheduler.run(clientOf(httpRequest), GenerationPriority.INTERACTIVE, 1,
+                    () -> refinementService.refine(site, request.getInstruction(), request.getTarget(), tier));
+            boolean stored = request.getSiteId() != null && !request.getSiteId().isBlank();
+            saveVersion(stored ? request.getSiteId() : siteRepository.newSiteId(), response);
+            return ResponseEntity.ok(response);
+
+        } catch (TimeoutException e) {
+            logger.warn("Refinement not scheduled: {}", e.getMessage());
+            return serverBusy(e.getMessage());
+
+        } catch (Exception e) {
+            CircuitBreaker.OpenException open = CircuitBreaker.OpenException.findIn(e);
+            if (open != null) {
+                return serviceUnavailable(open);
+            }
+            logger.error("Unexpected error during refinement: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Refinement Error",
+                            "An unexpected error occurred while refining the website. Please try again later."));
+        }
+    }
+
     @PostMapping("/deploy")
     public ResponseEntity<?> deployWebsite(
-            @Valid @RequestBody DeployRequest request,
-            BindingResult bindingResult) {
+            HttpServletRequest httpRequest,
+            @RequestParam(value = "fields", required = false) String fields) {
 
+        DeploymentUpload upload = null;
         try {
             logger.info("Deploy endpoint called");
 
@@ -109,83 +517,219 @@ public class WebsiteGeneratorController {
                                 "Deployment service is not properly configured. Please check server configuration."));
             }
 
-            if (bindingResult.hasErrors()) {
-                String errorMsg = bindingResult.getFieldError() != null ?
-                        bindingResult.getFieldError().getDefaultMessage() : "Validation failed";
-                logger.error("Validation error: {}", errorMsg);
-                return ResponseEntity.badRequest()
-                        .body(new ErrorResponse("Validation Error", errorMsg));
+            Set<String> echoedFields = new HashSet<>();
+            if (fields != null && !fields.isBlank()) {
+                for (String field : fields.split(",")) {
+                    if (!ECHOABLE_FIELDS.contains(field.trim())) {
+                        return ResponseEntity.badRequest()
+                                .body(new ErrorResponse("Validation Error",
+                                        "Unknown field '" + field.trim() + "', expected one of " + ECHOABLE_FIELDS));
+                    }
+                    echoedFields.add(field.trim());
+                }
             }
 
-            if (request.getHtml() == null || request.getHtml().trim().isEmpty()) {
-                logger.error("HTML content is missing");
-                return ResponseEntity.badRequest()
-                        .body(new ErrorResponse("Validation Error", "HTML content cannot be empty"));
+            // Streamed straight to temp files; the content never becomes a String unless echoed
+            upload = deployRequestReader.read(httpRequest.getInputStream(), httpRequest.getContentLengthLong());
+
+            if (upload.getSiteId() != null && !upload.getSiteId().isBlank()) {
+                GenerateResponse site = siteRepository.load(upload.getSiteId(), upload.getVersion()).orElse(null);
+                if (site == null) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(new ErrorResponse("Not Found", "Site version not found: " + upload.getSiteId()));
+                }
+                DeploymentUpload stored = DeploymentUpload.of(site);
+                stored.setProjectName(upload.getProjectName());
+                stored.setSiteId(upload.getSiteId());
+                stored.setVersion(upload.getVersion());
+                upload.close();
+                upload = stored;
             }
 
-            if (request.getHtml().length() > 25 * 1024 * 1024) {
-                logger.error("HTML content too large: {} bytes", request.getHtml().length());
+            if (upload.getHtml().isBlank()) {
+                logger.error("HTML content is missing");
                 return ResponseEntity.badRequest()
-                        .body(new ErrorResponse("Validation Error", "HTML content is too large (max 25MB)"));
+                        .body(new ErrorResponse("Validation Error", "HTML content cannot be empty"));
             }
 
-            if (request.getProjectName() == null || request.getProjectName().trim().isEmpty()) {
+            if (upload.getProjectName() == null || upload.getProjectName().trim().isEmpty()) {
                 logger.error("Project name is missing");
                 return ResponseEntity.badRequest()
                         .body(new ErrorResponse("Validation Error", "Project name cannot be empty"));
             }
 
-            String sanitizedProjectName = sanitizeProjectName(request.getProjectName());
+            String sanitizedProjectName = sanitizeProjectName(upload.getProjectName());
             if (!isValidProjectName(sanitizedProjectName)) {
                 sanitizedProjectName = generateFallbackProjectName();
             }
 
             logger.info("Deploying website with project name: {}", sanitizedProjectName);
             logger.info("Content sizes - HTML: {} bytes, CSS: {} bytes, JS: {} bytes",
-                    request.getHtml().length(),
-                    request.getCss() != null ? request.getCss().length() : 0,
-                    request.getJs() != null ? request.getJs().length() : 0);
-
-            String deploymentUrl = netlifyDeploymentService.deployToNetlify(
-                    request.getHtml(),
-                    request.getCss() != null ? request.getCss() : "",
-                    request.getJs() != null ? request.getJs() : "",
-                    sanitizedProjectName
-            );
+                    upload.getHtml().size(), upload.getCss().size(), upload.getJs().size());
+
+            NetlifyDeploymentService.Deployment deployment =
+                    netlifyDeploymentService.deployToNetlify(upload, sanitizedProjectName);
 
-            if (deploymentUrl == null || deploymentUrl.trim().isEmpty()) {
+            if (deployment == null || deployment.url() == null || deployment.url().trim().isEmpty()) {
                 throw new RuntimeException("Deployment failed - no URL returned from Netlify");
             }
+            String deploymentUrl = deployment.url();
 
+            // The client already has the content, so it is only echoed back on request
             DeployResponse response = new DeployResponse();
-            response.setHtml(request.getHtml());
-            response.setCss(request.getCss());
-            response.setJs(request.getJs());
+            if (echoedFields.contains("html")) {
+                response.setHtml(upload.getHtml().readString());
+            }
+            if (echoedFields.contains("css")) {
+                response.setCss(upload.getCss().readString());
+            }
+            if (echoedFields.contains("js")) {
+                response.setJs(upload.getJs().readString());
+            }
+            response.setDeployId(deployment.deployId());
+            response.setContentHashes(contentHashes(upload));
             response.setDeploymentUrl(deploymentUrl);
             response.setProjectName(sanitizedProjectName);
             response.setDeployed(true);
+            response.setSiteId(upload.getSiteId());
+            response.setVersion(upload.getVersion());
 
             logger.info("Website deployed successfully to: {}", deploymentUrl);
             return ResponseEntity.ok(response);
 
+        } catch (AdmissionBudget.BudgetExceededException e) {
+            logger.warn("Deployment request over the admission budget: {}", e.getMessage());
+            return serverBusy(e.getMessage() + ". Please retry shortly.");
+
+        } catch (DeployRequestReader.PayloadTooLargeException e) {
+            logger.error("Deployment request rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(new ErrorResponse("Validation Error", e.getMessage()));
+
         } catch (IllegalArgumentException e) {
             logger.error("Invalid deployment request: {}", e.getMessage());
             return ResponseEntity.badRequest()
                     .body(new ErrorResponse("Invalid Request", e.getMessage()));
 
+        } catch (CircuitBreaker.OpenException e) {
+            return serviceUnavailable(e);
+
         } catch (Exception e) {
             logger.error("Deployment error: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponse("Deployment Error",
                             "Failed to deploy website: " + e.getMessage()));
+        } finally {
+            if (upload != null) {
+                upload.close();
+            }
+        }
+    }
+
+    /**
+     * Deploys many sites in one request, streaming NDJSON progress events per site.
+     * Uploads are paced to Netlify's rate limit, so large batches run at the allowed
+     * rate instead of failing. The body is streamed like /deploy: each site's content
+     * is spooled to temp files as it is read, never held as Strings.
+     */
+    @PostMapping("/deploy/bulk")
+    public ResponseEntity<?> deployBulk(
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse) {
+
+        if (netlifyToken == null || netlifyToken.trim().isEmpty()) {
+            logger.error("Netlify token not configured");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorResponse("Configuration Error",
+                            "Deployment service is not properly configured. Please check server configuration."));
+        }
+
+        DeployRequestReader.BulkRequest request;
+        try {
+            request = deployRequestReader.readBulk(httpRequest.getInputStream(), httpRequest.getContentLengthLong(),
+                    bulkDeploymentService.getMaxSites());
+        } catch (DeployRequestReader.PayloadTooLargeException e) {
+            logger.error("Bulk deploy request rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(new ErrorResponse("Validation Error", e.getMessage()));
+        } catch (IllegalArgumentException | IOException e) {
+            logger.error("Invalid bulk deploy request: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Invalid Request", e.getMessage()));
+        }
+        List<DeploymentUpload> sites = request.sites();
+        if (sites.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Validation Error", "Bulk deploy must contain at least one site"));
+        }
+
+        ClientRateLimiter.Decision decision = chargeItems(clientOf(httpRequest), ClientRateLimiter.Operation.DEPLOY,
+                sites.size(), httpResponse);
+        if (decision != null && !decision.allowed()) {
+            request.close();
+            return rateLimited(decision);
         }
+        int granted = decision != null ? decision.units() : sites.size();
+
+        List<BulkDeploymentService.BulkItem> items = new ArrayList<>();
+        for (DeploymentUpload site : sites) {
+            if (items.size() < granted) {
+                items.add(toBulkItem(items.size(), site));
+            } else {
+                site.close();
+                items.add(new BulkDeploymentService.BulkItem(items.size(), sanitizeProjectName(site.getProjectName()), null,
+                        overLimit(decision)));
+            }
+        }
+
+        logger.info("Bulk deploying {} sites", items.size());
+        httpResponse.setStatus(HttpStatus.OK.value());
+        httpResponse.setContentType("application/x-ndjson");
+        httpResponse.setCharacterEncoding("UTF-8");
+        try {
+            bulkDeploymentService.run(items, !Boolean.FALSE.equals(request.waitForLive()), httpResponse.getOutputStream());
+        } catch (IOException e) {
+            // Headers are already sent, so there is no error response to give
+            logger.warn("Bulk deploy aborted: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    // Takes ownership of the spooled upload
+    private BulkDeploymentService.BulkItem toBulkItem(int index, DeploymentUpload site) {
+        String projectName = sanitizeProjectName(site.getProjectName());
+        if (!isValidProjectName(projectName)) {
+            projectName = generateFallbackProjectName();
+        }
+
+        DeploymentUpload upload = site;
+        if (site.getSiteId() != null && !site.getSiteId().isBlank()) {
+            site.close();
+            GenerateResponse stored = siteRepository.load(site.getSiteId(), site.getVersion()).orElse(null);
+            if (stored == null) {
+                return new BulkDeploymentService.BulkItem(index, projectName, null,
+                        "Site version not found: " + site.getSiteId());
+            }
+            upload = DeploymentUpload.of(stored);
+        }
+        if (upload.getHtml().isBlank()) {
+            upload.close();
+            return new BulkDeploymentService.BulkItem(index, projectName, null, "HTML content cannot be empty");
+        }
+        return new BulkDeploymentService.BulkItem(index, projectName, upload, null);
     }
 
     @GetMapping("/diagnostics")
-    public ResponseEntity<?> runDiagnostics() {
+    public ResponseEntity<?> runDiagnostics(@RequestParam(defaultValue = "fast") String mode,
+                                            @RequestParam(defaultValue = "false") boolean refresh) {
+        if (!"fast".equalsIgnoreCase(mode) && !"deploy".equalsIgnoreCase(mode)) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Validation Error", "Unknown diagnostics mode: " + mode + " (use fast or deploy)"));
+        }
         try {
-            logger.info("Running Netlify diagnostics...");
-            Map<String, Object> diagnostics = netlifyDeploymentService.runDiagnostics();
+            logger.info("Running Netlify diagnostics ({} mode)...", mode);
+            Map<String, Object> diagnostics = netlifyDeploymentService.runDiagnostics(
+                    "deploy".equalsIgnoreCase(mode), refresh);
 
             return ResponseEntity.ok(diagnostics);
         } catch (Exception e) {
@@ -196,14 +740,73 @@ public class WebsiteGeneratorController {
         }
     }
 
+    @GetMapping("/parse-stats")
+    public ResponseEntity<?> getParseStatistics() {
+        try {
+            return ResponseEntity.ok(websiteGeneratorService.getParseStatistics());
+        } catch (Exception e) {
+            logger.error("Parse statistics error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Statistics Error", "Failed to read parse statistics"));
+        }
+    }
+
+    @GetMapping("/admission-stats")
+    public ResponseEntity<?> getAdmissionStatistics() {
+        try {
+            return ResponseEntity.ok(admissionBudget.snapshot());
+        } catch (Exception e) {
+            logger.error("Admission statistics error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Statistics Error", "Failed to read admission statistics"));
+        }
+    }
+
+    @GetMapping("/rate-limit-stats")
+    public ResponseEntity<?> getRateLimitStatistics() {
+        try {
+            return ResponseEntity.ok(clientRateLimiter.snapshot());
+        } catch (Exception e) {
+            logger.error("Rate limit statistics error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Statistics Error", "Failed to read rate limit statistics"));
+        }
+    }
+
+    @GetMapping("/generation-stats")
+    public ResponseEntity<?> getGenerationStatistics() {
+        try {
+            return ResponseEntity.ok(Map.of(
+                    "usage", googleGenAIService.getUsageStatistics(),
+                    "providers", modelRouter.snapshot(),
+                    "scheduler", generationScheduler.snapshot()
+            ));
+        } catch (Exception e) {
+            logger.error("Generation statistics error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Statistics Error", "Failed to read generation statistics"));
+        }
+    }
+
     @GetMapping("/deployment-status")
     public ResponseEntity<?> getDeploymentStatus() {
         try {
             boolean isConfigured = netlifyToken != null && !netlifyToken.trim().isEmpty();
+            Map<String, Object> breaker = circuitBreakers.netlify().snapshot();
+            String message;
+            if (!isConfigured) {
+                message = "Deployment service not configured";
+            } else if (CircuitBreaker.State.OPEN.name().equals(breaker.get("state"))) {
+                message = "Netlify is failing, deployments are paused";
+            } else {
+                message = "Deployment service is ready";
+            }
             Map<String, Object> status = Map.of(
                     "configured", isConfigured,
                     "service", "Netlify",
-                    "message", isConfigured ? "Deployment service is ready" : "Deployment service not configured"
+                    "message", message,
+                    "circuitBreaker", breaker,
+                    "rateLimit", netlifyRateLimiter.snapshot()
             );
 
             return ResponseEntity.ok(status);
@@ -227,15 +830,35 @@ public class WebsiteGeneratorController {
     @GetMapping("/health")
     public ResponseEntity<?> health() {
         try {
+            // Load balancers and platform health checks hold traffic until the instance is warm
+            if (applicationAvailability.getReadinessState() != ReadinessState.ACCEPTING_TRAFFIC) {
+                WarmUpService.State warmUp = warmUpService.getState();
+                boolean warming = warmUp == WarmUpService.State.PENDING || warmUp == WarmUpService.State.RUNNING;
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(Map.of("status", warming ? "WARMING_UP" : "NOT_READY",
+                                "timestamp", System.currentTimeMillis(),
+                                "warmUp", warmUpService.snapshot()));
+            }
+
             boolean netlifyConfigured = netlifyToken != null && !netlifyToken.trim().isEmpty();
 
+            Map<String, Object> generator = generatorHealth(circuitBreakers.gemini());
+            Map<String, Object> netlify = netlifyConfigured
+                    ? serviceHealth(circuitBreakers.netlify())
+                    : Map.of("status", "NOT_CONFIGURED");
+
+            // Outbound outages degrade the instance; it still serves everything else
+            boolean degraded = !"UP".equals(generator.get("status"))
+                    || (netlifyConfigured && !"UP".equals(netlify.get("status")));
+
             Map<String, Object> healthStatus = Map.of(
-                    "status", "UP",
+                    "status", degraded ? "DEGRADED" : "UP",
                     "timestamp", System.currentTimeMillis(),
                     "services", Map.of(
-                            "websiteGenerator", "UP",
-                            "netlifyDeployment", netlifyConfigured ? "UP" : "NOT_CONFIGURED"
-                    )
+                            "websiteGenerator", generator,
+                            "netlifyDeployment", netlify
+                    ),
+                    "warmUp", warmUpService.snapshot()
             );
 
             return ResponseEntity.ok(healthStatus);
@@ -246,7 +869,118 @@ public class WebsiteGeneratorController {
         }
     }
 
-    private String sanitizeProjectName(String projectName) {
+    private static Map<String, String> contentHashes(DeploymentUpload upload) {
+        Map<String, String> hashes = new LinkedHashMap<>();
+        hashes.put("html", upload.getHtml().sha256());
+        if (upload.getCss().size() > 0) {
+            hashes.put("css", upload.getCss().sha256());
+        }
+        if (upload.getJs().size() > 0) {
+            hashes.put("js", upload.getJs().sha256());
+        }
+        return hashes;
+    }
+
+    // Down only when every model is; with some down, the router falls back to the others
+    private static Map<String, Object> generatorHealth(Map<String, CircuitBreaker> breakers) {
+        Map<String, Object> models = new LinkedHashMap<>();
+        breakers.forEach((model, breaker) -> models.put(model, serviceHealth(breaker)));
+        long up = models.values().stream().filter(health -> "UP".equals(((Map<?, ?>) health).get("status"))).count();
+        long down = models.values().stream().filter(health -> "DOWN".equals(((Map<?, ?>) health).get("status"))).count();
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", up == models.size() ? "UP" : down == models.size() ? "DOWN" : "DEGRADED");
+        health.put("models", models);
+        return health;
+    }
+
+    private static Map<String, Object> serviceHealth(CircuitBreaker breaker) {
+        Map<String, Object> snapshot = breaker.snapshot();
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", switch (CircuitBreaker.State.valueOf((String) snapshot.get("state"))) {
+            case CLOSED -> "UP";
+            case HALF_OPEN -> "RECOVERING";
+            case OPEN -> "DOWN";
+        });
+        health.putAll(snapshot);
+        return health;
+    }
+
+    private ResponseEntity<ErrorResponse> serviceUnavailable(CircuitBreaker.OpenException e) {
+        logger.warn("Failing fast: {}", e.getMessage());
+        long retryAfter = Math.max(1, (e.getRetryAfterMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(new ErrorResponse("Service Unavailable", e.getMessage()));
+    }
+
+    // One operation per item; null when rate limiting is off or there is nothing to charge
+    private ClientRateLimiter.Decision chargeItems(String client, ClientRateLimiter.Operation operation, int items,
+                                                   HttpServletResponse httpResponse) {
+        if (!clientRateLimiter.isEnabled() || items == 0) {
+            return null;
+        }
+        ClientRateLimiter.Decision decision = clientRateLimiter.tryAcquireUpTo(client, operation, items);
+        RateLimitFilter.writeHeaders(httpResponse, decision, clientRateLimiter.windowSeconds());
+        return decision;
+    }
+
+    private static ResponseEntity<ErrorResponse> rateLimited(ClientRateLimiter.Decision decision) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()))
+                .body(new ErrorResponse("Rate Limit Exceeded",
+                        "Too many requests. Please retry in " + decision.retryAfterSeconds() + " seconds."));
+    }
+
+    private static String overLimit(ClientRateLimiter.Decision decision) {
+        return "Rate limit exceeded, this item was not run. Please retry in " + decision.resetSeconds() + " seconds.";
+    }
+
+    private ResponseEntity<ErrorResponse> serverBusy(String message) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(new ErrorResponse("Server Busy", message));
+    }
+
+    private static String validatePrompt(GenerateRequest request, BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            return bindingResult.getFieldError() != null ?
+                    bindingResult.getFieldError().getDefaultMessage() : "Validation failed";
+        }
+        return validatePrompt(request);
+    }
+
+    static String validatePrompt(GenerateRequest request) {
+        if (request.getPrompt() == null || request.getPrompt().trim().isEmpty()) {
+            return "Prompt cannot be empty";
+        }
+        if (request.getPrompt().length() > 5000) {
+            return "Prompt is too long (max 5000 characters)";
+        }
+        return null;
+    }
+
+    private void writeLine(OutputStream out, Map<String, Object> line) throws IOException {
+        objectMapper.writeValue(out, line);
+        out.write('\n');
+        out.flush();
+    }
+
+    private static String clientOf(HttpServletRequest request) {
+        Object client = request.getAttribute(RateLimitFilter.CLIENT_ATTRIBUTE);
+        return client != null ? client.toString() : "ip:" + request.getRemoteAddr();
+    }
+
+    private void saveVersion(String siteId, GenerateResponse response) {
+        try {
+            response.setVersion(siteRepository.save(siteId, response));
+            response.setSiteId(siteId);
+        } catch (Exception e) {
+            // The generated site is still returned, it just cannot be referred to by id
+            logger.warn("Failed to store site {}: {}", siteId, e.getMessage());
+        }
+    }
+
+    static String sanitizeProjectName(String projectName) {
         if (projectName == null || projectName.trim().isEmpty()) {
             return generateFallbackProjectName();
         }
@@ -269,7 +1003,7 @@ public class WebsiteGeneratorController {
         return sanitized;
     }
 
-    private boolean isValidProjectName(String projectName) {
+    static boolean isValidProjectName(String projectName) {
         if (projectName == null || projectName.trim().isEmpty()) {
             return false;
         }
@@ -279,7 +1013,7 @@ public class WebsiteGeneratorController {
                 VALID_PROJECT_NAME.matcher(projectName).matches();
     }
 
-    private String generateFallbackProjectName() {
+    static String generateFallbackProjectName() {
         return "webcraft-site-" + System.currentTimeMillis();
     }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.Jadhav.WebCraft.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Global budget for request bodies being processed at once. Each request reserves
+ * its size before it is handled and gives it back when it completes, so a burst of
+ * large sites queues (briefly) instead of exhausting the heap.
+ */
+@Component
+public class AdmissionBudget {
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionBudget.class);
+
+    @Value("${webcraft.admission.budget-bytes:268435456}")
+    private long budgetBytes;
+
+    @Value("${webcraft.admission.queue-timeout-ms:2000}")
+    private long queueTimeoutMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private long reserved;
+    private long peakReserved;
+    private int waiting;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    public static class BudgetExceededException extends IOException {
+        private final boolean permanent;
+
+        public BudgetExceededException(String message, boolean permanent) {
+            super(message);
+            this.permanent = permanent;
+        }
+
+        // True when the request can never fit, regardless of load
+        public boolean isPermanent() {
+            return permanent;
+        }
+    }
+
+    /**
+     * Reserves {@code bytes}, waiting up to the queue timeout for other requests to
+     * release theirs.
+     */
+    public void reserve(long bytes) throws BudgetExceededException, InterruptedException {
+        if (bytes > budgetBytes) {
+            rejected.increment();
+            throw new BudgetExceededException("Request body of " + bytes + " bytes exceeds the server budget", true);
+        }
+
+        long start = System.nanoTime();
+        long remaining = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+        lock.lock();
+        try {
+            if (reserved + bytes > budgetBytes) {
+                queued.increment();
+                waiting++;
+                try {
+                    while (reserved + bytes > budgetBytes) {
+                        if (remaining <= 0) {
+                            rejected.increment();
+                            logger.warn("Admission rejected {} bytes: {} of {} bytes in flight", bytes, reserved, budgetBytes);
+                            throw new BudgetExceededException("Server is busy processing other large requests", false);
+                        }
+                        remaining = released.awaitNanos(remaining);
+                    }
+                } finally {
+                    waiting--;
+                }
+            }
+            reserved += bytes;
+            peakReserved = Math.max(peakReserved, reserved);
+        } finally {
+            lock.unlock();
+        }
+        admitted.increment();
+        totalWaitNanos.add(System.nanoTime() - start);
+    }
+
+    /**
+     * Reserves more for a request that is already admitted (bodies of unknown length
+     * grow as they are read). Does not wait, since the caller already holds budget.
+     */
+    public void grow(long bytes) throws BudgetExceededException {
+        lock.lock();
+        try {
+            if (reserved + bytes > budgetBytes) {
+                rejected.increment();
+                throw new BudgetExceededException("Server is busy processing other large requests", false);
+            }
+            reserved += bytes;
+            peakReserved = Math.max(peakReserved, reserved);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long bytes) {
+        lock.lock();
+        try {
+            reserved -= bytes;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            result.put("budgetBytes", budgetBytes);
+            result.put("reservedBytes", reserved);
+            result.put("peakReservedBytes", peakReserved);
+            result.put("utilization", budgetBytes == 0 ? 0.0 : (double) reserved / budgetBytes);
+            result.put("waiting", waiting);
+        } finally {
+            lock.unlock();
+        }
+        long n = admitted.sum();
+        result.put("admitted", n);
+        result.put("queued", queued.sum());
+        result.put("rejected", rejected.sum());
+        result.put("avgWaitMicros", n == 0 ? 0 : totalWaitNanos.sum() / n / 1000);
+        return result;
+    }
+}
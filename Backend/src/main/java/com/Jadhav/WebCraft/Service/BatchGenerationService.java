@@ -0,0 +1,224 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Generates many sites in one request. Items run through the normal generation
+ * pipeline (and the scheduler) with bounded parallelism, identical items in a batch
+ * are generated once, and each result is written as an NDJSON line as soon as it is
+ * ready. A failed item becomes an error line; the rest of the batch carries on.
+ */
+@Service
+public class BatchGenerationService {
+    private static final Logger logger = LoggerFactory.getLogger(BatchGenerationService.class);
+    private static final byte[] NEWLINE = {'\n'};
+
+    @Autowired
+    private WebsiteGeneratorService websiteGeneratorService;
+
+    @Autowired
+    private GenerationScheduler generationScheduler;
+
+    @Autowired
+    private SiteRepository siteRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${webcraft.batch.max-items:500}")
+    private int maxItems;
+
+    @Value("${webcraft.batch.max-parallelism:4}")
+    private int maxParallelism;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** One prompt of a batch; {@code error} is set when the item was rejected while reading it. */
+    public record BatchItem(int index, String prompt, LatencyTier tier, GenerationMode mode, String error) {
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    /**
+     * Runs the batch and writes one line per item to {@code out} in completion order,
+     * followed by a summary line. Returns the summary.
+     */
+    public Map<String, Object> run(List<BatchItem> items, String client, GenerationPriority priority,
+                                   int parallelism, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        Semaphore slots = new Semaphore(Math.max(1, Math.min(parallelism, maxParallelism)));
+        LinkedBlockingQueue<Map<String, Object>> lines = new LinkedBlockingQueue<>();
+        Map<String, CompletableFuture<GenerateResponse>> distinct = new HashMap<>();
+        List<CompletableFuture<GenerateResponse>> started = new ArrayList<>();
+        AtomicBoolean aborted = new AtomicBoolean();
+        int deduplicated = 0;
+
+        for (BatchItem item : items) {
+            String invalid = validate(item);
+            if (invalid != null) {
+                lines.add(errorLine(item, invalid));
+                continue;
+            }
+
+            String key = item.tier() + "|" + item.mode() + "|" + item.prompt().trim();
+            CompletableFuture<GenerateResponse> result = distinct.get(key);
+            boolean duplicate = result != null;
+            if (duplicate) {
+                deduplicated++;
+            } else {
+                result = generate(item, client, priority, slots, aborted);
+                distinct.put(key, result);
+                started.add(result);
+            }
+            result.whenComplete((site, error) -> lines.add(error == null
+                    ? resultLine(item, site, duplicate)
+                    : errorLine(item, messageOf(error))));
+        }
+
+        int succeeded = 0;
+        int failed = 0;
+        try {
+            for (int written = 0; written < items.size(); written++) {
+                Map<String, Object> line = lines.take();
+                if ("ok".equals(line.get("status"))) {
+                    succeeded++;
+                } else {
+                    failed++;
+                }
+                writeLine(out, line);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aborted.set(true);
+            started.forEach(f -> f.cancel(true));
+            throw new IOException("Batch interrupted", e);
+        } catch (IOException e) {
+            // The client went away; stop work that has not started yet
+            logger.warn("Batch output failed after {} lines, cancelling: {}", succeeded + failed, e.getMessage());
+            aborted.set(true);
+            started.forEach(f -> f.cancel(true));
+            throw e;
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("total", items.size());
+        summary.put("succeeded", succeeded);
+        summary.put("failed", failed);
+        summary.put("deduplicated", deduplicated);
+        summary.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        writeLine(out, Map.of("summary", summary));
+        logger.info("Batch of {} finished: {}", items.size(), summary);
+        return summary;
+    }
+
+    private CompletableFuture<GenerateResponse> generate(BatchItem item, String client, GenerationPriority priority,
+                                                         Semaphore slots, AtomicBoolean aborted) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                slots.acquire();
+                try {
+                    if (aborted.get()) {
+                        throw new CancellationException("Batch was abandoned");
+                    }
+                    GenerateResponse site = generationScheduler.run(client, priority,
+                            item.mode() == GenerationMode.FANOUT ? 4 : 1,
+                            () -> websiteGeneratorService.generateWebsite(item.prompt(), item.tier(), item.mode()));
+                    save(site);
+                    return site;
+                } finally {
+                    slots.release();
+                }
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private void save(GenerateResponse site) {
+        String siteId = siteRepository.newSiteId();
+        try {
+            site.setVersion(siteRepository.save(siteId, site));
+            site.setSiteId(siteId);
+        } catch (Exception e) {
+            logger.warn("Failed to store batch site {}: {}", siteId, e.getMessage());
+        }
+    }
+
+    // Why the item will not be generated, or null when it will
+    public static String validate(BatchItem item) {
+        if (item.error() != null) {
+            return item.error();
+        }
+        if (item.prompt() == null || item.prompt().trim().isEmpty()) {
+            return "Prompt cannot be empty";
+        }
+        if (item.prompt().length() > 5000) {
+            return "Prompt is too long (max 5000 characters)";
+        }
+        return null;
+    }
+
+    private static Map<String, Object> resultLine(BatchItem item, GenerateResponse site, boolean duplicate) {
+        Map<String, Object> line = header(item, "ok");
+        if (duplicate) {
+            line.put("deduplicated", true);
+        }
+        line.put("result", site);
+        return line;
+    }
+
+    private static Map<String, Object> errorLine(BatchItem item, String message) {
+        Map<String, Object> line = header(item, "error");
+        line.put("error", message);
+        return line;
+    }
+
+    private static Map<String, Object> header(BatchItem item, String status) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("index", item.index());
+        line.put("status", status);
+        return line;
+    }
+
+    private static String messageOf(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private void writeLine(OutputStream out, Map<String, Object> line) throws IOException {
+        objectMapper.writeValue(out, line);
+        out.write(NEWLINE);
+        out.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,223 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deploys many sites as a pipeline: ZIPs are built ahead on a few packaging slots
+ * while earlier sites upload, uploads are paced by the {@link NetlifyRateLimiter},
+ * and waiting for each site to go live happens off the upload path. Progress for
+ * every site is written as NDJSON events as it happens.
+ */
+@Service
+public class BulkDeploymentService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkDeploymentService.class);
+    private static final byte[] NEWLINE = {'\n'};
+
+    @Autowired
+    private NetlifyDeploymentService netlifyDeploymentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${webcraft.bulk-deploy.max-sites:100}")
+    private int maxSites;
+
+    @Value("${webcraft.bulk-deploy.packaging-threads:2}")
+    private int packagingThreads;
+
+    @Value("${webcraft.bulk-deploy.max-concurrent-uploads:2}")
+    private int maxConcurrentUploads;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** One site of a bulk deploy; {@code error} is set when it was rejected while reading it. */
+    public record BulkItem(int index, String projectName, DeploymentUpload upload, String error) {
+    }
+
+    public int getMaxSites() {
+        return maxSites;
+    }
+
+    /**
+     * Deploys every item, writing "packaged", "uploaded" and a final "deployed" or
+     * "failed" event per site, then a summary line. Closes the items' uploads.
+     */
+    public Map<String, Object> run(List<BulkItem> items, boolean waitForLive, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        LinkedBlockingQueue<Map<String, Object>> events = new LinkedBlockingQueue<>();
+        AtomicBoolean aborted = new AtomicBoolean();
+
+        // Bounds how many ZIPs sit on disk waiting for an upload slot
+        Semaphore pipeline = new Semaphore(packagingThreads + maxConcurrentUploads, true);
+        Semaphore packaging = new Semaphore(Math.max(1, packagingThreads), true);
+        Semaphore uploads = new Semaphore(Math.max(1, maxConcurrentUploads), true);
+
+        for (BulkItem item : items) {
+            if (item.error() != null) {
+                closeQuietly(item);
+                events.add(event(item, "failed", Map.of("error", item.error())));
+                continue;
+            }
+            executor.execute(() -> deploy(item, waitForLive, pipeline, packaging, uploads, aborted, events));
+        }
+
+        int deployed = 0;
+        int failed = 0;
+        int live = 0;
+        try {
+            while (deployed + failed < items.size()) {
+                Map<String, Object> event = events.take();
+                Object status = event.get("status");
+                if ("deployed".equals(status)) {
+                    deployed++;
+                    if (Boolean.TRUE.equals(event.get("live"))) {
+                        live++;
+                    }
+                } else if ("failed".equals(status)) {
+                    failed++;
+                }
+                writeLine(out, event);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aborted.set(true);
+            throw new IOException("Bulk deploy interrupted", e);
+        } catch (IOException e) {
+            // The client went away; sites already uploading finish, the rest are skipped
+            logger.warn("Bulk deploy output failed after {} sites, stopping: {}", deployed + failed, e.getMessage());
+            aborted.set(true);
+            throw e;
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("total", items.size());
+        summary.put("deployed", deployed);
+        summary.put("failed", failed);
+        if (waitForLive) {
+            summary.put("live", live);
+        }
+        summary.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        writeLine(out, Map.of("summary", summary));
+        logger.info("Bulk deploy of {} sites finished: {}", items.size(), summary);
+        return summary;
+    }
+
+    private void deploy(BulkItem item, boolean waitForLive, Semaphore pipeline, Semaphore packaging,
+                        Semaphore uploads, AtomicBoolean aborted, LinkedBlockingQueue<Map<String, Object>> events) {
+        long start = System.nanoTime();
+        Path zip = null;
+        boolean inPipeline = false;
+        try {
+            pipeline.acquire();
+            inPipeline = true;
+            checkAborted(aborted);
+
+            packaging.acquire();
+            try {
+                zip = netlifyDeploymentService.createDeploymentZip(item.upload());
+            } finally {
+                packaging.release();
+            }
+            events.add(event(item, "packaged", Map.of("zipBytes", Files.size(zip))));
+
+            NetlifyDeploymentService.Deployment deployment;
+            uploads.acquire();
+            try {
+                checkAborted(aborted);
+                deployment = netlifyDeploymentService.uploadZip(zip, item.projectName());
+            } finally {
+                uploads.release();
+            }
+            Files.deleteIfExists(zip);
+            zip = null;
+            pipeline.release();
+            inPipeline = false;
+
+            if (deployment == null || deployment.url() == null) {
+                throw new IllegalStateException("Deployment failed - no URL returned from Netlify");
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("deploymentUrl", deployment.url());
+            result.put("deployId", deployment.deployId());
+            events.add(event(item, "uploaded", result));
+
+            result = new LinkedHashMap<>(result);
+            if (waitForLive) {
+                result.put("live", netlifyDeploymentService.waitForDeployment(deployment.url()));
+            }
+            result.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            events.add(event(item, "deployed", result));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            events.add(event(item, "failed", Map.of("error", "Interrupted")));
+        } catch (Exception e) {
+            logger.warn("Bulk deploy of {} failed: {}", item.projectName(), e.getMessage());
+            events.add(event(item, "failed", Map.of("error", e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName())));
+        } finally {
+            if (inPipeline) {
+                pipeline.release();
+            }
+            if (zip != null) {
+                try {
+                    Files.deleteIfExists(zip);
+                } catch (IOException e) {
+                    logger.warn("Failed to delete deployment ZIP {}: {}", zip, e.getMessage());
+                }
+            }
+            closeQuietly(item);
+        }
+    }
+
+    private static void checkAborted(AtomicBoolean aborted) {
+        if (aborted.get()) {
+            throw new CancellationException("Bulk deploy was abandoned");
+        }
+    }
+
+    private static Map<String, Object> event(BulkItem item, String status, Map<String, Object> details) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("index", item.index());
+        event.put("projectName", item.projectName());
+        event.put("status", status);
+        event.putAll(details);
+        return event;
+    }
+
+    private static void closeQuietly(BulkItem item) {
+        if (item.upload() != null) {
+            item.upload().close();
+        }
+    }
+
+    private void writeLine(OutputStream out, Map<String, Object> line) throws IOException {
+        objectMapper.writeValue(out, line);
+        out.write(NEWLINE);
+        out.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
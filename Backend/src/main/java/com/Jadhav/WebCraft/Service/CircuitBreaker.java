@@ -0,0 +1,262 @@
+package com.Jadhav.WebCraft.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Count-based circuit breaker around one outbound service. The last {@code windowSize}
+ * calls are kept; once at least {@code minCalls} are in the window and either the
+ * failure rate or the share of slow calls crosses its threshold, the circuit opens and
+ * calls fail immediately with {@link OpenException}. After {@code openMillis} a few
+ * probe calls are let through: if they all succeed the circuit closes, otherwise it
+ * opens again.
+ */
+public class CircuitBreaker {
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Thrown instead of calling the service while the circuit is open. */
+    public static class OpenException extends RuntimeException {
+        private final String breaker;
+        private final long retryAfterMillis;
+
+        public OpenException(String breaker, long retryAfterMillis) {
+            super(breaker + " is unavailable (circuit open), retry in " + Math.max(1, retryAfterMillis / 1000) + "s");
+            this.breaker = breaker;
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        public String getBreaker() {
+            return breaker;
+        }
+
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+
+        /** Returns the OpenException somewhere in the cause chain, or null. */
+        public static OpenException findIn(Throwable e) {
+            for (Throwable t = e; t != null; t = t.getCause()) {
+                if (t instanceof OpenException open) {
+                    return open;
+                }
+            }
+            return null;
+        }
+    }
+
+    enum Permit { NORMAL, PROBE }
+
+    private final String name;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    // Ring buffer of the most recent outcomes
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private final long[] latencyNanos;
+    private int next;
+    private int count;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesInFlight;
+    private int probeSuccesses;
+
+    private long calls;
+    private long rejected;
+    private long opened;
+
+    public CircuitBreaker(String name, int windowSize, int minCalls, double failureRateThreshold,
+                          long slowCallMillis, double slowCallRateThreshold, long openMillis, int halfOpenProbes) {
+        this.name = name;
+        this.minCalls = Math.max(1, Math.min(minCalls, windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.failed = new boolean[Math.max(1, windowSize)];
+        this.slow = new boolean[failed.length];
+        this.latencyNanos = new long[failed.length];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Runs the call through the breaker; every exception counts as a failure. */
+    public <T> T call(Callable<T> call) throws Exception {
+        return call(call, e -> true);
+    }
+
+    /**
+     * Runs the call through the breaker. Exceptions for which {@code isFailure} is false
+     * (a 4xx from a healthy service, say) are rethrown but recorded as successes.
+     */
+    public <T> T call(Callable<T> call, Predicate<Exception> isFailure) throws Exception {
+        Permit permit = acquire(System.nanoTime());
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            onResult(permit, System.nanoTime() - start, false, System.nanoTime());
+            return result;
+        } catch (Exception e) {
+            onResult(permit, System.nanoTime() - start, isFailure.test(e), System.nanoTime());
+            throw e;
+        } catch (Error e) {
+            // Recorded too, or a probe would keep its slot and the circuit stay half-open
+            onResult(permit, System.nanoTime() - start, true, System.nanoTime());
+            throw e;
+        }
+    }
+
+    synchronized Permit acquire(long now) {
+        if (state == State.OPEN) {
+            long remaining = openedAt + openNanos - now;
+            if (remaining > 0) {
+                rejected++;
+                throw new OpenException(name, TimeUnit.NANOSECONDS.toMillis(remaining));
+            }
+            transition(State.HALF_OPEN, now);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= halfOpenProbes) {
+                rejected++;
+                throw new OpenException(name, 0);
+            }
+            probesInFlight++;
+            calls++;
+            return Permit.PROBE;
+        }
+        calls++;
+        return Permit.NORMAL;
+    }
+
+    synchronized void onResult(Permit permit, long nanos, boolean failure, long now) {
+        boolean tooSlow = nanos >= slowCallNanos;
+        record(failure, tooSlow, nanos);
+
+        if (permit == Permit.PROBE) {
+            probesInFlight--;
+            if (state != State.HALF_OPEN) {
+                return;
+            }
+            if (failure || tooSlow) {
+                transition(State.OPEN, now);
+            } else if (++probeSuccesses >= halfOpenProbes) {
+                transition(State.CLOSED, now);
+            }
+        } else if (state == State.CLOSED && count >= minCalls
+                && (failureRate() >= failureRateThreshold || slowCallRate() >= slowCallRateThreshold)) {
+            transition(State.OPEN, now);
+        }
+    }
+
+    private void record(boolean failure, boolean tooSlow, long nanos) {
+        if (count == failed.length) {
+            if (failed[next]) {
+                failures--;
+            }
+            if (slow[next]) {
+                slowCalls--;
+            }
+        } else {
+            count++;
+        }
+        failed[next] = failure;
+        slow[next] = tooSlow;
+        latencyNanos[next] = nanos;
+        if (failure) {
+            failures++;
+        }
+        if (tooSlow) {
+            slowCalls++;
+        }
+        next = (next + 1) % failed.length;
+    }
+
+    private void transition(State to, long now) {
+        if (state == to) {
+            return;
+        }
+        logger.warn("Circuit breaker {} {} -> {} (failure rate {}, slow call rate {})",
+                name, state, to, String.format("%.2f", failureRate()), String.format("%.2f", slowCallRate()));
+        state = to;
+        // Probes still in flight keep their slot until they finish
+        probeSuccesses = 0;
+        if (to == State.OPEN) {
+            openedAt = now;
+            opened++;
+        } else if (to == State.CLOSED) {
+            // Start over so the outage does not reopen the circuit straight away
+            Arrays.fill(failed, false);
+            Arrays.fill(slow, false);
+            count = 0;
+            next = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+    }
+
+    private double failureRate() {
+        return count == 0 ? 0 : (double) failures / count;
+    }
+
+    private double slowCallRate() {
+        return count == 0 ? 0 : (double) slowCalls / count;
+    }
+
+    public synchronized State getState() {
+        // An open circuit whose wait is over is reported as ready to probe
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        long[] recent;
+        synchronized (this) {
+            result.put("state", getState().name());
+            result.put("windowCalls", count);
+            result.put("failureRate", Math.round(failureRate() * 1000) / 1000.0);
+            result.put("slowCallRate", Math.round(slowCallRate() * 1000) / 1000.0);
+            if (state == State.OPEN) {
+                result.put("retryInMs", Math.max(0,
+                        TimeUnit.NANOSECONDS.toMillis(openedAt + openNanos - System.nanoTime())));
+            }
+            result.put("calls", calls);
+            result.put("rejected", rejected);
+            result.put("timesOpened", opened);
+            recent = Arrays.copyOf(latencyNanos, count);
+        }
+        Arrays.sort(recent);
+        result.put("p50LatencyMs", percentileMillis(recent, 0.50));
+        result.put("p95LatencyMs", percentileMillis(recent, 0.95));
+        return result;
+    }
+
+    private static Long percentileMillis(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return null;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]);
+    }
+}
@@ -0,0 +1,80 @@
+package com.Jadhav.WebCraft.Service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The circuit breakers guarding outbound calls to Gemini and Netlify. They share
+ * the window and threshold settings; what counts as a slow call differs per service.
+ * Gemini quotas and latencies are per model, so each model gets its own breaker and
+ * a throttled or slow model does not shut out the others.
+ */
+@Component
+public class CircuitBreakers {
+
+    @Value("${webcraft.breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${webcraft.breaker.min-calls:5}")
+    private int minCalls;
+
+    @Value("${webcraft.breaker.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+
+    @Value("${webcraft.breaker.slow-call-rate-threshold:0.8}")
+    private double slowCallRateThreshold;
+
+    @Value("${webcraft.breaker.open-seconds:30}")
+    private long openSeconds;
+
+    @Value("${webcraft.breaker.half-open-probes:2}")
+    private int halfOpenProbes;
+
+    // The slowest tier's budget, so calls within any tier's budget are never slow
+    @Value("${webcraft.breaker.gemini.slow-call-ms:${webcraft.routing.p95-budget-ms.quality:120000}}")
+    private long geminiSlowCallMs;
+
+    @Value("${webcraft.breaker.netlify.slow-call-ms:20000}")
+    private long netlifySlowCallMs;
+
+    private final Map<String, CircuitBreaker> gemini = new ConcurrentHashMap<>();
+    private CircuitBreaker netlify;
+
+    @PostConstruct
+    public void init() {
+        netlify = create("netlify", netlifySlowCallMs);
+    }
+
+    public CircuitBreaker gemini(String model) {
+        return gemini.computeIfAbsent(model, m -> create("gemini/" + m, geminiSlowCallMs));
+    }
+
+    // By model; empty until a model has been called
+    public Map<String, CircuitBreaker> gemini() {
+        return new TreeMap<>(gemini);
+    }
+
+    public CircuitBreaker netlify() {
+        return netlify;
+    }
+
+    private CircuitBreaker create(String name, long slowCallMs) {
+        return new CircuitBreaker(name, windowSize, minCalls, failureRateThreshold,
+                slowCallMs, slowCallRateThreshold, openSeconds * 1000, halfOpenProbes);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        Map<String, Object> models = new LinkedHashMap<>();
+        gemini().forEach((model, breaker) -> models.put(model, breaker.snapshot()));
+        result.put("gemini", models);
+        result.put("netlify", netlify.snapshot());
+        return result;
+    }
+}
@@ -0,0 +1,164 @@
+package com.Jadhav.WebCraft.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-client token buckets for the expensive endpoints. Each bucket is a single
+ * {@link AtomicLong} holding the time at which it will be full again (the GCRA
+ * form of a token bucket), so an acquisition is one map lookup and one CAS.
+ * Buckets that have been full for longer than the idle timeout are evicted.
+ */
+@Component
+public class ClientRateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(ClientRateLimiter.class);
+
+    @Value("${webcraft.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${webcraft.ratelimit.capacity:20}")
+    private long capacity;
+
+    @Value("${webcraft.ratelimit.refill-per-minute:10}")
+    private double refillPerMinute;
+
+    @Value("${webcraft.ratelimit.generate-cost:1}")
+    private long generateCost;
+
+    @Value("${webcraft.ratelimit.deploy-cost:5}")
+    private long deployCost;
+
+    @Value("${webcraft.ratelimit.idle-evict-seconds:600}")
+    private long idleEvictSeconds;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder limited = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public enum Operation {
+        GENERATE, DEPLOY
+    }
+
+    /**
+     * Outcome of an acquisition. {@code resetSeconds} is how long until the bucket
+     * is full again and {@code retryAfterSeconds} how long until this request would
+     * have been allowed (0 when it was). {@code units} is how many units were taken.
+     */
+    public record Decision(boolean allowed, long limit, long remaining, long resetSeconds, long retryAfterSeconds,
+                           int units) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Decision tryAcquire(String client, Operation operation) {
+        return tryAcquire(client, costOf(operation), 1, System.nanoTime());
+    }
+
+    /**
+     * Takes as many of {@code units} operations as the bucket covers right now, at
+     * least one, for requests that carry many items. The decision says how many.
+     */
+    public Decision tryAcquireUpTo(String client, Operation operation, int units) {
+        return tryAcquire(client, costOf(operation), units, System.nanoTime());
+    }
+
+    Decision tryAcquire(String client, long cost, long now) {
+        return tryAcquire(client, cost, 1, now);
+    }
+
+    Decision tryAcquire(String client, long cost, int maxUnits, long now) {
+        long interval = intervalNanos();
+        long burst = capacity * interval;
+        long unit = Math.max(1, cost * interval);
+
+        AtomicLong bucket = buckets.get(client);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(client, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long full = bucket.get();
+            long base = Math.max(full, now);
+            int units = (int) Math.min(maxUnits, (burst - (base - now)) / unit);
+            if (units < 1) {
+                long next = base + cost * interval;
+                limited.increment();
+                maybeSweep(now);
+                return new Decision(false, capacity, (burst - (base - now)) / interval,
+                        ceilSeconds(base - now), ceilSeconds(next - now - burst), 0);
+            }
+            long next = base + units * cost * interval;
+            if (bucket.compareAndSet(full, next)) {
+                allowed.add(units);
+                maybeSweep(now);
+                return new Decision(true, capacity, (burst - (next - now)) / interval, ceilSeconds(next - now), 0, units);
+            }
+        }
+    }
+
+    private long costOf(Operation operation) {
+        return operation == Operation.DEPLOY ? deployCost : generateCost;
+    }
+
+    private void maybeSweep(long now) {
+        long last = lastSweep.get();
+        long every = Math.max(TimeUnit.SECONDS.toNanos(idleEvictSeconds) / 4, TimeUnit.SECONDS.toNanos(1));
+        if (now - last >= every && lastSweep.compareAndSet(last, now)) {
+            ForkJoinPool.commonPool().execute(() -> evictIdle(now));
+        }
+    }
+
+    int evictIdle(long now) {
+        long idle = TimeUnit.SECONDS.toNanos(idleEvictSeconds);
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> now - bucket.get() > idle);
+        int removed = Math.max(0, before - buckets.size());
+        if (removed > 0) {
+            evicted.add(removed);
+            logger.debug("Evicted {} idle rate limit buckets", removed);
+        }
+        return removed;
+    }
+
+    /** Seconds it takes an empty bucket to refill completely. */
+    public long windowSeconds() {
+        return ceilSeconds(capacity * intervalNanos());
+    }
+
+    private long intervalNanos() {
+        return (long) (TimeUnit.MINUTES.toNanos(1) / refillPerMinute);
+    }
+
+    private static long ceilSeconds(long nanos) {
+        return nanos <= 0 ? 0 : (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("capacity", capacity);
+        result.put("refillPerMinute", refillPerMinute);
+        result.put("generateCost", generateCost);
+        result.put("deployCost", deployCost);
+        result.put("trackedClients", buckets.size());
+        result.put("allowed", allowed.sum());
+        result.put("limited", limited.sum());
+        result.put("evicted", evicted.sum());
+        return result;
+    }
+}
@@ -0,0 +1,514 @@
+package com.Jadhav.WebCraft.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Reads a /deploy JSON body as a stream. The html, css and js values are decoded
+ * straight into temp files while size limits are checked, so a 25 MB upload costs a
+ * 64 KB buffer on the heap instead of several full-size Strings. Databinding (and
+ * Jackson's streaming parser, which buffers each string token whole) would hold the
+ * entire value in memory before any limit could be applied. A /deploy/bulk body is
+ * read the same way, one upload per element of its sites array.
+ */
+@Component
+public class DeployRequestReader {
+    private static final Logger logger = LoggerFactory.getLogger(DeployRequestReader.class);
+    private static final int SHORT_FIELD_BYTES = 1024;
+
+    @Value("${webcraft.deploy.max-html-bytes:26214400}")
+    private long maxHtmlBytes;
+
+    @Value("${webcraft.deploy.max-asset-bytes:26214400}")
+    private long maxAssetBytes;
+
+    @Value("${webcraft.deploy.max-body-bytes:62914560}")
+    private long maxBodyBytes;
+
+    @Value("${webcraft.deploy.max-bulk-body-bytes:262144000}")
+    private long maxBulkBodyBytes;
+
+    @Value("${webcraft.deploy.spool-dir:${java.io.tmpdir}}")
+    private String spoolDir;
+
+    public static class PayloadTooLargeException extends IOException {
+        public PayloadTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A parsed /deploy/bulk body; closing it closes every site's upload.
+     */
+    public record BulkRequest(List<DeploymentUpload> sites, Boolean waitForLive) implements AutoCloseable {
+        @Override
+        public void close() {
+            sites.forEach(DeploymentUpload::close);
+        }
+    }
+
+    /**
+     * Parses the body into a {@link DeploymentUpload}. Malformed JSON raises an
+     * IllegalArgumentException, an oversized body or field a PayloadTooLargeException.
+     * The caller owns (and must close) the returned upload.
+     */
+    public DeploymentUpload read(InputStream body, long contentLength) throws IOException {
+        if (contentLength > maxBodyBytes) {
+            throw new PayloadTooLargeException("Request body is too large (max " + maxBodyBytes / (1024 * 1024) + "MB)");
+        }
+
+        Cursor cursor = new Cursor(body, maxBodyBytes);
+        DeploymentUpload upload = readObject(cursor);
+        try {
+            if (cursor.peek() != -1) {
+                throw new IllegalArgumentException("Unexpected content after the JSON object");
+            }
+        } catch (IOException | RuntimeException e) {
+            upload.close();
+            throw e;
+        }
+
+        logger.info("Read deploy request: {} bytes on the wire, HTML {} / CSS {} / JS {} bytes spooled",
+                cursor.consumed, upload.getHtml().size(), upload.getCss().size(), upload.getJs().size());
+        return upload;
+    }
+
+    /**
+     * Parses a bulk body ({@code {"sites": [...], "waitForLive": ...}}), spooling each
+     * site as it is reached. Per-field limits apply to every site and the whole body is
+     * capped at max-bulk-body-bytes; more than {@code maxSites} sites is rejected before
+     * the extra ones are read. The caller owns (and must close) the returned request.
+     */
+    public BulkRequest readBulk(InputStream body, long contentLength, int maxSites) throws IOException {
+        if (contentLength > maxBulkBodyBytes) {
+            throw new PayloadTooLargeException("Request body is too large (max " + maxBulkBodyBytes / (1024 * 1024) + "MB)");
+        }
+
+        Cursor cursor = new Cursor(body, maxBulkBodyBytes);
+        List<DeploymentUpload> sites = new ArrayList<>();
+        Boolean waitForLive = null;
+        try {
+            cursor.expect('{');
+            if (!cursor.nextIs('}')) {
+                do {
+                    String key = cursor.readShortString();
+                    cursor.expect(':');
+                    switch (key) {
+                        case "sites" -> readSites(cursor, sites, maxSites);
+                        case "waitForLive" -> waitForLive = cursor.readNullableBoolean();
+                        default -> cursor.skipValue(0);
+                    }
+                } while (cursor.nextIs(','));
+                cursor.expect('}');
+            }
+            if (cursor.peek() != -1) {
+                throw new IllegalArgumentException("Unexpected content after the JSON object");
+            }
+        } catch (IOException | RuntimeException e) {
+            sites.forEach(DeploymentUpload::close);
+            throw e;
+        }
+
+        logger.info("Read bulk deploy request: {} bytes on the wire, {} sites spooled", cursor.consumed, sites.size());
+        return new BulkRequest(List.copyOf(sites), waitForLive);
+    }
+
+    private void readSites(Cursor cursor, List<DeploymentUpload> sites, int maxSites) throws IOException {
+        if (cursor.peek() == 'n') {
+            cursor.readLiteral("null");
+            return;
+        }
+        cursor.expect('[');
+        if (cursor.nextIs(']')) {
+            return;
+        }
+        do {
+            if (sites.size() >= maxSites) {
+                throw new IllegalArgumentException("Too many sites (max " + maxSites + ")");
+            }
+            sites.add(readObject(cursor));
+        } while (cursor.nextIs(','));
+        cursor.expect(']');
+    }
+
+    // One deploy object; its spooled parts are deleted again when it turns out malformed
+    private DeploymentUpload readObject(Cursor cursor) throws IOException {
+        DeploymentUpload.Part html = DeploymentUpload.Part.empty();
+        DeploymentUpload.Part css = DeploymentUpload.Part.empty();
+        DeploymentUpload.Part js = DeploymentUpload.Part.empty();
+        String projectName = null;
+        String siteId = null;
+        Integer version = null;
+
+        try {
+            cursor.expect('{');
+            if (cursor.peek() == '}') {
+                cursor.next();
+            } else {
+                do {
+                    String key = cursor.readShortString();
+                    cursor.expect(':');
+                    switch (key) {
+                        case "html" -> html = spool(cursor, "HTML content", maxHtmlBytes, html);
+                        case "css" -> css = spool(cursor, "CSS content", maxAssetBytes, css);
+                        case "js" -> js = spool(cursor, "JS content", maxAssetBytes, js);
+                        case "projectName" -> projectName = cursor.readNullableShortString();
+                        case "siteId" -> siteId = cursor.readNullableShortString();
+                        case "version" -> version = cursor.readNullableInt();
+                        default -> cursor.skipValue(0);
+                    }
+                } while (cursor.nextIs(','));
+                cursor.expect('}');
+            }
+        } catch (IOException | RuntimeException e) {
+            html.delete();
+            css.delete();
+            js.delete();
+            throw e;
+        }
+
+        DeploymentUpload upload = new DeploymentUpload(html, css, js);
+        upload.setProjectName(projectName);
+        upload.setSiteId(siteId);
+        upload.setVersion(version);
+        return upload;
+    }
+
+    private DeploymentUpload.Part spool(Cursor cursor, String field, long limit, DeploymentUpload.Part previous)
+            throws IOException {
+        previous.delete();
+        if (cursor.peek() == 'n') {
+            cursor.readLiteral("null");
+            return DeploymentUpload.Part.empty();
+        }
+
+        Path file = Files.createTempFile(Path.of(spoolDir), "webcraft-deploy-", ".part");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            Cursor.StringStats stats;
+            try (OutputStream out = new BufferedOutputStream(new DigestOutputStream(Files.newOutputStream(file), digest), 64 * 1024)) {
+                stats = cursor.readString(out, limit, field);
+            }
+            return new DeploymentUpload.Part(file, null, stats.bytes(), stats.blank(), HexFormat.of().formatHex(digest.digest()));
+        } catch (NoSuchAlgorithmException e) {
+            Files.deleteIfExists(file);
+            throw new IllegalStateException(e);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Minimal pull reader over UTF-8 JSON bytes. Only what a flat request object
+     * needs: strings, numbers, literals, and skipping of nested values.
+     */
+    static final class Cursor {
+        private final InputStream in;
+        private final long maxBytes;
+        private final byte[] buffer = new byte[64 * 1024];
+        private int position;
+        private int limit;
+        private long consumed;
+        private int peeked = -2;
+
+        record StringStats(long bytes, boolean blank) {}
+
+        Cursor(InputStream in, long maxBytes) {
+            this.in = in;
+            this.maxBytes = maxBytes;
+        }
+
+        int next() throws IOException {
+            if (peeked != -2) {
+                int b = peeked;
+                peeked = -2;
+                return b;
+            }
+            return read();
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            int b = buffer[position++] & 0xFF;
+            if (++consumed > maxBytes) {
+                throw new PayloadTooLargeException("Request body is too large (max " + maxBytes / (1024 * 1024) + "MB)");
+            }
+            return b;
+        }
+
+        // Next byte, without consuming it
+        private int peekRaw() throws IOException {
+            if (peeked == -2) {
+                peeked = read();
+            }
+            return peeked;
+        }
+
+        // Next non-whitespace byte, without consuming it
+        int peek() throws IOException {
+            if (peeked == -2) {
+                peeked = read();
+            }
+            while (peeked == ' ' || peeked == '\n' || peeked == '\r' || peeked == '\t') {
+                peeked = read();
+            }
+            return peeked;
+        }
+
+        void expect(char c) throws IOException {
+            int b = peek();
+            if (b != c) {
+                throw new IllegalArgumentException("Malformed JSON: expected '" + c + "' at byte " + consumed
+                        + (b == -1 ? " but the body ended" : ""));
+            }
+            next();
+        }
+
+        boolean nextIs(char c) throws IOException {
+            if (peek() == c) {
+                next();
+                return true;
+            }
+            return false;
+        }
+
+        String readShortString() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            readString(out, SHORT_FIELD_BYTES, "Field");
+            return out.toString(StandardCharsets.UTF_8);
+        }
+
+        String readNullableShortString() throws IOException {
+            if (peek() == 'n') {
+                readLiteral("null");
+                return null;
+            }
+            return readShortString();
+        }
+
+        Boolean readNullableBoolean() throws IOException {
+            switch (peek()) {
+                case 'n' -> {
+                    readLiteral("null");
+                    return null;
+                }
+                case 't' -> {
+                    readLiteral("true");
+                    return true;
+                }
+                case 'f' -> {
+                    readLiteral("false");
+                    return false;
+                }
+                default -> throw new IllegalArgumentException("Malformed JSON: expected a boolean at byte " + consumed);
+            }
+        }
+
+        Integer readNullableInt() throws IOException {
+            if (peek() == 'n') {
+                readLiteral("null");
+                return null;
+            }
+            StringBuilder sb = new StringBuilder();
+            peek();
+            while (peekRaw() == '-' || (peeked >= '0' && peeked <= '9')) {
+                sb.append((char) next());
+                if (sb.length() > 10) {
+                    throw new IllegalArgumentException("Malformed JSON: number too long at byte " + consumed);
+                }
+            }
+            try {
+                return Integer.parseInt(sb.toString());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed JSON: expected an integer at byte " + consumed);
+            }
+        }
+
+        void readLiteral(String literal) throws IOException {
+            peek();
+            for (int i = 0; i < literal.length(); i++) {
+                if (next() != literal.charAt(i)) {
+                    throw new IllegalArgumentException("Malformed JSON: expected " + literal + " at byte " + consumed);
+                }
+            }
+        }
+
+        /**
+         * Decodes a JSON string value into {@code out} as UTF-8, failing as soon as
+         * more than {@code limit} bytes have been written.
+         */
+        StringStats readString(OutputStream out, long limit, String field) throws IOException {
+            expect('"');
+            long written = 0;
+            boolean blank = true;
+            int pendingHighSurrogate = -1;
+            while (true) {
+                int b = next();
+                if (b == -1) {
+                    throw new IllegalArgumentException("Malformed JSON: unterminated string");
+                }
+                if (b == '"') {
+                    break;
+                }
+                if (b < 0x20) {
+                    throw new IllegalArgumentException("Malformed JSON: control character in string at byte " + consumed);
+                }
+
+                int length;
+                if (b == '\\') {
+                    int escape = next();
+                    int c = switch (escape) {
+                        case '"', '\\', '/' -> escape;
+                        case 'b' -> '\b';
+                        case 'f' -> '\f';
+                        case 'n' -> '\n';
+                        case 'r' -> '\r';
+                        case 't' -> '\t';
+                        case 'u' -> readHex4();
+                        default -> throw new IllegalArgumentException("Malformed JSON: bad escape at byte " + consumed);
+                    };
+                    if (Character.isHighSurrogate((char) c)) {
+                        // Wait for the low half; a lone high surrogate becomes U+FFFD
+                        length = pendingHighSurrogate != -1 ? writeCodePoint(out, 0xFFFD) : 0;
+                        pendingHighSurrogate = c;
+                        blank = false;
+                    } else {
+                        int codePoint = c;
+                        if (pendingHighSurrogate != -1) {
+                            if (Character.isLowSurrogate((char) c)) {
+                                codePoint = Character.toCodePoint((char) pendingHighSurrogate, (char) c);
+                            } else {
+                                written += writeCodePoint(out, 0xFFFD);
+                            }
+                            pendingHighSurrogate = -1;
+                        } else if (Character.isLowSurrogate((char) c)) {
+                            codePoint = 0xFFFD;
+                        }
+                        length = writeCodePoint(out, codePoint);
+                        blank &= Character.isWhitespace(codePoint);
+                    }
+                } else {
+                    if (pendingHighSurrogate != -1) {
+                        written += writeCodePoint(out, 0xFFFD);
+                        pendingHighSurrogate = -1;
+                    }
+                    // Raw UTF-8 bytes (including multi-byte sequences) are copied through unchanged
+                    out.write(b);
+                    length = 1;
+                    blank &= b == ' ' || b == '\n' || b == '\r' || b == '\t';
+                }
+
+                written += length;
+                if (written > limit) {
+                    throw new PayloadTooLargeException(field + " is too large (max " + limit / (1024 * 1024) + "MB)");
+                }
+            }
+            if (pendingHighSurrogate != -1) {
+                written += writeCodePoint(out, 0xFFFD);
+            }
+            return new StringStats(written, blank);
+        }
+
+        void skipValue(int depth) throws IOException {
+            if (depth > 64) {
+                throw new IllegalArgumentException("Malformed JSON: nesting too deep");
+            }
+            int b = peek();
+            switch (b) {
+                case '"' -> readString(OutputStream.nullOutputStream(), maxBytes, "Field");
+                case '{' -> {
+                    next();
+                    if (!nextIs('}')) {
+                        do {
+                            readString(OutputStream.nullOutputStream(), SHORT_FIELD_BYTES, "Field");
+                            expect(':');
+                            skipValue(depth + 1);
+                        } while (nextIs(','));
+                        expect('}');
+                    }
+                }
+                case '[' -> {
+                    next();
+                    if (!nextIs(']')) {
+                        do {
+                            skipValue(depth + 1);
+                        } while (nextIs(','));
+                        expect(']');
+                    }
+                }
+                case 't' -> readLiteral("true");
+                case 'f' -> readLiteral("false");
+                case 'n' -> readLiteral("null");
+                default -> {
+                    if (b != '-' && (b < '0' || b > '9')) {
+                        throw new IllegalArgumentException("Malformed JSON: unexpected value at byte " + consumed);
+                    }
+                    while (peekRaw() == '-' || peeked == '+' || peeked == '.' || peeked == 'e' || peeked == 'E'
+                            || (peeked >= '0' && peeked <= '9')) {
+                        next();
+                    }
+                }
+            }
+        }
+
+        private int readHex4() throws IOException {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(next(), 16);
+                if (digit < 0) {
+                    throw new IllegalArgumentException("Malformed JSON: bad unicode escape at byte " + consumed);
+                }
+                value = value * 16 + digit;
+            }
+            return value;
+        }
+
+        private static int writeCodePoint(OutputStream out, int codePoint) throws IOException {
+            if (codePoint < 0x80) {
+                out.write(codePoint);
+                return 1;
+            }
+            if (codePoint < 0x800) {
+                out.write(0xC0 | (codePoint >> 6));
+                out.write(0x80 | (codePoint & 0x3F));
+                return 2;
+            }
+            if (codePoint < 0x10000) {
+                out.write(0xE0 | (codePoint >> 12));
+                out.write(0x80 | ((codePoint >> 6) & 0x3F));
+                out.write(0x80 | (codePoint & 0x3F));
+                return 3;
+            }
+            out.write(0xF0 | (codePoint >> 18));
+            out.write(0x80 | ((codePoint >> 12) & 0x3F));
+            out.write(0x80 | ((codePoint >> 6) & 0x3F));
+            out.write(0x80 | (codePoint & 0x3F));
+            return 4;
+        }
+    }
+}
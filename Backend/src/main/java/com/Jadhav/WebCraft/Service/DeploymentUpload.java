@@ -0,0 +1,169 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import com.Jadhav.WebCraft.dto.SiteContent;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * The html/css/js of a deploy request. Large uploads are spooled to temp files by
+ * {@link DeployRequestReader} so they never exist as Strings on the heap; content
+ * that is already in memory (e.g. loaded from the site repository) is wrapped as is.
+ * Closing the upload deletes its temp files.
+ */
+public class DeploymentUpload implements AutoCloseable {
+
+    private final Part html;
+    private final Part css;
+    private final Part js;
+    private String projectName;
+    private String siteId;
+    private Integer version;
+
+    public DeploymentUpload(Part html, Part css, Part js) {
+        this.html = html;
+        this.css = css;
+        this.js = js;
+    }
+
+    public static DeploymentUpload of(String html, String css, String js) {
+        return new DeploymentUpload(Part.of(html), Part.of(css), Part.of(js));
+    }
+
+    // Shares the site's UTF-8 bytes; nothing is copied or re-encoded
+    public static DeploymentUpload of(GenerateResponse site) {
+        return new DeploymentUpload(Part.of(site.getHtmlContent()), Part.of(site.getCssContent()), Part.of(site.getJsContent()));
+    }
+
+    public Part getHtml() {
+        return html;
+    }
+
+    public Part getCss() {
+        return css;
+    }
+
+    public Part getJs() {
+        return js;
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    public void setProjectName(String projectName) {
+        this.projectName = projectName;
+    }
+
+    public String getSiteId() {
+        return siteId;
+    }
+
+    public void setSiteId(String siteId) {
+        this.siteId = siteId;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    @Override
+    public void close() {
+        html.delete();
+        css.delete();
+        js.delete();
+    }
+
+    /**
+     * One field of the upload, backed either by a temp file or by a byte array.
+     */
+    public static final class Part {
+        private static final Part EMPTY = new Part(null, new byte[0], 0, true, sha256(new byte[0]));
+
+        private final Path file;
+        private final byte[] bytes;
+        private final long size;
+        private final boolean blank;
+        private final String sha256;
+
+        Part(Path file, byte[] bytes, long size, boolean blank, String sha256) {
+            this.file = file;
+            this.bytes = bytes;
+            this.size = size;
+            this.blank = blank;
+            this.sha256 = sha256;
+        }
+
+        public static Part empty() {
+            return EMPTY;
+        }
+
+        public static Part of(String text) {
+            if (text == null || text.isEmpty()) {
+                return EMPTY;
+            }
+            byte[] data = text.getBytes(StandardCharsets.UTF_8);
+            return new Part(null, data, data.length, text.isBlank(), sha256(data));
+        }
+
+        public static Part of(SiteContent content) {
+            if (content == null || content.size() == 0) {
+                return EMPTY;
+            }
+            byte[] data = content.utf8();
+            return new Part(null, data, data.length, content.isBlank(), sha256(data));
+        }
+
+        public InputStream open() throws IOException {
+            return file != null ? Files.newInputStream(file) : new ByteArrayInputStream(bytes);
+        }
+
+        public String readString() throws IOException {
+            return file != null ? Files.readString(file, StandardCharsets.UTF_8) : new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        // UTF-8 bytes
+        public long size() {
+            return size;
+        }
+
+        public boolean isBlank() {
+            return blank;
+        }
+
+        public String sha256() {
+            return sha256;
+        }
+
+        void delete() {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        private static String sha256(byte[] data) {
+            try {
+                return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Generates a site in two phases: a quick outline call fixes the shared ids and class
+ * names, then HTML, CSS and JavaScript are generated concurrently from that outline,
+ * so wall-clock latency tracks the slowest part instead of the sum of all three.
+ * When a part fails, the parts time out or the caller is interrupted, the parts still
+ * running are interrupted rather than left to finish for nobody.
+ */
+@Service
+public class FanOutGenerationService {
+    private static final Logger logger = LoggerFactory.getLogger(FanOutGenerationService.class);
+    private static final Pattern LEADING_FENCE = Pattern.compile("^\\s*```[\\w-]*\\s*\\n?");
+    private static final Pattern TRAILING_FENCE = Pattern.compile("\\n?```\\s*$");
+
+    @Autowired
+    private ModelRouter modelRouter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${webcraft.fanout.timeout-seconds:120}")
+    private long timeoutSeconds;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public GenerateResponse generate(String prompt, LatencyTier tier) throws Exception {
+        long start = System.nanoTime();
+
+        String outline = normalizeOutline(modelRouter.complete(GenerationTask.OUTLINE, prompt, LatencyTier.FAST));
+        long outlineMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        String partPrompt = "Website description: \"" + prompt + "\"\n\nStructural outline:\n" + outline;
+        CompletionService<String> completion = new ExecutorCompletionService<>(executor);
+        Map<GenerationTask, Future<String>> parts = new EnumMap<>(GenerationTask.class);
+        for (GenerationTask task : List.of(GenerationTask.HTML, GenerationTask.CSS, GenerationTask.JS)) {
+            parts.put(task, completion.submit(() -> part(task, partPrompt, tier)));
+        }
+
+        // Parts are taken as they finish, so the first failure is seen without waiting for the rest
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        boolean finished = false;
+        try {
+            for (int i = 0; i < parts.size(); i++) {
+                Future<String> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new TimeoutException("Fan-out generation timed out after " + timeoutSeconds + " s");
+                }
+                done.get();
+            }
+            finished = true;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : new Exception(e.getCause());
+        } finally {
+            if (!finished) {
+                parts.values().forEach(part -> part.cancel(true));
+            }
+        }
+
+        logger.info("Fan-out generation finished in {} ms (outline {} ms)",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), outlineMs);
+
+        return new GenerateResponse(parts.get(GenerationTask.HTML).get(),
+                parts.get(GenerationTask.CSS).get(),
+                parts.get(GenerationTask.JS).get());
+    }
+
+    private String part(GenerationTask task, String prompt, LatencyTier tier) throws Exception {
+        long start = System.nanoTime();
+        String text = stripFences(modelRouter.complete(task, prompt, tier));
+        logger.info("Fan-out {} part generated in {} ms ({} chars)",
+                task, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), text.length());
+        return text;
+    }
+
+    private String normalizeOutline(String outline) {
+        String text = stripFences(outline);
+        try {
+            JsonNode node = objectMapper.readTree(text);
+            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(node);
+        } catch (Exception e) {
+            // The outline is only context for the part prompts, so a loosely formatted one is still useful
+            logger.debug("Outline is not valid JSON, passing it through as text: {}", e.getMessage());
+            return text;
+        }
+    }
+
+    static String stripFences(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = LEADING_FENCE.matcher(text).replaceFirst("");
+        return TRAILING_FENCE.matcher(stripped).replaceFirst("").trim();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
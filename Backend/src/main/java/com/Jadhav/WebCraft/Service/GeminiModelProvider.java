@@ -0,0 +1,46 @@
+package com.Jadhav.WebCraft.Service;
+
+public class GeminiModelProvider implements ModelProvider {
+
+    private final GoogleGenAIService googleGenAIService;
+    private final String model;
+    private final LatencyTier tier;
+    private final int maxConcurrency;
+
+    public GeminiModelProvider(GoogleGenAIService googleGenAIService, String model, LatencyTier tier, int maxConcurrency) {
+        this.googleGenAIService = googleGenAIService;
+        this.model = model;
+        this.tier = tier;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public String getName() {
+        return model;
+    }
+
+    @Override
+    public LatencyTier getTier() {
+        return tier;
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public boolean preconnect() throws Exception {
+        return googleGenAIService.preconnect(model);
+    }
+
+    @Override
+    public String generate(String prompt) throws Exception {
+        return googleGenAIService.generateContent(model, prompt);
+    }
+
+    @Override
+    public String complete(GenerationTask task, String prompt) throws Exception {
+        return googleGenAIService.complete(model, task, prompt);
+    }
+}
@@ -0,0 +1,17 @@
+package com.Jadhav.WebCraft.Service;
+
+public enum GenerationMode {
+    SINGLE,
+    FANOUT;
+
+    public static GenerationMode fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return SINGLE;
+        }
+        try {
+            return GenerationMode.valueOf(value.trim().replace("-", "").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown generation mode: " + value);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.Jadhav.WebCraft.Service;
+
+public enum GenerationPriority {
+    INTERACTIVE,
+    BATCH,
+    BACKGROUND;
+
+    // This priority, or the cap when this one would be served ahead of it
+    public GenerationPriority atMost(GenerationPriority cap) {
+        return ordinal() < cap.ordinal() ? cap : this;
+    }
+
+    public static GenerationPriority fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return INTERACTIVE;
+        }
+        try {
+            return GenerationPriority.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown priority: " + value);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.Jadhav.WebCraft.Service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits generation work onto a fixed number of model slots. Priority classes share
+ * the slots by weight (stride scheduling), clients within a class share their class
+ * by deficit round robin, and work that has waited longer than the aging threshold
+ * is served next regardless of class so background jobs cannot starve.
+ * Work runs on the caller's thread once admitted.
+ */
+@Service
+public class GenerationScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(GenerationScheduler.class);
+    private static final int WINDOW = 1024;
+
+    @Value("${webcraft.scheduler.max-concurrent:8}")
+    private int maxConcurrent;
+
+    @Value("${webcraft.scheduler.weight.interactive:8}")
+    private int interactiveWeight;
+
+    @Value("${webcraft.scheduler.weight.batch:3}")
+    private int batchWeight;
+
+    @Value("${webcraft.scheduler.weight.background:1}")
+    private int backgroundWeight;
+
+    @Value("${webcraft.scheduler.aging-ms:15000}")
+    private long agingMs;
+
+    @Value("${webcraft.scheduler.queue-timeout-ms:120000}")
+    private long queueTimeoutMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ClassQueue[] queues = new ClassQueue[GenerationPriority.values().length];
+    private int running;
+    private double virtualTime;
+
+    @PostConstruct
+    public void init() {
+        int[] weights = {interactiveWeight, batchWeight, backgroundWeight};
+        for (GenerationPriority priority : GenerationPriority.values()) {
+            queues[priority.ordinal()] = new ClassQueue(Math.max(1, weights[priority.ordinal()]));
+        }
+    }
+
+    /**
+     * Runs {@code work} once a slot is granted to it. {@code cost} is the work's share
+     * of its client's fair share (e.g. the number of model calls it makes).
+     *
+     * @throws TimeoutException if no slot was granted within the queue timeout
+     */
+    public <T> T run(String client, GenerationPriority priority, int cost, Callable<T> work) throws Exception {
+        Ticket ticket = new Ticket(client == null ? "anonymous" : client, priority, Math.max(1, cost));
+        acquire(ticket);
+        try {
+            return work.call();
+        } finally {
+            release();
+        }
+    }
+
+    private void acquire(Ticket ticket) throws TimeoutException, InterruptedException {
+        lock.lock();
+        try {
+            if (running < maxConcurrent && isEmpty()) {
+                running++;
+                queues[ticket.priority.ordinal()].recordDispatch(0, false);
+                return;
+            }
+
+            ticket.signal = lock.newCondition();
+            queues[ticket.priority.ordinal()].add(ticket);
+            long remaining = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+            boolean admitted = false;
+            try {
+                while (!ticket.dispatched) {
+                    if (remaining <= 0) {
+                        queues[ticket.priority.ordinal()].timedOut++;
+                        logger.warn("{} generation for {} timed out after waiting {} ms",
+                                ticket.priority, ticket.client, queueTimeoutMs);
+                        throw new TimeoutException("Generation queue is full. Please retry shortly.");
+                    }
+                    remaining = ticket.signal.awaitNanos(remaining);
+                }
+                admitted = true;
+            } finally {
+                if (!admitted && ticket.dispatched) {
+                    // Interrupted just after being granted a slot: hand it on
+                    running--;
+                    dispatch();
+                } else if (!admitted) {
+                    queues[ticket.priority.ordinal()].remove(ticket);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            running--;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch() {
+        long now = System.nanoTime();
+        while (running < maxConcurrent && !isEmpty()) {
+            Ticket next = agedTicket(now);
+            boolean aged = next != null;
+            ClassQueue queue;
+            if (aged) {
+                queue = queues[next.priority.ordinal()];
+                queue.remove(next);
+            } else {
+                queue = nextQueue();
+                next = queue.poll();
+            }
+            virtualTime = Math.max(virtualTime, queue.pass);
+            queue.pass += (double) next.cost / queue.weight;
+
+            running++;
+            next.dispatched = true;
+            queue.recordDispatch(now - next.enqueuedNanos, aged);
+            next.signal.signal();
+        }
+    }
+
+    // Oldest waiting ticket across all classes, if it has waited past the aging threshold
+    private Ticket agedTicket(long now) {
+        Ticket oldest = null;
+        for (ClassQueue queue : queues) {
+            Ticket head = queue.oldest();
+            if (head != null && (oldest == null || head.enqueuedNanos < oldest.enqueuedNanos)) {
+                oldest = head;
+            }
+        }
+        if (oldest != null && now - oldest.enqueuedNanos > TimeUnit.MILLISECONDS.toNanos(agingMs)) {
+            return oldest;
+        }
+        return null;
+    }
+
+    // Non-empty class with the smallest virtual pass; ties go to the higher priority
+    private ClassQueue nextQueue() {
+        ClassQueue best = null;
+        for (ClassQueue queue : queues) {
+            if (!queue.isEmpty() && (best == null || queue.pass < best.pass)) {
+                best = queue;
+            }
+        }
+        return best;
+    }
+
+    private boolean isEmpty() {
+        for (ClassQueue queue : queues) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            result.put("maxConcurrent", maxConcurrent);
+            result.put("running", running);
+            for (GenerationPriority priority : GenerationPriority.values()) {
+                result.put(priority.name().toLowerCase(), queues[priority.ordinal()].toMap());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    private static final class Ticket {
+        private final String client;
+        private final GenerationPriority priority;
+        private final int cost;
+        private final long enqueuedNanos = System.nanoTime();
+        private Condition signal;
+        private boolean dispatched;
+
+        Ticket(String client, GenerationPriority priority, int cost) {
+            this.client = client;
+            this.priority = priority;
+            this.cost = cost;
+        }
+    }
+
+    private static final class ClientQueue {
+        private final String client;
+        private final ArrayDeque<Ticket> tickets = new ArrayDeque<>();
+        private int deficit;
+
+        ClientQueue(String client) {
+            this.client = client;
+        }
+    }
+
+    /** One priority class: per-client queues served by deficit round robin. Guarded by the scheduler lock. */
+    private final class ClassQueue {
+        private final int weight;
+        private final Map<String, ClientQueue> clients = new HashMap<>();
+        private final ArrayDeque<ClientQueue> rotation = new ArrayDeque<>();
+        private final LinkedHashSet<Ticket> arrivals = new LinkedHashSet<>();
+        private double pass;
+
+        private final long[] waits = new long[WINDOW];
+        private int waitCount;
+        private long dispatched;
+        private long aged;
+        private long timedOut;
+        private long maxWaitMicros;
+
+        ClassQueue(int weight) {
+            this.weight = weight;
+        }
+
+        boolean isEmpty() {
+            return arrivals.isEmpty();
+        }
+
+        Ticket oldest() {
+            return arrivals.isEmpty() ? null : arrivals.iterator().next();
+        }
+
+        void add(Ticket ticket) {
+            if (isEmpty()) {
+                // An idle class rejoins at the current virtual time rather than with banked credit
+                pass = Math.max(pass, virtualTime);
+            }
+            ClientQueue queue = clients.computeIfAbsent(ticket.client, ClientQueue::new);
+            if (queue.tickets.isEmpty()) {
+                rotation.addLast(queue);
+            }
+            queue.tickets.addLast(ticket);
+            arrivals.add(ticket);
+        }
+
+        Ticket poll() {
+            while (true) {
+                ClientQueue queue = rotation.peekFirst();
+                Ticket head = queue.tickets.peekFirst();
+                if (queue.deficit >= head.cost) {
+                    queue.deficit -= head.cost;
+                    queue.tickets.pollFirst();
+                    arrivals.remove(head);
+                    if (queue.tickets.isEmpty()) {
+                        drop(queue);
+                    } else if (queue.deficit < queue.tickets.peekFirst().cost) {
+                        rotation.addLast(rotation.pollFirst());
+                    }
+                    return head;
+                }
+                queue.deficit++;
+                rotation.addLast(rotation.pollFirst());
+            }
+        }
+
+        void remove(Ticket ticket) {
+            if (!arrivals.remove(ticket)) {
+                return;
+            }
+            ClientQueue queue = clients.get(ticket.client);
+            queue.tickets.remove(ticket);
+            if (queue.tickets.isEmpty()) {
+                drop(queue);
+            }
+        }
+
+        private void drop(ClientQueue queue) {
+            rotation.remove(queue);
+            clients.remove(queue.client);
+        }
+
+        void recordDispatch(long waitNanos, boolean wasAged) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(waitNanos);
+            waits[waitCount++ % WINDOW] = micros;
+            maxWaitMicros = Math.max(maxWaitMicros, micros);
+            dispatched++;
+            if (wasAged) {
+                aged++;
+            }
+        }
+
+        private long percentile(long[] sorted, double p) {
+            return sorted.length == 0 ? 0 : sorted[(int) Math.ceil(sorted.length * p) - 1];
+        }
+
+        Map<String, Object> toMap() {
+            long[] sorted = Arrays.copyOf(waits, Math.min(waitCount, WINDOW));
+            Arrays.sort(sorted);
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("weight", weight);
+            map.put("queued", arrivals.size());
+            map.put("clients", clients.size());
+            map.put("dispatched", dispatched);
+            map.put("aged", aged);
+            map.put("timedOut", timedOut);
+            map.put("waitP50Ms", percentile(sorted, 0.50) / 1000.0);
+            map.put("waitP99Ms", percentile(sorted, 0.99) / 1000.0);
+            map.put("waitMaxMs", maxWaitMicros / 1000.0);
+            return map;
+        }
+    }
+}
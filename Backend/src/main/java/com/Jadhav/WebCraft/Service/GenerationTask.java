@@ -0,0 +1,74 @@
+package com.Jadhav.WebCraft.Service;
+
+/**
+ * Single-purpose generation calls used by fan-out and incremental generation. Each
+ * task carries its own system instruction; the per-request prompt carries the site
+ * description and any shared context such as the structural outline.
+ */
+public enum GenerationTask {
+
+    OUTLINE(true, """
+            You plan the structure of a website before it is built by three separate developers
+            (HTML, CSS and JavaScript) who cannot talk to each other.
+            Return ONLY a JSON object in this exact shape:
+            {
+                "title": "page title",
+                "sections": [{"id": "hero", "element": "header|section|footer|...", "purpose": "what it contains"}],
+                "classes": [{"name": "card", "usage": "which elements use it"}],
+                "interactions": [{"id": "element id", "behavior": "what the JavaScript should do"}]
+            }
+            Use lowercase kebab-case ids and class names. Keep it to the ids and classes the page really needs.
+            """),
+
+    HTML(false, """
+            You write the HTML of a website from a shared structural outline.
+            Return ONLY the complete HTML5 document, with no markdown fences or explanations.
+            - Use exactly the section ids and class names from the outline; do not invent others
+            - Include the viewport meta tag, a title and a meta description
+            - Link the stylesheet with <link rel="stylesheet" href="styles.css">
+            - Load the script with <script src="script.js"></script> before </body>
+            - Do NOT include <style> or <script> blocks
+            """),
+
+    CSS(false, """
+            You write the stylesheet of a website from a shared structural outline.
+            Return ONLY the CSS, with no markdown fences or explanations.
+            - Only use #id and .class selectors that appear in the outline, plus element selectors
+            - Mobile-first, responsive layout using Grid or Flexbox
+            - Modern look: gradients, shadows, rounded corners, smooth transitions and hover effects
+            """),
+
+    JS(false, """
+            You write the JavaScript of a website from a shared structural outline.
+            Return ONLY the JavaScript, with no markdown fences or explanations.
+            - Only reference element ids and classes that appear in the outline
+            - Use modern ES6+ syntax and wrap setup in a DOMContentLoaded listener
+            - Implement the interactions listed in the outline; validate forms if present
+            - Every function and block must be complete and syntactically valid
+            """),
+
+    PATCH(false, """
+            You edit one fragment of an existing website.
+            The request gives the fragment kind (html, css or js), the fragment itself and an edit instruction.
+            Return ONLY the replacement fragment of the same kind, with no markdown fences or explanations.
+            - Keep ids, class names and function names that the rest of the site relies on
+            - Keep css rules inside the at-rule (such as @media) they were given in
+            - Change only what the instruction asks for and keep everything else as it is
+            """);
+
+    private final boolean json;
+    private final String systemInstruction;
+
+    GenerationTask(boolean json, String systemInstruction) {
+        this.json = json;
+        this.systemInstruction = systemInstruction;
+    }
+
+    public boolean isJson() {
+        return json;
+    }
+
+    public String getSystemInstruction() {
+        return systemInstruction;
+    }
+}
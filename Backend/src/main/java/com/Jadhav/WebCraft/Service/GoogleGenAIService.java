@@ -1,51 +1,63 @@
 package com.Jadhav.WebCraft.Service;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
 import com.google.genai.Client;
+import com.google.genai.errors.ClientException;
+import com.google.genai.types.Content;
+import com.google.genai.types.GenerateContentConfig;
 import com.google.genai.types.GenerateContentResponse;
+import com.google.genai.types.GenerateContentResponseUsageMetadata;
+import com.google.genai.types.HttpOptions;
+import com.google.genai.types.Part;
+import com.google.genai.types.Schema;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class GoogleGenAIService {
     private static final Logger logger = LoggerFactory.getLogger(GoogleGenAIService.class);
-    @Value("${google.ai.api.key}")
-    private String apiKey;
-
-    public String generateContent(String prompt) throws Exception {
-        Client client = Client.builder()
-                .apiKey(apiKey)
-                .build();
-
-        String fullPrompt = createImprovedPrompt(prompt);
-
-        try {
-            GenerateContentResponse response = client.models.generateContent(
-                    "gemini-2.5-flash",
-                    fullPrompt,
-                    null
-            );
 
-            String responseText = response.text().trim();
-            responseText = cleanAIResponse(responseText);
-
-            logger.info("AI response received and cleaned, length: {}", responseText.length());
-            logger.debug("Cleaned response starts with: {}",
-                    responseText.substring(0, Math.min(100, responseText.length())));
+    private static final String DEFAULT_MODEL = "gemini-2.5-flash";
+    private static final String DEFAULT_BASE_URL = "https://generativelanguage.googleapis.com";
 
-            return responseText;
+    private static final Schema RESPONSE_SCHEMA = Schema.builder()
+            .type("OBJECT")
+            .properties(Map.of(
+                    "html", Schema.builder().type("STRING").description("Complete HTML5 document").build(),
+                    "css", Schema.builder().type("STRING").description("Complete stylesheet").build(),
+                    "js", Schema.builder().type("STRING").description("Complete JavaScript code").build()))
+            .required(List.of("html", "css", "js"))
+            .propertyOrdering(List.of("html", "css", "js"))
+            .build();
 
-        } catch (Exception e) {
-            logger.error("Error calling Google AI API", e);
-            throw new Exception("Failed to generate content from AI: " + e.getMessage(), e);
-        }
-    }
+    private static final String REQUEST_PREFIX =
+            "Create a complete, functional, and visually appealing website based on this description: \"";
 
-    private String createImprovedPrompt(String userPrompt) {
-        return String.format("""
-            Create a complete, functional, and visually appealing website based on this description: "%s"
-            
+    private static final String SYSTEM_INSTRUCTION = """
             CRITICAL REQUIREMENTS:
             1. Return ONLY a valid JSON object with no extra text, explanations, or markdown blocks
             2. Use proper JSON escaping for all content (escape quotes, newlines, etc.)
@@ -67,9 +79,9 @@ public class GoogleGenAIService {
             - Include proper title and meta description
             - All elements must have proper closing tags
             - No incomplete or malformed tags
-                + - LINK the CSS as an external file using: <link rel="stylesheet" href="styles.css">
-                + - LINK the JavaScript as an external file using: <script src="script.js"></script>
-                + - Do NOT include <style> or <script> blocks inside the HTML
+            - LINK the CSS as an external file using: <link rel="stylesheet" href="styles.css">
+            - LINK the JavaScript as an external file using: <script src="script.js"></script>
+            - Do NOT include <style> or <script> blocks inside the HTML
             
             CSS REQUIREMENTS:
             - Modern, responsive design with mobile-first approach
@@ -110,10 +122,330 @@ public class GoogleGenAIService {
             - Test that all CSS selectors have corresponding HTML elements
             
             Generate a website that looks professional, modern, and fully functional. The design should be impressive and user-friendly.
-            """, userPrompt);
+            """;
+
+    // Legacy single-prompt layout, kept for google.ai.system-instruction=false and for comparisons
+    private static final String INLINE_PROMPT_SUFFIX = "\"\n\n" + SYSTEM_INSTRUCTION;
+
+    @Value("${google.ai.api.key}")
+    private String apiKey;
+
+    @Value("${google.ai.base-url:}")
+    private String baseUrl;
+
+    @Value("${google.ai.structured-output:true}")
+    private boolean structuredOutput;
+
+    @Value("${google.ai.system-instruction:true}")
+    private boolean systemInstruction;
+
+    // Off until the system instruction is long enough for Gemini to cache
+    @Value("${google.ai.context-cache:false}")
+    private boolean contextCache;
+
+    @Value("${google.ai.context-cache.ttl-seconds:3600}")
+    private long contextCacheTtlSeconds;
+
+    // Smallest prefix the configured models accept for explicit caching
+    @Value("${google.ai.context-cache.min-tokens:1024}")
+    private int contextCacheMinTokens;
+
+    @Value("${google.ai.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${google.ai.timeout-ms:120000}")
+    private int timeoutMs;
+
+    @Autowired
+    private CircuitBreakers circuitBreakers;
+
+    private final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+    private final RestTemplate restTemplate = new RestTemplate(requestFactory);
+    private final ExecutorService cacheRefresher = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile Client client;
+    private final AtomicBoolean preconnected = new AtomicBoolean();
+    private GenerateContentConfig inlineConfig;
+    private GenerateContentConfig systemInstructionConfig;
+    private final Map<GenerationTask, GenerateContentConfig> taskConfigs = new ConcurrentHashMap<>();
+    private final Map<String, CachedPrompt> cachedPrompts = new ConcurrentHashMap<>();
+    private final Map<String, Long> cacheRetryAfter = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder promptTokens = new LongAdder();
+    private final LongAdder cachedTokens = new LongAdder();
+    private final LongAdder outputTokens = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        inlineConfig = structuredOutput ? baseConfig().build() : null;
+        systemInstructionConfig = baseConfig()
+                .systemInstruction(Content.fromParts(Part.fromText(SYSTEM_INSTRUCTION)))
+                .build();
+        // Roughly four characters a token; Gemini rejects smaller caches anyway
+        if (contextCache && SYSTEM_INSTRUCTION.length() / 4 < contextCacheMinTokens) {
+            logger.info("System instruction is about {} tokens, below the {} Gemini caches; context caching is off",
+                    SYSTEM_INSTRUCTION.length() / 4, contextCacheMinTokens);
+            contextCache = false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cacheRefresher.shutdownNow();
+    }
+
+    public String generateContent(String prompt) throws Exception {
+        return generateContent(DEFAULT_MODEL, prompt);
+    }
+
+    public String generateContent(String model, String prompt) throws Exception {
+        String contents;
+        GenerateContentConfig config;
+        if (systemInstruction) {
+            contents = REQUEST_PREFIX + prompt + "\"";
+            config = resolvePromptConfig(model);
+        } else {
+            contents = REQUEST_PREFIX + prompt + INLINE_PROMPT_SUFFIX;
+            config = inlineConfig;
+        }
+
+        try {
+            long start = System.nanoTime();
+            GenerateContentResponse response = callGemini(model, contents, config);
+            recordUsage(response, System.nanoTime() - start);
+
+            String responseText = response.text().trim();
+            if (!structuredOutput || !responseText.startsWith("{")) {
+                responseText = cleanAIResponse(responseText);
+            }
+
+            logger.info("AI response received and cleaned, length: {}", responseText.length());
+            logger.debug("Cleaned response starts with: {}",
+                    responseText.substring(0, Math.min(100, responseText.length())));
+
+            return responseText;
+
+        } catch (Exception e) {
+            logger.error("Error calling Google AI API", e);
+            throw new Exception("Failed to generate content from AI: " + e.getMessage(), e);
+        }
     }
 
-    private String cleanAIResponse(String response) {
+    public String complete(String model, GenerationTask task, String prompt) throws Exception {
+        GenerateContentConfig config = taskConfigs.computeIfAbsent(task, t -> {
+            GenerateContentConfig.Builder builder = GenerateContentConfig.builder()
+                    .systemInstruction(Content.fromParts(Part.fromText(t.getSystemInstruction())));
+            if (t.isJson()) {
+                builder.responseMimeType("application/json");
+            }
+            return builder.build();
+        });
+
+        try {
+            long start = System.nanoTime();
+            GenerateContentResponse response = callGemini(model, prompt, config);
+            recordUsage(response, System.nanoTime() - start);
+
+            String responseText = response.text();
+            logger.info("AI {} response received, length: {}", task, responseText != null ? responseText.length() : 0);
+            return responseText != null ? responseText.trim() : "";
+
+        } catch (Exception e) {
+            logger.error("Error calling Google AI API for {}", task, e);
+            throw new Exception("Failed to generate " + task + " from AI: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Builds the client and looks the model up with a GET, which generates nothing, so the
+     * host is resolved and a kept-alive connection is open before the first user request.
+     * Bypasses the circuit breaker and usage stats; all models share the host, so only the
+     * first call does anything.
+     */
+    public boolean preconnect(String model) throws Exception {
+        if (!preconnected.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            getClient();
+            // The SDK has no model lookup, so this goes through the REST client
+            restTemplate.exchange(apiRoot() + "/v1beta/models/" + model, HttpMethod.GET,
+                    new HttpEntity<>(apiHeaders()), Void.class);
+        } catch (HttpClientErrorException e) {
+            // A rejected request still leaves the connection open
+            logger.debug("Pre-connect request rejected by Gemini: {}", e.getMessage());
+        } catch (Exception e) {
+            preconnected.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    public boolean isStructuredOutput() {
+        return structuredOutput;
+    }
+
+    public Map<String, Object> getUsageStatistics() {
+        long n = requests.sum();
+        long now = System.currentTimeMillis();
+        Map<String, String> cachedContents = new TreeMap<>();
+        cachedPrompts.forEach((model, cached) -> {
+            if (now < cached.expiresAt()) {
+                cachedContents.put(model, cached.name());
+            }
+        });
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("promptMode", !systemInstruction ? "inline"
+                : !cachedContents.isEmpty() ? "cachedContent" : "systemInstruction");
+        stats.put("cachedContents", cachedContents);
+        stats.put("requests", n);
+        stats.put("avgPromptTokens", n == 0 ? 0 : promptTokens.sum() / n);
+        stats.put("avgCachedTokens", n == 0 ? 0 : cachedTokens.sum() / n);
+        stats.put("avgOutputTokens", n == 0 ? 0 : outputTokens.sum() / n);
+        stats.put("avgLatencyMs", n == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(latencyNanos.sum() / n));
+        return stats;
+    }
+
+    private GenerateContentConfig.Builder baseConfig() {
+        GenerateContentConfig.Builder builder = GenerateContentConfig.builder();
+        if (structuredOutput) {
+            builder.responseMimeType("application/json").responseSchema(RESPONSE_SCHEMA);
+        }
+        return builder;
+    }
+
+    private GenerateContentConfig resolvePromptConfig(String model) {
+        if (!contextCache) {
+            return systemInstructionConfig;
+        }
+
+        long now = System.currentTimeMillis();
+        CachedPrompt current = cachedPrompts.get(model);
+        if (current != null && now < current.refreshAt()) {
+            return current.config();
+        }
+        // One refresh per model runs in the background; requests keep the old cache until it expires
+        if (now >= cacheRetryAfter.getOrDefault(model, 0L) && refreshing.add(model)) {
+            try {
+                cacheRefresher.execute(() -> refreshCachedPrompt(model));
+            } catch (RuntimeException e) {
+                refreshing.remove(model);
+                logger.warn("Could not start context cache refresh for {}: {}", model, e.getMessage());
+            }
+        }
+        return current != null && now < current.expiresAt() ? current.config() : systemInstructionConfig;
+    }
+
+    private void refreshCachedPrompt(String model) {
+        try {
+            CachedPrompt created = createCachedPrompt(model);
+            CachedPrompt superseded = cachedPrompts.put(model, created);
+            logger.info("Created cached system instruction {} for {}", created.name(), model);
+            if (superseded != null) {
+                // Requests that picked the old cache up get their full timeout to finish with it
+                CompletableFuture.runAsync(() -> deleteCachedPrompt(superseded),
+                        CompletableFuture.delayedExecutor(timeoutMs, TimeUnit.MILLISECONDS, cacheRefresher));
+            }
+        } catch (Exception e) {
+            cacheRetryAfter.put(model, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(30));
+            logger.warn("Context caching unavailable for {}, sending system instruction per request: {}",
+                    model, e.getMessage());
+        } finally {
+            refreshing.remove(model);
+        }
+    }
+
+    private void deleteCachedPrompt(CachedPrompt prompt) {
+        try {
+            restTemplate.exchange(apiRoot() + "/v1beta/" + prompt.name(), HttpMethod.DELETE,
+                    new HttpEntity<>(apiHeaders()), Void.class);
+            logger.debug("Deleted superseded cached system instruction {}", prompt.name());
+        } catch (Exception e) {
+            // It expires on its own at the end of its TTL
+            logger.warn("Failed to delete cached system instruction {}: {}", prompt.name(), e.getMessage());
+        }
+    }
+
+    private HttpHeaders apiHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("x-goog-api-key", apiKey);
+        return headers;
+    }
+
+    private String apiRoot() {
+        String root = baseUrl != null && !baseUrl.isBlank() ? baseUrl : DEFAULT_BASE_URL;
+        return root.replaceAll("/+$", "");
+    }
+
+    @SuppressWarnings("unchecked")
+    private CachedPrompt createCachedPrompt(String model) {
+        Map<String, Object> body = Map.of(
+                "model", "models/" + model,
+                "systemInstruction", Map.of("parts", List.of(Map.of("text", SYSTEM_INSTRUCTION))),
+                "ttl", contextCacheTtlSeconds + "s"
+        );
+
+        ResponseEntity<Map> response = restTemplate.postForEntity(
+                apiRoot() + "/v1beta/cachedContents", new HttpEntity<>(body, apiHeaders()), Map.class);
+
+        Map<String, Object> responseBody = response.getBody();
+        String name = responseBody != null ? (String) responseBody.get("name") : null;
+        if (name == null) {
+            throw new IllegalStateException("No cache name returned");
+        }
+
+        long now = System.currentTimeMillis();
+        long ttlMillis = TimeUnit.SECONDS.toMillis(contextCacheTtlSeconds);
+        GenerateContentConfig config = baseConfig().cachedContent(name).build();
+        return new CachedPrompt(name, config, now + ttlMillis * 9 / 10, now + ttlMillis);
+    }
+
+    // Requests Gemini rejects as invalid say nothing about its health; 429s and 5xx do
+    private GenerateContentResponse callGemini(String model, String contents, GenerateContentConfig config) throws Exception {
+        return circuitBreakers.gemini(model).call(
+                () -> getClient().models.generateContent(model, contents, config),
+                e -> !(e instanceof ClientException clientError) || clientError.code() == 429);
+    }
+
+    private void recordUsage(GenerateContentResponse response, long nanos) {
+        requests.increment();
+        latencyNanos.add(nanos);
+        response.usageMetadata().ifPresent((GenerateContentResponseUsageMetadata usage) -> {
+            promptTokens.add(usage.promptTokenCount().orElse(0));
+            cachedTokens.add(usage.cachedContentTokenCount().orElse(0));
+            outputTokens.add(usage.candidatesTokenCount().orElse(0));
+        });
+    }
+
+    private Client getClient() {
+        Client current = client;
+        if (current == null) {
+            synchronized (this) {
+                current = client;
+                if (current == null) {
+                    HttpOptions.Builder options = HttpOptions.builder();
+                    if (timeoutMs > 0) {
+                        options.timeout(timeoutMs);
+                    }
+                    if (baseUrl != null && !baseUrl.isBlank()) {
+                        options.baseUrl(baseUrl);
+                    }
+                    current = Client.builder().apiKey(apiKey).httpOptions(options.build()).build();
+                    client = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    String cleanAIResponse(String response) {
         response = response.replaceAll("```(?:json|javascript|js)?\\s*", "");
         response = response.replaceAll("```", "");
 
@@ -138,4 +470,7 @@ public class GoogleGenAIService {
 
         return response.trim();
     }
+
+    private record CachedPrompt(String name, GenerateContentConfig config, long refreshAt, long expiresAt) {
+    }
 }
\ No newline at end of file
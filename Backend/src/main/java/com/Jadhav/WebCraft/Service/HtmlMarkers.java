@@ -0,0 +1,151 @@
+package com.Jadhav.WebCraft.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming equivalents of {@code String.contains} and {@code String.replace} for
+ * ASCII markers in UTF-8 HTML, used to patch pages that are too large to load.
+ */
+final class HtmlMarkers {
+
+    private HtmlMarkers() {}
+
+    /**
+     * Returns which of the markers occur anywhere in the stream (one pass, KMP per marker).
+     */
+    static Set<String> scan(InputStream in, List<String> markers) throws IOException {
+        int n = markers.size();
+        byte[][] patterns = new byte[n][];
+        int[][] failure = new int[n][];
+        int[] state = new int[n];
+        for (int i = 0; i < n; i++) {
+            patterns[i] = markers.get(i).getBytes(StandardCharsets.US_ASCII);
+            failure[i] = failureTable(patterns[i]);
+        }
+
+        Set<String> found = new HashSet<>();
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = in.read(buffer)) != -1 && found.size() < n) {
+            for (int k = 0; k < read; k++) {
+                byte b = buffer[k];
+                for (int i = 0; i < n; i++) {
+                    if (state[i] < 0) {
+                        continue;
+                    }
+                    int s = state[i];
+                    while (s > 0 && patterns[i][s] != b) {
+                        s = failure[i][s - 1];
+                    }
+                    if (patterns[i][s] == b) {
+                        s++;
+                    }
+                    if (s == patterns[i].length) {
+                        found.add(markers.get(i));
+                        s = -1;
+                    }
+                    state[i] = s;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Copies the stream, replacing every occurrence of each tag with its replacement.
+     * Tags must start with '<' and contain no other '<', which lets a match be
+     * abandoned without backtracking.
+     */
+    static void replaceTags(InputStream in, OutputStream out, Map<String, String> replacements) throws IOException {
+        List<byte[]> tags = new ArrayList<>();
+        List<byte[]> values = new ArrayList<>();
+        for (Map.Entry<String, String> entry : replacements.entrySet()) {
+            byte[] tag = entry.getKey().getBytes(StandardCharsets.US_ASCII);
+            if (tag.length == 0 || tag[0] != '<' || entry.getKey().indexOf('<', 1) != -1) {
+                throw new IllegalArgumentException("Unsupported tag: " + entry.getKey());
+            }
+            tags.add(tag);
+            values.add(entry.getValue().getBytes(StandardCharsets.UTF_8));
+        }
+
+        ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            int flushedUpTo = 0;
+            for (int k = 0; k < read; k++) {
+                byte b = buffer[k];
+                if (pending.size() == 0) {
+                    if (b == '<') {
+                        out.write(buffer, flushedUpTo, k - flushedUpTo);
+                        pending.write(b);
+                        flushedUpTo = k + 1;
+                    }
+                    continue;
+                }
+
+                pending.write(b);
+                flushedUpTo = k + 1;
+                byte[] candidate = pending.toByteArray();
+                boolean prefixOfAny = false;
+                for (int t = 0; t < tags.size(); t++) {
+                    byte[] tag = tags.get(t);
+                    if (candidate.length <= tag.length && startsWith(tag, candidate)) {
+                        if (candidate.length == tag.length) {
+                            out.write(values.get(t));
+                            pending.reset();
+                        }
+                        prefixOfAny = true;
+                        break;
+                    }
+                }
+                if (!prefixOfAny) {
+                    pending.reset();
+                    if (b == '<') {
+                        out.write(candidate, 0, candidate.length - 1);
+                        pending.write(b);
+                    } else {
+                        out.write(candidate);
+                    }
+                }
+            }
+            if (pending.size() == 0) {
+                out.write(buffer, flushedUpTo, read - flushedUpTo);
+            }
+        }
+        pending.writeTo(out);
+    }
+
+    private static boolean startsWith(byte[] tag, byte[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (tag[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] failureTable(byte[] pattern) {
+        int[] failure = new int[pattern.length];
+        int k = 0;
+        for (int i = 1; i < pattern.length; i++) {
+            while (k > 0 && pattern[i] != pattern[k]) {
+                k = failure[k - 1];
+            }
+            if (pattern[i] == pattern[k]) {
+                k++;
+            }
+            failure[i] = k;
+        }
+        return failure;
+    }
+}
@@ -0,0 +1,18 @@
+package com.Jadhav.WebCraft.Service;
+
+public enum LatencyTier {
+    FAST,
+    BALANCED,
+    QUALITY;
+
+    public static LatencyTier fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return BALANCED;
+        }
+        try {
+            return LatencyTier.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown latency tier: " + value);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.Jadhav.WebCraft.Service;
+
+/**
+ * A backend that can turn a website description into the JSON site payload
+ * ({"html": ..., "css": ..., "js": ...}) understood by WebsiteGeneratorService.
+ * Additional providers are picked up by ModelRouter when registered as beans.
+ */
+public interface ModelProvider {
+
+    String getName();
+
+    LatencyTier getTier();
+
+    int getMaxConcurrency();
+
+    /** Disabled providers are not registered with the router. */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Opens the provider's outbound connections ahead of the first request.
+     * Returns false when there was nothing to do.
+     */
+    default boolean preconnect() throws Exception {
+        return false;
+    }
+
+    String generate(String prompt) throws Exception;
+
+    /**
+     * Runs a single-purpose task and returns the model's raw text.
+     */
+    String complete(GenerationTask task, String prompt) throws Exception;
+}
@@ -0,0 +1,309 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.google.genai.errors.ClientException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks a model provider per request from the requested latency tier, the prompt
+ * length and each provider's live p95 latency, error rate and concurrency budget.
+ * When the preferred provider is slow, failing or saturated the request falls back
+ * to the next faster tier; it is never sent to a slower one. Errors another provider
+ * would repeat (a rejected request, an open circuit) are thrown without falling back.
+ */
+@Service
+public class ModelRouter {
+    private static final Logger logger = LoggerFactory.getLogger(ModelRouter.class);
+    private static final int WINDOW = 128;
+    private static final long PROBE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    @Autowired
+    private GoogleGenAIService googleGenAIService;
+
+    @Autowired(required = false)
+    private List<ModelProvider> additionalProviders = List.of();
+
+    // model:TIER:maxConcurrency, comma separated
+    @Value("${google.ai.models:gemini-2.5-flash-lite:FAST:8,gemini-2.5-flash:BALANCED:8,gemini-2.5-pro:QUALITY:4}")
+    private String geminiModels;
+
+    @Value("${webcraft.routing.pinned-provider:}")
+    private String pinnedProvider;
+
+    @Value("${webcraft.routing.short-prompt-chars:0}")
+    private int shortPromptChars;
+
+    @Value("${webcraft.routing.long-prompt-chars:2000}")
+    private int longPromptChars;
+
+    @Value("${webcraft.routing.p95-budget-ms.fast:20000}")
+    private long fastBudgetMs;
+
+    @Value("${webcraft.routing.p95-budget-ms.balanced:60000}")
+    private long balancedBudgetMs;
+
+    @Value("${webcraft.routing.p95-budget-ms.quality:120000}")
+    private long qualityBudgetMs;
+
+    @Value("${webcraft.routing.max-error-rate:0.5}")
+    private double maxErrorRate;
+
+    @Value("${webcraft.routing.queue-timeout-ms:30000}")
+    private long queueTimeoutMs;
+
+    private final List<RoutedProvider> providers = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        for (String spec : geminiModels.split(",")) {
+            if (spec.isBlank()) {
+                continue;
+            }
+            String[] parts = spec.trim().split(":");
+            LatencyTier tier = parts.length > 1 ? LatencyTier.fromString(parts[1]) : LatencyTier.BALANCED;
+            int maxConcurrency = parts.length > 2 ? Integer.parseInt(parts[2]) : 8;
+            register(new GeminiModelProvider(googleGenAIService, parts[0], tier, maxConcurrency));
+        }
+        additionalProviders.stream().filter(ModelProvider::isEnabled).forEach(this::register);
+        logger.info("Registered model providers: {}", providers.stream().map(p -> p.provider.getName()).toList());
+    }
+
+    public void register(ModelProvider provider) {
+        providers.add(new RoutedProvider(provider));
+    }
+
+    public String generate(String prompt, LatencyTier requestedTier) throws Exception {
+        return route(prompt, requestedTier, provider -> provider.generate(prompt));
+    }
+
+    public String complete(GenerationTask task, String prompt, LatencyTier requestedTier) throws Exception {
+        return route(prompt, requestedTier, provider -> provider.complete(task, prompt));
+    }
+
+    private String route(String prompt, LatencyTier requestedTier, ProviderCall call) throws Exception {
+        LatencyTier tier = effectiveTier(prompt, requestedTier);
+        List<RoutedProvider> candidates = candidates(tier);
+        if (candidates.isEmpty()) {
+            throw new IllegalStateException("No model provider registered for tier " + tier);
+        }
+
+        Exception lastError = null;
+        RoutedProvider waitFor = null;
+        for (RoutedProvider candidate : candidates) {
+            boolean last = candidate == candidates.get(candidates.size() - 1);
+            if (!last && !candidate.isHealthy(budgetMs(tier), maxErrorRate)) {
+                logger.info("Skipping slow or failing provider {} for tier {}", candidate.provider.getName(), tier);
+                continue;
+            }
+            if (!candidate.permits.tryAcquire()) {
+                if (waitFor == null) {
+                    waitFor = candidate;
+                }
+                continue;
+            }
+            try {
+                return candidate.call(call);
+            } catch (Exception e) {
+                if (isFinal(e)) {
+                    throw e;
+                }
+                lastError = e;
+                logger.warn("Provider {} failed, trying next: {}", candidate.provider.getName(), e.getMessage());
+            } finally {
+                candidate.permits.release();
+            }
+        }
+
+        if (lastError != null) {
+            throw lastError;
+        }
+
+        // Everything was over its concurrency budget: queue on the preferred provider
+        if (waitFor == null || !waitFor.permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("All model providers are busy, please retry shortly");
+        }
+        try {
+            return waitFor.call(call);
+        } finally {
+            waitFor.permits.release();
+        }
+    }
+
+    /**
+     * Pre-connects every provider requests can be routed to, in routing order, and
+     * reports per provider whether it connected, was skipped or failed.
+     */
+    public Map<String, Object> preconnect() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (RoutedProvider p : candidates(LatencyTier.QUALITY)) {
+            long start = System.nanoTime();
+            Map<String, Object> outcome = new LinkedHashMap<>();
+            try {
+                outcome.put("status", p.provider.preconnect() ? "CONNECTED" : "SKIPPED");
+            } catch (Exception e) {
+                logger.warn("Pre-connect to {} failed: {}", p.provider.getName(), e.getMessage());
+                outcome.put("status", "FAILED");
+                outcome.put("error", e.getMessage());
+            }
+            outcome.put("ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            result.put(p.provider.getName(), outcome);
+        }
+        return result;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (RoutedProvider p : providers) {
+            result.put(p.provider.getName(), p.toMap());
+        }
+        return result;
+    }
+
+    LatencyTier effectiveTier(String prompt, LatencyTier requested) {
+        int length = prompt == null ? 0 : prompt.length();
+        if (requested == LatencyTier.FAST && length > longPromptChars) {
+            return LatencyTier.BALANCED;
+        }
+        if (requested == LatencyTier.BALANCED && length < shortPromptChars) {
+            return LatencyTier.FAST;
+        }
+        return requested;
+    }
+
+    private List<RoutedProvider> candidates(LatencyTier tier) {
+        if (pinnedProvider != null && !pinnedProvider.isBlank()) {
+            return providers.stream().filter(p -> p.provider.getName().equals(pinnedProvider)).toList();
+        }
+
+        // Requested tier first, then progressively faster tiers
+        Comparator<RoutedProvider> byTierDistance = Comparator.comparingInt(p -> tier.ordinal() - p.provider.getTier().ordinal());
+        return providers.stream()
+                .filter(p -> p.provider.getTier().ordinal() <= tier.ordinal())
+                .sorted(byTierDistance.thenComparingLong(RoutedProvider::p95Millis))
+                .toList();
+    }
+
+    // A rejected request fails the same way anywhere; an open circuit only covers its own model
+    private static boolean isFinal(Exception e) {
+        return isRejected(e);
+    }
+
+    // A 4xx other than 429 is about the request, not the provider; quota is per model
+    private static boolean isRejected(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ClientException clientError) {
+                return clientError.code() != 429;
+            }
+        }
+        return false;
+    }
+
+    private long budgetMs(LatencyTier tier) {
+        return switch (tier) {
+            case FAST -> fastBudgetMs;
+            case BALANCED -> balancedBudgetMs;
+            case QUALITY -> qualityBudgetMs;
+        };
+    }
+
+    @FunctionalInterface
+    private interface ProviderCall {
+        String apply(ModelProvider provider) throws Exception;
+    }
+
+    private static final class RoutedProvider {
+        private final ModelProvider provider;
+        private final Semaphore permits;
+        private final long[] latencies = new long[WINDOW];
+        private final boolean[] failures = new boolean[WINDOW];
+        // Longs, so the ring indexes never go negative on a long-lived provider
+        private long latencyCount;
+        private long outcomeCount;
+        private long calls;
+        private volatile long lastCallNanos = System.nanoTime();
+
+        RoutedProvider(ModelProvider provider) {
+            this.provider = provider;
+            this.permits = new Semaphore(Math.max(1, provider.getMaxConcurrency()));
+        }
+
+        String call(ProviderCall call) throws Exception {
+            long start = System.nanoTime();
+            lastCallNanos = start;
+            try {
+                String result = call.apply(provider);
+                record(System.nanoTime() - start, false);
+                return result;
+            } catch (Exception e) {
+                record(System.nanoTime() - start, !isRejected(e));
+                throw e;
+            }
+        }
+
+        synchronized void record(long nanos, boolean failed) {
+            calls++;
+            if (!failed) {
+                latencies[(int) (latencyCount++ % WINDOW)] = TimeUnit.NANOSECONDS.toMillis(nanos);
+            }
+            failures[(int) (outcomeCount++ % WINDOW)] = failed;
+        }
+
+        synchronized long p95Millis() {
+            int n = (int) Math.min(latencyCount, WINDOW);
+            if (n == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, n);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(n * 0.95) - 1];
+        }
+
+        synchronized double errorRate() {
+            int n = (int) Math.min(outcomeCount, WINDOW);
+            if (n == 0) {
+                return 0;
+            }
+            int failed = 0;
+            for (int i = 0; i < n; i++) {
+                if (failures[i]) {
+                    failed++;
+                }
+            }
+            return (double) failed / n;
+        }
+
+        boolean isHealthy(long budgetMs, double maxErrorRate) {
+            // Let an occasional request through so a recovered provider can clear its window
+            if (System.nanoTime() - lastCallNanos > PROBE_INTERVAL_NANOS) {
+                return true;
+            }
+            return p95Millis() <= budgetMs && errorRate() <= maxErrorRate;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("tier", provider.getTier());
+            map.put("maxConcurrency", provider.getMaxConcurrency());
+            map.put("inFlight", Math.max(1, provider.getMaxConcurrency()) - permits.availablePermits());
+            synchronized (this) {
+                map.put("calls", calls);
+            }
+            map.put("p95Ms", p95Millis());
+            map.put("errorRate", errorRate());
+            return map;
+        }
+    }
+}
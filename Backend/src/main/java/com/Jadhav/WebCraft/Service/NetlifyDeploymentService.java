@@ -1,18 +1,44 @@
 package com.Jadhav.WebCraft.Service;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.ResourceAccessException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.Map;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.zip.ZipOutputStream;
 import java.util.zip.ZipEntry;
 import java.io.IOException;
@@ -24,11 +50,97 @@ public class NetlifyDeploymentService {
     @Value("${netlify.token:}")
     private String netlifyToken;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${netlify.api-url:https://api.netlify.com/api/v1}")
+    private String apiUrl;
 
-    public String deployToNetlify(String html, String css, String js, String projectName) {
+    @Value("${netlify.live-check-interval-ms:2000}")
+    private long liveCheckIntervalMs;
+
+    @Value("${netlify.rate-limit.max-retries:5}")
+    private int maxThrottleRetries;
+
+    @Value("${netlify.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${netlify.read-timeout-ms:60000}")
+    private int readTimeoutMs;
+
+    @Value("${netlify.diagnostics.cache-ttl-seconds:60}")
+    private long diagnosticsCacheTtlSeconds;
+
+    @Value("${netlify.diagnostics.probe-site:}")
+    private String probeSiteName;
+
+    @Value("${netlify.diagnostics.sites-limit:20}")
+    private int diagnosticsSitesLimit;
+
+    @Autowired
+    private NetlifyRateLimiter rateLimiter;
+
+    @Autowired
+    private CircuitBreakers circuitBreakers;
+
+    private static final List<String> HTML_MARKERS = List.of(
+            "styles.css", "<link", "stylesheet", "</head>", "<head>",
+            "script.js", "<script", "src=", "</body>", "</html>");
+
+    private static final String PROBE_HTML = "<!DOCTYPE html>\n" +
+            "<html lang=\"en\">\n" +
+            "<head>\n" +
+            "    <meta charset=\"UTF-8\">\n" +
+            "    <title>WebCraft diagnostics</title>\n" +
+            "</head>\n" +
+            "<body>\n" +
+            "    <h1>WebCraft diagnostics probe</h1>\n" +
+            "</body>\n" +
+            "</html>";
+
+    private final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+    private final RestTemplate restTemplate = new RestTemplate(requestFactory);
+
+    @PostConstruct
+    public void init() {
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+    }
+
+    public record Deployment(String url, String deployId) {}
+
+    /**
+     * Receives the stages of a single deploy as they happen. Upload progress is counted
+     * as the ZIP is read onto the connection and reported once per percent.
+     */
+    public interface DeployListener {
+        DeployListener NONE = new DeployListener() {};
+
+        default void packaged(long zipBytes) {}
+
+        default void uploading(int percent) {}
+
+        default void uploaded(Deployment deployment) {}
+
+        default void live(boolean live) {}
+    }
+
+    // One diagnostics run per mode; callers share the future while it runs and until it expires
+    private record DiagnosticsRun(CompletableFuture<Map<String, Object>> result, long startedAt) {}
+
+    private final Map<Boolean, DiagnosticsRun> diagnosticsRuns = new ConcurrentHashMap<>();
+    private final ExecutorService diagnosticsExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile String probeSiteId;
+
+    public Deployment deployToNetlify(String html, String css, String js, String projectName) {
+        return deployToNetlify(DeploymentUpload.of(html, css, js), projectName);
+    }
+
+    public Deployment deployToNetlify(DeploymentUpload upload, String projectName) {
+        return deployToNetlify(upload, projectName, DeployListener.NONE);
+    }
+
+    public Deployment deployToNetlify(DeploymentUpload upload, String projectName, DeployListener listener) {
+        Path zip = null;
         try {
-            if (html == null || html.trim().isEmpty()) {
+            if (upload.getHtml().isBlank()) {
                 throw new IllegalArgumentException("HTML content cannot be empty");
             }
 
@@ -42,13 +154,14 @@ public class NetlifyDeploymentService {
 
             logger.info("Starting deployment for project: {}", projectName);
 
-            byte[] zipData = createDeploymentZip(html, css, js);
+            zip = createDeploymentZip(upload);
+            listener.packaged(Files.size(zip));
 
-            String deploymentUrl = deployZipToNetlify(zipData, projectName);
+            Deployment deployment = deployZipToNetlify(zip, projectName, listener);
 
-            if (deploymentUrl != null) {
-                logger.info("Deployment successful: {}", deploymentUrl);
-                return deploymentUrl;
+            if (deployment != null) {
+                logger.info("Deployment successful: {}", deployment.url());
+                return deployment;
             } else {
                 throw new RuntimeException("Deployment failed - no URL returned from Netlify");
             }
@@ -56,36 +169,47 @@ public class NetlifyDeploymentService {
         } catch (Exception e) {
             logger.error("Deployment failed for project {}: {}", projectName, e.getMessage(), e);
             throw new RuntimeException("Failed to deploy to Netlify: " + e.getMessage(), e);
+        } finally {
+            if (zip != null) {
+                try {
+                    Files.deleteIfExists(zip);
+                } catch (IOException e) {
+                    logger.warn("Failed to delete deployment ZIP {}: {}", zip, e.getMessage());
+                }
+            }
         }
     }
 
 
-    private byte[] createDeploymentZip(String html, String css, String js) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
-            String processedHtml = processHtmlWithAssets(html, css, js);
+    // The ZIP is written to a temp file and streamed to Netlify, so the site is never held in memory whole
+    Path createDeploymentZip(DeploymentUpload upload) throws IOException {
+        Path zip = Files.createTempFile("webcraft-deploy-", ".zip");
 
+        try (ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(zip), 64 * 1024))) {
             ZipEntry htmlEntry = new ZipEntry("index.html");
             zos.putNextEntry(htmlEntry);
-            zos.write(processedHtml.getBytes(StandardCharsets.UTF_8));
+            writeHtmlWithAssets(upload, zos);
             zos.closeEntry();
-            logger.info("Added index.html to ZIP");
+            logger.debug("Added index.html to ZIP");
 
-            if (css != null && !css.trim().isEmpty()) {
+            if (!upload.getCss().isBlank()) {
                 ZipEntry cssEntry = new ZipEntry("styles.css");
                 zos.putNextEntry(cssEntry);
-                zos.write(css.getBytes(StandardCharsets.UTF_8));
+                try (InputStream in = upload.getCss().open()) {
+                    in.transferTo(zos);
+                }
                 zos.closeEntry();
-                logger.info("Added styles.css to ZIP ({} bytes)", css.length());
+                logger.debug("Added styles.css to ZIP ({} bytes)", upload.getCss().size());
             }
 
-            if (js != null && !js.trim().isEmpty()) {
+            if (!upload.getJs().isBlank()) {
                 ZipEntry jsEntry = new ZipEntry("script.js");
                 zos.putNextEntry(jsEntry);
-                zos.write(js.getBytes(StandardCharsets.UTF_8));
+                try (InputStream in = upload.getJs().open()) {
+                    in.transferTo(zos);
+                }
                 zos.closeEntry();
-                logger.info("Added script.js to ZIP ({} bytes)", js.length());
+                logger.debug("Added script.js to ZIP ({} bytes)", upload.getJs().size());
             }
 
             ZipEntry redirectsEntry = new ZipEntry("_redirects");
@@ -94,64 +218,91 @@ public class NetlifyDeploymentService {
             zos.closeEntry();
 
             zos.flush();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(zip);
+            throw e;
         }
 
-        byte[] zipData = baos.toByteArray();
-        logger.info("Created deployment ZIP with size: {} bytes", zipData.length);
-        return zipData;
+        logger.debug("Created deployment ZIP with size: {} bytes", Files.size(zip));
+        return zip;
     }
 
 
-    private String processHtmlWithAssets(String html, String css, String js) {
-        if (html == null || html.trim().isEmpty()) {
-            return html;
+    /**
+     * Copies the HTML into the ZIP, adding the stylesheet and script tags when the page
+     * does not reference them yet. The first pass only scans for markers; the second
+     * pass copies the bytes and splices the tags in, so the page is never buffered.
+     */
+    void writeHtmlWithAssets(DeploymentUpload upload, OutputStream out) throws IOException {
+        DeploymentUpload.Part html = upload.getHtml();
+        boolean hasCss = !upload.getCss().isBlank();
+        boolean hasJs = !upload.getJs().isBlank();
+
+        Set<String> found = Set.of();
+        if (hasCss || hasJs) {
+            try (InputStream in = html.open()) {
+                found = HtmlMarkers.scan(in, HTML_MARKERS);
+            }
         }
 
-        String processedHtml = html;
-        boolean hasCssLink = false;
-        boolean hasJsLink = false;
-
-        if (css != null && !css.trim().isEmpty()) {
-            hasCssLink = processedHtml.contains("styles.css") ||
-                    processedHtml.contains("<link") && processedHtml.contains("stylesheet");
+        Map<String, String> insertions = new LinkedHashMap<>();
+        if (hasCss) {
+            boolean hasCssLink = found.contains("styles.css") ||
+                    found.contains("<link") && found.contains("stylesheet");
 
             if (!hasCssLink) {
-                if (processedHtml.contains("</head>")) {
-                    String cssLink = "    <link rel=\"stylesheet\" href=\"styles.css\">\n";
-                    processedHtml = processedHtml.replace("</head>", cssLink + "</head>");
-                    logger.info("Added CSS link to HTML");
-                } else {
-                    if (processedHtml.contains("<head>")) {
-                        String cssLink = "\n    <link rel=\"stylesheet\" href=\"styles.css\">";
-                        processedHtml = processedHtml.replace("<head>", "<head>" + cssLink);
-                    }
+                if (found.contains("</head>")) {
+                    insertions.put("</head>", "    <link rel=\"stylesheet\" href=\"styles.css\">\n</head>");
+                    logger.debug("Added CSS link to HTML");
+                } else if (found.contains("<head>")) {
+                    insertions.put("<head>", "<head>\n    <link rel=\"stylesheet\" href=\"styles.css\">");
                 }
             }
         }
 
-        if (js != null && !js.trim().isEmpty()) {
-            hasJsLink = processedHtml.contains("script.js") ||
-                    processedHtml.contains("<script") && processedHtml.contains("src=");
+        if (hasJs) {
+            boolean hasJsLink = found.contains("script.js") ||
+                    found.contains("<script") && found.contains("src=");
 
             if (!hasJsLink) {
-                if (processedHtml.contains("</body>")) {
-                    String jsScript = "    <script src=\"script.js\"></script>\n";
-                    processedHtml = processedHtml.replace("</body>", jsScript + "</body>");
-                    logger.info("Added JS script to HTML");
-                } else {
-                    if (processedHtml.contains("</html>")) {
-                        String jsScript = "\n    <script src=\"script.js\"></script>\n";
-                        processedHtml = processedHtml.replace("</html>", jsScript + "</html>");
-                    }
+                if (found.contains("</body>")) {
+                    insertions.put("</body>", "    <script src=\"script.js\"></script>\n</body>");
+                    logger.debug("Added JS script to HTML");
+                } else if (found.contains("</html>")) {
+                    insertions.put("</html>", "\n    <script src=\"script.js\"></script>\n</html>");
                 }
             }
         }
 
-        return processedHtml;
+        try (InputStream in = html.open()) {
+            if (insertions.isEmpty()) {
+                in.transferTo(out);
+            } else {
+                HtmlMarkers.replaceTags(in, out, insertions);
+            }
+        }
     }
 
 
-    private String deployZipToNetlify(byte[] zipData, String projectName) {
+    private Deployment deployZipToNetlify(Path zip, String projectName, DeployListener listener) {
+        Deployment deployment = uploadZip(zip, projectName, listener);
+        if (deployment != null) {
+            listener.uploaded(deployment);
+            listener.live(waitForDeployment(deployment.url()));
+        }
+        return deployment;
+    }
+
+    /**
+     * Creates the site from the ZIP without waiting for it to go live. Calls are paced
+     * by the {@link NetlifyRateLimiter}, retried when Netlify answers 429 and fail fast
+     * while the Netlify circuit breaker is open.
+     */
+    Deployment uploadZip(Path zip, String projectName) {
+        return uploadZip(zip, projectName, DeployListener.NONE);
+    }
+
+    private Deployment uploadZip(Path zip, String projectName, DeployListener listener) {
         try {
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.valueOf("application/zip"));
@@ -163,24 +314,38 @@ public class NetlifyDeploymentService {
                 headers.set("Netlify-Site-Name", projectName);
             }
 
-            HttpEntity<byte[]> entity = new HttpEntity<>(zipData, headers);
+            HttpEntity<Resource> entity = new HttpEntity<>(progressResource(zip, listener), headers);
 
-            logger.info("Sending deployment request to Netlify...");
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                    "https://api.netlify.com/api/v1/sites", entity, Map.class);
+            ResponseEntity<Map> response;
+            for (int attempt = 0; ; attempt++) {
+                rateLimiter.acquire();
+                try {
+                    logger.info("Sending deployment request to Netlify...");
+                    // 4xx answers (429 included) come from a healthy API and do not count against the breaker
+                    response = circuitBreakers.netlify().call(
+                            () -> restTemplate.postForEntity(apiUrl + "/sites", entity, Map.class),
+                            e -> !(e instanceof HttpClientErrorException));
+                    rateLimiter.update(response.getHeaders());
+                    break;
+                } catch (HttpClientErrorException.TooManyRequests e) {
+                    long backoffMs = rateLimiter.onThrottled(e.getResponseHeaders());
+                    if (attempt >= maxThrottleRetries) {
+                        throw e;
+                    }
+                    logger.warn("Netlify throttled deployment of {}, retrying in {} ms", projectName, backoffMs);
+                }
+            }
 
             if (response.getStatusCode() == HttpStatus.CREATED && response.getBody() != null) {
                 Map<String, Object> responseBody = response.getBody();
                 String url = (String) responseBody.get("url");
                 String siteId = (String) responseBody.get("id");
+                String deployId = (String) responseBody.get("deploy_id");
 
                 if (url != null) {
                     String httpsUrl = url.replace("http://", "https://");
                     logger.info("Site created successfully with ID: {}, URL: {}", siteId, httpsUrl);
-
-                    waitForDeployment(httpsUrl);
-
-                    return httpsUrl;
+                    return new Deployment(httpsUrl, deployId != null ? deployId : siteId);
                 }
             }
 
@@ -188,204 +353,355 @@ public class NetlifyDeploymentService {
             return null;
 
         } catch (HttpClientErrorException e) {
+            if (e.getResponseHeaders() != null) {
+                rateLimiter.update(e.getResponseHeaders());
+            }
             logger.error("HTTP error during deployment: {} - {}",
                     e.getStatusCode(), e.getResponseBodyAsString());
             throw new RuntimeException("Netlify API error: " + e.getStatusCode() + " - " + e.getResponseBodyAsString());
+        } catch (CircuitBreaker.OpenException e) {
+            logger.warn("Deployment rejected: {}", e.getMessage());
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Deployment interrupted while waiting for the Netlify rate limit", e);
         } catch (Exception e) {
             logger.error("Deployment error: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to deploy to Netlify: " + e.getMessage(), e);
         }
     }
 
-    private void waitForDeployment(String url) {
+    // A retried upload reads the file again, so progress restarts from zero
+    private static Resource progressResource(Path zip, DeployListener listener) {
+        if (listener == DeployListener.NONE) {
+            return new FileSystemResource(zip);
+        }
+        return new FileSystemResource(zip) {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                long total = Math.max(1, contentLength());
+                return new FilterInputStream(super.getInputStream()) {
+                    private long sent;
+                    private int reported = -1;
+
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        if (b >= 0) {
+                            advance(1);
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int n = super.read(buffer, offset, length);
+                        if (n > 0) {
+                            advance(n);
+                        }
+                        return n;
+                    }
+
+                    private void advance(int n) {
+                        sent += n;
+                        int percent = (int) (sent * 100 / total);
+                        if (percent != reported) {
+                            reported = percent;
+                            listener.uploading(percent);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    boolean waitForDeployment(String url) {
         int maxAttempts = 10;
         int attempt = 0;
 
         while (attempt < maxAttempts) {
             try {
-                Thread.sleep(2000);
+                Thread.sleep(liveCheckIntervalMs);
 
                 if (testSiteAccessibility(url)) {
                     logger.info("Deployment is accessible after {} attempts", attempt + 1);
-                    return;
+                    return true;
                 }
 
                 attempt++;
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 logger.warn("Deployment wait interrupted");
-                return;
+                return false;
             }
         }
 
         logger.warn("Deployment may not be fully accessible yet after {} attempts", maxAttempts);
+        return false;
     }
 
 
-    public Map<String, Object> runDiagnostics() {
-        Map<String, Object> diagnostics = new HashMap<>();
-
+    /**
+     * Sends a HEAD request to the API so a kept-alive, TLS-established connection is
+     * waiting in the pool for the first deploy. Bypasses the circuit breaker.
+     */
+    public boolean preconnect() throws InterruptedException {
+        if (netlifyToken == null || netlifyToken.isBlank()) {
+            return false;
+        }
+        rateLimiter.acquire();
         try {
-            if (netlifyToken == null || netlifyToken.trim().isEmpty()) {
-                diagnostics.put("tokenValid", false);
-                diagnostics.put("error", "Netlify token is not configured");
-                return diagnostics;
+            ResponseEntity<Void> response = restTemplate.exchange(
+                    apiUrl + "/user", HttpMethod.HEAD, new HttpEntity<>(diagnosticHeaders()), Void.class);
+            rateLimiter.update(response.getHeaders());
+        } catch (HttpClientErrorException e) {
+            // An error status still leaves the connection open
+            if (e.getResponseHeaders() != null) {
+                rateLimiter.update(e.getResponseHeaders());
             }
+        }
+        return true;
+    }
 
-            boolean tokenValid = testTokenValidity();
-            diagnostics.put("tokenValid", tokenValid);
-
-            if (tokenValid) {
-                Map<String, Object> accountInfo = getAccountInfo();
-                diagnostics.put("accountInfo", accountInfo);
+    /**
+     * Checks the Netlify setup. The default fast mode is read-only: the account lookup
+     * (which also validates the token) and the site list run concurrently. With
+     * {@code deploy} it also redeploys a dedicated probe site, uploading only a small
+     * marker file, and checks that the new deploy is served. Results are cached per
+     * mode for {@code netlify.diagnostics.cache-ttl-seconds}, and callers arriving while
+     * a run is in progress share it.
+     */
+    public Map<String, Object> runDiagnostics(boolean deploy, boolean refresh) {
+        long now = System.currentTimeMillis();
+        long ttlMillis = TimeUnit.SECONDS.toMillis(diagnosticsCacheTtlSeconds);
+        boolean[] started = {false};
+        DiagnosticsRun run = diagnosticsRuns.compute(deploy, (mode, existing) -> {
+            if (existing != null && (!existing.result().isDone()
+                    || (!refresh && now - existing.startedAt() < ttlMillis))) {
+                return existing;
+            }
+            started[0] = true;
+            return new DiagnosticsRun(
+                    CompletableFuture.supplyAsync(() -> collectDiagnostics(deploy), diagnosticsExecutor), now);
+        });
 
-                Object sites = listSites();
-                diagnostics.put("existingSites", sites);
+        Map<String, Object> diagnostics = new LinkedHashMap<>(run.result().join());
+        diagnostics.put("cached", !started[0]);
+        diagnostics.put("ageMs", System.currentTimeMillis() - run.startedAt());
+        return diagnostics;
+    }
 
-                String testUrl = testMinimalDeployment();
-                diagnostics.put("testDeploymentUrl", testUrl);
+    private Map<String, Object> collectDiagnostics(boolean deploy) {
+        long start = System.nanoTime();
+        Map<String, Object> diagnostics = new LinkedHashMap<>();
+        diagnostics.put("mode", deploy ? "deploy" : "fast");
 
-                if (testUrl != null) {
-                    boolean siteAccessible = testSiteAccessibility(testUrl);
-                    diagnostics.put("siteAccessible", siteAccessible);
+        if (netlifyToken == null || netlifyToken.trim().isEmpty()) {
+            diagnostics.put("tokenValid", false);
+            diagnostics.put("error", "Netlify token is not configured");
+            return diagnostics;
+        }
 
-                    if (!siteAccessible) {
-                        Map<String, Object> errorDetails = getDetailedErrorInfo(testUrl);
-                        diagnostics.put("errorDetails", errorDetails);
-                    }
+        Map<String, Object> timings = new ConcurrentHashMap<>();
+        CompletableFuture<Map<String, Object>> account = probe(timings, "account", this::getAccountInfo);
+        CompletableFuture<List<Map<String, Object>>> sites = probe(timings, "sites", this::listSites);
+
+        Map<String, Object> accountInfo = account.join();
+        diagnostics.put("tokenValid", accountInfo != null);
+        if (accountInfo != null) {
+            diagnostics.put("accountInfo", accountInfo);
+            if (deploy) {
+                Map<String, Object> deployment = probe(timings, "deploy", this::testProbeDeployment).join();
+                if (deployment != null) {
+                    diagnostics.putAll(deployment);
                 }
             }
-
-        } catch (Exception e) {
-            logger.error("Diagnostic error: {}", e.getMessage(), e);
-            diagnostics.put("diagnosticError", e.getMessage());
         }
 
+        List<Map<String, Object>> existingSites = sites.join();
+        diagnostics.put("existingSites", existingSites != null ? existingSites : "Failed to retrieve");
+        diagnostics.put("circuitBreaker", circuitBreakers.netlify().snapshot());
+        diagnostics.put("probes", new TreeMap<>(timings));
+        diagnostics.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
         return diagnostics;
     }
 
-    private boolean testTokenValidity() {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(netlifyToken);
-            headers.set("User-Agent", "WebCraft-Diagnostic/1.0");
-
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    "https://api.netlify.com/api/v1/user", HttpMethod.GET, entity, Map.class);
+    // Runs one check on the diagnostics executor; a failed check yields null and its error
+    private <T> CompletableFuture<T> probe(Map<String, Object> timings, String name, Callable<T> check) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            String error = null;
+            try {
+                return check.call();
+            } catch (HttpClientErrorException e) {
+                error = e.getStatusCode() + " - " + e.getResponseBodyAsString();
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = "Interrupted";
+                return null;
+            } catch (Exception e) {
+                error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                return null;
+            } finally {
+                Map<String, Object> timing = new LinkedHashMap<>();
+                timing.put("ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                if (error != null) {
+                    logger.warn("Diagnostic check {} failed: {}", name, error);
+                    timing.put("error", error);
+                }
+                timings.put(name, timing);
+            }
+        }, diagnosticsExecutor);
+    }
 
-            boolean isValid = response.getStatusCode() == HttpStatus.OK;
-            logger.info("Token validity test: {}", isValid ? "PASSED" : "FAILED");
-            return isValid;
+    // GET /user doubles as the token check: it only succeeds with a valid token
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getAccountInfo() throws Exception {
+        Map<String, Object> accountInfo = getJson(apiUrl + "/user");
+        logger.info("Token validity test: PASSED");
+        return accountInfo;
+    }
 
-        } catch (HttpClientErrorException e) {
-            logger.error("Token validity test failed: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
-            return false;
-        } catch (Exception e) {
-            logger.error("Token validity test error: {}", e.getMessage());
-            return false;
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> listSites() throws Exception {
+        ResponseEntity<List> response = callNetlify(() -> restTemplate.exchange(
+                apiUrl + "/sites?per_page=" + diagnosticsSitesLimit, HttpMethod.GET,
+                new HttpEntity<>(diagnosticHeaders()), List.class));
+
+        List<Map<String, Object>> sites = new ArrayList<>();
+        if (response.getBody() != null) {
+            for (Map<String, Object> site : (List<Map<String, Object>>) response.getBody()) {
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("id", site.get("id"));
+                summary.put("name", site.get("name"));
+                summary.put("url", siteUrl(site));
+                summary.put("updatedAt", site.get("updated_at"));
+                sites.add(summary);
+            }
         }
+        logger.info("Sites list retrieved successfully");
+        return sites;
     }
 
-    private Map<String, Object> getAccountInfo() {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(netlifyToken);
-            headers.set("User-Agent", "WebCraft-Diagnostic/1.0");
-
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    "https://api.netlify.com/api/v1/user", HttpMethod.GET, entity, Map.class);
+    /**
+     * Deploys to the probe site with Netlify's file digest API. index.html never changes,
+     * so Netlify already has it and only the marker file with a fresh timestamp is sent.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> testProbeDeployment() throws Exception {
+        Map<String, Object> result = new LinkedHashMap<>();
+        Map<String, Object> site = probeSite();
+        String siteId = (String) site.get("id");
+        String siteUrl = siteUrl(site);
+        result.put("probeSite", Map.of("id", siteId, "name", String.valueOf(site.get("name")), "url", siteUrl));
+
+        String marker = "WebCraft diagnostics " + Instant.now();
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        files.put("/index.html", PROBE_HTML.getBytes(StandardCharsets.UTF_8));
+        files.put("/probe.txt", marker.getBytes(StandardCharsets.UTF_8));
+        Map<String, String> digests = new LinkedHashMap<>();
+        Map<String, String> pathsByDigest = new HashMap<>();
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            String sha1 = sha1(file.getValue());
+            digests.put(file.getKey(), sha1);
+            pathsByDigest.put(sha1, file.getKey());
+        }
 
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Map<String, Object> accountInfo = response.getBody();
-                logger.info("Account info retrieved successfully");
-                return accountInfo;
+        HttpHeaders headers = diagnosticHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        rateLimiter.acquire();
+        ResponseEntity<Map> created = callNetlify(() -> restTemplate.postForEntity(
+                apiUrl + "/sites/" + siteId + "/deploys", new HttpEntity<>(Map.of("files", digests), headers), Map.class));
+        rateLimiter.update(created.getHeaders());
+        Map<String, Object> deploy = created.getBody() != null ? created.getBody() : Map.of();
+        String deployId = (String) deploy.get("id");
+        result.put("deployId", deployId);
+
+        List<String> required = (List<String>) deploy.getOrDefault("required", List.of());
+        long uploadedBytes = 0;
+        for (String sha1 : required) {
+            String path = pathsByDigest.get(sha1);
+            if (path == null) {
+                continue;
             }
-
-        } catch (Exception e) {
-            logger.error("Failed to get account info: {}", e.getMessage());
+            HttpHeaders uploadHeaders = diagnosticHeaders();
+            uploadHeaders.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            byte[] bytes = files.get(path);
+            callNetlify(() -> restTemplate.exchange(apiUrl + "/deploys/" + deployId + "/files" + path,
+                    HttpMethod.PUT, new HttpEntity<>(bytes, uploadHeaders), Map.class));
+            uploadedBytes += bytes.length;
         }
-
-        return new HashMap<>();
+        result.put("uploadedFiles", required.size());
+        result.put("uploadedBytes", uploadedBytes);
+        result.put("testDeploymentUrl", siteUrl);
+
+        boolean live = waitForContent(siteUrl + "/probe.txt", marker);
+        result.put("siteAccessible", live);
+        if (!live) {
+            result.put("errorDetails", getDetailedErrorInfo(siteUrl, siteId));
+        }
+        return result;
     }
 
+    // Looks up the probe site, creating it on first use
     @SuppressWarnings("unchecked")
-    private Object listSites() {
+    private Map<String, Object> probeSite() throws Exception {
+        String name = probeSiteName();
+        String knownId = probeSiteId;
+        Map<String, Object> site;
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(netlifyToken);
-            headers.set("User-Agent", "WebCraft-Diagnostic/1.0");
-
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<List> response = restTemplate.exchange(
-                    "https://api.netlify.com/api/v1/sites", HttpMethod.GET, entity, List.class);
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                logger.info("Sites list retrieved successfully");
-                return response.getBody();
+            site = getJson(apiUrl + "/sites/" + (knownId != null ? knownId : name + ".netlify.app"));
+        } catch (HttpClientErrorException.NotFound e) {
+            logger.info("Creating Netlify diagnostics probe site {}", name);
+            HttpHeaders headers = diagnosticHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            rateLimiter.acquire();
+            ResponseEntity<Map> created = callNetlify(() -> restTemplate.postForEntity(
+                    apiUrl + "/sites", new HttpEntity<>(Map.of("name", name), headers), Map.class));
+            rateLimiter.update(created.getHeaders());
+            site = created.getBody();
+            if (site == null || site.get("id") == null) {
+                throw new IllegalStateException("Netlify did not return the created probe site");
             }
-
-        } catch (Exception e) {
-            logger.error("Failed to list sites: {}", e.getMessage());
         }
-
-        return "Failed to retrieve";
+        probeSiteId = (String) site.get("id");
+        return site;
     }
 
-    private String testMinimalDeployment() {
+    // Site names are global on Netlify, so the default is derived from the account's token
+    private String probeSiteName() {
+        if (probeSiteName != null && !probeSiteName.isBlank()) {
+            return probeSiteName;
+        }
         try {
-            String minimalHtml = "<!DOCTYPE html>\n" +
-                    "<html lang=\"en\">\n" +
-                    "<head>\n" +
-                    "    <meta charset=\"UTF-8\">\n" +
-                    "    <title>Test</title>\n" +
-                    "</head>\n" +
-                    "<body>\n" +
-                    "    <h1>Test Deployment</h1>\n" +
-                    "</body>\n" +
-                    "</html>";
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            try (ZipOutputStream zos = new ZipOutputStream(baos)) {
-                ZipEntry entry = new ZipEntry("index.html");
-                zos.putNextEntry(entry);
-                zos.write(minimalHtml.getBytes(StandardCharsets.UTF_8));
-                zos.closeEntry();
-            }
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.valueOf("application/zip"));
-            headers.setBearerAuth(netlifyToken);
-            headers.set("Cache-Control", "no-cache");
-            headers.set("User-Agent", "WebCraft-Diagnostic/1.0");
-
-            HttpEntity<byte[]> entity = new HttpEntity<>(baos.toByteArray(), headers);
-
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                    "https://api.netlify.com/api/v1/sites", entity, Map.class);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(netlifyToken.getBytes(StandardCharsets.UTF_8));
+            return "webcraft-probe-" + HexFormat.of().formatHex(digest, 0, 5);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-            if (response.getStatusCode() == HttpStatus.CREATED && response.getBody() != null) {
-                Map<String, Object> responseBody = response.getBody();
-                String url = (String) responseBody.get("url");
-                if (url != null) {
-                    String httpsUrl = url.replace("http://", "https://");
-                    logger.info("Test deployment successful: {}", httpsUrl);
-                    return httpsUrl;
+    private boolean waitForContent(String url, String expected) {
+        for (int attempt = 1; attempt <= 10; attempt++) {
+            try {
+                ResponseEntity<String> response = restTemplate.exchange(
+                        url, HttpMethod.GET, new HttpEntity<>(diagnosticHeaders()), String.class);
+                if (response.getBody() != null && response.getBody().trim().equals(expected)) {
+                    logger.info("Probe deployment is live after {} attempts", attempt);
+                    return true;
                 }
+            } catch (Exception e) {
+                logger.debug("Probe site not serving the new deploy yet: {}", e.getMessage());
+            }
+            try {
+                Thread.sleep(liveCheckIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
             }
-
-        } catch (HttpClientErrorException e) {
-            logger.error("Test deployment failed with HTTP error: {} - {}",
-                    e.getStatusCode(), e.getResponseBodyAsString());
-        } catch (Exception e) {
-            logger.error("Test deployment failed: {}", e.getMessage(), e);
         }
-
-        return null;
+        return false;
     }
 
     private boolean testSiteAccessibility(String url) {
@@ -420,89 +736,77 @@ public class NetlifyDeploymentService {
         }
     }
 
-    private Map<String, Object> getDetailedErrorInfo(String url) {
-        Map<String, Object> errorInfo = new HashMap<>();
-
-        try {
-            // Try different request methods to understand the error
-            String[] methods = {"GET", "HEAD", "OPTIONS"};
-
-            for (String method : methods) {
-                try {
-                    HttpHeaders headers = new HttpHeaders();
-                    headers.set("User-Agent", "WebCraft-Diagnostic/1.0");
-
-                    HttpEntity<String> entity = new HttpEntity<>(headers);
-
-                    ResponseEntity<String> response = restTemplate.exchange(
-                            url, HttpMethod.valueOf(method), entity, String.class);
-
-                    errorInfo.put(method + "_status", response.getStatusCode().value());
-                    errorInfo.put(method + "_headers", response.getHeaders().toSingleValueMap());
-
-                } catch (HttpClientErrorException e) {
-                    errorInfo.put(method + "_error_status", e.getStatusCode().value());
-                    errorInfo.put(method + "_error_body", e.getResponseBodyAsString());
-                    errorInfo.put(method + "_error_headers", e.getResponseHeaders().toSingleValueMap());
-                } catch (Exception e) {
-                    errorInfo.put(method + "_error", e.getMessage());
-                }
-            }
-
-            String siteId = extractSiteIdFromUrl(url);
-            if (siteId != null) {
-                Map<String, Object> siteInfo = getSiteInfo(siteId);
-                errorInfo.put("netlify_site_info", siteInfo);
-            }
 
-        } catch (Exception e) {
-            errorInfo.put("diagnostic_error", e.getMessage());
+    private Map<String, Object> getDetailedErrorInfo(String url, String siteId) {
+        // The different request methods help tell a missing deploy from a blocked one
+        Map<String, CompletableFuture<Map<String, Object>>> checks = new LinkedHashMap<>();
+        for (HttpMethod method : List.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS)) {
+            checks.put(method.name(), CompletableFuture.supplyAsync(() -> requestDetails(url, method), diagnosticsExecutor));
         }
+        checks.put("netlify_site_info", CompletableFuture.supplyAsync(() -> getSiteInfo(siteId), diagnosticsExecutor));
 
+        Map<String, Object> errorInfo = new LinkedHashMap<>();
+        checks.forEach((name, check) -> errorInfo.put(name, check.join()));
         return errorInfo;
     }
 
-    private String extractSiteIdFromUrl(String url) {
+    private Map<String, Object> requestDetails(String url, HttpMethod method) {
+        Map<String, Object> details = new LinkedHashMap<>();
         try {
-            String domain = url.replace("https://", "").replace("http://", "");
-            String[] parts = domain.split("\\.");
-            if (parts.length > 0) {
-                String firstPart = parts[0];
-                if (firstPart.contains("--")) {
-                    return firstPart.split("--")[0];
-                }
-                return firstPart;
+            ResponseEntity<String> response = restTemplate.exchange(
+                    url, method, new HttpEntity<>(diagnosticHeaders()), String.class);
+            details.put("status", response.getStatusCode().value());
+            details.put("headers", response.getHeaders().toSingleValueMap());
+        } catch (HttpClientErrorException e) {
+            details.put("errorStatus", e.getStatusCode().value());
+            details.put("errorBody", e.getResponseBodyAsString());
+            if (e.getResponseHeaders() != null) {
+                details.put("errorHeaders", e.getResponseHeaders().toSingleValueMap());
             }
         } catch (Exception e) {
-            logger.error("Failed to extract site ID from URL: {}", url, e);
+            details.put("error", e.getMessage());
         }
-        return null;
+        return details;
     }
 
     private Map<String, Object> getSiteInfo(String siteId) {
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(netlifyToken);
-            headers.set("User-Agent", "WebCraft-Diagnostic/1.0");
+            return getJson(apiUrl + "/sites/" + siteId);
+        } catch (Exception e) {
+            logger.error("Failed to get site info for {}: {}", siteId, e.getMessage());
+            return new HashMap<>();
+        }
+    }
 
-            HttpEntity<String> entity = new HttpEntity<>(headers);
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getJson(String url) throws Exception {
+        ResponseEntity<Map> response = callNetlify(() -> restTemplate.exchange(
+                url, HttpMethod.GET, new HttpEntity<>(diagnosticHeaders()), Map.class));
+        return response.getBody() != null ? response.getBody() : new HashMap<>();
+    }
 
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    "https://api.netlify.com/api/v1/sites/" + siteId, HttpMethod.GET, entity, Map.class);
+    private <T> T callNetlify(Callable<T> call) throws Exception {
+        return circuitBreakers.netlify().call(call, e -> !(e instanceof HttpClientErrorException));
+    }
 
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                return response.getBody();
-            }
+    private HttpHeaders diagnosticHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(netlifyToken);
+        headers.set("User-Agent", "WebCraft-Diagnostic/1.0");
+        return headers;
+    }
 
-        } catch (Exception e) {
-            logger.error("Failed to get site info for {}: {}", siteId, e.getMessage());
-        }
+    private static String siteUrl(Map<String, Object> site) {
+        Object url = site.get("ssl_url") != null ? site.get("ssl_url") : site.get("url");
+        return url != null ? url.toString() : null;
+    }
 
-        return new HashMap<>();
+    private static String sha1(byte[] bytes) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(bytes));
     }
 
     public void printDiagnosticReport() {
-        Map<String, Object> diagnostics = runDiagnostics();
+        Map<String, Object> diagnostics = runDiagnostics(false, false);
 
         logger.info("=== NETLIFY DEPLOYMENT DIAGNOSTIC REPORT ===");
         diagnostics.forEach((key, value) -> {
@@ -510,4 +814,9 @@ public class NetlifyDeploymentService {
         });
         logger.info("=== END DIAGNOSTIC REPORT ===");
     }
-}
\ No newline at end of file
+
+    @PreDestroy
+    public void shutdown() {
+        diagnosticsExecutor.shutdownNow();
+    }
+}
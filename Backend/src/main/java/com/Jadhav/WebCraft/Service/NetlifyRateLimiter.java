@@ -0,0 +1,206 @@
+package com.Jadhav.WebCraft.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket for calls that create Netlify deploys. It starts from the documented
+ * deploy allowance and then follows Netlify's own X-RateLimit-* response headers, so
+ * uploads go out as fast as the account allows. A 429 empties the bucket and blocks
+ * until Retry-After (or the reset time, or an exponential backoff) has passed.
+ */
+@Component
+public class NetlifyRateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(NetlifyRateLimiter.class);
+
+    @Value("${netlify.rate-limit.capacity:3}")
+    private int capacity;
+
+    @Value("${netlify.rate-limit.refill-per-minute:3}")
+    private double refillPerMinute;
+
+    @Value("${netlify.rate-limit.max-backoff-seconds:60}")
+    private long maxBackoffSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private double tokens = -1;
+    private long lastRefillNanos;
+    private long blockedUntilNanos = System.nanoTime();
+    private int consecutiveThrottles;
+
+    private long acquired;
+    private long throttled;
+    private long totalWaitMillis;
+    private Integer serverLimit;
+    private Integer serverRemaining;
+
+    /** Blocks until a call may be made. */
+    public void acquire() throws InterruptedException {
+        long start = System.nanoTime();
+        while (true) {
+            long wait = tryAcquire(System.nanoTime());
+            if (wait == 0) {
+                break;
+            }
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lock.lock();
+        try {
+            totalWaitMillis += waitedMillis;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Takes a token and returns 0, or returns how long to wait before trying again
+    long tryAcquire(long now) {
+        lock.lock();
+        try {
+            refill(now);
+            if (now < blockedUntilNanos) {
+                return blockedUntilNanos - now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                acquired++;
+                return 0;
+            }
+            return Math.max(1, (long) ((1 - tokens) * intervalNanos()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Aligns the bucket with the allowance Netlify reports on a response. */
+    public void update(HttpHeaders headers) {
+        update(headers, System.nanoTime(), System.currentTimeMillis());
+    }
+
+    void update(HttpHeaders headers, long now, long epochMillis) {
+        Integer limit = intHeader(headers, "X-RateLimit-Limit");
+        Integer remaining = intHeader(headers, "X-RateLimit-Remaining");
+        Long reset = longHeader(headers, "X-RateLimit-Reset");
+        lock.lock();
+        try {
+            refill(now);
+            consecutiveThrottles = 0;
+            if (limit != null) {
+                serverLimit = limit;
+            }
+            if (remaining != null) {
+                serverRemaining = remaining;
+                tokens = Math.min(tokens, remaining);
+                if (remaining <= 0 && reset != null) {
+                    blockedUntilNanos = Math.max(blockedUntilNanos, now + untilReset(reset, epochMillis));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a 429 and blocks further calls until Netlify allows them again.
+     * Returns the backoff in milliseconds.
+     */
+    public long onThrottled(HttpHeaders headers) {
+        return onThrottled(headers, System.nanoTime(), System.currentTimeMillis());
+    }
+
+    long onThrottled(HttpHeaders headers, long now, long epochMillis) {
+        Long retryAfter = headers == null ? null : longHeader(headers, HttpHeaders.RETRY_AFTER);
+        Long reset = headers == null ? null : longHeader(headers, "X-RateLimit-Reset");
+        lock.lock();
+        try {
+            throttled++;
+            consecutiveThrottles++;
+            long delay;
+            if (retryAfter != null) {
+                delay = TimeUnit.SECONDS.toNanos(retryAfter);
+            } else if (reset != null) {
+                delay = untilReset(reset, epochMillis);
+            } else {
+                long exponential = TimeUnit.SECONDS.toNanos(1L << Math.min(consecutiveThrottles - 1, 16));
+                delay = Math.min(exponential, TimeUnit.SECONDS.toNanos(maxBackoffSeconds));
+                delay += ThreadLocalRandom.current().nextLong(delay / 4 + 1);
+            }
+            delay = Math.min(Math.max(delay, 0), TimeUnit.SECONDS.toNanos(maxBackoffSeconds));
+            tokens = 0;
+            blockedUntilNanos = Math.max(blockedUntilNanos, now + delay);
+            logger.warn("Netlify rate limit hit ({} in a row), backing off {} ms",
+                    consecutiveThrottles, TimeUnit.NANOSECONDS.toMillis(delay));
+            return TimeUnit.NANOSECONDS.toMillis(delay);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill(long now) {
+        if (tokens < 0) {
+            tokens = capacity;
+            lastRefillNanos = now;
+            return;
+        }
+        if (now > lastRefillNanos) {
+            tokens = Math.min(capacity, tokens + (double) (now - lastRefillNanos) / intervalNanos());
+            lastRefillNanos = now;
+        }
+    }
+
+    private long intervalNanos() {
+        return (long) (TimeUnit.MINUTES.toNanos(1) / refillPerMinute);
+    }
+
+    // X-RateLimit-Reset is a Unix timestamp in seconds
+    private static long untilReset(long resetEpochSeconds, long epochMillis) {
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, resetEpochSeconds * 1000 - epochMillis));
+    }
+
+    private static Integer intHeader(HttpHeaders headers, String name) {
+        Long value = longHeader(headers, name);
+        return value == null ? null : (int) Math.min(Integer.MAX_VALUE, value);
+    }
+
+    private static Long longHeader(HttpHeaders headers, String name) {
+        String value = headers.getFirst(name);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            refill(now);
+            result.put("capacity", capacity);
+            result.put("refillPerMinute", refillPerMinute);
+            result.put("availableTokens", Math.floor(tokens));
+            result.put("blockedForMs", now < blockedUntilNanos ? TimeUnit.NANOSECONDS.toMillis(blockedUntilNanos - now) : 0);
+            result.put("serverLimit", serverLimit);
+            result.put("serverRemaining", serverRemaining);
+            result.put("acquired", acquired);
+            result.put("throttled", throttled);
+            result.put("avgWaitMs", acquired == 0 ? 0 : totalWaitMillis / acquired);
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,160 @@
+package com.Jadhav.WebCraft.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks how often each AI response parse strategy succeeds and how long it takes,
+ * and uses that to decide the order the salvage strategies are tried in. Lossless
+ * strategies (a full JSON parse) always go first: the salvage ones also accept valid
+ * JSON, often for less, but do not decode every escape correctly.
+ *
+ * Lifetime counters are kept next to exponentially weighted "recent" values so a
+ * change in the model's output format shows up as the two rates drifting apart.
+ */
+@Component
+public class ParseStrategyStats {
+
+    @Value("${webcraft.parse.ewma-alpha:0.1}")
+    private double alpha;
+
+    @Value("${webcraft.parse.min-samples:20}")
+    private int minSamples;
+
+    @Value("${webcraft.parse.demote-below:0.05}")
+    private double demoteBelow;
+
+    @Value("${webcraft.parse.probe-every:25}")
+    private int probeEvery;
+
+    private final Map<String, StrategyStats> stats = new ConcurrentHashMap<>();
+    private final AtomicLong parses = new AtomicLong();
+    private final LongAdder unparsed = new LongAdder();
+
+    public void record(String strategy, boolean success, long nanos) {
+        stats.computeIfAbsent(strategy, StrategyStats::new).record(success, nanos, alpha);
+    }
+
+    public void recordUnparsed() {
+        unparsed.increment();
+    }
+
+    /**
+     * The lossless strategies in the order given, followed by the salvage strategies ordered
+     * by expected cost per success (recent average cost divided by recent success rate).
+     * Salvage strategies whose recent success rate has collapsed are moved behind the
+     * healthy ones so they only run as a last resort, except on periodic probe calls where
+     * the registration order is used so their statistics can recover.
+     */
+    public List<String> order(List<String> lossless, List<String> salvage) {
+        List<String> result = new ArrayList<>(lossless);
+        long call = parses.incrementAndGet();
+        if (probeEvery > 0 && call % probeEvery == 0) {
+            result.addAll(salvage);
+            return result;
+        }
+
+        List<String> healthy = new ArrayList<>();
+        List<String> demoted = new ArrayList<>();
+        for (String name : salvage) {
+            StrategyStats s = stats.get(name);
+            if (s != null && s.attempts.sum() >= minSamples && s.recentSuccessRate() < demoteBelow) {
+                demoted.add(name);
+            } else {
+                healthy.add(name);
+            }
+        }
+
+        Comparator<String> byExpectedCost = Comparator.comparingDouble(name -> {
+            StrategyStats s = stats.get(name);
+            if (s == null || s.attempts.sum() < minSamples) {
+                // Not enough data yet: keep registration order ahead of measured strategies
+                return Double.NEGATIVE_INFINITY;
+            }
+            return s.recentCostNanos() / Math.max(s.recentSuccessRate(), 0.001);
+        });
+        healthy.sort(byExpectedCost);
+        demoted.sort(byExpectedCost);
+
+        result.addAll(healthy);
+        result.addAll(demoted);
+        return result;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> strategies = new LinkedHashMap<>();
+        stats.values().stream()
+                .sorted(Comparator.comparing(s -> s.name))
+                .forEach(s -> strategies.put(s.name, s.toMap(minSamples, demoteBelow)));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("parses", parses.get());
+        result.put("unparsed", unparsed.sum());
+        result.put("strategies", strategies);
+        return result;
+    }
+
+    private static final class StrategyStats {
+        private final String name;
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private double recentSuccessRate = 1.0;
+        private double recentCostNanos = 0;
+
+        StrategyStats(String name) {
+            this.name = name;
+        }
+
+        void record(boolean success, long nanos, double alpha) {
+            attempts.increment();
+            if (success) {
+                successes.increment();
+            }
+            totalNanos.add(nanos);
+
+            synchronized (this) {
+                if (attempts.sum() == 1) {
+                    recentSuccessRate = success ? 1.0 : 0.0;
+                    recentCostNanos = nanos;
+                } else {
+                    recentSuccessRate += alpha * ((success ? 1.0 : 0.0) - recentSuccessRate);
+                    recentCostNanos += alpha * (nanos - recentCostNanos);
+                }
+            }
+        }
+
+        synchronized double recentSuccessRate() {
+            return recentSuccessRate;
+        }
+
+        synchronized double recentCostNanos() {
+            return recentCostNanos;
+        }
+
+        Map<String, Object> toMap(int minSamples, double demoteBelow) {
+            long n = attempts.sum();
+            long ok = successes.sum();
+            double recentRate = recentSuccessRate();
+
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("attempts", n);
+            map.put("successes", ok);
+            map.put("successRate", n == 0 ? 0.0 : (double) ok / n);
+            map.put("recentSuccessRate", recentRate);
+            map.put("avgMicros", n == 0 ? 0 : totalNanos.sum() / n / 1000);
+            map.put("recentAvgMicros", (long) (recentCostNanos() / 1000));
+            map.put("demoted", n >= minSamples && recentRate < demoteBelow);
+            return map;
+        }
+    }
+}
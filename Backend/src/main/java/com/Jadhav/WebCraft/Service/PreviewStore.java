@@ -0,0 +1,292 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import com.Jadhav.WebCraft.dto.SiteContent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ready-to-serve copies of the latest version of each generated site for the
+ * {@code /preview} host. A site is built the first time it is viewed after a save:
+ * the page gets the same stylesheet and script tags as the deployed ZIP, and every
+ * file is gzipped once at the best level and given a strong ETag, so each viewer
+ * only costs a copy (or a 304). Small files stay on the heap; files of at least
+ * file-threshold-bytes are written to the preview directory to be sent from the
+ * page cache.
+ *
+ * <p>Every lookup checks the repository index for a newer version, so a refined site
+ * shows up on the next request. Built sites are kept in LRU order up to max-bytes.
+ *
+ * <p>Each process writes to its own {@code preview-*} directory under the preview
+ * directory and removes only that one, so instances sharing the location leave each
+ * other's files alone. Files of superseded or evicted builds are deleted by a
+ * background sweep once file-grace-ms has passed.
+ */
+@Service
+public class PreviewStore {
+    private static final Logger logger = LoggerFactory.getLogger(PreviewStore.class);
+
+    public static final String INDEX = "index.html";
+
+    @Autowired
+    private SiteRepository siteRepository;
+
+    @Autowired
+    private NetlifyDeploymentService netlifyDeploymentService;
+
+    @Value("${webcraft.preview.dir:${java.io.tmpdir}/webcraft-preview}")
+    private String directory;
+
+    @Value("${webcraft.preview.file-threshold-bytes:65536}")
+    private int fileThresholdBytes;
+
+    @Value("${webcraft.preview.max-bytes:134217728}")
+    private long maxBytes;
+
+    // Evicted files stay this long so responses already sending them can finish
+    @Value("${webcraft.preview.file-grace-ms:60000}")
+    private long fileGraceMs;
+
+    private Path root;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(
+            task -> Thread.ofPlatform().name("preview-sweeper").daemon().unstarted(task));
+    private final LinkedHashMap<String, Preview> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final Deque<Retired> retired = new ArrayDeque<>();
+    private long cachedBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong builds = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * One encoding of a file: on the heap, or in {@link #file()} when large.
+     */
+    public record Variant(byte[] bytes, Path file, long length, String etag) {
+        public boolean onDisk() {
+            return file != null;
+        }
+    }
+
+    /**
+     * A file of the site; {@code gzip} is null when compressing did not make it smaller.
+     */
+    public record PreviewFile(String contentType, Variant identity, Variant gzip) {
+    }
+
+    public record Preview(String siteId, int version, Map<String, PreviewFile> files, long bytes) {
+        // Unknown paths get the page, like the _redirects rule of the deployed site
+        public PreviewFile file(String name) {
+            return files.getOrDefault(name, files.get(INDEX));
+        }
+    }
+
+    private record Retired(List<Path> files, long at) {
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path parent = Path.of(directory);
+        Files.createDirectories(parent);
+        root = Files.createTempDirectory(parent, "preview-");
+        long period = Math.max(1000, fileGraceMs);
+        sweeper.scheduleWithFixedDelay(this::purgeRetired, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        sweeper.shutdownNow();
+        // Nothing in this process's directory outlives it
+        FileSystemUtils.deleteRecursively(root);
+    }
+
+    /**
+     * The latest version of the site, built now when it is not cached yet.
+     */
+    public Optional<Preview> get(String siteId) {
+        OptionalInt latest = siteRepository.latestVersion(siteId);
+        if (latest.isEmpty()) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            Preview cached = cache.get(siteId);
+            if (cached != null && cached.version() == latest.getAsInt()) {
+                hits.incrementAndGet();
+                return Optional.of(cached);
+            }
+        }
+
+        // Built outside the lock; two first viewers may both build and the later one wins
+        Optional<GenerateResponse> site = siteRepository.load(siteId, latest.getAsInt());
+        if (site.isEmpty()) {
+            return Optional.empty();
+        }
+        Preview preview = build(siteId, latest.getAsInt(), site.get());
+        builds.incrementAndGet();
+        synchronized (this) {
+            Preview current = cache.get(siteId);
+            if (current != null && current.version() > preview.version()) {
+                retire(preview);
+                return Optional.of(current);
+            }
+            cache.put(siteId, preview);
+            cachedBytes += preview.bytes();
+            if (current != null) {
+                cachedBytes -= current.bytes();
+                retire(current);
+            }
+            evict();
+        }
+        return Optional.of(preview);
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sites", cache.size());
+        result.put("cachedBytes", cachedBytes);
+        result.put("hits", hits.get());
+        result.put("builds", builds.get());
+        result.put("evictions", evictions.get());
+        return result;
+    }
+
+    private Preview build(String siteId, int version, GenerateResponse site) {
+        try (DeploymentUpload upload = DeploymentUpload.of(site)) {
+            ByteArrayOutputStream html = new ByteArrayOutputStream(site.getHtmlContent().size() + 128);
+            netlifyDeploymentService.writeHtmlWithAssets(upload, html);
+
+            Map<String, PreviewFile> files = new LinkedHashMap<>();
+            files.put(INDEX, file(siteId, version, INDEX, "text/html;charset=UTF-8", html.toByteArray()));
+            if (!isBlank(site.getCssContent())) {
+                files.put("styles.css", file(siteId, version, "styles.css", "text/css;charset=UTF-8", site.getCssContent().utf8()));
+            }
+            if (!isBlank(site.getJsContent())) {
+                files.put("script.js", file(siteId, version, "script.js", "text/javascript;charset=UTF-8", site.getJsContent().utf8()));
+            }
+            long bytes = files.values().stream()
+                    .mapToLong(file -> file.identity().length() + (file.gzip() == null ? 0 : file.gzip().length()))
+                    .sum();
+            return new Preview(siteId, version, Map.copyOf(files), bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to build preview of site " + siteId, e);
+        }
+    }
+
+    private PreviewFile file(String siteId, int version, String name, String contentType, byte[] bytes) throws IOException {
+        String hash = sha256(bytes);
+        byte[] gzipped = gzip(bytes);
+        Variant identity = variant(siteId, version, name, bytes, "\"" + hash + "\"");
+        Variant gzip = gzipped.length < bytes.length
+                ? variant(siteId, version, name + ".gz", gzipped, "\"" + hash + "-gz\"")
+                : null;
+        return new PreviewFile(contentType, identity, gzip);
+    }
+
+    private Variant variant(String siteId, int version, String name, byte[] bytes, String etag) throws IOException {
+        if (bytes.length < fileThresholdBytes) {
+            return new Variant(bytes, null, bytes.length, etag);
+        }
+        // Unique per build, so retiring a superseded build never touches a live file
+        Path file = Files.createTempFile(root, siteId + "-" + version + "-", "-" + name);
+        Files.write(file, bytes);
+        return new Variant(null, file, bytes.length, etag);
+    }
+
+    private void evict() {
+        Iterator<Preview> oldest = cache.values().iterator();
+        while (cachedBytes > maxBytes && cache.size() > 1) {
+            Preview preview = oldest.next();
+            oldest.remove();
+            cachedBytes -= preview.bytes();
+            retire(preview);
+            evictions.incrementAndGet();
+        }
+    }
+
+    // Runs on the sweeper; files are deleted outside the lock
+    void purgeRetired() {
+        List<Path> expired = new ArrayList<>();
+        synchronized (this) {
+            long cutoff = System.currentTimeMillis() - fileGraceMs;
+            while (!retired.isEmpty() && retired.peekFirst().at() <= cutoff) {
+                expired.addAll(retired.pollFirst().files());
+            }
+        }
+        for (Path file : expired) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Failed to delete preview file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private void retire(Preview preview) {
+        List<Path> files = new ArrayList<>();
+        for (PreviewFile file : preview.files().values()) {
+            if (file.identity().onDisk()) {
+                files.add(file.identity().file());
+            }
+            if (file.gzip() != null && file.gzip().onDisk()) {
+                files.add(file.gzip().file());
+            }
+        }
+        if (!files.isEmpty()) {
+            retired.addLast(new Retired(files, System.currentTimeMillis()));
+        }
+    }
+
+    private static boolean isBlank(SiteContent content) {
+        return content == null || content.isBlank();
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
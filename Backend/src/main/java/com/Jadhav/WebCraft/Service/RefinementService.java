@@ -0,0 +1,433 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies an edit instruction to an existing site by sending the model only the
+ * fragment the instruction is about (an HTML element, the CSS rules for a selector
+ * or a single JS function) and splicing the returned fragment back in.
+ */
+@Service
+public class RefinementService {
+    private static final Logger logger = LoggerFactory.getLogger(RefinementService.class);
+
+    static final String FRAGMENT_START = "FRAGMENT:\n";
+    static final String FRAGMENT_END = "\nEND FRAGMENT";
+
+    private static final Set<String> CSS_WORDS = Set.of(
+            "color", "colour", "colors", "font", "fonts", "background", "style", "styles", "styling", "padding",
+            "margin", "spacing", "border", "shadow", "gradient", "layout", "responsive", "bigger", "smaller",
+            "larger", "align", "center", "centered", "dark", "light", "theme", "hover", "rounded", "width", "height");
+    private static final Set<String> JS_WORDS = Set.of(
+            "click", "clicks", "function", "script", "javascript", "js", "validate", "validation", "handler",
+            "event", "behavior", "behaviour", "toggle", "submit", "alert", "interactive", "scroll", "timer");
+    private static final Set<String> VOID_TAGS = Set.of(
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "source", "track", "wbr");
+
+    private static final Pattern GROUPING_AT_RULE = Pattern.compile("@(media|supports|container|layer|document)\\b",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern WORD = Pattern.compile("[#.]?[A-Za-z_$][\\w$-]*(?:\\(\\))?");
+    private static final Pattern HTML_ID = Pattern.compile("\\bid\\s*=\\s*[\"']([^\"']+)[\"']", Pattern.CASE_INSENSITIVE);
+    private static final Pattern HTML_CLASS = Pattern.compile("\\bclass\\s*=\\s*[\"']([^\"']*)[\"']", Pattern.CASE_INSENSITIVE);
+    private static final Pattern JS_FUNCTION_NAME = Pattern.compile(
+            "\\bfunction\\s+([A-Za-z_$][\\w$]*)|\\b(?:const|let|var)\\s+([A-Za-z_$][\\w$]*)\\s*=\\s*(?:async\\s*)?(?:function\\b|\\([^)]*\\)\\s*=>|[A-Za-z_$][\\w$]*\\s*=>)");
+
+    public enum Kind { HTML, CSS, JS }
+
+    @Autowired
+    private ModelRouter modelRouter;
+
+    @Autowired
+    private SiteConsistencyChecker siteConsistencyChecker;
+
+    public GenerateResponse refine(GenerateResponse site, String instruction, String target, LatencyTier tier) throws Exception {
+        String html = site.getHtml() != null ? site.getHtml() : "";
+        String css = site.getCss() != null ? site.getCss() : "";
+        String js = site.getJs() != null ? site.getJs() : "";
+
+        Fragment fragment = locate(html, css, js, instruction, target);
+        String prompt = "KIND: " + fragment.kind().name().toLowerCase(Locale.ROOT) + "\n"
+                + FRAGMENT_START + fragment.text() + FRAGMENT_END + "\n\n"
+                + "INSTRUCTION: " + instruction;
+
+        long start = System.nanoTime();
+        String replacement = FanOutGenerationService.stripFences(modelRouter.complete(GenerationTask.PATCH, prompt, tier));
+        if (replacement.isEmpty()) {
+            throw new IllegalStateException("The model returned an empty fragment");
+        }
+
+        GenerateResponse result = switch (fragment.kind()) {
+            case HTML -> new GenerateResponse(fragment.apply(replacement), css, js);
+            case CSS -> new GenerateResponse(html, fragment.apply(replacement), js);
+            case JS -> new GenerateResponse(html, css, fragment.apply(replacement));
+        };
+
+        List<String> warnings = siteConsistencyChecker.check(result.getHtml(), result.getCss(), result.getJs());
+        if (!warnings.isEmpty()) {
+            result.setWarnings(warnings);
+        }
+
+        logger.info("Refined {} fragment {} in {} ms ({} -> {} chars)", fragment.kind(), fragment.description(),
+                (System.nanoTime() - start) / 1_000_000, fragment.text().length(), replacement.length());
+        return result;
+    }
+
+    Fragment locate(String html, String css, String js, String instruction, String target) {
+        Set<String> ids = collect(HTML_ID, html);
+        Set<String> classes = new LinkedHashSet<>();
+        Matcher classMatcher = HTML_CLASS.matcher(html);
+        while (classMatcher.find()) {
+            for (String name : classMatcher.group(1).trim().split("\\s+")) {
+                if (!name.isEmpty()) {
+                    classes.add(name);
+                }
+            }
+        }
+        Set<String> functions = new LinkedHashSet<>();
+        Matcher fn = JS_FUNCTION_NAME.matcher(js);
+        while (fn.find()) {
+            functions.add(fn.group(1) != null ? fn.group(1) : fn.group(2));
+        }
+
+        Kind kind = inferKind(instruction);
+        List<String> mentioned = new ArrayList<>();
+        if (target != null && !target.isBlank()) {
+            mentioned.add(target.trim());
+        }
+        Matcher word = WORD.matcher(instruction);
+        while (word.find()) {
+            mentioned.add(word.group());
+        }
+
+        for (String token : mentioned) {
+            if (token.endsWith("()")) {
+                kind = Kind.JS;
+            }
+            String name = token.replaceAll("^[#.]", "").replaceAll("\\(\\)$", "");
+
+            if (functions.contains(name)) {
+                Fragment f = jsFunction(js, name);
+                if (f != null) {
+                    return f;
+                }
+            }
+            boolean id = ids.contains(name) && !token.startsWith(".");
+            boolean cls = classes.contains(name) && !token.startsWith("#");
+            if (!id && !cls) {
+                continue;
+            }
+            if (kind == Kind.CSS) {
+                Fragment f = cssRules(css, name);
+                if (f != null) {
+                    return f;
+                }
+            } else if (kind == Kind.HTML) {
+                Fragment f = htmlElement(html, name, id);
+                if (f != null) {
+                    return f;
+                }
+            }
+        }
+
+        String whole = switch (kind) {
+            case HTML -> html;
+            case CSS -> css;
+            case JS -> js;
+        };
+        return new Fragment(kind, "entire " + kind.name().toLowerCase(Locale.ROOT), whole,
+                List.of(new int[]{0, whole.length()}));
+    }
+
+    private Kind inferKind(String instruction) {
+        int cssScore = 0;
+        int jsScore = 0;
+        for (String w : instruction.toLowerCase(Locale.ROOT).split("[^a-z]+")) {
+            if (CSS_WORDS.contains(w)) {
+                cssScore++;
+            }
+            if (JS_WORDS.contains(w)) {
+                jsScore++;
+            }
+        }
+        if (cssScore > jsScore) {
+            return Kind.CSS;
+        }
+        return jsScore > cssScore ? Kind.JS : Kind.HTML;
+    }
+
+    private Fragment htmlElement(String html, String name, boolean byId) {
+        Pattern open = byId
+                ? Pattern.compile("<([a-zA-Z][\\w-]*)\\b[^>]*\\bid\\s*=\\s*[\"']" + Pattern.quote(name) + "[\"'][^>]*>")
+                : Pattern.compile("<([a-zA-Z][\\w-]*)\\b[^>]*\\bclass\\s*=\\s*[\"'][^\"']*(?<![\\w-])"
+                + Pattern.quote(name) + "(?![\\w-])[^\"']*[\"'][^>]*>");
+        Matcher m = open.matcher(html);
+        if (!m.find()) {
+            return null;
+        }
+
+        String tag = m.group(1).toLowerCase(Locale.ROOT);
+        int start = m.start();
+        if (VOID_TAGS.contains(tag) || m.group().endsWith("/>")) {
+            return new Fragment(Kind.HTML, "<" + tag + "> " + name, html, List.of(new int[]{start, m.end()}));
+        }
+
+        Matcher tags = Pattern.compile("<(/?)" + tag + "\\b[^>]*>", Pattern.CASE_INSENSITIVE).matcher(html);
+        tags.region(m.end(), html.length());
+        int depth = 1;
+        while (tags.find()) {
+            if (tags.group(1).isEmpty()) {
+                if (!tags.group().endsWith("/>")) {
+                    depth++;
+                }
+            } else if (--depth == 0) {
+                return new Fragment(Kind.HTML, "<" + tag + "> " + name, html, List.of(new int[]{start, tags.end()}));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The rules whose selector mentions the class or id. Rules inside grouping at-rules
+     * such as @media are picked out of them one by one, so the model sees only the
+     * matching rules and each keeps its place in the cascade.
+     */
+    private Fragment cssRules(String css, String name) {
+        Pattern reference = Pattern.compile("[#.]" + Pattern.quote(name) + "(?![\\w-])");
+        List<int[]> spans = new ArrayList<>();
+        List<List<String>> contexts = new ArrayList<>();
+        collectRules(css, 0, css.length(), List.of(), reference, spans, contexts);
+        if (spans.isEmpty()) {
+            return null;
+        }
+        boolean nested = contexts.stream().anyMatch(context -> !context.isEmpty());
+        return new Fragment(Kind.CSS, "rules for " + name, css, spans, nested ? contexts : null);
+    }
+
+    private static void collectRules(String css, int from, int to, List<String> context, Pattern reference,
+                                     List<int[]> spans, List<List<String>> contexts) {
+        for (int[] block : cssBlocks(css, from, to)) {
+            String prelude = css.substring(block[0], block[1]).trim();
+            if (GROUPING_AT_RULE.matcher(prelude).lookingAt()) {
+                List<String> inner = new ArrayList<>(context);
+                inner.add(prelude.replaceAll("\\s+", " "));
+                collectRules(css, block[1] + 1, block[2] - 1, List.copyOf(inner), reference, spans, contexts);
+            } else if (reference.matcher(prelude).find()) {
+                spans.add(new int[]{block[0], block[2]});
+                contexts.add(context);
+            }
+        }
+    }
+
+    // The blocks directly within css[from, to): {start, index of the opening brace, end}
+    static List<int[]> cssBlocks(String css, int from, int to) {
+        List<int[]> blocks = new ArrayList<>();
+        int depth = 0;
+        int ruleStart = -1;
+        int preludeEnd = -1;
+        for (int i = from; i < to; i++) {
+            char c = css.charAt(i);
+            if (c == '/' && i + 1 < to && css.charAt(i + 1) == '*') {
+                int close = css.indexOf("*/", i + 2);
+                i = close == -1 || close >= to ? to : close + 1;
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                i = skipString(css, i);
+                continue;
+            }
+            if (depth == 0 && ruleStart == -1 && !Character.isWhitespace(c)) {
+                ruleStart = i;
+            }
+            if (c == '{') {
+                if (depth == 0) {
+                    preludeEnd = i;
+                }
+                depth++;
+            } else if (c == '}' && depth > 0) {
+                depth--;
+                if (depth == 0 && ruleStart != -1) {
+                    blocks.add(new int[]{ruleStart, preludeEnd, i + 1});
+                    ruleStart = -1;
+                }
+            } else if (c == ';' && depth == 0) {
+                // e.g. @import or @charset statements
+                ruleStart = -1;
+            }
+        }
+        return blocks;
+    }
+
+    private Fragment jsFunction(String js, String name) {
+        String n = Pattern.quote(name);
+        Matcher m = Pattern.compile(
+                "(?:\\basync\\s+)?\\bfunction\\s+" + n + "\\s*\\(" +
+                        "|\\b(?:const|let|var)\\s+" + n + "\\s*=\\s*(?:async\\s*)?(?:function\\b|\\([^)]*\\)\\s*=>|[A-Za-z_$][\\w$]*\\s*=>)")
+                .matcher(js);
+        if (!m.find()) {
+            return null;
+        }
+
+        int open = js.indexOf('{', m.end() - 1);
+        if (open == -1) {
+            return null;
+        }
+        int close = matchBrace(js, open);
+        if (close == -1) {
+            return null;
+        }
+        int end = close + 1;
+        if (end < js.length() && js.charAt(end) == ';') {
+            end++;
+        }
+        return new Fragment(Kind.JS, "function " + name, js, List.of(new int[]{m.start(), end}));
+    }
+
+    private static int matchBrace(String js, int open) {
+        int depth = 0;
+        for (int i = open; i < js.length(); i++) {
+            char c = js.charAt(i);
+            if (c == '"' || c == '\'' || c == '`') {
+                i = skipString(js, i);
+            } else if (c == '/' && i + 1 < js.length() && js.charAt(i + 1) == '/') {
+                int nl = js.indexOf('\n', i);
+                i = nl == -1 ? js.length() : nl;
+            } else if (c == '/' && i + 1 < js.length() && js.charAt(i + 1) == '*') {
+                int endComment = js.indexOf("*/", i + 2);
+                i = endComment == -1 ? js.length() : endComment + 1;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipString(String text, int quoteIndex) {
+        char quote = text.charAt(quoteIndex);
+        for (int i = quoteIndex + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                return i;
+            }
+        }
+        return text.length();
+    }
+
+    private static Set<String> collect(Pattern pattern, String text) {
+        Set<String> values = new LinkedHashSet<>();
+        Matcher m = pattern.matcher(text);
+        while (m.find()) {
+            values.add(m.group(1).trim());
+        }
+        return values;
+    }
+
+    static String fragmentOf(String prompt) {
+        int start = prompt.indexOf(FRAGMENT_START);
+        int end = prompt.lastIndexOf(FRAGMENT_END);
+        if (start == -1 || end < start) {
+            return prompt;
+        }
+        return prompt.substring(start + FRAGMENT_START.length(), end);
+    }
+
+    /**
+     * One or more spans of a single source file. The replacement is written at the
+     * first span and the remaining spans are removed.
+     *
+     * <p>CSS spans inside at-rules carry their at-rule preludes as {@code contexts}
+     * (null when every span is top-level). They are sent wrapped in those at-rules,
+     * and the reply is split the same way: each at-rule's rules are written at the
+     * first span in that at-rule, so base rules and media overrides keep their order.
+     * An at-rule missing from the reply is left alone; a new one goes at the end.
+     */
+    record Fragment(Kind kind, String description, String source, List<int[]> spans, List<List<String>> contexts) {
+
+        Fragment(Kind kind, String description, String source, List<int[]> spans) {
+            this(kind, description, source, spans, null);
+        }
+
+        String text() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < spans.size(); i++) {
+                int[] span = spans.get(i);
+                if (!sb.isEmpty()) {
+                    sb.append("\n\n");
+                }
+                List<String> context = contexts == null ? List.of() : contexts.get(i);
+                context.forEach(prelude -> sb.append(prelude).append(" {\n"));
+                sb.append(source, span[0], span[1]);
+                context.forEach(prelude -> sb.append("\n}"));
+            }
+            return sb.toString();
+        }
+
+        String apply(String replacement) {
+            Map<List<String>, String> rules = contexts == null ? Map.of(List.of(), replacement) : rulesByContext(replacement);
+            StringBuilder sb = new StringBuilder(source.length() + replacement.length());
+            int position = 0;
+            Map<List<String>, Boolean> written = new LinkedHashMap<>();
+            for (int i = 0; i < spans.size(); i++) {
+                int[] span = spans.get(i);
+                List<String> context = contexts == null ? List.of() : contexts.get(i);
+                String rule = rules.get(context);
+                if (rule == null) {
+                    // Left as it was
+                    continue;
+                }
+                sb.append(source, position, span[0]);
+                if (written.putIfAbsent(context, true) == null) {
+                    sb.append(rule);
+                }
+                position = span[1];
+            }
+            sb.append(source, position, source.length());
+            rules.forEach((context, rule) -> {
+                if (!written.containsKey(context)) {
+                    sb.append('\n');
+                    context.forEach(prelude -> sb.append(prelude).append(" {\n"));
+                    sb.append(rule);
+                    context.forEach(prelude -> sb.append("\n}"));
+                    sb.append('\n');
+                }
+            });
+            return sb.toString();
+        }
+
+        private static Map<List<String>, String> rulesByContext(String css) {
+            Map<List<String>, String> rules = new LinkedHashMap<>();
+            collect(css, 0, css.length(), List.of(), rules);
+            return rules;
+        }
+
+        private static void collect(String css, int from, int to, List<String> context, Map<List<String>, String> rules) {
+            for (int[] block : cssBlocks(css, from, to)) {
+                String prelude = css.substring(block[0], block[1]).trim();
+                if (GROUPING_AT_RULE.matcher(prelude).lookingAt()) {
+                    List<String> inner = new ArrayList<>(context);
+                    inner.add(prelude.replaceAll("\\s+", " "));
+                    collect(css, block[1] + 1, block[2] - 1, List.copyOf(inner), rules);
+                } else {
+                    rules.merge(context, css.substring(block[0], block[2]), (a, b) -> a + "\n" + b);
+                }
+            }
+        }
+    }
+}
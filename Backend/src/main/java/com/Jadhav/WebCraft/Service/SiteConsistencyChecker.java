@@ -0,0 +1,125 @@
+package com.Jadhav.WebCraft.Service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cross-checks independently generated HTML, CSS and JavaScript: every #id / .class
+ * selector in the stylesheet and every id or selector looked up by the script should
+ * exist in the markup.
+ */
+@Component
+public class SiteConsistencyChecker {
+
+    private static final Pattern HTML_ID = Pattern.compile("\\bid\\s*=\\s*[\"']([^\"']+)[\"']", Pattern.CASE_INSENSITIVE);
+    private static final Pattern HTML_CLASS = Pattern.compile("\\bclass\\s*=\\s*[\"']([^\"']*)[\"']", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CSS_COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern CSS_PRELUDE = Pattern.compile("([^{};]+)\\{");
+    private static final Pattern SELECTOR_TOKEN = Pattern.compile("([#.])(-?[A-Za-z_][\\w-]*)");
+    private static final Pattern JS_BY_ID = Pattern.compile("getElementById\\(\\s*['\"`]([^'\"`]+)['\"`]");
+    private static final Pattern JS_QUERY = Pattern.compile("querySelector(?:All)?\\(\\s*['\"`]([^'\"`]+)['\"`]");
+    private static final Pattern JS_ADDED_CLASS = Pattern.compile(
+            "classList\\.(?:add|toggle|replace)\\(([^)]*)\\)|className\\s*\\+?=\\s*['\"`]([^'\"`]*)['\"`]");
+    private static final Pattern QUOTED = Pattern.compile("['\"`]([^'\"`]+)['\"`]");
+
+    public List<String> check(String html, String css, String js) {
+        Set<String> ids = new TreeSet<>();
+        Set<String> classes = new TreeSet<>();
+        collect(HTML_ID, html, ids);
+        Matcher classMatcher = HTML_CLASS.matcher(html != null ? html : "");
+        while (classMatcher.find()) {
+            for (String name : classMatcher.group(1).trim().split("\\s+")) {
+                if (!name.isEmpty()) {
+                    classes.add(name);
+                }
+            }
+        }
+
+        // Classes the script adds at runtime (e.g. "active", "show") are legitimate CSS targets
+        Set<String> runtimeClasses = new TreeSet<>();
+        Matcher added = JS_ADDED_CLASS.matcher(js != null ? js : "");
+        while (added.find()) {
+            String args = added.group(1) != null ? added.group(1) : added.group(2);
+            Matcher quoted = QUOTED.matcher(args);
+            while (quoted.find()) {
+                runtimeClasses.add(quoted.group(1));
+            }
+            if (added.group(2) != null) {
+                for (String name : added.group(2).trim().split("\\s+")) {
+                    runtimeClasses.add(name);
+                }
+            }
+        }
+
+        List<String> warnings = new ArrayList<>();
+
+        Set<String> missingCssIds = new TreeSet<>();
+        Set<String> missingCssClasses = new TreeSet<>();
+        String strippedCss = CSS_COMMENT.matcher(css != null ? css : "").replaceAll("");
+        Matcher prelude = CSS_PRELUDE.matcher(strippedCss);
+        while (prelude.find()) {
+            String selector = prelude.group(1).trim();
+            if (selector.startsWith("@")) {
+                continue;
+            }
+            checkSelector(selector, ids, classes, runtimeClasses, missingCssIds, missingCssClasses);
+        }
+        if (!missingCssIds.isEmpty()) {
+            warnings.add("CSS references ids missing from HTML: " + missingCssIds);
+        }
+        if (!missingCssClasses.isEmpty()) {
+            warnings.add("CSS references classes missing from HTML: " + missingCssClasses);
+        }
+
+        Set<String> missingJsIds = new TreeSet<>();
+        Set<String> missingJsClasses = new TreeSet<>();
+        Matcher byId = JS_BY_ID.matcher(js != null ? js : "");
+        while (byId.find()) {
+            if (!ids.contains(byId.group(1))) {
+                missingJsIds.add(byId.group(1));
+            }
+        }
+        Matcher query = JS_QUERY.matcher(js != null ? js : "");
+        while (query.find()) {
+            checkSelector(query.group(1), ids, classes, runtimeClasses, missingJsIds, missingJsClasses);
+        }
+        if (!missingJsIds.isEmpty()) {
+            warnings.add("JavaScript references ids missing from HTML: " + missingJsIds);
+        }
+        if (!missingJsClasses.isEmpty()) {
+            warnings.add("JavaScript references classes missing from HTML: " + missingJsClasses);
+        }
+
+        return warnings;
+    }
+
+    private void checkSelector(String selector, Set<String> ids, Set<String> classes, Set<String> runtimeClasses,
+                               Set<String> missingIds, Set<String> missingClasses) {
+        // Attribute selectors and pseudo-class arguments can contain dots (e.g. [href$=".pdf"])
+        String cleaned = selector.replaceAll("\\[[^\\]]*\\]", "").replaceAll("\\([^)]*\\)", "");
+        Matcher token = SELECTOR_TOKEN.matcher(cleaned);
+        while (token.find()) {
+            String name = token.group(2);
+            if (token.group(1).equals("#")) {
+                if (!ids.contains(name)) {
+                    missingIds.add(name);
+                }
+            } else if (!classes.contains(name) && !runtimeClasses.contains(name)) {
+                missingClasses.add(name);
+            }
+        }
+    }
+
+    private static void collect(Pattern pattern, String text, Set<String> into) {
+        Matcher matcher = pattern.matcher(text != null ? text : "");
+        while (matcher.find()) {
+            into.add(matcher.group(1).trim());
+        }
+    }
+}
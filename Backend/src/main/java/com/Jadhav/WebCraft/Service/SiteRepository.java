@@ -0,0 +1,748 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import com.Jadhav.WebCraft.dto.SiteContent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Embedded store for generated sites. Every save appends a version to a single
+ * segment file; consecutive versions of a site are stored as deflated deltas
+ * against the previous version, with a full keyframe every few versions so a read
+ * never has to replay a long chain. The in-memory index is rebuilt by scanning the
+ * segment on startup and reads go through memory-mapped windows of the file, so the
+ * segment can grow past what a single mapping covers.
+ *
+ * <p>A site with no version newer than max-age-days is dropped as a whole; otherwise
+ * only its versions beyond max-versions-per-site are. Dropped records are reclaimed
+ * by compaction on a background thread, which streams the retained versions into a
+ * new segment one at a time while saves go on, then copies over whatever was
+ * appended meanwhile and swaps the files.
+ *
+ * Record layout: int length, int crc32, then the payload (type, createdAt, site id,
+ * version, base version, the three content sizes and the deflated body).
+ */
+@Service
+public class SiteRepository {
+    private static final Logger logger = LoggerFactory.getLogger(SiteRepository.class);
+
+    private static final String SEGMENT = "sites.log";
+    private static final String LOCK = "sites.lock";
+    private static final byte FULL = 0;
+    private static final byte DELTA = 1;
+    private static final int PARTS = 3;
+
+    // Kept out of the temp directory, which the OS may clean
+    @Value("${webcraft.repository.dir:${user.home}/.webcraft/sites}")
+    private String directory;
+
+    @Value("${webcraft.repository.keyframe-every:16}")
+    private int keyframeEvery;
+
+    @Value("${webcraft.repository.max-versions-per-site:20}")
+    private int maxVersionsPerSite;
+
+    @Value("${webcraft.repository.max-age-days:30}")
+    private long maxAgeDays;
+
+    // Compact once dead records take more than this share of a segment of at least min-compact-bytes
+    @Value("${webcraft.repository.compact-ratio:0.5}")
+    private double compactRatio;
+
+    @Value("${webcraft.repository.min-compact-bytes:1048576}")
+    private long minCompactBytes;
+
+    // Sites that are no longer saved to still age out on this schedule
+    @Value("${webcraft.repository.sweep-ms:3600000}")
+    private long sweepMs;
+
+    @Value("${webcraft.repository.map-window-bytes:1073741824}")
+    private int mapWindowBytes;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock compaction = new ReentrantLock();
+    private final AtomicBoolean compactionQueued = new AtomicBoolean();
+    private final ScheduledExecutorService compactor = Executors.newSingleThreadScheduledExecutor(
+            task -> Thread.ofPlatform().name("site-compactor").daemon().unstarted(task));
+    private final Map<String, List<VersionEntry>> index = new HashMap<>();
+    private final Map<Long, MappedByteBuffer> windows = new ConcurrentHashMap<>();
+    private Path segment;
+    private FileChannel lockChannel;
+    private FileChannel channel;
+    private long size;
+    private long deadBytes;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path dir = Path.of(directory);
+        Files.createDirectories(dir);
+        lock(dir.resolve(LOCK));
+        segment = dir.resolve(SEGMENT);
+        open();
+        lock.writeLock().lock();
+        try {
+            long now = System.currentTimeMillis();
+            new ArrayList<>(index.keySet()).forEach(siteId -> applyRetention(siteId, now));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        compactor.scheduleWithFixedDelay(this::sweepInBackground, sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+        logger.info("Site repository at {}: {} sites, {} bytes", segment, index.size(), size);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        compactor.shutdownNow();
+        lock.writeLock().lock();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Every instance appends at its own idea of the segment's end and compaction swaps
+     * the file, so only one may have the directory open. The lock is held on a file of
+     * its own since the segment is replaced.
+     */
+    private void lock(Path file) throws IOException {
+        lockChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock held;
+        try {
+            held = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            held = null;
+        }
+        if (held == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Site repository at " + file.getParent() + " is in use by another instance");
+        }
+    }
+
+    public String newSiteId() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+    }
+
+    /**
+     * Appends a new version of the site and returns its version number. A site id
+     * that has not been seen before starts at version 1.
+     */
+    public int save(String siteId, GenerateResponse site) {
+        byte[][] parts = toParts(site);
+        lock.writeLock().lock();
+        try {
+            List<VersionEntry> versions = index.computeIfAbsent(siteId, id -> new ArrayList<>());
+            VersionEntry previous = versions.isEmpty() ? null : versions.get(versions.size() - 1);
+            int version = previous == null ? 1 : previous.version() + 1;
+
+            boolean keyframe = previous == null || (version - lastKeyframe(versions)) >= keyframeEvery;
+            byte[][] base = keyframe ? null : read(versions, previous);
+            VersionEntry entry = append(siteId, version, System.currentTimeMillis(), parts, base,
+                    keyframe ? -1 : previous.version());
+            versions.add(entry);
+
+            applyRetention(siteId, entry.createdAt());
+            if (needsCompaction() && compactionQueued.compareAndSet(false, true)) {
+                compactor.execute(this::compactInBackground);
+            }
+            return version;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to save site " + siteId, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads a stored version, or the latest one when {@code version} is null.
+     */
+    public Optional<GenerateResponse> load(String siteId, Integer version) {
+        lock.readLock().lock();
+        try {
+            VersionEntry entry = find(siteId, version);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            // Stays bytes until something needs the text
+            byte[][] parts = read(index.get(siteId), entry);
+            return Optional.of(new GenerateResponse(SiteContent.wrap(parts[0]), SiteContent.wrap(parts[1]), SiteContent.wrap(parts[2])));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read site " + siteId, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Index lookup only; nothing is read from the segment
+    public OptionalInt latestVersion(String siteId) {
+        lock.readLock().lock();
+        try {
+            VersionEntry entry = find(siteId, null);
+            return entry == null ? OptionalInt.empty() : OptionalInt.of(entry.version());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Map<String, Object>> versions(String siteId) {
+        lock.readLock().lock();
+        try {
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (VersionEntry entry : index.getOrDefault(siteId, List.of())) {
+                if (entry.live()) {
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    map.put("version", entry.version());
+                    map.put("createdAt", entry.createdAt());
+                    map.put("htmlBytes", entry.sizes()[0]);
+                    map.put("cssBytes", entry.sizes()[1]);
+                    map.put("jsBytes", entry.sizes()[2]);
+                    map.put("storedBytes", entry.length());
+                    map.put("delta", entry.baseVersion() >= 0);
+                    result.add(map);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Line diff between two versions, one hunk per part covering everything between
+     * the common leading and trailing lines. Parts that did not change are left out.
+     */
+    public Optional<Map<String, String>> diff(String siteId, int from, int to) {
+        Optional<GenerateResponse> a = load(siteId, from);
+        Optional<GenerateResponse> b = load(siteId, to);
+        if (a.isEmpty() || b.isEmpty()) {
+            return Optional.empty();
+        }
+        Map<String, String> result = new LinkedHashMap<>();
+        putDiff(result, "html", a.get().getHtml(), b.get().getHtml());
+        putDiff(result, "css", a.get().getCss(), b.get().getCss());
+        putDiff(result, "js", a.get().getJs(), b.get().getJs());
+        return Optional.of(result);
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            long versions = index.values().stream().flatMap(List::stream).filter(VersionEntry::live).count();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("sites", index.size());
+            result.put("versions", versions);
+            result.put("segmentBytes", size);
+            result.put("deadBytes", deadBytes);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the segment with only the retained versions. The oldest retained
+     * version of each site becomes a keyframe since its delta base may be gone.
+     * Versions are copied one at a time under the read lock; the write lock is only
+     * held to copy the records saved meanwhile and to swap the segment.
+     */
+    public void compact() throws IOException {
+        compaction.lock();
+        try {
+            Map<String, List<VersionEntry>> all = new LinkedHashMap<>();
+            Map<String, List<VersionEntry>> live = new LinkedHashMap<>();
+            long end;
+            lock.readLock().lock();
+            try {
+                end = size;
+                for (Map.Entry<String, List<VersionEntry>> site : index.entrySet()) {
+                    all.put(site.getKey(), new ArrayList<>(site.getValue()));
+                    live.put(site.getKey(), site.getValue().stream().filter(VersionEntry::live).toList());
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            Path compacted = segment.resolveSibling(SEGMENT + ".compact");
+            Files.deleteIfExists(compacted);
+            FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean swapped = false;
+            try {
+                // Versions that die meanwhile are still copied; later saves may be deltas against them
+                Map<VersionEntry, VersionEntry> copies = new IdentityHashMap<>();
+                long position = 0;
+                for (Map.Entry<String, List<VersionEntry>> site : live.entrySet()) {
+                    List<VersionEntry> rewritten = new ArrayList<>();
+                    byte[][] previous = null;
+                    for (VersionEntry old : site.getValue()) {
+                        byte[][] parts;
+                        lock.readLock().lock();
+                        try {
+                            parts = read(all.get(site.getKey()), old);
+                        } finally {
+                            lock.readLock().unlock();
+                        }
+                        boolean keyframe = previous == null || (old.version() - lastKeyframe(rewritten)) >= keyframeEvery;
+                        int baseVersion = keyframe ? -1 : rewritten.get(rewritten.size() - 1).version();
+                        ByteBuffer record = encode(site.getKey(), old.version(), old.createdAt(), parts, keyframe ? null : previous, baseVersion);
+                        VersionEntry copy = new VersionEntry(old.version(), position, record.remaining(), baseVersion,
+                                old.createdAt(), old.sizes());
+                        position = write(out, record, position);
+                        rewritten.add(copy);
+                        copies.put(old, copy);
+                        previous = parts;
+                    }
+                }
+
+                lock.writeLock().lock();
+                try {
+                    long before = size;
+                    long shift = position - end;
+                    out.position(position);
+                    while (position < size + shift) {
+                        position += channel.transferTo(position - shift, size + shift - position, out);
+                    }
+
+                    Map<String, List<VersionEntry>> rebuilt = new HashMap<>();
+                    long liveBytes = 0;
+                    for (Map.Entry<String, List<VersionEntry>> site : index.entrySet()) {
+                        List<VersionEntry> entries = new ArrayList<>();
+                        for (VersionEntry entry : site.getValue()) {
+                            VersionEntry moved = entry.offset() >= end ? entry.movedBy(shift) : copies.get(entry);
+                            if (moved == null) {
+                                // Already dead when the copy started, and no later version depends on it
+                                continue;
+                            }
+                            if (entry.live()) {
+                                liveBytes += moved.length();
+                            } else {
+                                moved.kill();
+                            }
+                            entries.add(moved);
+                        }
+                        rebuilt.put(site.getKey(), entries);
+                    }
+
+                    out.force(true);
+                    Files.move(compacted, segment, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    swapped = true;
+                    channel.close();
+                    channel = out;
+                    windows.clear();
+                    index.clear();
+                    index.putAll(rebuilt);
+                    size = position;
+                    deadBytes = size - liveBytes;
+                    logger.info("Compacted site repository from {} to {} bytes", before, size);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                if (!swapped) {
+                    out.close();
+                    Files.deleteIfExists(compacted);
+                }
+            }
+        } finally {
+            compaction.unlock();
+        }
+    }
+
+    /**
+     * Applies retention to every site as of {@code now}, then compacts when enough of
+     * the segment is dead.
+     */
+    void sweep(long now) throws IOException {
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            new ArrayList<>(index.keySet()).forEach(siteId -> applyRetention(siteId, now));
+            compact = needsCompaction();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            compact();
+        }
+    }
+
+    private void sweepInBackground() {
+        try {
+            sweep(System.currentTimeMillis());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Site repository sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void compactInBackground() {
+        compactionQueued.set(false);
+        try {
+            boolean compact;
+            lock.readLock().lock();
+            try {
+                compact = needsCompaction();
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (compact) {
+                compact();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Site repository compaction failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean needsCompaction() {
+        return size >= minCompactBytes && deadBytes > size * compactRatio;
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        size = channel.size();
+        index.clear();
+        deadBytes = 0;
+        windows.clear();
+
+        // Read through the channel rather than one mapping, which could not cover more than 2 GB
+        long position = 0;
+        ByteBuffer prefix = ByteBuffer.allocate(8);
+        while (position + 8 <= size) {
+            readFully(prefix.clear(), position);
+            int length = prefix.getInt(0);
+            if (length <= 4 || position + 4 + length > size) {
+                break;
+            }
+            byte[] payload = new byte[length - 4];
+            readFully(ByteBuffer.wrap(payload), position + 8);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != prefix.getInt(4)) {
+                break;
+            }
+            Header header = Header.parse(payload);
+            index.computeIfAbsent(header.siteId(), id -> new ArrayList<>()).add(new VersionEntry(
+                    header.version(), position, length + 4, header.baseVersion(), header.createdAt(), header.sizes()));
+            position += 4 + length;
+        }
+
+        if (position < size) {
+            logger.warn("Truncating {} bytes of incomplete or corrupt records from {}", size - position, segment);
+            channel.truncate(position);
+            size = position;
+        }
+    }
+
+    private VersionEntry append(String siteId, int version, long createdAt, byte[][] parts, byte[][] base,
+                                int baseVersion) throws IOException {
+        ByteBuffer record = encode(siteId, version, createdAt, parts, base, baseVersion);
+        long offset = size;
+        size = write(channel, record, size);
+        int[] sizes = Arrays.stream(parts).mapToInt(p -> p.length).toArray();
+        return new VersionEntry(version, offset, (int) (size - offset), baseVersion, createdAt, sizes);
+    }
+
+    private static ByteBuffer encode(String siteId, int version, long createdAt, byte[][] parts, byte[][] base,
+                                     int baseVersion) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(body))) {
+            for (int i = 0; i < PARTS; i++) {
+                if (base == null) {
+                    out.writeInt(parts[i].length);
+                    out.write(parts[i]);
+                } else {
+                    int prefix = commonPrefix(base[i], parts[i]);
+                    int suffix = commonSuffix(base[i], parts[i], prefix);
+                    out.writeInt(prefix);
+                    out.writeInt(suffix);
+                    out.writeInt(parts[i].length - prefix - suffix);
+                    out.write(parts[i], prefix, parts[i].length - prefix - suffix);
+                }
+            }
+        }
+
+        byte[] id = siteId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(1 + 8 + 2 + id.length + 4 + 4 + 4 * PARTS + body.size());
+        payload.put(base == null ? FULL : DELTA).putLong(createdAt).putShort((short) id.length).put(id)
+                .putInt(version).putInt(baseVersion);
+        for (byte[] part : parts) {
+            payload.putInt(part.length);
+        }
+        payload.put(body.toByteArray());
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        ByteBuffer record = ByteBuffer.allocate(8 + payload.capacity());
+        record.putInt(4 + payload.capacity()).putInt((int) crc.getValue()).put(payload.array()).flip();
+        return record;
+    }
+
+    private static long write(FileChannel out, ByteBuffer record, long position) throws IOException {
+        while (record.hasRemaining()) {
+            position += out.write(record, position);
+        }
+        return position;
+    }
+
+    // Bases are looked up in the given versions of the site, dead ones included
+    private byte[][] read(List<VersionEntry> versions, VersionEntry entry) throws IOException {
+        byte[] payload = payload(entry);
+        Header header = Header.parse(payload);
+
+        byte[][] base = header.baseVersion() >= 0 ? read(versions, find(versions, header.baseVersion(), true)) : null;
+        byte[][] parts = new byte[PARTS][];
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(
+                new ByteArrayInputStream(payload, header.bodyOffset(), payload.length - header.bodyOffset())))) {
+            for (int i = 0; i < PARTS; i++) {
+                if (base == null) {
+                    parts[i] = in.readNBytes(in.readInt());
+                } else {
+                    int prefix = in.readInt();
+                    int suffix = in.readInt();
+                    byte[] middle = in.readNBytes(in.readInt());
+                    byte[] part = new byte[prefix + middle.length + suffix];
+                    System.arraycopy(base[i], 0, part, 0, prefix);
+                    System.arraycopy(middle, 0, part, prefix, middle.length);
+                    System.arraycopy(base[i], base[i].length - suffix, part, prefix + middle.length, suffix);
+                    parts[i] = part;
+                }
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * The record's payload from the window of map-window-bytes that holds it. Only
+     * complete windows are mapped, each once; records in the last, still growing window
+     * or straddling two windows are read through the channel instead.
+     */
+    private byte[] payload(VersionEntry entry) throws IOException {
+        byte[] payload = new byte[entry.length() - 8];
+        long start = entry.offset() + 8;
+        long windowStart = start - start % mapWindowBytes;
+        long end = start + payload.length - windowStart;
+        if (end > mapWindowBytes || windowStart + mapWindowBytes > size) {
+            readFully(ByteBuffer.wrap(payload), start);
+            return payload;
+        }
+        MappedByteBuffer window = windows.get(windowStart);
+        if (window == null) {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, mapWindowBytes);
+            windows.put(windowStart, window);
+        }
+        window.get((int) (start - windowStart), payload);
+        return payload;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of " + segment);
+            }
+            position += read;
+        }
+    }
+
+    private VersionEntry find(String siteId, Integer version) {
+        return find(index.get(siteId), version, false);
+    }
+
+    private static VersionEntry find(List<VersionEntry> versions, Integer version, boolean includeDead) {
+        if (versions == null) {
+            return null;
+        }
+        for (int i = versions.size() - 1; i >= 0; i--) {
+            VersionEntry entry = versions.get(i);
+            if ((includeDead || entry.live()) && (version == null || entry.version() == version)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void applyRetention(String siteId, long now) {
+        List<VersionEntry> versions = index.get(siteId);
+        long cutoff = now - Duration.ofDays(maxAgeDays).toMillis();
+        if (versions.get(versions.size() - 1).createdAt() < cutoff) {
+            // Nothing saved within max-age-days; the whole site goes
+            for (VersionEntry entry : versions) {
+                if (entry.live()) {
+                    entry.kill();
+                    deadBytes += entry.length();
+                }
+            }
+            index.remove(siteId);
+            return;
+        }
+        int live = (int) versions.stream().filter(VersionEntry::live).count();
+        // Otherwise the latest version is kept whatever the version limit
+        for (int i = 0; i < versions.size() - 1; i++) {
+            VersionEntry entry = versions.get(i);
+            if (entry.live() && (live > maxVersionsPerSite || entry.createdAt() < cutoff)) {
+                entry.kill();
+                deadBytes += entry.length();
+                live--;
+            }
+        }
+    }
+
+    private static int lastKeyframe(List<VersionEntry> versions) {
+        for (int i = versions.size() - 1; i >= 0; i--) {
+            if (versions.get(i).baseVersion() < 0) {
+                return versions.get(i).version();
+            }
+        }
+        return 0;
+    }
+
+    private static int commonPrefix(byte[] a, byte[] b) {
+        int mismatch = Arrays.mismatch(a, b);
+        return mismatch == -1 ? a.length : mismatch;
+    }
+
+    private static int commonSuffix(byte[] a, byte[] b, int prefix) {
+        int max = Math.min(a.length, b.length) - prefix;
+        int n = 0;
+        while (n < max && a[a.length - 1 - n] == b[b.length - 1 - n]) {
+            n++;
+        }
+        return n;
+    }
+
+    private static void putDiff(Map<String, String> result, String name, String a, String b) {
+        if (a.equals(b)) {
+            return;
+        }
+        String[] before = a.split("\n", -1);
+        String[] after = b.split("\n", -1);
+        int prefix = 0;
+        while (prefix < before.length && prefix < after.length && before[prefix].equals(after[prefix])) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < before.length - prefix && suffix < after.length - prefix
+                && before[before.length - 1 - suffix].equals(after[after.length - 1 - suffix])) {
+            suffix++;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("@@ -").append(prefix + 1).append(',').append(before.length - prefix - suffix)
+                .append(" +").append(prefix + 1).append(',').append(after.length - prefix - suffix).append(" @@\n");
+        for (int i = prefix; i < before.length - suffix; i++) {
+            sb.append('-').append(before[i]).append('\n');
+        }
+        for (int i = prefix; i < after.length - suffix; i++) {
+            sb.append('+').append(after[i]).append('\n');
+        }
+        result.put(name, sb.toString());
+    }
+
+    // The encoded bytes are cached on the content, so the JSON response reuses them
+    private static byte[][] toParts(GenerateResponse site) {
+        return new byte[][]{
+                bytes(site.getHtmlContent()), bytes(site.getCssContent()), bytes(site.getJsContent())
+        };
+    }
+
+    private static byte[] bytes(SiteContent content) {
+        return content == null ? new byte[0] : content.utf8();
+    }
+
+    private static final class VersionEntry {
+        private final int version;
+        private final long offset;
+        private final int length;
+        private final int baseVersion;
+        private final long createdAt;
+        private final int[] sizes;
+        private boolean live = true;
+
+        VersionEntry(int version, long offset, int length, int baseVersion, long createdAt, int[] sizes) {
+            this.version = version;
+            this.offset = offset;
+            this.length = length;
+            this.baseVersion = baseVersion;
+            this.createdAt = createdAt;
+            this.sizes = sizes;
+        }
+
+        int version() { return version; }
+        long offset() { return offset; }
+        int length() { return length; }
+        int baseVersion() { return baseVersion; }
+        long createdAt() { return createdAt; }
+        int[] sizes() { return sizes; }
+        boolean live() { return live; }
+        void kill() { live = false; }
+
+        VersionEntry movedBy(long shift) {
+            return new VersionEntry(version, offset + shift, length, baseVersion, createdAt, sizes);
+        }
+    }
+
+    private record Header(String siteId, int version, int baseVersion, long createdAt, int[] sizes, int bodyOffset) {
+
+        static Header parse(byte[] payload) {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            buffer.get(); // record type, implied by baseVersion
+            long createdAt = buffer.getLong();
+            byte[] id = new byte[buffer.getShort()];
+            buffer.get(id);
+            int version = buffer.getInt();
+            int baseVersion = buffer.getInt();
+            int[] sizes = new int[PARTS];
+            for (int i = 0; i < PARTS; i++) {
+                sizes[i] = buffer.getInt();
+            }
+            return new Header(new String(id, StandardCharsets.UTF_8), version, baseVersion, createdAt, sizes, buffer.position());
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One skeleton site from the template library, compiled once from its manifest entry.
+ * The page is kept as fixed segments around two slots, the site name and a
+ * description, so rendering is a handful of appends.
+ */
+public final class SiteTemplate {
+
+    static final String SITE_NAME = "siteName";
+
+    private static final Map<String, String> FIELD_TYPES = Map.of(
+            "email", "email", "phone", "tel", "date", "date", "guests", "number");
+
+    private final String id;
+    private final String name;
+    private final String category;
+    private final List<String> keywords;
+    private final String defaultSiteName;
+    private final String[] segments;
+    private final String[] slots;
+    private final String css;
+    private final String js;
+    private final int htmlLength;
+
+    private SiteTemplate(JsonNode spec, String html, String css, String js) {
+        this.id = spec.path("id").asText();
+        this.name = spec.path("name").asText(id);
+        this.category = spec.path("category").asText();
+        this.keywords = new ArrayList<>();
+        spec.path("keywords").forEach(keyword -> keywords.add(keyword.asText()));
+        this.defaultSiteName = spec.path("siteName").asText(name);
+        this.css = css;
+        this.js = js;
+
+        List<String> parts = new ArrayList<>();
+        List<String> slotNames = new ArrayList<>();
+        int from = 0;
+        int open;
+        while ((open = html.indexOf("{{", from)) >= 0) {
+            int close = html.indexOf("}}", open);
+            parts.add(html.substring(from, open));
+            slotNames.add(html.substring(open + 2, close));
+            from = close + 2;
+        }
+        parts.add(html.substring(from));
+        this.segments = parts.toArray(String[]::new);
+        this.slots = slotNames.toArray(String[]::new);
+        this.htmlLength = html.length();
+    }
+
+    static SiteTemplate compile(JsonNode spec, String baseCss, String baseJs) {
+        JsonNode palette = spec.path("palette");
+        String css = ":root {\n" +
+                "    --primary: " + palette.path("primary").asText("#1f4e79") + ";\n" +
+                "    --accent: " + palette.path("accent").asText("#f0a202") + ";\n" +
+                "    --background: " + palette.path("background").asText("#ffffff") + ";\n" +
+                "    --text: " + palette.path("text").asText("#1c2430") + ";\n" +
+                "    --font: " + spec.path("font").asText("'Segoe UI', Helvetica, Arial, sans-serif") + ";\n" +
+                "}\n\n" + baseCss;
+        return new SiteTemplate(spec, renderHtml(spec), css, baseJs);
+    }
+
+    /**
+     * Fills the slots. Values are HTML-escaped here; everything else was escaped at compile time.
+     */
+    GenerateResponse render(String siteName, String description) {
+        String name = HtmlUtils.htmlEscape(siteName != null ? siteName : defaultSiteName);
+        String text = HtmlUtils.htmlEscape(description != null ? description : "");
+        StringBuilder html = new StringBuilder(htmlLength + 4 * (name.length() + text.length()));
+        for (int i = 0; i < slots.length; i++) {
+            html.append(segments[i]).append(SITE_NAME.equals(slots[i]) ? name : text);
+        }
+        html.append(segments[slots.length]);
+        return new GenerateResponse(html.toString(), css, js);
+    }
+
+    private static String renderHtml(JsonNode spec) {
+        StringBuilder html = new StringBuilder(8 * 1024);
+        JsonNode hero = spec.path("hero");
+        JsonNode sections = spec.path("sections");
+
+        html.append("""
+                <!DOCTYPE html>
+                <html lang="en">
+                <head>
+                    <meta charset="UTF-8">
+                    <meta name="viewport" content="width=device-width, initial-scale=1.0">
+                    <meta name="description" content="{{description}}">
+                    <title>{{siteName}}</title>
+                    <link rel="stylesheet" href="styles.css">
+                </head>
+                <body>
+                    <header class="site-header">
+                        <nav class="nav">
+                            <a href="#top" class="logo">{{siteName}}</a>
+                            <button class="nav-toggle" aria-label="Toggle navigation" aria-expanded="false">&#9776;</button>
+                            <ul class="nav-links">
+                """);
+        for (JsonNode section : sections) {
+            html.append("                <li><a href=\"#").append(text(section, "id")).append("\">")
+                    .append(text(section, "title")).append("</a></li>\n");
+        }
+        html.append("""
+                            </ul>
+                        </nav>
+                    </header>
+                    <main id="top">
+                        <section class="hero">
+                """);
+        html.append("            <h1>").append(text(hero, "headline")).append("</h1>\n");
+        html.append("            <p class=\"lead\">").append(text(hero, "text")).append("</p>\n");
+        html.append("            <a href=\"#").append(text(hero, "target")).append("\" class=\"btn\">")
+                .append(text(hero, "cta")).append("</a>\n");
+        html.append("        </section>\n");
+
+        String contactId = "top";
+        for (JsonNode section : sections) {
+            if (section.path("type").asText().equals("contact")) {
+                contactId = text(section, "id");
+            }
+        }
+
+        boolean gallery = false;
+        for (JsonNode section : sections) {
+            String type = section.path("type").asText();
+            gallery |= type.equals("gallery");
+            html.append("        <section id=\"").append(text(section, "id")).append("\" class=\"section reveal\">\n");
+            html.append("            <h2>").append(text(section, "title")).append("</h2>\n");
+            switch (type) {
+                case "cards" -> cards(html, section, false);
+                case "products" -> cards(html, section, true);
+                case "menu" -> menu(html, section);
+                case "gallery" -> gallery(html, section, spec.path("id").asText());
+                case "stats" -> stats(html, section);
+                case "pricing" -> pricing(html, section, contactId);
+                case "quotes" -> quotes(html, section);
+                case "schedule" -> schedule(html, section);
+                case "text" -> paragraphs(html, section);
+                case "contact" -> contact(html, section);
+                default -> throw new IllegalArgumentException("Unknown section type '" + type + "' in template " + spec.path("id").asText());
+            }
+            html.append("        </section>\n");
+        }
+
+        html.append("    </main>\n");
+        if (gallery) {
+            html.append("    <div class=\"lightbox\" role=\"dialog\" aria-label=\"Image preview\"><img src=\"\" alt=\"\"></div>\n");
+        }
+        html.append("""
+                    <footer class="footer">
+                        <p>&copy; <span id="year"></span> {{siteName}}</p>
+                    </footer>
+                    <script src="script.js"></script>
+                </body>
+                </html>
+                """);
+        return html.toString();
+    }
+
+    private static void cards(StringBuilder html, JsonNode section, boolean products) {
+        html.append("            <div class=\"grid\">\n");
+        for (JsonNode item : section.path("items")) {
+            html.append("                <article class=\"card\">\n");
+            html.append("                    <h3>").append(text(item, "title")).append("</h3>\n");
+            html.append("                    <p>").append(text(item, "text")).append("</p>\n");
+            if (item.has("meta")) {
+                html.append("                    <span class=\"meta\">").append(text(item, "meta")).append("</span>\n");
+            }
+            if (products) {
+                html.append("                    <span class=\"price\">").append(text(item, "price")).append("</span>\n");
+            }
+            html.append("                </article>\n");
+        }
+        html.append("            </div>\n");
+    }
+
+    private static void menu(StringBuilder html, JsonNode section) {
+        html.append("            <ul class=\"menu-list\">\n");
+        for (JsonNode item : section.path("items")) {
+            html.append("                <li class=\"menu-item\">\n");
+            html.append("                    <div><h3>").append(text(item, "title")).append("</h3><p>")
+                    .append(text(item, "text")).append("</p></div>\n");
+            html.append("                    <span class=\"price\">").append(text(item, "price")).append("</span>\n");
+            html.append("                </li>\n");
+        }
+        html.append("            </ul>\n");
+    }
+
+    private static void gallery(StringBuilder html, JsonNode section, String templateId) {
+        html.append("            <div class=\"grid gallery\">\n");
+        int index = 0;
+        for (JsonNode item : section.path("items")) {
+            String title = text(item, "title");
+            html.append("                <figure><img src=\"https://picsum.photos/seed/").append(templateId).append('-').append(++index)
+                    .append("/600/400\" alt=\"").append(title).append("\" loading=\"lazy\"><figcaption>")
+                    .append(title).append("</figcaption></figure>\n");
+        }
+        html.append("            </div>\n");
+    }
+
+    private static void stats(StringBuilder html, JsonNode section) {
+        html.append("            <div class=\"stats\">\n");
+        for (JsonNode item : section.path("items")) {
+            html.append("                <div class=\"stat\"><strong>").append(text(item, "value")).append("</strong>")
+                    .append(text(item, "label")).append("</div>\n");
+        }
+        html.append("            </div>\n");
+    }
+
+    private static void pricing(StringBuilder html, JsonNode section, String contactId) {
+        html.append("            <div class=\"grid pricing\">\n");
+        for (JsonNode item : section.path("items")) {
+            html.append("                <article class=\"card").append(item.path("highlighted").asBoolean() ? " highlighted" : "").append("\">\n");
+            html.append("                    <h3>").append(text(item, "name")).append("</h3>\n");
+            html.append("                    <span class=\"price\">").append(text(item, "price"))
+                    .append("<span class=\"period\">").append(text(item, "period")).append("</span></span>\n");
+            html.append("                    <ul>\n");
+            for (JsonNode feature : item.path("features")) {
+                html.append("                        <li>").append(HtmlUtils.htmlEscape(feature.asText())).append("</li>\n");
+            }
+            html.append("                    </ul>\n");
+            html.append("                    <a href=\"#").append(contactId).append("\" class=\"btn\">Choose ")
+                    .append(text(item, "name")).append("</a>\n");
+            html.append("                </article>\n");
+        }
+        html.append("            </div>\n");
+    }
+
+    private static void quotes(StringBuilder html, JsonNode section) {
+        html.append("            <div class=\"grid quotes\">\n");
+        for (JsonNode item : section.path("items")) {
+            html.append("                <figure class=\"card\"><blockquote>&ldquo;").append(text(item, "text"))
+                    .append("&rdquo;</blockquote><cite>").append(text(item, "author")).append("</cite></figure>\n");
+        }
+        html.append("            </div>\n");
+    }
+
+    private static void schedule(StringBuilder html, JsonNode section) {
+        html.append("            <ul class=\"schedule\">\n");
+        for (JsonNode item : section.path("items")) {
+            html.append("                <li><time>").append(text(item, "time")).append("</time><div><h3>")
+                    .append(text(item, "title")).append("</h3><p>").append(text(item, "text")).append("</p></div></li>\n");
+        }
+        html.append("            </ul>\n");
+    }
+
+    private static void paragraphs(StringBuilder html, JsonNode section) {
+        html.append("            <div class=\"text\">\n");
+        for (JsonNode paragraph : section.path("paragraphs")) {
+            html.append("                <p>").append(HtmlUtils.htmlEscape(paragraph.asText())).append("</p>\n");
+        }
+        html.append("            </div>\n");
+    }
+
+    private static void contact(StringBuilder html, JsonNode section) {
+        html.append("            <form class=\"contact-form\">\n");
+        html.append("                <p>").append(text(section, "text")).append("</p>\n");
+        for (JsonNode field : section.path("fields")) {
+            String name = HtmlUtils.htmlEscape(field.asText());
+            String label = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            if (name.equals("message")) {
+                html.append("                <textarea name=\"message\" placeholder=\"Message\" aria-label=\"Message\"></textarea>\n");
+            } else {
+                html.append("                <input type=\"").append(FIELD_TYPES.getOrDefault(name, "text")).append("\" name=\"")
+                        .append(name).append("\" placeholder=\"").append(label).append("\" aria-label=\"").append(label)
+                        .append('"').append(name.equals("email") || name.equals("name") ? " required" : "").append(">\n");
+            }
+        }
+        html.append("                <button type=\"submit\" class=\"btn\">").append(text(section, "button")).append("</button>\n");
+        html.append("                <p class=\"form-message\" aria-live=\"polite\"></p>\n");
+        html.append("            </form>\n");
+    }
+
+    private static String text(JsonNode node, String field) {
+        return HtmlUtils.htmlEscape(node.path(field).asText());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public List<String> getKeywords() {
+        return keywords;
+    }
+
+    public String getDefaultSiteName() {
+        return defaultSiteName;
+    }
+}
@@ -0,0 +1,344 @@
+package com.Jadhav.WebCraft.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Single-pass structural check of generated JavaScript and CSS: bracket, string,
+ * template-literal and comment balance. Every character is visited once, so the
+ * cost is O(n) whatever the input looks like.
+ *
+ * <p>When the source ends inside an unclosed construct (the model ran out of tokens),
+ * it is cut back to the end of the last complete top-level statement or rule. Anything
+ * else is only reported; the code is left as the model wrote it.
+ */
+final class SourceValidator {
+
+    private static final int MAX_ERRORS = 20;
+
+    // After these words a '/' starts a regular expression rather than a division
+    private static final Set<String> EXPRESSION_KEYWORDS = Set.of(
+            "return", "typeof", "instanceof", "in", "of", "new", "delete", "void",
+            "throw", "case", "do", "else", "yield", "await");
+
+    private static final char TEMPLATE = '`';
+
+    private SourceValidator() {}
+
+    record Report(String source, boolean truncated, List<String> errors) {
+    }
+
+    static Report javascript(String js) {
+        return new Scanner(js).javascript();
+    }
+
+    static Report css(String css) {
+        return new Scanner(css).css();
+    }
+
+    private static final class Scanner {
+        private final String src;
+        private final int n;
+        private final List<String> errors = new ArrayList<>();
+        private char[] stack = new char[32];
+        private int[] stackLines = new int[32];
+        private int depth;
+        private int line = 1;
+        private String unterminated;
+        private int unterminatedLine;
+
+        Scanner(String src) {
+            this.src = src == null ? "" : src;
+            this.n = this.src.length();
+        }
+
+        Report javascript() {
+            int lastSafe = 0;
+            boolean regexAllowed = true;
+            int i = 0;
+            while (i < n) {
+                char c = src.charAt(i);
+                if (c == '\n') {
+                    line++;
+                    i++;
+                } else if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '/' && i + 1 < n && src.charAt(i + 1) == '/') {
+                    int end = src.indexOf('\n', i + 2);
+                    i = end < 0 ? n : end;
+                } else if (c == '/' && i + 1 < n && src.charAt(i + 1) == '*') {
+                    i = blockComment(i);
+                    if (i < 0) {
+                        break;
+                    }
+                } else if (c == '\'' || c == '"') {
+                    i = string(i, c);
+                    if (i < 0) {
+                        break;
+                    }
+                    regexAllowed = false;
+                } else if (c == '`') {
+                    i = template(i + 1, line);
+                    if (i < 0) {
+                        break;
+                    }
+                    regexAllowed = depth > 0 && stack[depth - 1] == TEMPLATE;
+                } else if (c == '}' && depth > 0 && stack[depth - 1] == TEMPLATE) {
+                    // End of a ${...} expression: back into the enclosing template literal
+                    int openedOn = stackLines[--depth];
+                    i = template(i + 1, openedOn);
+                    if (i < 0) {
+                        break;
+                    }
+                    regexAllowed = depth > 0 && stack[depth - 1] == TEMPLATE;
+                } else if (c == '(' || c == '[' || c == '{') {
+                    push(c);
+                    regexAllowed = true;
+                    i++;
+                } else if (c == ')' || c == ']' || c == '}') {
+                    close(c);
+                    regexAllowed = false;
+                    i++;
+                    if (depth == 0 && c == '}') {
+                        lastSafe = i;
+                    }
+                } else if (c == ';') {
+                    regexAllowed = true;
+                    i++;
+                    if (depth == 0) {
+                        lastSafe = i;
+                    }
+                } else if (Character.isJavaIdentifierStart(c) || c == '\\') {
+                    int start = i;
+                    i = c == '\\' ? i + 2 : i + 1;
+                    while (i < n && Character.isJavaIdentifierPart(src.charAt(i))) {
+                        i++;
+                    }
+                    regexAllowed = i - start <= 10 && EXPRESSION_KEYWORDS.contains(src.substring(start, Math.min(i, n)));
+                } else if (Character.isDigit(c)) {
+                    i++;
+                    while (i < n && (Character.isLetterOrDigit(src.charAt(i)) || src.charAt(i) == '.' || src.charAt(i) == '_')) {
+                        i++;
+                    }
+                    regexAllowed = false;
+                } else if (c == '/' && regexAllowed) {
+                    i = regex(i);
+                    if (i < 0) {
+                        break;
+                    }
+                    regexAllowed = false;
+                } else {
+                    regexAllowed = true;
+                    i++;
+                }
+            }
+            return finish(lastSafe, "script");
+        }
+
+        Report css() {
+            int lastSafe = 0;
+            int lastSignificant = 0;
+            int i = 0;
+            while (i < n) {
+                char c = src.charAt(i);
+                if (c == '\n') {
+                    line++;
+                    i++;
+                } else if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '/' && i + 1 < n && src.charAt(i + 1) == '*') {
+                    i = blockComment(i);
+                    if (i < 0) {
+                        break;
+                    }
+                } else if (c == '\'' || c == '"') {
+                    i = string(i, c);
+                    if (i < 0) {
+                        break;
+                    }
+                    lastSignificant = i;
+                } else if (c == '\\') {
+                    i = Math.min(n, i + 2);
+                    lastSignificant = i;
+                } else if (c == '(' || c == '[' || c == '{') {
+                    push(c);
+                    i++;
+                    lastSignificant = i;
+                } else if (c == ')' || c == ']' || c == '}') {
+                    close(c);
+                    i++;
+                    lastSignificant = i;
+                    if (depth == 0 && c == '}') {
+                        lastSafe = i;
+                    }
+                } else if (c == ';' && depth == 0) {
+                    i++;
+                    lastSafe = i;
+                    lastSignificant = i;
+                } else {
+                    i++;
+                    lastSignificant = i;
+                }
+            }
+            if (unterminated == null && depth == 0 && lastSignificant > lastSafe) {
+                // A selector or at-rule with no block after it
+                unterminated = "rule";
+                unterminatedLine = line;
+            }
+            return finish(lastSafe, "stylesheet");
+        }
+
+        private Report finish(int lastSafe, String what) {
+            if (unterminated == null && depth == 0) {
+                return new Report(src, false, errors);
+            }
+            if (unterminated != null) {
+                errors.add("Unterminated " + unterminated + " from line " + unterminatedLine + " at end of " + what);
+            } else {
+                errors.add(depth + " unclosed bracket(s) at end of " + what + ", outermost '" + stack[0]
+                        + "' on line " + stackLines[0]);
+            }
+            return new Report(src.substring(0, lastSafe), true, errors);
+        }
+
+        // Returns the index after the closing quote, or -1 at end of input
+        private int string(int start, char quote) {
+            int startLine = line;
+            int j = start + 1;
+            while (j < n) {
+                char ch = src.charAt(j);
+                if (ch == '\\') {
+                    if (j + 1 < n && src.charAt(j + 1) == '\n') {
+                        line++;
+                    }
+                    j += 2;
+                } else if (ch == quote) {
+                    return j + 1;
+                } else if (ch == '\n') {
+                    // Left for the caller to count; scanning resumes on the next line
+                    error("Unterminated string on line " + line);
+                    return j;
+                } else {
+                    j++;
+                }
+            }
+            unterminated = "string";
+            unterminatedLine = startLine;
+            return -1;
+        }
+
+        /**
+         * Scans template text up to the closing backtick or the next ${. In the second case
+         * the expression is pushed on the bracket stack and code scanning takes over until
+         * its closing brace.
+         */
+        private int template(int from, int openedOn) {
+            int j = from;
+            while (j < n) {
+                char ch = src.charAt(j);
+                if (ch == '\\') {
+                    if (j + 1 < n && src.charAt(j + 1) == '\n') {
+                        line++;
+                    }
+                    j += 2;
+                } else if (ch == '`') {
+                    return j + 1;
+                } else if (ch == '$' && j + 1 < n && src.charAt(j + 1) == '{') {
+                    push(TEMPLATE, openedOn);
+                    return j + 2;
+                } else {
+                    if (ch == '\n') {
+                        line++;
+                    }
+                    j++;
+                }
+            }
+            unterminated = "template literal";
+            unterminatedLine = openedOn;
+            return -1;
+        }
+
+        private int blockComment(int start) {
+            int end = src.indexOf("*/", start + 2);
+            int stop = end < 0 ? n : end;
+            int startLine = line;
+            for (int j = start + 2; j < stop; j++) {
+                if (src.charAt(j) == '\n') {
+                    line++;
+                }
+            }
+            if (end < 0) {
+                unterminated = "comment";
+                unterminatedLine = startLine;
+                return -1;
+            }
+            return end + 2;
+        }
+
+        private int regex(int start) {
+            boolean inClass = false;
+            int j = start + 1;
+            while (j < n) {
+                char ch = src.charAt(j);
+                if (ch == '\\') {
+                    j += 2;
+                } else if (ch == '\n') {
+                    error("Unterminated regular expression on line " + line);
+                    return j;
+                } else if (ch == '[') {
+                    inClass = true;
+                    j++;
+                } else if (ch == ']') {
+                    inClass = false;
+                    j++;
+                } else if (ch == '/' && !inClass) {
+                    j++;
+                    while (j < n && Character.isLetter(src.charAt(j))) {
+                        j++;
+                    }
+                    return j;
+                } else {
+                    j++;
+                }
+            }
+            unterminated = "regular expression";
+            unterminatedLine = line;
+            return -1;
+        }
+
+        private void push(char open) {
+            push(open, line);
+        }
+
+        private void push(char open, int openedOn) {
+            if (depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+                stackLines = Arrays.copyOf(stackLines, depth * 2);
+            }
+            stack[depth] = open;
+            stackLines[depth++] = openedOn;
+        }
+
+        private void close(char closer) {
+            char expected = closer == ')' ? '(' : closer == ']' ? '[' : '{';
+            if (depth == 0) {
+                error("Unexpected '" + closer + "' on line " + line);
+            } else if (stack[depth - 1] != expected) {
+                error("Mismatched '" + closer + "' on line " + line + ", '" + stack[depth - 1]
+                        + "' from line " + stackLines[depth - 1] + " is still open");
+                // Either the inner opener was never closed or the closer is a typo for it
+                depth -= depth > 1 && stack[depth - 2] == expected ? 2 : 1;
+            } else {
+                depth--;
+            }
+        }
+
+        private void error(String message) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(message);
+            }
+        }
+    }
+}
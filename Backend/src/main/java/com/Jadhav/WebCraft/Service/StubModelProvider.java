@@ -0,0 +1,157 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Deterministic local provider for tests, benchmarks and offline runs. The same
+ * prompt always produces the same site. The bean always exists and is switched on at
+ * runtime, so an AOT-processed build can still enable it (as the CDS training run does).
+ */
+@Component
+public class StubModelProvider implements ModelProvider {
+
+    private static final String[][] PALETTES = {
+            {"#667eea", "#764ba2"},
+            {"#11998e", "#38ef7d"},
+            {"#ee0979", "#ff6a00"},
+            {"#2193b0", "#6dd5ed"},
+    };
+
+    private static final String OUTLINE_JSON = """
+            {"title": "WebCraft",
+             "sections": [{"id": "home", "element": "header", "purpose": "hero with call to action"},
+                          {"id": "features", "element": "section", "purpose": "feature cards"},
+                          {"id": "contact", "element": "footer", "purpose": "footer"}],
+             "classes": [{"name": "hero", "usage": "header"}, {"name": "cta", "usage": "button"},
+                         {"name": "features", "usage": "grid"}, {"name": "feature", "usage": "card"},
+                         {"name": "footer", "usage": "footer"}],
+             "interactions": [{"id": "cta", "behavior": "scroll to features"}]}
+            """;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${webcraft.models.stub.enabled:false}")
+    private boolean enabled;
+
+    @Value("${webcraft.models.stub.latency-ms:0}")
+    private long latencyMs;
+
+    // Models emit tokens sequentially, so latency grows with the size of the output
+    @Value("${webcraft.models.stub.latency-ms-per-kb:0}")
+    private long latencyMsPerKb;
+
+    @Value("${webcraft.models.stub.max-concurrency:64}")
+    private int maxConcurrency;
+
+    @Override
+    public String getName() {
+        return "stub";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public LatencyTier getTier() {
+        return LatencyTier.FAST;
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public String generate(String prompt) throws Exception {
+        Map<String, String> site = new LinkedHashMap<>();
+        site.put("html", html(prompt));
+        site.put("css", css(prompt));
+        site.put("js", js());
+        return simulateLatency(objectMapper.writeValueAsString(site));
+    }
+
+    @Override
+    public String complete(GenerationTask task, String prompt) throws Exception {
+        return simulateLatency(switch (task) {
+            case OUTLINE -> OUTLINE_JSON;
+            case HTML -> html(prompt);
+            case CSS -> css(prompt);
+            case JS -> js();
+            case PATCH -> RefinementService.fragmentOf(prompt);
+        });
+    }
+
+    private String simulateLatency(String output) throws InterruptedException {
+        long delay = latencyMs + latencyMsPerKb * output.length() / 1024;
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+        return output;
+    }
+
+    private String html(String prompt) {
+        String title = escapeHtml(prompt.length() > 60 ? prompt.substring(0, 60) : prompt);
+        return """
+                <!DOCTYPE html>
+                <html lang="en">
+                <head>
+                    <meta charset="UTF-8">
+                    <meta name="viewport" content="width=device-width, initial-scale=1.0">
+                    <title>%s</title>
+                    <link rel="stylesheet" href="styles.css">
+                </head>
+                <body>
+                    <header class="hero" id="home">
+                        <h1>%s</h1>
+                        <button class="cta" id="cta">Get Started</button>
+                    </header>
+                    <main>
+                        <section class="features" id="features">
+                            <article class="feature"><h2>Fast</h2><p>Built for speed.</p></article>
+                            <article class="feature"><h2>Simple</h2><p>Easy to use.</p></article>
+                        </section>
+                    </main>
+                    <footer class="footer" id="contact"><p>&copy; WebCraft</p></footer>
+                    <script src="script.js"></script>
+                </body>
+                </html>
+                """.formatted(title, title);
+    }
+
+    private String css(String prompt) {
+        String[] palette = PALETTES[Math.floorMod(prompt.hashCode(), PALETTES.length)];
+        return """
+                * { margin: 0; padding: 0; box-sizing: border-box; }
+                body { font-family: 'Segoe UI', sans-serif; color: #333; }
+                .hero { padding: 4rem 2rem; text-align: center; color: #fff; background: linear-gradient(135deg, %s, %s); }
+                .cta { margin-top: 1.5rem; padding: 0.75rem 2rem; border: none; border-radius: 999px; cursor: pointer; }
+                .features { display: grid; grid-template-columns: repeat(auto-fit, minmax(220px, 1fr)); gap: 1.5rem; padding: 3rem 2rem; }
+                .feature { padding: 1.5rem; border-radius: 12px; box-shadow: 0 8px 24px rgba(0, 0, 0, 0.08); }
+                .footer { padding: 2rem; text-align: center; }
+                """.formatted(palette[0], palette[1]);
+    }
+
+    private String js() {
+        return """
+                document.addEventListener('DOMContentLoaded', () => {
+                    const cta = document.getElementById('cta');
+                    cta.addEventListener('click', () => {
+                        document.getElementById('features').scrollIntoView({ behavior: 'smooth' });
+                    });
+                });
+                """;
+    }
+
+    private static String escapeHtml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,200 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Precompiled site skeletons matched against prompts through an in-memory inverted index.
+ * A match is cheap enough to send as a speculative first response while the model works,
+ * and the same skeleton is the fallback when generation fails.
+ */
+@Component
+public class TemplateLibrary {
+    private static final Logger logger = LoggerFactory.getLogger(TemplateLibrary.class);
+
+    private static final int KEYWORD_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int MAX_DESCRIPTION_LENGTH = 160;
+    private static final int MAX_SITE_NAME_LENGTH = 40;
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "and", "the", "for", "with", "that", "this", "from", "into", "your", "our", "their",
+            "create", "make", "build", "website", "site", "page", "web", "landing", "modern",
+            "simple", "beautiful", "nice", "want", "need", "please", "some", "have", "has", "using");
+
+    private static final Pattern SPLIT = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern NAMED = Pattern.compile(
+            "\\b(?:called|named|titled)\\s+[\"'“]?([A-Z0-9][\\w&'’.-]*(?:\\s+[A-Z0-9&][\\w&'’.-]*){0,4})");
+    private static final Pattern QUOTED = Pattern.compile("[\"“]([^\"”\\n]{2,40})[\"”]");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${webcraft.templates.manifest:classpath:site-templates/templates.json}")
+    private Resource manifest;
+
+    @Value("${webcraft.templates.default:business}")
+    private String defaultTemplateId;
+
+    private final List<SiteTemplate> templates = new ArrayList<>();
+    private final Map<String, List<Posting>> index = new HashMap<>();
+    private SiteTemplate defaultTemplate;
+
+    public record Match(SiteTemplate template, int score, List<String> terms) {
+    }
+
+    private record Posting(int template, int weight) {
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        String baseCss = read(new ClassPathResource("site-templates/base.css"));
+        String baseJs = read(new ClassPathResource("site-templates/base.js"));
+
+        JsonNode specs;
+        try (InputStream in = manifest.getInputStream()) {
+            specs = objectMapper.readTree(in);
+        }
+        for (JsonNode spec : specs) {
+            SiteTemplate template = SiteTemplate.compile(spec, baseCss, baseJs);
+            int position = templates.size();
+            templates.add(template);
+
+            Map<String, Integer> weights = new HashMap<>();
+            for (String keyword : template.getKeywords()) {
+                for (String token : tokenize(keyword)) {
+                    weights.merge(token, KEYWORD_WEIGHT, Math::max);
+                }
+            }
+            for (String token : tokenize(template.getCategory() + " " + template.getId())) {
+                weights.merge(token, CATEGORY_WEIGHT, Math::max);
+            }
+            weights.forEach((token, weight) ->
+                    index.computeIfAbsent(token, t -> new ArrayList<>()).add(new Posting(position, weight)));
+        }
+
+        defaultTemplate = templates.stream()
+                .filter(template -> template.getId().equals(defaultTemplateId))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Default template '" + defaultTemplateId + "' is not in the manifest"));
+        logger.info("Loaded {} site templates with {} index terms", templates.size(), index.size());
+    }
+
+    /**
+     * Scores every template sharing a term with the prompt; ties keep manifest order.
+     * Prompts that share nothing get the default template with a score of zero.
+     */
+    public Match match(String prompt) {
+        Set<String> terms = tokenize(prompt);
+        int[] scores = new int[templates.size()];
+        List<String> matched = new ArrayList<>();
+        for (String term : terms) {
+            List<Posting> postings = index.get(term);
+            if (postings == null) {
+                continue;
+            }
+            matched.add(term);
+            for (Posting posting : postings) {
+                scores[posting.template()] += posting.weight();
+            }
+        }
+
+        int best = -1;
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] > 0 && (best < 0 || scores[i] > scores[best])) {
+                best = i;
+            }
+        }
+        if (best < 0) {
+            return new Match(defaultTemplate, 0, List.of());
+        }
+        return new Match(templates.get(best), scores[best], matched);
+    }
+
+    public GenerateResponse render(Match match, String prompt) {
+        return match.template().render(siteName(prompt), description(prompt));
+    }
+
+    public GenerateResponse skeleton(String prompt) {
+        return render(match(prompt), prompt);
+    }
+
+    public List<SiteTemplate> getTemplates() {
+        return templates;
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String word : SPLIT.split(text.toLowerCase())) {
+            if (word.length() < 3 || STOPWORDS.contains(word)) {
+                continue;
+            }
+            tokens.add(stem(word));
+        }
+        return tokens;
+    }
+
+    // Folds plurals only; "bakeries" and "bakery" should meet, anything cleverer is not worth it here
+    private static String stem(String word) {
+        if (word.length() > 4 && word.endsWith("ies")) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    private static String siteName(String prompt) {
+        if (prompt == null) {
+            return null;
+        }
+        Matcher named = NAMED.matcher(prompt);
+        if (named.find()) {
+            return truncate(named.group(1).replaceAll("[.,'’]+$", ""), MAX_SITE_NAME_LENGTH);
+        }
+        Matcher quoted = QUOTED.matcher(prompt);
+        if (quoted.find()) {
+            return truncate(quoted.group(1).trim(), MAX_SITE_NAME_LENGTH);
+        }
+        return null;
+    }
+
+    private static String description(String prompt) {
+        return prompt == null ? null : truncate(prompt.strip().replaceAll("\\s+", " "), MAX_DESCRIPTION_LENGTH);
+    }
+
+    private static String truncate(String text, int max) {
+        return text.length() <= max ? text : text.substring(0, max).strip();
+    }
+
+    private static String read(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
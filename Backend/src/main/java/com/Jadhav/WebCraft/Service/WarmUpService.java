@@ -0,0 +1,177 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Warms a fresh instance before it reports ready. A recorded corpus of model responses
+ * goes through the cleaning, parsing and ZIP-building code so the JIT has compiled it,
+ * while the outbound Gemini and Netlify connections are opened in parallel. Readiness
+ * stays REFUSING_TRAFFIC (and /health answers 503) until both are done.
+ */
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class WarmUpService implements ApplicationListener<ApplicationReadyEvent> {
+    private static final Logger logger = LoggerFactory.getLogger(WarmUpService.class);
+
+    public enum State { PENDING, RUNNING, DONE, FAILED, DISABLED }
+
+    @Value("${webcraft.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${webcraft.warmup.corpus:classpath*:warmup/*.txt}")
+    private Resource[] corpus;
+
+    @Value("${webcraft.warmup.iterations:40}")
+    private int iterations;
+
+    @Value("${webcraft.warmup.max-ms:10000}")
+    private long maxMs;
+
+    @Value("${webcraft.warmup.preconnect:true}")
+    private boolean preconnect;
+
+    @Value("${webcraft.warmup.preconnect-timeout-ms:10000}")
+    private long preconnectTimeoutMs;
+
+    @Autowired
+    private WebsiteGeneratorService websiteGeneratorService;
+
+    @Autowired
+    private NetlifyDeploymentService netlifyDeploymentService;
+
+    @Autowired
+    private ModelRouter modelRouter;
+
+    private volatile State state = State.PENDING;
+    private volatile Map<String, Object> result = Map.of();
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!enabled) {
+            state = State.DISABLED;
+            return;
+        }
+        run();
+        // Boot publishes this itself after all ready listeners; doing it here lets later
+        // listeners (the CDS training run) see a ready instance
+        AvailabilityChangeEvent.publish(event.getApplicationContext(), ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    void run() {
+        state = State.RUNNING;
+        long start = System.nanoTime();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        try {
+            // Network waits overlap the CPU-bound corpus run; a hung host is left behind at the timeout
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(preconnectTimeoutMs);
+            Map<String, CompletableFuture<Map<String, Object>>> connections = new LinkedHashMap<>();
+            if (preconnect) {
+                Executor virtualThreads = task -> Thread.ofVirtual().name("warm-up-preconnect").start(task);
+                connections.put("models", CompletableFuture.supplyAsync(modelRouter::preconnect, virtualThreads));
+                connections.put("netlify", CompletableFuture.supplyAsync(this::preconnectNetlify, virtualThreads));
+            }
+
+            summary.put("corpus", runCorpus());
+
+            Map<String, Object> preconnected = new LinkedHashMap<>();
+            for (Map.Entry<String, CompletableFuture<Map<String, Object>>> connection : connections.entrySet()) {
+                try {
+                    preconnected.put(connection.getKey(),
+                            connection.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    preconnected.put(connection.getKey(), Map.of("status", "TIMED_OUT"));
+                }
+            }
+            summary.put("preconnect", preconnected);
+            state = State.DONE;
+        } catch (Exception e) {
+            logger.warn("Warm-up failed, serving cold: {}", e.getMessage(), e);
+            summary.put("error", e.getMessage());
+            state = State.FAILED;
+        }
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        summary.put("durationMs", durationMs);
+        result = summary;
+        logger.info("Warm-up {} in {} ms: {}", state, durationMs, summary);
+    }
+
+    private Map<String, Object> runCorpus() throws IOException {
+        List<String> responses = new ArrayList<>();
+        for (Resource resource : corpus) {
+            responses.add(resource.getContentAsString(StandardCharsets.UTF_8));
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxMs);
+        int rounds = 0;
+        long zipBytes = 0;
+        while (rounds < iterations && System.nanoTime() < deadline) {
+            for (String response : responses) {
+                GenerateResponse site = websiteGeneratorService.warmUp(response);
+                try (DeploymentUpload upload = DeploymentUpload.of(site)) {
+                    Path zip = netlifyDeploymentService.createDeploymentZip(upload);
+                    zipBytes += Files.size(zip);
+                    Files.delete(zip);
+                }
+            }
+            rounds++;
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("responses", responses.size());
+        stats.put("rounds", rounds);
+        stats.put("zipBytes", zipBytes);
+        stats.put("ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return stats;
+    }
+
+    private Map<String, Object> preconnectNetlify() {
+        long start = System.nanoTime();
+        Map<String, Object> outcome = new LinkedHashMap<>();
+        try {
+            outcome.put("status", netlifyDeploymentService.preconnect() ? "CONNECTED" : "SKIPPED");
+        } catch (Exception e) {
+            logger.warn("Pre-connect to Netlify failed: {}", e.getMessage());
+            outcome.put("status", "FAILED");
+            outcome.put("error", e.getMessage());
+        }
+        outcome.put("ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return outcome;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("state", state.name());
+        snapshot.putAll(result);
+        return snapshot;
+    }
+}
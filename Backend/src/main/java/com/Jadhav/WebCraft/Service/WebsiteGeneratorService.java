@@ -3,10 +3,16 @@ package com.Jadhav.WebCraft.Service;
 import com.Jadhav.WebCraft.dto.GenerateResponse;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 
@@ -18,13 +24,75 @@ public class WebsiteGeneratorService {
     private GoogleGenAIService googleGenAIService;
 
     @Autowired
+    private ModelRouter modelRouter;
+
+    @Autowired
+    private FanOutGenerationService fanOutGenerationService;
+
+    @Autowired
+    private SiteConsistencyChecker siteConsistencyChecker;
+
     private ObjectMapper objectMapper;
+    private ObjectReader responseReader;
+
+    @Autowired
+    private ParseStrategyStats parseStrategyStats;
+
+    @Autowired
+    private TemplateLibrary templateLibrary;
+
+    @Autowired
+    void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // Readers are immutable and cache the resolved deserializer, so one is shared by all calls
+        this.responseReader = objectMapper.readerFor(GenerateResponse.class);
+    }
+
+    private static final Map<String, Pattern[]> FIELD_PATTERNS = new ConcurrentHashMap<>();
+
+    // Full JSON parses; the salvage strategies also accept valid JSON but unescape it lossily
+    private static final List<String> LOSSLESS_STRATEGIES = List.of("structured", "directJson");
+    private static final List<String> SALVAGE_STRATEGIES = List.of("regex", "manual");
+    private static final List<String> STRATEGY_ORDER = List.of("structured", "directJson", "regex", "manual");
+
+    private final Map<String, ParseStrategy> parseStrategies = Map.of(
+            "structured", this::parseAsStructuredOutput,
+            "directJson", this::parseAsDirectJson,
+            "regex", this::parseWithImprovedRegex,
+            "manual", this::parseWithBetterManualExtraction
+    );
 
     public GenerateResponse generateWebsite(String prompt) throws Exception {
+        return generateWebsite(prompt, LatencyTier.BALANCED);
+    }
+
+    public GenerateResponse generateWebsite(String prompt, LatencyTier tier, GenerationMode mode) throws Exception {
+        return generateWebsite(prompt, tier, mode, stage -> {});
+    }
+
+    /**
+     * Generates a site, reporting each stage ("generating", "parsing", "validating")
+     * to {@code progress} as it starts.
+     */
+    public GenerateResponse generateWebsite(String prompt, LatencyTier tier, GenerationMode mode,
+                                            Consumer<String> progress) throws Exception {
+        if (mode == GenerationMode.FANOUT) {
+            return generateWebsiteFanOut(prompt, tier, progress);
+        }
+        return generateWebsite(prompt, tier, progress);
+    }
+
+    public GenerateResponse generateWebsite(String prompt, LatencyTier tier) throws Exception {
+        return generateWebsite(prompt, tier, stage -> {});
+    }
+
+    private GenerateResponse generateWebsite(String prompt, LatencyTier tier, Consumer<String> progress) throws Exception {
         try {
-            String aiResponse = googleGenAIService.generateContent(prompt);
+            progress.accept("generating");
+            String aiResponse = modelRouter.generate(prompt, tier);
             logger.info("Raw AI Response length: {}", aiResponse.length());
 
+            progress.accept("parsing");
             GenerateResponse response = parseAIResponse(aiResponse);
 
             if (response == null) {
@@ -32,6 +100,7 @@ public class WebsiteGeneratorService {
                 response = createFallbackResponse(prompt);
             }
 
+            progress.accept("validating");
             response = validateAndCleanResponse(response, prompt);
 
             logger.info("Successfully generated website with HTML: {} chars, CSS: {} chars, JS: {} chars",
@@ -44,52 +113,119 @@ public class WebsiteGeneratorService {
         }
     }
 
+    private GenerateResponse generateWebsiteFanOut(String prompt, LatencyTier tier, Consumer<String> progress) throws Exception {
+        try {
+            progress.accept("generating");
+            GenerateResponse parts = fanOutGenerationService.generate(prompt, tier);
+            progress.accept("validating");
+
+            // Parts arrive as raw source rather than JSON strings, so there is nothing to unescape
+            List<String> structural = new ArrayList<>();
+            String rawCss = isNullOrEmpty(parts.getCss()) ? "" : validateSource(SourceValidator.css(parts.getCss()), "CSS", structural);
+            String rawJs = isNullOrEmpty(parts.getJs()) ? "" : validateSource(SourceValidator.javascript(parts.getJs()), "JavaScript", structural);
+
+            GenerateResponse fallback = createFallbackResponse(prompt);
+            String html = isNullOrEmpty(parts.getHtml()) ? fallback.getHtml() : parts.getHtml();
+            String css = isNullOrEmpty(rawCss) ? fallback.getCss() : rawCss;
+            String js = isNullOrEmpty(rawJs) ? fallback.getJs() : rawJs;
+
+            GenerateResponse response = new GenerateResponse(html, css, js);
+            List<String> warnings = new ArrayList<>(structural);
+            warnings.addAll(siteConsistencyChecker.check(html, css, js));
+            if (!warnings.isEmpty()) {
+                logger.warn("Fan-out consistency issues: {}", warnings);
+                response.setWarnings(warnings);
+            }
+
+            logger.info("Successfully generated fan-out website with HTML: {} chars, CSS: {} chars, JS: {} chars",
+                    html.length(), css.length(), js.length());
+            return response;
+        } catch (Exception e) {
+            logger.error("Fan-out website generation failed", e);
+            throw new Exception("Failed to generate website: " + e.getMessage(), e);
+        }
+    }
+
     private GenerateResponse validateAndCleanResponse(GenerateResponse response, String prompt) {
         if (response == null) {
             return createFallbackResponse(prompt);
         }
 
+        List<String> warnings = new ArrayList<>();
         String html = cleanHtml(response.getHtml());
-        if (isNullOrEmpty(html)) {
-            html = createFallbackHtml(prompt);
-        }
-
-        String css = cleanCss(response.getCss());
-        if (isNullOrEmpty(css)) {
-            css = createFallbackCss();
+        String css = cleanCss(response.getCss(), warnings);
+        String js = cleanJavaScript(response.getJs(), warnings);
+
+        // Missing parts all come from one skeleton so its markup and styles agree
+        if (isNullOrEmpty(html) || isNullOrEmpty(css) || isNullOrEmpty(js)) {
+            GenerateResponse fallback = createFallbackResponse(prompt);
+            html = isNullOrEmpty(html) ? fallback.getHtml() : html;
+            css = isNullOrEmpty(css) ? fallback.getCss() : css;
+            js = isNullOrEmpty(js) ? fallback.getJs() : js;
         }
 
-        String js = cleanJavaScript(response.getJs());
-        if (isNullOrEmpty(js)) {
-            js = createFallbackJs();
+        GenerateResponse cleaned = new GenerateResponse(html, css, js);
+        if (!warnings.isEmpty()) {
+            cleaned.setWarnings(warnings);
         }
-
-        return new GenerateResponse(html, css, js);
+        return cleaned;
     }
 
     private String cleanHtml(String html) {
         if (isNullOrEmpty(html)) return "";
 
-        if (!html.trim().startsWith("<!DOCTYPE") && !html.trim().startsWith("<html")) {
+        int start = 0;
+        while (start < html.length() && Character.isWhitespace(html.charAt(start))) {
+            start++;
+        }
+        if (!html.startsWith("<!DOCTYPE", start) && !html.startsWith("<html", start)) {
             html = "<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"UTF-8\">\n<meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">\n<title>Generated Website</title>\n</head>\n<body>\n" + html + "\n</body>\n</html>";
         }
 
-        html = html.replace("\\\"", "\"")
-                .replace("\\'", "'")
-                .replace("\\n", "\n")
-                .replace("\\t", "\t");
+        return unescapeLiterals(html, false).trim();
+    }
 
-        return html.trim();
+    /**
+     * Undoes the JSON escapes a regex-extracted part still carries, in one pass. Same
+     * result as the chain of replace calls it stands in for, without a full copy per
+     * escape kind; text without backslashes is returned as is.
+     */
+    static String unescapeLiterals(String text, boolean carriageReturns) {
+        int first = text.indexOf('\\');
+        if (first < 0) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        out.append(text, 0, first);
+        for (int i = first; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(i + 1);
+                char replacement = switch (next) {
+                    case '"', '\'' -> next;
+                    case 'n' -> '\n';
+                    case 't' -> '\t';
+                    case 'r' -> carriageReturns ? '\r' : 0;
+                    default -> 0;
+                };
+                if (replacement != 0) {
+                    out.append(replacement);
+                    i++;
+                    continue;
+                }
+            }
+            out.append(c);
+        }
+        return out.toString();
     }
 
-    private String cleanCss(String css) {
+    private String cleanCss(String css, List<String> warnings) {
         if (isNullOrEmpty(css)) return "";
 
-        css = css.replace("\\\"", "\"")
-                .replace("\\'", "'")
-                .replace("\\n", "\n")
-                .replace("\\t", "\t")
-                .replace("\\r", "\r");
+        css = unescapeLiterals(css, true);
+
+        css = validateSource(SourceValidator.css(css), "CSS", warnings);
+        if (isNullOrEmpty(css)) return "";
 
         if (!css.contains("body") && !css.contains("*")) {
             css = "body { font-family: Arial, sans-serif; margin: 0; padding: 20px; }\n" + css;
@@ -98,76 +234,89 @@ public class WebsiteGeneratorService {
         return css.trim();
     }
 
-    private String cleanJavaScript(String js) {
+    private String cleanJavaScript(String js, List<String> warnings) {
         if (isNullOrEmpty(js)) return "";
 
         // Remove any wrapping quotes or escapes
-        js = js.replace("\\\"", "\"")
-                .replace("\\'", "'")
-                .replace("\\n", "\n")
-                .replace("\\t", "\t")
-                .replace("\\r", "\r");
-
-        js = fixCommonJsSyntaxErrors(js);
+        js = unescapeLiterals(js, true);
 
-        return js.trim();
+        return validateSource(SourceValidator.javascript(js), "JavaScript", warnings).trim();
     }
 
-    private String fixCommonJsSyntaxErrors(String js) {
-        js = js.replaceAll("if\\s*\\([^)]*\\)\\s*\\{[^}]*$", "");
-
-        js = js.replaceAll("function\\s+\\w+\\s*\\([^)]*\\)\\s*\\{[^}]*$", "");
-
-        String[] lines = js.split("\n");
-        StringBuilder cleanJs = new StringBuilder();
-
-        for (String line : lines) {
-            line = line.trim();
-            if (!line.isEmpty() && !line.endsWith("s") || line.endsWith("s;") || line.endsWith("s}")) {
-                if (!line.equals("s") && !line.endsWith(" s")) {
-                    cleanJs.append(line).append("\n");
-                }
-            }
+    // Cuts a truncated tail back to the last complete statement and records what was wrong
+    private String validateSource(SourceValidator.Report report, String part, List<String> warnings) {
+        if (report.truncated()) {
+            logger.warn("Generated {} was truncated, kept {} chars", part, report.source().length());
         }
-
-        return cleanJs.toString();
+        for (String error : report.errors()) {
+            warnings.add(part + ": " + error);
+        }
+        return report.source();
     }
 
     private GenerateResponse parseAIResponse(String aiResponse) {
-        try {
-            GenerateResponse result = parseAsDirectJson(aiResponse);
-            if (result != null && !isEmptyResponse(result)) {
-                logger.info("Successfully parsed using direct JSON strategy");
-                return result;
+        List<String> lossless = googleGenAIService.isStructuredOutput()
+                ? LOSSLESS_STRATEGIES
+                : LOSSLESS_STRATEGIES.subList(1, LOSSLESS_STRATEGIES.size());
+
+        for (String name : parseStrategyStats.order(lossless, SALVAGE_STRATEGIES)) {
+            long start = System.nanoTime();
+            GenerateResponse result = null;
+            try {
+                result = parseStrategies.get(name).parse(aiResponse);
+            } catch (Exception e) {
+                logger.debug("Parse strategy {} failed: {}", name, e.getMessage());
             }
-        } catch (Exception e) {
-            logger.warn("Direct JSON parsing failed: {}", e.getMessage());
-        }
 
-        try {
-            GenerateResponse result = parseWithImprovedRegex(aiResponse);
-            if (result != null && !isEmptyResponse(result)) {
-                logger.info("Successfully parsed using improved regex strategy");
+            boolean success = result != null && !isEmptyResponse(result);
+            parseStrategyStats.record(name, success, System.nanoTime() - start);
+            if (success) {
+                logger.info("Successfully parsed using {} strategy", name);
                 return result;
             }
-        } catch (Exception e) {
-            logger.warn("Improved regex parsing failed: {}", e.getMessage());
         }
 
-        try {
-            GenerateResponse result = parseWithBetterManualExtraction(aiResponse);
-            if (result != null && !isEmptyResponse(result)) {
-                logger.info("Successfully parsed using better manual strategy");
-                return result;
+        parseStrategyStats.recordUnparsed();
+        logger.warn("All parse strategies failed for AI response");
+        return null;
+    }
+
+    // Runs the cleaning pass and every parse strategy, leaving the strategy statistics alone
+    GenerateResponse warmUp(String aiResponse) {
+        String cleaned = googleGenAIService.cleanAIResponse(aiResponse);
+        GenerateResponse parsed = null;
+        for (String name : STRATEGY_ORDER) {
+            try {
+                GenerateResponse result = parseStrategies.get(name).parse(cleaned);
+                if (parsed == null && result != null && !isEmptyResponse(result)) {
+                    parsed = result;
+                }
+            } catch (Exception e) {
+                logger.trace("Warm-up parse with {} failed: {}", name, e.getMessage());
             }
-        } catch (Exception e) {
-            logger.warn("Better manual parsing failed: {}", e.getMessage());
         }
+        return validateAndCleanResponse(parsed, "Warm-up");
+    }
 
-        return null;
+    public Map<String, Object> getParseStatistics() {
+        return parseStrategyStats.snapshot();
+    }
+
+    private GenerateResponse parseAsStructuredOutput(String response) throws Exception {
+        if (!response.startsWith("{")) {
+            return null;
+        }
+        GenerateResponse result = responseReader.readValue(response);
+        if (result.getHtml() == null || result.getCss() == null || result.getJs() == null) {
+            return null;
+        }
+        return result;
     }
 
     private GenerateResponse parseAsDirectJson(String response) throws Exception {
+        if (!response.startsWith("{")) {
+            return null;
+        }
         try {
             JsonNode jsonNode = objectMapper.readTree(response);
             String html = getJsonFieldValue(jsonNode, "html");
@@ -194,7 +343,7 @@ public class WebsiteGeneratorService {
                 return new GenerateResponse(html, css, js);
             }
         } catch (Exception e) {
-            logger.error("Improved regex parsing error", e);
+            logger.debug("Improved regex parsing error: {}", e.getMessage());
         }
         return null;
     }
@@ -209,21 +358,21 @@ public class WebsiteGeneratorService {
                 return new GenerateResponse(html, css, js);
             }
         } catch (Exception e) {
-            logger.error("Better manual parsing error", e);
+            logger.debug("Better manual parsing error: {}", e.getMessage());
         }
         return null;
     }
 
     private String extractFieldWithRegex(String text, String fieldName) {
-        String[] patterns = {
-                "\"" + fieldName + "\"\\s*:\\s*\"((?:[^\"\\\\]|\\\\.)*)\"",
-                "'" + fieldName + "'\\s*:\\s*'((?:[^'\\\\]|\\\\.)*)'",
-                "\"" + fieldName + "\"\\s*:\\s*`([^`]*)`",
-                fieldName + "\\s*:\\s*\"((?:[^\"\\\\]|\\\\.)*)\""
-        };
-
-        for (String pattern : patterns) {
-            Pattern p = Pattern.compile(pattern, Pattern.DOTALL);
+        // Possessive quantifiers: a plain (a|b)* recurses once per character and overflows the stack on real pages
+        Pattern[] patterns = FIELD_PATTERNS.computeIfAbsent(fieldName, name -> new Pattern[]{
+                Pattern.compile("\"" + name + "\"\\s*:\\s*\"((?:[^\"\\\\]++|\\\\.)*+)\"", Pattern.DOTALL),
+                Pattern.compile("'" + name + "'\\s*:\\s*'((?:[^'\\\\]++|\\\\.)*+)'", Pattern.DOTALL),
+                Pattern.compile("\"" + name + "\"\\s*:\\s*`([^`]*)`", Pattern.DOTALL),
+                Pattern.compile(name + "\\s*:\\s*\"((?:[^\"\\\\]++|\\\\.)*+)\"", Pattern.DOTALL)
+        });
+
+        for (Pattern p : patterns) {
             Matcher m = p.matcher(text);
             if (m.find()) {
                 String result = m.group(1);
@@ -310,221 +459,12 @@ public class WebsiteGeneratorService {
         return str == null || str.trim().isEmpty();
     }
 
-    private String createFallbackHtml(String prompt) {
-        return """
-            <!DOCTYPE html>
-            <html lang="en">
-            <head>
-                <meta charset="UTF-8">
-                <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                <title>Generated Website</title>
-            </head>
-            <body>
-                <div class="container">
-                    <h1>Welcome to Your Generated Website</h1>
-                    <p class="description">Request: %s</p>
-                    <div class="features">
-                        <div class="feature">
-                            <h3>Feature 1</h3>
-                            <p>This is a sample feature of your website.</p>
-                        </div>
-                        <div class="feature">
-                            <h3>Feature 2</h3>
-                            <p>Another great feature for your users.</p>
-                        </div>
-                    </div>
-                    <button onclick="showMessage()" class="btn">Click Me</button>
-                    <div id="message" class="message"></div>
-                </div>
-            </body>
-            </html>
-            """.formatted(prompt != null ? prompt : "Website Generation");
-    }
-
-    private String createFallbackCss() {
-        return """
-            * {
-                margin: 0;
-                padding: 0;
-                box-sizing: border-box;
-            }
-            
-            body {
-                font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif;
-                line-height: 1.6;
-                color: #333;
-                background: linear-gradient(135deg, #667eea 0%, #764ba2 100%);
-                min-height: 100vh;
-                display: flex;
-                align-items: center;
-                justify-content: center;
-                padding: 20px;
-            }
-            
-            .container {
-                background: rgba(255, 255, 255, 0.95);
-                padding: 3rem;
-                border-radius: 20px;
-                box-shadow: 0 20px 40px rgba(0, 0, 0, 0.1);
-                backdrop-filter: blur(10px);
-                max-width: 800px;
-                width: 100%;
-                text-align: center;
-                animation: fadeInUp 0.8s ease-out;
-            }
-            
-            @keyframes fadeInUp {
-                from {
-                    opacity: 0;
-                    transform: translateY(30px);
-                }
-                to {
-                    opacity: 1;
-                    transform: translateY(0);
-                }
-            }
-            
-            h1 {
-                color: #2c3e50;
-                margin-bottom: 1.5rem;
-                font-size: 2.5rem;
-                font-weight: 700;
-            }
-            
-            .description {
-                color: #7f8c8d;
-                margin-bottom: 2rem;
-                font-size: 1.1rem;
-                font-style: italic;
-            }
-            
-            .features {
-                display: grid;
-                grid-template-columns: repeat(auto-fit, minmax(250px, 1fr));
-                gap: 2rem;
-                margin: 2rem 0;
-            }
-            
-            .feature {
-                background: #f8f9fa;
-                padding: 1.5rem;
-                border-radius: 12px;
-                border: 1px solid #e9ecef;
-                transition: transform 0.3s ease, box-shadow 0.3s ease;
-            }
-            
-            .feature:hover {
-                transform: translateY(-5px);
-                box-shadow: 0 10px 25px rgba(0, 0, 0, 0.1);
-            }
-            
-            .feature h3 {
-                color: #495057;
-                margin-bottom: 0.5rem;
-            }
-            
-            .btn {
-                background: linear-gradient(45deg, #4CAF50, #45a049);
-                color: white;
-                border: none;
-                padding: 12px 30px;
-                border-radius: 25px;
-                cursor: pointer;
-                font-size: 16px;
-                font-weight: 600;
-                margin: 20px 0;
-                transition: all 0.3s ease;
-                box-shadow: 0 4px 15px rgba(76, 175, 80, 0.3);
-            }
-            
-            .btn:hover {
-                background: linear-gradient(45deg, #45a049, #4CAF50);
-                transform: translateY(-2px);
-                box-shadow: 0 6px 20px rgba(76, 175, 80, 0.4);
-            }
-            
-            .message {
-                margin-top: 1rem;
-                padding: 15px;
-                border-radius: 8px;
-                background: #e8f5e8;
-                color: #2e7d32;
-                font-weight: bold;
-                opacity: 0;
-                transition: opacity 0.3s ease;
-            }
-            
-            .message.show {
-                opacity: 1;
-            }
-            
-            @media (max-width: 768px) {
-                .container {
-                    padding: 2rem;
-                    margin: 10px;
-                }
-                
-                h1 {
-                    font-size: 2rem;
-                }
-                
-                .features {
-                    grid-template-columns: 1fr;
-                    gap: 1rem;
-                }
-            }
-            """;
-    }
-
-    private String createFallbackJs() {
-        return """
-            function showMessage() {
-                const messageEl = document.getElementById('message');
-                messageEl.innerHTML = '🎉 Hello! Your website is working perfectly!';
-                messageEl.classList.add('show');
-                
-                // Add some interactive animation
-                setTimeout(() => {
-                    messageEl.style.transform = 'scale(1.05)';
-                    setTimeout(() => {
-                        messageEl.style.transform = 'scale(1)';
-                    }, 200);
-                }, 100);
-            }
-            
-            // Add some interactivity when page loads
-            document.addEventListener('DOMContentLoaded', function() {
-                // Add hover effects to features
-                const features = document.querySelectorAll('.feature');
-                features.forEach(feature => {
-                    feature.addEventListener('mouseenter', function() {
-                        this.style.backgroundColor = '#f1f3f4';
-                    });
-                    
-                    feature.addEventListener('mouseleave', function() {
-                        this.style.backgroundColor = '#f8f9fa';
-                    });
-                });
-                
-                // Add click effect to button
-                const btn = document.querySelector('.btn');
-                if (btn) {
-                    btn.addEventListener('click', function() {
-                        this.style.transform = 'scale(0.95)';
-                        setTimeout(() => {
-                            this.style.transform = 'scale(1)';
-                        }, 150);
-                    });
-                }
-            });
-            """;
+    @FunctionalInterface
+    private interface ParseStrategy {
+        GenerateResponse parse(String response) throws Exception;
     }
 
     private GenerateResponse createFallbackResponse(String prompt) {
-        return new GenerateResponse(
-                createFallbackHtml(prompt),
-                createFallbackCss(),
-                createFallbackJs()
-        );
+        return templateLibrary.skeleton(prompt);
     }
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package com.Jadhav.WebCraft;
 
+import com.Jadhav.WebCraft.config.NativeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeHints.class)
 public class WebCraftApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,178 @@
+package com.Jadhav.WebCraft.config;
+
+import com.Jadhav.WebCraft.Service.AdmissionBudget;
+import com.Jadhav.WebCraft.dto.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Admits request bodies against the global {@link AdmissionBudget}. Content-Length
+ * is reserved up front; bodies of unknown length (chunked or compressed) reserve a
+ * chunk at a time as they are read. Runs after request decompression so inflated
+ * bytes are what gets counted.
+ */
+@Component
+@Order(2)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final Set<String> BODY_METHODS = Set.of("POST", "PUT", "PATCH");
+
+    @Autowired
+    private AdmissionBudget admissionBudget;
+
+    private ObjectWriter errorWriter;
+
+    @Value("${webcraft.admission.chunk-bytes:262144}")
+    private long chunkBytes;
+
+    @Value("${webcraft.admission.retry-after-seconds:2}")
+    private int retryAfterSeconds;
+
+    @Autowired
+    void setObjectMapper(ObjectMapper objectMapper) {
+        this.errorWriter = objectMapper.writer();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !BODY_METHODS.contains(request.getMethod()) || request.getContentLengthLong() == 0;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long length = request.getContentLengthLong();
+        Reservation reservation = new Reservation(length >= 0 ? length : chunkBytes);
+        try {
+            admissionBudget.reserve(reservation.bytes);
+        } catch (AdmissionBudget.BudgetExceededException e) {
+            reject(response, e);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(response, new AdmissionBudget.BudgetExceededException("Interrupted while queued", false));
+            return;
+        }
+
+        try {
+            HttpServletRequest admitted = length >= 0 ? request : new MeteredRequest(request, reservation);
+            chain.doFilter(admitted, response);
+        } finally {
+            admissionBudget.release(reservation.bytes);
+        }
+    }
+
+    private void reject(HttpServletResponse response, AdmissionBudget.BudgetExceededException e) throws IOException {
+        ErrorResponse body;
+        if (e.isPermanent()) {
+            response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            body = new ErrorResponse("Payload Too Large", e.getMessage());
+        } else {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            body = new ErrorResponse("Server Busy", e.getMessage() + ". Please retry shortly.");
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        errorWriter.writeValue(response.getOutputStream(), body);
+    }
+
+    private static final class Reservation {
+        private long bytes;
+
+        Reservation(long bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private final class MeteredRequest extends HttpServletRequestWrapper {
+        private final Reservation reservation;
+        private ServletInputStream stream;
+
+        MeteredRequest(HttpServletRequest request, Reservation reservation) {
+            super(request);
+            this.reservation = reservation;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                stream = new MeteredInputStream(super.getInputStream(), reservation);
+            }
+            return stream;
+        }
+    }
+
+    private final class MeteredInputStream extends ServletInputStream {
+        private final ServletInputStream in;
+        private final Reservation reservation;
+        private long count;
+
+        MeteredInputStream(ServletInputStream in, Reservation reservation) {
+            this.in = in;
+            this.reservation = reservation;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int n = in.read(buffer, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            count += n;
+            while (count > reservation.bytes) {
+                admissionBudget.grow(chunkBytes);
+                reservation.bytes += chunkBytes;
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return in.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return in.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            in.setReadListener(readListener);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
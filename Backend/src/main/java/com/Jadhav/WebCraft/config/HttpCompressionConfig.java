@@ -0,0 +1,38 @@
+package com.Jadhav.WebCraft.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Compresses responses (generated sites are mostly text and shrink 4-6x with gzip).
+ * Enabled by default; the standard server.compression.* properties still apply.
+ */
+@Configuration
+public class HttpCompressionConfig {
+
+    @Value("${server.compression.enabled:true}")
+    private boolean enabled;
+
+    @Value("${server.compression.min-response-size:2KB}")
+    private DataSize minResponseSize;
+
+    @Value("${server.compression.mime-types:application/json,application/x-ndjson,text/html,text/css,"
+            + "text/javascript,application/javascript,text/plain}")
+    private String[] mimeTypes;
+
+    @Bean
+    public WebServerFactoryCustomizer<ConfigurableServletWebServerFactory> responseCompressionCustomizer() {
+        return factory -> {
+            Compression compression = new Compression();
+            compression.setEnabled(enabled);
+            compression.setMinResponseSize(minResponseSize);
+            compression.setMimeTypes(mimeTypes);
+            factory.setCompression(compression);
+        };
+    }
+}
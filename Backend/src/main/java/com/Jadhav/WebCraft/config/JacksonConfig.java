@@ -1,16 +1,64 @@
 package com.Jadhav.WebCraft.config;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.StreamWriteConstraints;
+import com.fasterxml.jackson.core.StreamWriteFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
 
+/**
+ * The shared mapper. Limits follow the deploy limits: a string may be as long as the
+ * largest html field and a document as large as the largest body, while nesting is
+ * capped well below Jackson's default since no request here nests more than a few levels.
+ */
 @Configuration
 public class JacksonConfig {
+
+    // Initialized for use outside Spring (tests build the mapper directly)
+    @Value("${webcraft.json.max-string-length:${webcraft.deploy.max-html-bytes:26214400}}")
+    private int maxStringLength = 26_214_400;
+
+    @Value("${webcraft.json.max-document-length:${webcraft.deploy.max-body-bytes:62914560}}")
+    private long maxDocumentLength = 62_914_560;
+
+    @Value("${webcraft.json.max-nesting-depth:64}")
+    private int maxNestingDepth = 64;
+
+    @Value("${webcraft.json.blackbird:true}")
+    private boolean blackbird = true;
+
     @Bean
     public ObjectMapper objectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
+        JsonFactory factory = JsonFactory.builder()
+                .streamReadConstraints(StreamReadConstraints.builder()
+                        .maxStringLength(maxStringLength)
+                        .maxDocumentLength(maxDocumentLength)
+                        .maxNestingDepth(maxNestingDepth)
+                        .build())
+                .streamWriteConstraints(StreamWriteConstraints.builder()
+                        .maxNestingDepth(maxNestingDepth)
+                        .build())
+                // NDJSON lines are written straight into the response, which must stay open between them
+                .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+                .build();
+
+        ObjectMapper mapper = new ObjectMapper(factory);
         mapper.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        // ErrorResponse carries a LocalDateTime, written as an ISO-8601 string
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        // Generated accessors instead of reflection; a native image cannot define classes at run time
+        if (blackbird && !NativeDetector.inNativeImage()) {
+            mapper.registerModule(new BlackbirdModule());
+        }
         return mapper;
     }
 }
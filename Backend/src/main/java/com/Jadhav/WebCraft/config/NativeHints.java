@@ -0,0 +1,64 @@
+package com.Jadhav.WebCraft.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reachability metadata for the native image. The google-genai SDK maps its AutoValue
+ * request and response types with Jackson through reflection, and the DTOs are also
+ * read and written outside Spring MVC (batch uploads, filter error bodies), where
+ * Spring's own inference does not see them. Runs at build time during AOT processing.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    private static final MemberCategory[] JACKSON_ACCESS = {
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.INVOKE_DECLARED_METHODS,
+            MemberCategory.DECLARED_FIELDS
+    };
+
+    private final BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String className : classesIn("com/google/genai/types", classLoader)) {
+            hints.reflection().registerType(TypeReference.of(className), JACKSON_ACCESS);
+        }
+        hints.reflection().registerType(TypeReference.of("com.google.genai.JsonSerializable"), JACKSON_ACCESS);
+
+        for (String className : classesIn("com/Jadhav/WebCraft/dto", classLoader)) {
+            bindingHints.registerReflectionHints(hints.reflection(), ClassUtils.resolveClassName(className, classLoader));
+        }
+
+        // Loaded through @Value resources, which AOT does not follow
+        hints.resources().registerPattern("site-templates/*").registerPattern("warmup/*.txt");
+    }
+
+    private static List<String> classesIn(String packagePath, ClassLoader classLoader) {
+        List<String> classNames = new ArrayList<>();
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver(classLoader)
+                    .getResources("classpath*:" + packagePath + "/*.class");
+            for (Resource resource : resources) {
+                String fileName = resource.getFilename();
+                if (fileName != null && !fileName.equals("package-info.class")) {
+                    classNames.add(packagePath.replace('/', '.') + "." + fileName.substring(0, fileName.length() - 6));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to scan " + packagePath, e);
+        }
+        return classNames;
+    }
+}
@@ -0,0 +1,129 @@
+package com.Jadhav.WebCraft.config;
+
+import com.Jadhav.WebCraft.Service.ClientRateLimiter;
+import com.Jadhav.WebCraft.dto.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies {@link ClientRateLimiter} to generation and deployment requests and reports
+ * the client's quota with the RateLimit-* headers. Clients are identified by API key
+ * when the key is one of webcraft.ratelimit.api-keys, otherwise by address, so a
+ * made-up key never buys a fresh bucket. Runs first so limited clients cost nothing
+ * further. Batch and bulk requests are charged per item by the controller instead.
+ */
+@Component
+@Order(0)
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String API_KEY_HEADER = "X-API-Key";
+
+    // Request attribute holding the client identity, for per-client scheduling downstream
+    public static final String CLIENT_ATTRIBUTE = "webcraft.client";
+
+    @Autowired
+    private ClientRateLimiter rateLimiter;
+
+    @Value("${webcraft.ratelimit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    private Set<String> apiKeys = Set.of();
+
+    private ObjectWriter errorWriter;
+
+    @Value("${webcraft.ratelimit.api-keys:}")
+    void setApiKeys(String[] apiKeys) {
+        this.apiKeys = Arrays.stream(apiKeys)
+                .map(String::trim)
+                .filter(key -> !key.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Autowired
+    void setObjectMapper(ObjectMapper objectMapper) {
+        this.errorWriter = objectMapper.writer();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled() || !"POST".equals(request.getMethod()) || operationOf(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = clientOf(request);
+        request.setAttribute(CLIENT_ATTRIBUTE, client);
+        if (isPerItem(request)) {
+            // Charged per item by the controller once the body has been read
+            chain.doFilter(request, response);
+            return;
+        }
+        ClientRateLimiter.Decision decision = rateLimiter.tryAcquire(client, operationOf(request));
+        writeHeaders(response, decision, rateLimiter.windowSeconds());
+
+        if (!decision.allowed()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            errorWriter.writeValue(response.getOutputStream(), new ErrorResponse("Rate Limit Exceeded",
+                    "Too many requests. Please retry in " + decision.retryAfterSeconds() + " seconds."));
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    public static void writeHeaders(HttpServletResponse response, ClientRateLimiter.Decision decision, long windowSeconds) {
+        response.setHeader("RateLimit-Limit", String.valueOf(decision.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(decision.resetSeconds()));
+        response.setHeader("RateLimit-Policy", decision.limit() + ";w=" + windowSeconds);
+    }
+
+    private static boolean isPerItem(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.equals("/generate/batch") || path.equals("/deploy/bulk");
+    }
+
+    private static ClientRateLimiter.Operation operationOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals("/deploy") || path.startsWith("/deploy/")) {
+            return ClientRateLimiter.Operation.DEPLOY;
+        }
+        if (path.equals("/generate") || path.startsWith("/generate/") || path.equals("/refine")) {
+            return ClientRateLimiter.Operation.GENERATE;
+        }
+        return null;
+    }
+
+    String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && apiKeys.contains(apiKey.trim())) {
+            return "key:" + apiKey.trim();
+        }
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return "ip:" + (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,189 @@
+package com.Jadhav.WebCraft.config;
+
+import com.Jadhav.WebCraft.Service.DeployRequestReader;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Accepts gzip or deflate compressed request bodies (Content-Encoding) so clients
+ * can upload large sites compressed. The inflated size is capped to protect against
+ * decompression bombs; by default at the largest body an endpoint accepts, so each
+ * endpoint's own limit applies to the inflated body and going over it is a 413.
+ */
+@Component
+@Order(1)
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RequestDecompressionFilter.class);
+
+    @Value("${webcraft.http.max-inflated-bytes:${webcraft.deploy.max-bulk-body-bytes:262144000}}")
+    private long maxInflatedBytes;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || encoding.isBlank() || encoding.equalsIgnoreCase("identity")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String normalized = encoding.trim().toLowerCase(Locale.ROOT);
+        if (!normalized.equals("gzip") && !normalized.equals("x-gzip") && !normalized.equals("deflate")) {
+            response.sendError(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value(), "Unsupported Content-Encoding: " + encoding);
+            return;
+        }
+
+        ServletInputStream raw = request.getInputStream();
+        InputStream inflated;
+        try {
+            inflated = normalized.equals("deflate")
+                    ? new InflaterInputStream(raw)
+                    : new GZIPInputStream(raw, 64 * 1024);
+        } catch (IOException e) {
+            logger.warn("Rejecting malformed {} request body: {}", normalized, e.getMessage());
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Malformed " + normalized + " request body");
+            return;
+        }
+
+        chain.doFilter(new DecompressedRequest(request, new LimitedInputStream(raw, inflated, maxInflatedBytes)), response);
+    }
+
+    private static final class DecompressedRequest extends HttpServletRequestWrapper {
+        private final ServletInputStream body;
+
+        DecompressedRequest(HttpServletRequest request, ServletInputStream body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return body;
+        }
+
+        // The inflated length is unknown up front
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (isHiddenHeader(name)) {
+                return null;
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (isHiddenHeader(name)) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(name -> !isHiddenHeader(name))
+                    .toList());
+        }
+
+        private static boolean isHiddenHeader(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    private static final class LimitedInputStream extends ServletInputStream {
+        private final ServletInputStream raw;
+        private final InputStream in;
+        private final long limit;
+        private long count;
+        private boolean finished;
+
+        LimitedInputStream(ServletInputStream raw, InputStream in, long limit) {
+            this.raw = raw;
+            this.in = in;
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b == -1) {
+                finished = true;
+            } else {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int n = in.read(buffer, off, len);
+            if (n == -1) {
+                finished = true;
+            } else {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            count += n;
+            if (count > limit) {
+                // Endpoints answer their own PayloadTooLargeException with a 413
+                throw new DeployRequestReader.PayloadTooLargeException(
+                        "Decompressed request body is too large (max " + limit / (1024 * 1024) + "MB)");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        // Readiness is the compressed stream's; the listener is called as its bytes arrive
+        @Override
+        public boolean isReady() {
+            return raw.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            raw.setReadListener(readListener);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.Jadhav.WebCraft.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+/**
+ * Training run for the AppCDS archive built into the Docker image. With
+ * {@code webcraft.training.enabled=true} (and the stub model provider) the app sends
+ * itself the requests a cold instance first sees, then exits so the JVM writes the
+ * classes it loaded to the archive.
+ */
+@Component
+public class TrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+    private static final Logger logger = LoggerFactory.getLogger(TrainingRun.class);
+
+    private static final List<String> PROMPTS = List.of(
+            "A landing page for a coffee roastery",
+            "A portfolio for a wedding photographer with a gallery",
+            "A pricing page for a small SaaS product");
+
+    @Value("${webcraft.training.enabled:false}")
+    private boolean enabled;
+
+    @Value("${webcraft.training.rounds:5}")
+    private int rounds;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!enabled) {
+            return;
+        }
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        boolean failed = false;
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            train("http://localhost:" + port);
+        } catch (Exception e) {
+            logger.error("Training run failed: {}", e.getMessage(), e);
+            failed = true;
+        }
+        int exitCode = SpringApplication.exit(context);
+        System.exit(failed ? 1 : exitCode);
+    }
+
+    private void train(String base) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        long start = System.nanoTime();
+        int requests = 0;
+        for (int round = 0; round < rounds; round++) {
+            send(client, HttpRequest.newBuilder(URI.create(base + "/health")).GET().build());
+            for (String prompt : PROMPTS) {
+                String mode = round % 2 == 0 ? "single" : "fanout";
+                String body = "{\"prompt\": \"" + prompt + " #" + round + "\", \"mode\": \"" + mode + "\"}";
+                send(client, HttpRequest.newBuilder(URI.create(base + "/generate"))
+                        .header("Content-Type", "application/json")
+                        .header("Accept-Encoding", "gzip")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build());
+                requests++;
+            }
+            send(client, HttpRequest.newBuilder(URI.create(base + "/generation-stats")).GET().build());
+            requests += 2;
+        }
+        logger.info("Training run sent {} requests in {} ms", requests, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void send(HttpClient client, HttpRequest request) throws Exception {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri().getPath() + " returned " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.Jadhav.WebCraft.config;
+
+import com.Jadhav.WebCraft.Controller.BuilderSocketHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.ServletWebSocketHandlerRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+/**
+ * Serves the builder's WebSocket at /ws. The handshake records the client the same way
+ * the rate limit filter identifies HTTP callers, so both share one quota.
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private BuilderSocketHandler builderSocketHandler;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Value("${webcraft.ws.allowed-origins:https://webcraft-iota.vercel.app}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Ahead of the controllers, whose catch-all OPTIONS mapping would answer /ws with a 405
+        ((ServletWebSocketHandlerRegistry) registry).setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registry.addHandler(builderSocketHandler, "/ws")
+                .addInterceptors(new HandshakeInterceptor() {
+                    @Override
+                    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+                        if (request instanceof ServletServerHttpRequest servletRequest) {
+                            attributes.put(RateLimitFilter.CLIENT_ATTRIBUTE, rateLimitFilter.clientOf(servletRequest.getServletRequest()));
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                               WebSocketHandler wsHandler, Exception exception) {
+                    }
+                })
+                .setAllowedOrigins(allowedOrigins);
+    }
+}
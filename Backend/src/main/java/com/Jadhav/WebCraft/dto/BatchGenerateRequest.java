@@ -0,0 +1,92 @@
+package com.Jadhav.WebCraft.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public class BatchGenerateRequest {
+
+    // Plain prompts, generated with the batch-level settings
+    @JsonProperty("prompts")
+    private List<String> prompts;
+
+    // Prompts with their own latencyTier/mode; unset fields use the batch-level settings
+    @JsonProperty("items")
+    private List<GenerateRequest> items;
+
+    @JsonProperty("latencyTier")
+    private String latencyTier;
+
+    @JsonProperty("mode")
+    private String mode;
+
+    @JsonProperty("priority")
+    private String priority;
+
+    @JsonProperty("parallelism")
+    private Integer parallelism;
+
+    // Default constructor
+    public BatchGenerateRequest() {}
+
+    // Getters and Setters
+    public List<String> getPrompts() {
+        return prompts;
+    }
+
+    public void setPrompts(List<String> prompts) {
+        this.prompts = prompts;
+    }
+
+    public List<GenerateRequest> getItems() {
+        return items;
+    }
+
+    public void setItems(List<GenerateRequest> items) {
+        this.items = items;
+    }
+
+    public String getLatencyTier() {
+        return latencyTier;
+    }
+
+    public void setLatencyTier(String latencyTier) {
+        this.latencyTier = latencyTier;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(Integer parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchGenerateRequest{" +
+                "prompts=" + (prompts != null ? prompts.size() : 0) +
+                ", items=" + (items != null ? items.size() : 0) +
+                ", latencyTier='" + latencyTier + '\'' +
+                ", mode='" + mode + '\'' +
+                ", priority='" + priority + '\'' +
+                ", parallelism=" + parallelism +
+                '}';
+    }
+}
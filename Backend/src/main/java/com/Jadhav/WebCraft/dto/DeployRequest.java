@@ -6,8 +6,6 @@ import jakarta.validation.constraints.NotNull;
 
 public class DeployRequest {
 
-    @NotNull(message = "HTML content is required")
-    @NotBlank(message = "HTML content cannot be empty")
     @JsonProperty("html")
     private String html;
 
@@ -22,6 +20,13 @@ public class DeployRequest {
     @JsonProperty("projectName")
     private String projectName;
 
+    // Loads html/css/js from the site repository instead of the request body
+    @JsonProperty("siteId")
+    private String siteId;
+
+    @JsonProperty("version")
+    private Integer version;
+
     // Default constructor
     public DeployRequest() {}
 
@@ -66,6 +71,22 @@ public class DeployRequest {
         this.projectName = projectName;
     }
 
+    public String getSiteId() {
+        return siteId;
+    }
+
+    public void setSiteId(String siteId) {
+        this.siteId = siteId;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "DeployRequest{" +
@@ -73,6 +94,8 @@ public class DeployRequest {
                 ", css='" + (css != null ? css.substring(0, Math.min(30, css.length())) + "..." : "null") + '\'' +
                 ", js='" + (js != null ? js.substring(0, Math.min(30, js.length())) + "..." : "null") + '\'' +
                 ", projectName='" + projectName + '\'' +
+                ", siteId='" + siteId + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
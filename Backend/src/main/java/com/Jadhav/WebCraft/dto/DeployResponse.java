@@ -1,16 +1,22 @@
 package com.Jadhav.WebCraft.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Map;
 
 public class DeployResponse {
 
+    // Only echoed when requested through the fields projection
     @JsonProperty("html")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String html;
 
     @JsonProperty("css")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String css;
 
     @JsonProperty("js")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String js;
 
     @JsonProperty("deploymentUrl")
@@ -22,6 +28,23 @@ public class DeployResponse {
     @JsonProperty("deployed")
     private boolean deployed;
 
+    @JsonProperty("deployId")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String deployId;
+
+    // SHA-256 of the deployed html/css/js, so clients can verify without the content
+    @JsonProperty("contentHashes")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Map<String, String> contentHashes;
+
+    @JsonProperty("siteId")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String siteId;
+
+    @JsonProperty("version")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer version;
+
     // Default constructor
     public DeployResponse() {}
 
@@ -84,6 +107,38 @@ public class DeployResponse {
         this.deployed = deployed;
     }
 
+    public String getDeployId() {
+        return deployId;
+    }
+
+    public void setDeployId(String deployId) {
+        this.deployId = deployId;
+    }
+
+    public Map<String, String> getContentHashes() {
+        return contentHashes;
+    }
+
+    public void setContentHashes(Map<String, String> contentHashes) {
+        this.contentHashes = contentHashes;
+    }
+
+    public String getSiteId() {
+        return siteId;
+    }
+
+    public void setSiteId(String siteId) {
+        this.siteId = siteId;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "DeployResponse{" +
@@ -93,6 +148,9 @@ public class DeployResponse {
                 ", deploymentUrl='" + deploymentUrl + '\'' +
                 ", projectName='" + projectName + '\'' +
                 ", deployed=" + deployed +
+                ", deployId='" + deployId + '\'' +
+                ", siteId='" + siteId + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
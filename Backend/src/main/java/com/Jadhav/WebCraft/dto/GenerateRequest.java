@@ -11,6 +11,15 @@ public class GenerateRequest {
     @JsonProperty("prompt")
     private String prompt;
 
+    @JsonProperty("latencyTier")
+    private String latencyTier;
+
+    @JsonProperty("mode")
+    private String mode;
+
+    @JsonProperty("priority")
+    private String priority;
+
     // Default constructor
     public GenerateRequest() {}
 
@@ -19,7 +28,7 @@ public class GenerateRequest {
         this.prompt = prompt;
     }
 
-    // Getter and Setter
+    // Getters and Setters
     public String getPrompt() {
         return prompt;
     }
@@ -28,10 +37,37 @@ public class GenerateRequest {
         this.prompt = prompt;
     }
 
+    public String getLatencyTier() {
+        return latencyTier;
+    }
+
+    public void setLatencyTier(String latencyTier) {
+        this.latencyTier = latencyTier;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
     @Override
     public String toString() {
         return "GenerateRequest{" +
                 "prompt='" + (prompt != null ? prompt.substring(0, Math.min(100, prompt.length())) + "..." : "null") + '\'' +
+                ", latencyTier='" + latencyTier + '\'' +
+                ", mode='" + mode + '\'' +
+                ", priority='" + priority + '\'' +
                 '}';
     }
 }
\ No newline at end of file
@@ -1,59 +1,129 @@
 package com.Jadhav.WebCraft.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
 
 public class GenerateResponse {
 
     @JsonProperty("html")
-    private String html;
+    private SiteContent html;
 
     @JsonProperty("css")
-    private String css;
+    private SiteContent css;
 
     @JsonProperty("js")
-    private String js;
+    private SiteContent js;
+
+    @JsonProperty("warnings")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> warnings;
+
+    @JsonProperty("siteId")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String siteId;
+
+    @JsonProperty("version")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer version;
 
     // Default constructor
     public GenerateResponse() {}
 
     // Constructor with all fields
     public GenerateResponse(String html, String css, String js) {
+        this(SiteContent.of(html), SiteContent.of(css), SiteContent.of(js));
+    }
+
+    public GenerateResponse(SiteContent html, SiteContent css, SiteContent js) {
         this.html = html;
         this.css = css;
         this.js = js;
     }
 
     // Getters and Setters
+    @JsonIgnore
     public String getHtml() {
-        return html;
+        return SiteContent.text(html);
     }
 
+    @JsonIgnore
     public void setHtml(String html) {
-        this.html = html;
+        this.html = SiteContent.of(html);
+    }
+
+    @JsonIgnore
+    public SiteContent getHtmlContent() {
+        return html;
     }
 
+    @JsonIgnore
     public String getCss() {
-        return css;
+        return SiteContent.text(css);
     }
 
+    @JsonIgnore
     public void setCss(String css) {
-        this.css = css;
+        this.css = SiteContent.of(css);
     }
 
+    @JsonIgnore
+    public SiteContent getCssContent() {
+        return css;
+    }
+
+    @JsonIgnore
     public String getJs() {
-        return js;
+        return SiteContent.text(js);
     }
 
+    @JsonIgnore
     public void setJs(String js) {
-        this.js = js;
+        this.js = SiteContent.of(js);
+    }
+
+    @JsonIgnore
+    public SiteContent getJsContent() {
+        return js;
+    }
+
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    public void setWarnings(List<String> warnings) {
+        this.warnings = warnings;
+    }
+
+    public String getSiteId() {
+        return siteId;
+    }
+
+    public void setSiteId(String siteId) {
+        this.siteId = siteId;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
     }
 
     @Override
     public String toString() {
+        String html = getHtml();
+        String css = getCss();
+        String js = getJs();
         return "GenerateResponse{" +
                 "html='" + (html != null ? html.substring(0, Math.min(50, html.length())) + "..." : "null") + '\'' +
                 ", css='" + (css != null ? css.substring(0, Math.min(30, css.length())) + "..." : "null") + '\'' +
                 ", js='" + (js != null ? js.substring(0, Math.min(30, js.length())) + "..." : "null") + '\'' +
+                ", warnings=" + warnings +
+                ", siteId='" + siteId + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.Jadhav.WebCraft.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+
+public class RefineRequest {
+
+    @JsonProperty("html")
+    private String html;
+
+    @JsonProperty("css")
+    private String css;
+
+    @JsonProperty("js")
+    private String js;
+
+    @NotBlank(message = "Instruction cannot be empty")
+    @JsonProperty("instruction")
+    private String instruction;
+
+    // Optional "#id", ".class" or "functionName()" to pin the fragment to edit
+    @JsonProperty("target")
+    private String target;
+
+    @JsonProperty("latencyTier")
+    private String latencyTier;
+
+    // Loads html/css/js from the site repository instead of the request body
+    @JsonProperty("siteId")
+    private String siteId;
+
+    @JsonProperty("version")
+    private Integer version;
+
+    // Default constructor
+    public RefineRequest() {}
+
+    // Getters and Setters
+    public String getHtml() {
+        return html;
+    }
+
+    public void setHtml(String html) {
+        this.html = html;
+    }
+
+    public String getCss() {
+        return css;
+    }
+
+    public void setCss(String css) {
+        this.css = css;
+    }
+
+    public String getJs() {
+        return js;
+    }
+
+    public void setJs(String js) {
+        this.js = js;
+    }
+
+    public String getInstruction() {
+        return instruction;
+    }
+
+    public void setInstruction(String instruction) {
+        this.instruction = instruction;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public void setTarget(String target) {
+        this.target = target;
+    }
+
+    public String getLatencyTier() {
+        return latencyTier;
+    }
+
+    public void setLatencyTier(String latencyTier) {
+        this.latencyTier = latencyTier;
+    }
+
+    public String getSiteId() {
+        return siteId;
+    }
+
+    public void setSiteId(String siteId) {
+        this.siteId = siteId;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    @Override
+    public String toString() {
+        return "RefineRequest{" +
+                "instruction='" + (instruction != null ? instruction.substring(0, Math.min(100, instruction.length())) + "..." : "null") + '\'' +
+                ", target='" + target + '\'' +
+                ", latencyTier='" + latencyTier + '\'' +
+                ", htmlLength=" + (html != null ? html.length() : 0) +
+                ", cssLength=" + (css != null ? css.length() : 0) +
+                ", jsLength=" + (js != null ? js.length() : 0) +
+                ", siteId='" + siteId + '\'' +
+                ", version=" + version +
+                '}';
+    }
+}
@@ -0,0 +1,138 @@
+package com.Jadhav.WebCraft.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.UTF8JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One part of a generated site (html, css or js) as UTF-8 bytes, text, or both.
+ * Whichever form the content arrives in is kept, and the other is only produced the
+ * first time it is asked for, then cached. Content read from the site repository stays
+ * bytes all the way into the deployment ZIP and the JSON response; model output is
+ * encoded once, when it is stored, and those bytes are reused for the response.
+ *
+ * <p>The byte array returned by {@link #utf8()} is shared and must not be modified.
+ */
+@JsonSerialize(using = SiteContent.Serializer.class)
+@JsonDeserialize(using = SiteContent.Deserializer.class)
+public final class SiteContent {
+
+    public static final SiteContent EMPTY = new SiteContent("", new byte[0]);
+
+    private volatile String text;
+    private volatile byte[] utf8;
+
+    private SiteContent(String text, byte[] utf8) {
+        this.text = text;
+        this.utf8 = utf8;
+    }
+
+    public static SiteContent of(String text) {
+        return text == null ? null : text.isEmpty() ? EMPTY : new SiteContent(text, null);
+    }
+
+    // Takes ownership of the array
+    public static SiteContent wrap(byte[] utf8) {
+        return utf8 == null ? null : utf8.length == 0 ? EMPTY : new SiteContent(null, utf8);
+    }
+
+    public static String text(SiteContent content) {
+        return content == null ? null : content.toString();
+    }
+
+    public byte[] utf8() {
+        byte[] bytes = utf8;
+        if (bytes == null) {
+            bytes = text.getBytes(StandardCharsets.UTF_8);
+            utf8 = bytes;
+        }
+        return bytes;
+    }
+
+    public boolean hasUtf8() {
+        return utf8 != null;
+    }
+
+    // UTF-8 bytes
+    public int size() {
+        return utf8().length;
+    }
+
+    public boolean isBlank() {
+        String current = text;
+        if (current != null) {
+            return current.isBlank();
+        }
+        for (byte b : utf8) {
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t' && b != '\f') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public InputStream open() {
+        return new ByteArrayInputStream(utf8());
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(utf8());
+    }
+
+    @Override
+    public String toString() {
+        String current = text;
+        if (current == null) {
+            current = new String(utf8, StandardCharsets.UTF_8);
+            text = current;
+        }
+        return current;
+    }
+
+    /**
+     * Writes stored bytes straight into a UTF-8 JSON output, escaping as it goes, so the
+     * content is not decoded to chars and encoded again. Other generators get the text.
+     */
+    public static final class Serializer extends StdSerializer<SiteContent> {
+        public Serializer() {
+            super(SiteContent.class);
+        }
+
+        @Override
+        public void serialize(SiteContent value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (value.hasUtf8() && gen instanceof UTF8JsonGenerator) {
+                byte[] bytes = value.utf8();
+                gen.writeUTF8String(bytes, 0, bytes.length);
+            } else {
+                gen.writeString(value.toString());
+            }
+        }
+    }
+
+    public static final class Deserializer extends StdDeserializer<SiteContent> {
+        public Deserializer() {
+            super(SiteContent.class);
+        }
+
+        @Override
+        public SiteContent deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.VALUE_STRING) {
+                return (SiteContent) ctxt.handleUnexpectedToken(SiteContent.class, p);
+            }
+            return SiteContent.of(p.getText());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+document.addEventListener('DOMContentLoaded', () => {
+    const toggle = document.querySelector('.nav-toggle');
+    const links = document.querySelector('.nav-links');
+    if (toggle && links) {
+        toggle.addEventListener('click', () => {
+            const open = links.classList.toggle('open');
+            toggle.setAttribute('aria-expanded', String(open));
+        });
+        links.querySelectorAll('a').forEach(link => {
+            link.addEventListener('click', () => links.classList.remove('open'));
+        });
+    }
+
+    const sections = document.querySelectorAll('.reveal');
+    if ('IntersectionObserver' in window) {
+        const observer = new IntersectionObserver(entries => {
+            entries.forEach(entry => {
+                if (entry.isIntersecting) {
+                    entry.target.classList.add('visible');
+                    observer.unobserve(entry.target);
+                }
+            });
+        }, { threshold: 0.1 });
+        sections.forEach(section => observer.observe(section));
+    } else {
+        sections.forEach(section => section.classList.add('visible'));
+    }
+
+    const lightbox = document.querySelector('.lightbox');
+    if (lightbox) {
+        const image = lightbox.querySelector('img');
+        document.querySelectorAll('.gallery figure').forEach(figure => {
+            figure.addEventListener('click', () => {
+                const source = figure.querySelector('img');
+                image.src = source.src;
+                image.alt = source.alt;
+                lightbox.classList.add('open');
+            });
+        });
+        lightbox.addEventListener('click', () => lightbox.classList.remove('open'));
+        document.addEventListener('keydown', event => {
+            if (event.key === 'Escape') {
+                lightbox.classList.remove('open');
+            }
+        });
+    }
+
+    document.querySelectorAll('.contact-form').forEach(form => {
+        form.addEventListener('submit', event => {
+            event.preventDefault();
+            const message = form.querySelector('.form-message');
+            const name = form.querySelector('[name="name"]');
+            message.textContent = name && name.value.trim()
+                ? `Thank you, ${name.value.trim()}! We will be in touch soon.`
+                : 'Thank you! We will be in touch soon.';
+            form.reset();
+        });
+    });
+
+    const year = document.getElementById('year');
+    if (year) {
+        year.textContent = new Date().getFullYear();
+    }
+});
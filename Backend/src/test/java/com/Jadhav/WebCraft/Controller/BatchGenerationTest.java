@@ -0,0 +1,160 @@
+package com.Jadhav.WebCraft.Controller;
+
+import com.Jadhav.WebCraft.Service.GenerationScheduler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "webcraft.models.stub.enabled=true",
+        "webcraft.routing.pinned-provider=stub",
+        "webcraft.repository.dir=target/test-sites/${random.uuid}",
+        "webcraft.warmup.preconnect=false",
+        "webcraft.ratelimit.api-keys=batch-quota-test"
+})
+class BatchGenerationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private GenerationScheduler generationScheduler;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void streamsOneLinePerPromptAndReportsItemErrors() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of(
+                "prompts", List.of("A bakery landing page", "A portfolio for a photographer", "A bakery landing page", " "),
+                "items", List.of(Map.of("prompt", "A gym schedule", "latencyTier", "warp")),
+                "parallelism", 2));
+
+        List<JsonNode> lines = post(body, "application/json");
+
+        assertEquals(6, lines.size());
+        JsonNode summary = lines.get(5).get("summary");
+        assertEquals(5, summary.get("total").asInt());
+        assertEquals(3, summary.get("succeeded").asInt());
+        assertEquals(2, summary.get("failed").asInt());
+        assertEquals(1, summary.get("deduplicated").asInt());
+
+        JsonNode[] byIndex = new JsonNode[5];
+        lines.subList(0, 5).forEach(line -> byIndex[line.get("index").asInt()] = line);
+        assertEquals("ok", byIndex[0].get("status").asText());
+        assertFalse(byIndex[0].get("result").get("html").asText().isEmpty());
+        assertTrue(byIndex[2].get("deduplicated").asBoolean());
+        assertEquals(byIndex[0].get("result").get("siteId"), byIndex[2].get("result").get("siteId"));
+        assertEquals("Prompt cannot be empty", byIndex[3].get("error").asText());
+        assertEquals("Unknown latency tier: warp", byIndex[4].get("error").asText());
+    }
+
+    @Test
+    void acceptsJsonLinesUploads() throws Exception {
+        String body = "\"A bakery landing page\"\n"
+                + "{\"prompt\": \"A bike shop\", \"mode\": \"fanout\"}\n"
+                + "\n"
+                + "not json\n";
+
+        List<JsonNode> lines = post(body.getBytes(), "application/x-ndjson");
+
+        assertEquals(4, lines.size());
+        JsonNode summary = lines.get(3).get("summary");
+        assertEquals(2, summary.get("succeeded").asInt());
+        assertEquals(1, summary.get("failed").asInt());
+    }
+
+    @Test
+    void streamsTemplateSkeletonBeforeGeneratedSite() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("prompt", "A bakery called Crumb & Co"));
+
+        List<JsonNode> lines = post("/generate/stream", body, "application/json");
+
+        assertEquals(2, lines.size());
+        assertEquals("skeleton", lines.get(0).get("type").asText());
+        assertEquals("restaurant", lines.get(0).get("template").asText());
+        assertTrue(lines.get(0).get("site").get("html").asText().contains("<title>Crumb &amp; Co</title>"));
+        assertEquals("site", lines.get(1).get("type").asText());
+        assertFalse(lines.get(1).get("site").get("siteId").asText().isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void chargesEveryPromptAndRunsBatchesAtBatchPriority() throws Exception {
+        // The default bucket holds 20 generations
+        List<String> prompts = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            prompts.add("A landing page for shop number " + i);
+        }
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("prompts", prompts, "priority", "interactive"));
+        long interactiveBefore = dispatched("interactive");
+        long batchBefore = dispatched("batch");
+
+        HttpResponse<String> response = send("/generate/batch", body, "application/json", "batch-quota-test");
+        assertEquals(200, response.statusCode(), response.body());
+        assertEquals("0", response.headers().firstValue("RateLimit-Remaining").orElse(null));
+        List<JsonNode> lines = parse(response.body());
+        JsonNode summary = lines.getLast().get("summary");
+        assertEquals(20, summary.get("succeeded").asInt());
+        assertEquals(5, summary.get("failed").asInt());
+        assertTrue(lines.stream().filter(line -> "error".equals(line.path("status").asText()))
+                .allMatch(line -> line.get("error").asText().startsWith("Rate limit exceeded")));
+        assertEquals(interactiveBefore, dispatched("interactive"));
+        assertEquals(batchBefore + 20, dispatched("batch"));
+
+        HttpResponse<String> limited = send("/generate/batch", body, "application/json", "batch-quota-test");
+        assertEquals(429, limited.statusCode());
+        assertTrue(limited.headers().firstValue("Retry-After").isPresent());
+        assertEquals("Rate Limit Exceeded", objectMapper.readTree(limited.body()).get("error").asText());
+    }
+
+    @SuppressWarnings("unchecked")
+    private long dispatched(String priority) {
+        Map<String, Object> queue = (Map<String, Object>) generationScheduler.snapshot().get(priority);
+        return ((Number) queue.get("dispatched")).longValue();
+    }
+
+    private List<JsonNode> post(byte[] body, String contentType) throws Exception {
+        return post("/generate/batch", body, contentType);
+    }
+
+    private List<JsonNode> post(String path, byte[] body, String contentType) throws Exception {
+        HttpResponse<String> response = send(path, body, contentType, null);
+        assertEquals(200, response.statusCode(), response.body());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/x-ndjson"));
+        return parse(response.body());
+    }
+
+    private HttpResponse<String> send(String path, byte[] body, String contentType, String apiKey) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (apiKey != null) {
+            request.header("X-API-Key", apiKey);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private List<JsonNode> parse(String body) throws Exception {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,221 @@
+package com.Jadhav.WebCraft.Controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "webcraft.models.stub.enabled=true",
+        "webcraft.models.stub.latency-ms=300",
+        "webcraft.routing.pinned-provider=stub",
+        "webcraft.repository.dir=target/test-sites/${random.uuid}",
+        "webcraft.warmup.preconnect=false",
+        "webcraft.ws.max-operations=2",
+        "netlify.token=test-token",
+        "netlify.live-check-interval-ms=10"
+})
+class BuilderSocketTest {
+
+    private static final AtomicLong uploadedBytes = new AtomicLong();
+    private static final HttpServer netlify = startNetlify();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final LinkedBlockingQueue<JsonNode> events = new LinkedBlockingQueue<>();
+
+    @DynamicPropertySource
+    static void netlifyUrl(DynamicPropertyRegistry registry) {
+        registry.add("netlify.api-url", () -> "http://localhost:" + netlify.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopNetlify() {
+        netlify.stop(0);
+    }
+
+    @Test
+    void generatesRefinesAndDeploysOverOneConnection() throws Exception {
+        WebSocket socket = connect();
+
+        send(socket, "g1", "generate", Map.of("prompt", "A bakery called Crumb & Co"));
+        List<JsonNode> generated = until("g1", "result");
+        assertEquals(List.of("accepted", "progress", "progress", "progress", "progress", "progress", "result"),
+                generated.stream().map(event -> event.get("type").asText()).toList());
+        assertEquals(List.of("skeleton", "queued", "generating", "parsing", "validating"),
+                generated.subList(1, 6).stream().map(event -> event.get("stage").asText()).toList());
+        assertEquals("restaurant", generated.get(1).get("template").asText());
+        JsonNode site = generated.get(6).get("site");
+        String siteId = site.get("siteId").asText();
+        assertFalse(site.get("html").asText().isEmpty());
+
+        send(socket, "r1", "refine", Map.of("siteId", siteId, "instruction", "Make the heading say Fresh Bread"));
+        JsonNode refined = until("r1", "result").getLast().get("site");
+        assertEquals(siteId, refined.get("siteId").asText());
+        assertEquals(site.get("version").asInt() + 1, refined.get("version").asInt());
+
+        // Random hex keeps the ZIP large enough to be read in many chunks
+        byte[] noise = new byte[256 * 1024];
+        new Random(49).nextBytes(noise);
+        String html = "<!DOCTYPE html><html><body><p>" + HexFormat.of().formatHex(noise) + "</p></body></html>";
+        send(socket, "d1", "deploy", Map.of("html", html, "projectName", "Crumb & Co"));
+        List<JsonNode> deployed = until("d1", "result");
+        List<Integer> percents = deployed.stream()
+                .filter(event -> "uploading".equals(event.path("stage").asText()))
+                .map(event -> event.get("percent").asInt()).toList();
+        assertTrue(percents.size() > 10, percents.toString());
+        assertEquals(100, percents.getLast());
+        assertEquals(percents.stream().sorted().toList(), percents);
+        JsonNode packaged = deployed.stream().filter(event -> "packaged".equals(event.path("stage").asText())).findFirst().orElseThrow();
+        assertEquals(packaged.get("zipBytes").asLong(), uploadedBytes.get());
+        JsonNode ready = deployed.get(deployed.size() - 2);
+        assertEquals("ready", ready.get("stage").asText());
+        assertFalse(ready.get("live").asBoolean());
+        JsonNode deployment = deployed.getLast().get("deployment");
+        assertEquals("crumb-co", deployment.get("projectName").asText());
+        assertTrue(deployment.get("deployed").asBoolean());
+
+        socket.sendClose(WebSocket.NORMAL_CLOSURE, "done").get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void capsConcurrentOperationsAndRejectsBadFrames() throws Exception {
+        WebSocket socket = connect();
+
+        send(socket, "a", "generate", Map.of("prompt", "A bike shop"));
+        send(socket, "b", "generate", Map.of("prompt", "A yoga studio"));
+        send(socket, "c", "generate", Map.of("prompt", "A dental clinic"));
+        JsonNode busy = until("c", "error").getLast().get("error");
+        assertEquals("Server Busy", busy.get("error").asText());
+        until("a", "result");
+        until("b", "result");
+
+        send(socket, "d", "publish", Map.of());
+        assertTrue(until("d", "error").getLast().get("error").get("message").asText().startsWith("Unknown op 'publish'"));
+        send(socket, "e", "generate", Map.of("prompt", " "));
+        assertEquals("Prompt cannot be empty", until("e", "error").getLast().get("error").get("message").asText());
+        socket.sendText("{not json", true).get(5, TimeUnit.SECONDS);
+        JsonNode malformed = next();
+        assertFalse(malformed.has("id"));
+        assertEquals("Invalid Request", malformed.get("error").get("error").asText());
+
+        // A cancelled operation frees its slot without a result
+        send(socket, "f", "generate", Map.of("prompt", "A flower shop"));
+        until("f", "accepted");
+        send(socket, "f", "cancel", Map.of());
+        List<JsonNode> cancelled = until("f", "cancelled");
+        assertTrue(cancelled.stream().noneMatch(event -> Set.of("result", "fallback", "error").contains(event.get("type").asText())),
+                cancelled.toString());
+        send(socket, "g", "generate", Map.of("prompt", "A book shop"));
+        send(socket, "h", "generate", Map.of("prompt", "A tea house"));
+        until("g", "result");
+        until("h", "result");
+
+        socket.sendClose(WebSocket.NORMAL_CLOSURE, "done").get(5, TimeUnit.SECONDS);
+    }
+
+    private WebSocket connect() throws Exception {
+        return HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(URI.create("ws://localhost:" + port + "/ws"), new WebSocket.Listener() {
+                    private final StringBuilder text = new StringBuilder();
+
+                    @Override
+                    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                        text.append(data);
+                        if (last) {
+                            try {
+                                events.add(objectMapper.readTree(text.toString()));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            text.setLength(0);
+                        }
+                        webSocket.request(1);
+                        return null;
+                    }
+                })
+                .get(5, TimeUnit.SECONDS);
+    }
+
+    private void send(WebSocket socket, String id, String op, Map<String, Object> body) throws Exception {
+        String frame = objectMapper.writeValueAsString(Map.of("id", id, "op", op, "body", body));
+        socket.sendText(frame, true).get(5, TimeUnit.SECONDS);
+    }
+
+    private JsonNode next() throws InterruptedException {
+        JsonNode event = events.poll(10, TimeUnit.SECONDS);
+        assertNotNull(event, "no event within 10 seconds");
+        return event;
+    }
+
+    // Events for the given id up to and including the first of the given type; others are skipped
+    private List<JsonNode> until(String id, String type) throws InterruptedException {
+        List<JsonNode> seen = new ArrayList<>();
+        List<JsonNode> others = new ArrayList<>();
+        while (true) {
+            JsonNode event = next();
+            if (!id.equals(event.path("id").asText())) {
+                others.add(event);
+                continue;
+            }
+            seen.add(event);
+            if (type.equals(event.get("type").asText())) {
+                // Events for other ids stay available to the next call
+                events.addAll(others);
+                return seen;
+            }
+        }
+    }
+
+    private static HttpServer startNetlify() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/sites", exchange -> {
+                uploadedBytes.set(exchange.getRequestBody().readAllBytes().length);
+                // Deploy URLs are switched to https, so the live check is refused straight away
+                byte[] body = "{\"url\":\"http://localhost:1/\",\"id\":\"site-1\",\"deploy_id\":\"deploy-1\"}"
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(201, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.Jadhav.WebCraft.Controller;
+
+import com.Jadhav.WebCraft.Service.CircuitBreaker;
+import com.Jadhav.WebCraft.Service.WebsiteGeneratorService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "webcraft.models.stub.enabled=true",
+        "webcraft.routing.pinned-provider=stub",
+        "webcraft.repository.dir=target/test-sites/${random.uuid}",
+        "webcraft.warmup.preconnect=false"
+})
+@AutoConfigureMockMvc
+class ErrorResponseTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoSpyBean
+    private WebsiteGeneratorService websiteGeneratorService;
+
+    @Test
+    void rejectedBatchGetsA400WithTheErrorBody() throws Exception {
+        mockMvc.perform(post("/generate/batch").contentType(MediaType.APPLICATION_JSON).content("{\"prompts\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Validation Error"))
+                .andExpect(jsonPath("$.message").value("Batch must contain at least one prompt"))
+                .andExpect(jsonPath("$.timestamp").isString());
+    }
+
+    @Test
+    void openBreakerGetsA503WithRetryAfter() throws Exception {
+        doThrow(new CircuitBreaker.OpenException("gemini", 12_500))
+                .when(websiteGeneratorService).generateWebsite(any(), any(), any());
+
+        mockMvc.perform(post("/generate").contentType(MediaType.APPLICATION_JSON).content("{\"prompt\": \"A bakery\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "13"))
+                .andExpect(jsonPath("$.error").value("Service Unavailable"))
+                .andExpect(jsonPath("$.timestamp").isString());
+    }
+
+    @Test
+    void streamFallbackLineCarriesTheError() throws Exception {
+        doThrow(new IllegalStateException("model down"))
+                .when(websiteGeneratorService).generateWebsite(any(), any(), any());
+
+        String body = mockMvc.perform(post("/generate/stream").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\": \"A bakery\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length, body);
+        JsonNode fallback = objectMapper.readTree(lines[1]);
+        assertEquals("fallback", fallback.get("type").asText());
+        assertEquals("Generation Error", fallback.get("error").get("error").asText());
+        assertTrue(fallback.get("error").get("timestamp").isTextual());
+        assertFalse(fallback.get("site").get("html").asText().isEmpty());
+        assertTrue(fallback.get("site").hasNonNull("siteId"));
+    }
+
+    @Test
+    void refusedStreamServesTheTemplateWithoutStoringIt() throws Exception {
+        doThrow(new CircuitBreaker.OpenException("gemini", 12_500))
+                .when(websiteGeneratorService).generateWebsite(any(), any(), any());
+
+        String body = mockMvc.perform(post("/generate/stream").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\": \"A bakery\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode fallback = objectMapper.readTree(body.split("\n")[1]);
+        assertEquals("Service Unavailable", fallback.get("error").get("error").asText());
+        assertFalse(fallback.get("site").get("html").asText().isEmpty());
+        assertFalse(fallback.get("site").hasNonNull("siteId"));
+    }
+}
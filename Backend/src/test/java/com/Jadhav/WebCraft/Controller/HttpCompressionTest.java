@@ -0,0 +1,116 @@
+package com.Jadhav.WebCraft.Controller;
+
+import com.Jadhav.WebCraft.config.HttpCompressionConfig;
+import com.Jadhav.WebCraft.dto.DeployResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "webcraft.models.stub.enabled=true",
+        "webcraft.routing.pinned-provider=stub",
+        "webcraft.repository.dir=target/test-sites/${random.uuid}",
+        "webcraft.warmup.preconnect=false"
+})
+class HttpCompressionTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void generateAcceptsGzipBodiesAndReturnsCompressedResponses() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("prompt", "A landing page for a coffee roastery"));
+
+        HttpResponse<byte[]> plain = post(body, false);
+        HttpResponse<byte[]> compressed = post(gzip(body), true);
+
+        assertEquals(200, plain.statusCode());
+        assertEquals(200, compressed.statusCode());
+        assertEquals("gzip", compressed.headers().firstValue("Content-Encoding").orElse(null));
+
+        Map<?, ?> plainJson = objectMapper.readValue(plain.body(), Map.class);
+        Map<?, ?> compressedJson = objectMapper.readValue(gunzip(compressed.body()), Map.class);
+        assertEquals(plainJson.get("html"), compressedJson.get("html"));
+
+        assertTrue(compressed.body().length < plain.body().length);
+    }
+
+    @Test
+    void slimDeployResponseOmitsTheContent() throws Exception {
+        String html = "<html><body>" + "<p>Lorem ipsum dolor sit amet</p>".repeat(30_000) + "</body></html>";
+
+        DeployResponse full = new DeployResponse(html, "body{}".repeat(10_000), "console.log(1);".repeat(10_000),
+                "https://example.netlify.app", "example", true);
+        DeployResponse slim = new DeployResponse();
+        slim.setDeploymentUrl("https://example.netlify.app");
+        slim.setProjectName("example");
+        slim.setDeployed(true);
+        slim.setDeployId("0123456789abcdef");
+        slim.setContentHashes(Map.of("html", "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855"));
+
+        int fullBytes = objectMapper.writeValueAsBytes(full).length;
+        int slimBytes = objectMapper.writeValueAsBytes(slim).length;
+        assertTrue(slimBytes < 512);
+        assertTrue(slimBytes < fullBytes);
+        assertFalse(objectMapper.readTree(objectMapper.writeValueAsBytes(slim)).has("html"));
+    }
+
+    @Test
+    void mimeTypesComeFromConfiguration() {
+        HttpCompressionConfig config = new HttpCompressionConfig();
+        ReflectionTestUtils.setField(config, "enabled", true);
+        ReflectionTestUtils.setField(config, "minResponseSize", DataSize.ofKilobytes(2));
+        ReflectionTestUtils.setField(config, "mimeTypes", new String[]{"application/json", "image/svg+xml"});
+
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+        config.responseCompressionCustomizer().customize(factory);
+        assertArrayEquals(new String[]{"application/json", "image/svg+xml"}, factory.getCompression().getMimeTypes());
+    }
+
+    private HttpResponse<byte[]> post(byte[] body, boolean gzip) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/generate"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (gzip) {
+            request.header("Content-Encoding", "gzip").header("Accept-Encoding", "gzip");
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static byte[] gzip(byte[] data) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static String gunzip(byte[] data) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
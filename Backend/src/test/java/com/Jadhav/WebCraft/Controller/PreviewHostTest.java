@@ -0,0 +1,185 @@
+package com.Jadhav.WebCraft.Controller;
+
+import com.Jadhav.WebCraft.Service.PreviewStore;
+import com.Jadhav.WebCraft.Service.SiteRepository;
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "webcraft.models.stub.enabled=true",
+        "webcraft.routing.pinned-provider=stub",
+        "webcraft.repository.dir=target/test-sites/${random.uuid}",
+        "webcraft.warmup.preconnect=false",
+        "webcraft.preview.dir=${java.io.tmpdir}/webcraft-preview-test",
+        "webcraft.preview.file-threshold-bytes=16384",
+        "webcraft.preview.file-grace-ms=200"
+})
+class PreviewHostTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SiteRepository siteRepository;
+
+    @Autowired
+    private PreviewStore previewStore;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void servesTheLatestVersionWithGzipVariantsAndEtags() throws Exception {
+        String siteId = siteRepository.newSiteId();
+        siteRepository.save(siteId, new GenerateResponse(
+                "<!DOCTYPE html><html><head><title>Crumb</title></head><body><h1>Crumb &amp; Co</h1></body></html>",
+                "h1 { color: #a0522d; }\n".repeat(20), "document.title = 'Crumb';"));
+
+        HttpResponse<byte[]> redirect = get("/preview/" + siteId, null, null);
+        assertEquals(301, redirect.statusCode());
+        assertEquals("/preview/" + siteId + "/", redirect.headers().firstValue("Location").orElse(null));
+
+        HttpResponse<byte[]> page = get("/preview/" + siteId + "/", "gzip, deflate", null);
+        assertEquals(200, page.statusCode());
+        assertEquals("gzip", page.headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(page.headers().firstValue("Content-Type").orElseThrow().startsWith("text/html"));
+        assertTrue(page.headers().firstValue("Content-Security-Policy").orElseThrow().startsWith("sandbox"));
+        String html = new String(gunzip(page.body()), StandardCharsets.UTF_8);
+        assertTrue(html.contains("<link rel=\"stylesheet\" href=\"styles.css\">"), html);
+        assertTrue(html.contains("<script src=\"script.js\"></script>"), html);
+        String etag = page.headers().firstValue("ETag").orElseThrow();
+        assertFalse(etag.startsWith("W/"));
+
+        HttpResponse<byte[]> identity = get("/preview/" + siteId + "/", null, null);
+        assertNull(identity.headers().firstValue("Content-Encoding").orElse(null));
+        assertEquals(html, new String(identity.body(), StandardCharsets.UTF_8));
+        assertNotEquals(etag, identity.headers().firstValue("ETag").orElseThrow());
+
+        HttpResponse<byte[]> notModified = get("/preview/" + siteId + "/", "gzip", etag);
+        assertEquals(304, notModified.statusCode());
+        assertEquals(0, notModified.body().length);
+
+        HttpResponse<byte[]> css = get("/preview/" + siteId + "/styles.css", "gzip", null);
+        assertTrue(css.headers().firstValue("Content-Type").orElseThrow().startsWith("text/css"));
+        assertEquals("h1 { color: #a0522d; }\n".repeat(20), new String(gunzip(css.body()), StandardCharsets.UTF_8));
+        // Short files that gzip would grow are sent as they are
+        HttpResponse<byte[]> js = get("/preview/" + siteId + "/script.js", "gzip", null);
+        assertNull(js.headers().firstValue("Content-Encoding").orElse(null));
+        assertEquals("document.title = 'Crumb';", new String(js.body(), StandardCharsets.UTF_8));
+        assertEquals(html, new String(get("/preview/" + siteId + "/menu", null, null).body(), StandardCharsets.UTF_8));
+
+        // A refinement shows up on the next view
+        siteRepository.save(siteId, new GenerateResponse("<html><body>" + "<h1>Fresh Bread</h1>".repeat(10) + "</body></html>", "", ""));
+        HttpResponse<byte[]> refined = get("/preview/" + siteId + "/", "gzip", etag);
+        assertEquals(200, refined.statusCode());
+        assertTrue(new String(gunzip(refined.body()), StandardCharsets.UTF_8).contains("Fresh Bread"));
+
+        assertEquals(404, get("/preview/0000000000000000/", null, null).statusCode());
+    }
+
+    @Test
+    void largeFilesAreSentFromDiskToManyViewers() throws Exception {
+        // Random hex compresses to about half, so both variants go over the threshold
+        byte[] noise = new byte[256 * 1024];
+        new Random(50).nextBytes(noise);
+        String html = "<!DOCTYPE html><html><body><p>" + HexFormat.of().formatHex(noise) + "</p></body></html>";
+        String siteId = siteRepository.newSiteId();
+
+        siteRepository.save(siteId, new GenerateResponse(html, "", ""));
+        HttpResponse<byte[]> first = get("/preview/" + siteId + "/", null, null);
+        assertEquals(200, first.statusCode());
+        assertEquals(html, new String(first.body(), StandardCharsets.UTF_8));
+        assertEquals(String.valueOf(html.length()), first.headers().firstValue("Content-Length").orElse(null));
+        PreviewStore.PreviewFile index = previewStore.get(siteId).orElseThrow().file(PreviewStore.INDEX);
+        assertTrue(index.identity().onDisk());
+        assertTrue(index.gzip().onDisk());
+
+        long builds = (long) previewStore.stats().get("builds");
+        int viewers = 16;
+        int views = 10;
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(viewers)) {
+            for (int i = 0; i < viewers; i++) {
+                boolean gzip = i % 2 == 0;
+                results.add(pool.submit(() -> {
+                    int ok = 0;
+                    for (int j = 0; j < views; j++) {
+                        HttpResponse<byte[]> response = get("/preview/" + siteId + "/", gzip ? "gzip" : null, null);
+                        byte[] body = gzip ? gunzip(response.body()) : response.body();
+                        if (response.statusCode() == 200 && body.length == html.length()) {
+                            ok++;
+                        }
+                    }
+                    return ok;
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(views, result.get());
+            }
+        }
+        assertEquals(builds, previewStore.stats().get("builds"), "every view after the first is served as built");
+    }
+
+    @Test
+    void supersededFilesAreSweptFromThisProcessDirectory() throws Exception {
+        byte[] noise = new byte[64 * 1024];
+        new Random(51).nextBytes(noise);
+        String siteId = siteRepository.newSiteId();
+        siteRepository.save(siteId, new GenerateResponse("<html><body>" + HexFormat.of().formatHex(noise) + "</body></html>", "", ""));
+        Path first = previewStore.get(siteId).orElseThrow().file(PreviewStore.INDEX).identity().file();
+
+        // Each process writes below the configured directory, never into it directly
+        Path configured = Path.of(System.getProperty("java.io.tmpdir"), "webcraft-preview-test");
+        assertEquals(configured.toAbsolutePath(), first.getParent().getParent().toAbsolutePath());
+        assertTrue(first.getParent().getFileName().toString().startsWith("preview-"));
+
+        // The refined build retires the first one; the sweeper removes it without further views
+        siteRepository.save(siteId, new GenerateResponse("<html><body>" + HexFormat.of().formatHex(noise).toUpperCase() + "</body></html>", "", ""));
+        Path second = previewStore.get(siteId).orElseThrow().file(PreviewStore.INDEX).identity().file();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (Files.exists(first) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertFalse(Files.exists(first));
+        assertTrue(Files.exists(second));
+    }
+
+    private HttpResponse<byte[]> get(String path, String acceptEncoding, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static byte[] gunzip(byte[] body) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+}
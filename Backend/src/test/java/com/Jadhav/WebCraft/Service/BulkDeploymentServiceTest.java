@@ -0,0 +1,171 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.config.JacksonConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkDeploymentServiceTest {
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+    private static NetlifyRateLimiter newLimiter(int capacity, double refillPerMinute) {
+        NetlifyRateLimiter limiter = new NetlifyRateLimiter();
+        ReflectionTestUtils.setField(limiter, "capacity", capacity);
+        ReflectionTestUtils.setField(limiter, "refillPerMinute", refillPerMinute);
+        ReflectionTestUtils.setField(limiter, "maxBackoffSeconds", 60L);
+        return limiter;
+    }
+
+    @Test
+    void limiterFollowsNetlifyHeadersAndBacksOff() {
+        NetlifyRateLimiter limiter = newLimiter(3, 3);
+        long now = System.nanoTime();
+        long epochMillis = 1_700_000_000_000L;
+
+        assertEquals(0, limiter.tryAcquire(now));
+
+        // Netlify reports the allowance is used up until the reset 30 seconds from now
+        HttpHeaders exhausted = new HttpHeaders();
+        exhausted.set("X-RateLimit-Limit", "3");
+        exhausted.set("X-RateLimit-Remaining", "0");
+        exhausted.set("X-RateLimit-Reset", String.valueOf(epochMillis / 1000 + 30));
+        limiter.update(exhausted, now, epochMillis);
+        long wait = limiter.tryAcquire(now);
+        assertEquals(30, TimeUnit.NANOSECONDS.toSeconds(wait));
+
+        // After the reset, the local bucket has refilled by 1.5 tokens
+        assertEquals(0, limiter.tryAcquire(now + TimeUnit.SECONDS.toNanos(30)));
+        assertTrue(limiter.tryAcquire(now + TimeUnit.SECONDS.toNanos(30)) > 0);
+
+        HttpHeaders retryAfter = new HttpHeaders();
+        retryAfter.set(HttpHeaders.RETRY_AFTER, "7");
+        assertEquals(7000, limiter.onThrottled(retryAfter, now + TimeUnit.SECONDS.toNanos(40), epochMillis));
+        assertEquals(7, TimeUnit.NANOSECONDS.toSeconds(limiter.tryAcquire(now + TimeUnit.SECONDS.toNanos(40))));
+
+        // Without hints the backoff doubles
+        long first = limiter.onThrottled(new HttpHeaders(), now + TimeUnit.SECONDS.toNanos(100), epochMillis);
+        long second = limiter.onThrottled(new HttpHeaders(), now + TimeUnit.SECONDS.toNanos(100), epochMillis);
+        assertTrue(first >= 2000 && first < 3000, "first backoff " + first);
+        assertTrue(second >= 4000 && second < 5000, "second backoff " + second);
+        assertEquals(3L, limiter.snapshot().get("throttled"));
+    }
+
+    @Test
+    void bulkDeployRetriesThrottledUploadsAndStreamsPerSiteEvents() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        // Requests before the Retry-After of the throttled one are refused again and counted
+        AtomicLong throttledUntil = new AtomicLong(Long.MIN_VALUE);
+        AtomicInteger early = new AtomicInteger();
+        HttpServer netlify = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        netlify.createContext("/sites", exchange -> {
+            int n = requests.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                exchange.getRequestBody().readAllBytes();
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                if (n == 2) {
+                    throttledUntil.set(System.nanoTime() + TimeUnit.SECONDS.toNanos(1));
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    exchange.sendResponseHeaders(429, -1);
+                    return;
+                }
+                if (System.nanoTime() < throttledUntil.get()) {
+                    early.incrementAndGet();
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    exchange.sendResponseHeaders(429, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().set("X-RateLimit-Limit", "100");
+                exchange.getResponseHeaders().set("X-RateLimit-Remaining", String.valueOf(100 - n));
+                byte[] body = ("{\"url\":\"http://site-" + n + ".example\",\"id\":\"site-" + n + "\",\"deploy_id\":\"deploy-" + n + "\"}")
+                        .getBytes(StandardCharsets.UTF_8);
+                Thread.sleep(20);
+                exchange.sendResponseHeaders(201, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        netlify.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        netlify.start();
+
+        try {
+            NetlifyRateLimiter limiter = newLimiter(2, 600);
+            NetlifyDeploymentService netlifyService = new NetlifyDeploymentService();
+            ReflectionTestUtils.setField(netlifyService, "netlifyToken", "test-token");
+            ReflectionTestUtils.setField(netlifyService, "apiUrl", "http://localhost:" + netlify.getAddress().getPort());
+            ReflectionTestUtils.setField(netlifyService, "liveCheckIntervalMs", 10L);
+            ReflectionTestUtils.setField(netlifyService, "maxThrottleRetries", 5);
+            ReflectionTestUtils.setField(netlifyService, "rateLimiter", limiter);
+            ReflectionTestUtils.setField(netlifyService, "circuitBreakers", CircuitBreakerTest.newBreakers());
+
+            BulkDeploymentService bulk = new BulkDeploymentService();
+            ReflectionTestUtils.setField(bulk, "netlifyDeploymentService", netlifyService);
+            ReflectionTestUtils.setField(bulk, "objectMapper", objectMapper);
+            ReflectionTestUtils.setField(bulk, "maxSites", 100);
+            ReflectionTestUtils.setField(bulk, "packagingThreads", 2);
+            ReflectionTestUtils.setField(bulk, "maxConcurrentUploads", 2);
+
+            List<BulkDeploymentService.BulkItem> items = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                items.add(new BulkDeploymentService.BulkItem(i, "site-" + i,
+                        DeploymentUpload.of("<html><body><h1>Site " + i + "</h1></body></html>", "h1{}", ""), null));
+            }
+            items.add(new BulkDeploymentService.BulkItem(6, "broken", null, "HTML content cannot be empty"));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            bulk.run(items, false, out);
+
+            List<JsonNode> events = new ArrayList<>();
+            for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+                events.add(objectMapper.readTree(line));
+            }
+            JsonNode summary = events.get(events.size() - 1).get("summary");
+            assertEquals(6, summary.get("deployed").asInt());
+            assertEquals(1, summary.get("failed").asInt());
+
+            for (int i = 0; i < 6; i++) {
+                int index = i;
+                List<String> statuses = events.stream()
+                        .filter(e -> e.has("index") && e.get("index").asInt() == index)
+                        .map(e -> e.get("status").asText())
+                        .toList();
+                assertEquals(List.of("packaged", "uploaded", "deployed"), statuses);
+            }
+
+            // One upload was throttled and nothing was sent after it before its Retry-After. The one
+            // upload that may already have been on its way in the other slot can still land there.
+            assertTrue(early.get() <= 1, early.get() + " uploads sent before the Retry-After");
+            assertEquals(7 + early.get(), requests.get());
+            assertEquals(1L + early.get(), limiter.snapshot().get("throttled"));
+            assertTrue((int) limiter.snapshot().get("serverRemaining") <= 95);
+            // Uploads never exceeded two at once
+            assertTrue(maxInFlight.get() <= 2);
+        } finally {
+            netlify.stop(0);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.Jadhav.WebCraft.Service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    static CircuitBreakers newBreakers() {
+        CircuitBreakers breakers = new CircuitBreakers();
+        ReflectionTestUtils.setField(breakers, "windowSize", 20);
+        ReflectionTestUtils.setField(breakers, "minCalls", 5);
+        ReflectionTestUtils.setField(breakers, "failureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(breakers, "slowCallRateThreshold", 0.8);
+        ReflectionTestUtils.setField(breakers, "openSeconds", 30L);
+        ReflectionTestUtils.setField(breakers, "halfOpenProbes", 2);
+        ReflectionTestUtils.setField(breakers, "geminiSlowCallMs", 120000L);
+        ReflectionTestUtils.setField(breakers, "netlifySlowCallMs", 20000L);
+        breakers.init();
+        return breakers;
+    }
+
+    @Test
+    void opensOnFailuresThenProbesBeforeClosing() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 4, 0.5, 1000, 0.8, 50, 2);
+
+        // Client errors do not count against the service
+        for (int i = 0; i < 6; i++) {
+            assertThrows(IllegalArgumentException.class, () -> breaker.call(() -> {
+                throw new IllegalArgumentException("bad request");
+            }, e -> !(e instanceof IllegalArgumentException)));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IOException.class, () -> breaker.call(() -> {
+                throw new IOException("connection reset");
+            }));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // Open: fails fast without calling through
+        boolean[] called = {false};
+        CircuitBreaker.OpenException open = assertThrows(CircuitBreaker.OpenException.class,
+                () -> breaker.call(() -> called[0] = true));
+        assertFalse(called[0]);
+        assertTrue(open.getRetryAfterMillis() <= 50);
+        assertSame(open, CircuitBreaker.OpenException.findIn(new RuntimeException("wrapped", open)));
+
+        // Half-open: a failed probe reopens, two good probes close
+        Thread.sleep(60);
+        assertThrows(IOException.class, () -> breaker.call(() -> {
+            throw new IOException("still down");
+        }));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Thread.sleep(60);
+        assertEquals("ok", breaker.call(() -> "ok"));
+        assertEquals("ok", breaker.call(() -> "ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        Map<String, Object> snapshot = breaker.snapshot();
+        assertEquals(2L, snapshot.get("timesOpened"));
+        assertEquals(1L, snapshot.get("rejected"));
+        assertEquals(0, snapshot.get("windowCalls"));
+    }
+
+    @Test
+    void anErrorInAProbeStillReleasesItsSlot() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 2, 0.5, 1000, 0.8, 50, 1);
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IOException.class, () -> breaker.call(() -> {
+                throw new IOException("connection reset");
+            }));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(60);
+        assertThrows(StackOverflowError.class, () -> breaker.call(() -> {
+            throw new StackOverflowError();
+        }));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Thread.sleep(60);
+        assertEquals("ok", breaker.call(() -> "ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void eachGeminiModelHasItsOwnBreaker() throws Exception {
+        CircuitBreakers breakers = newBreakers();
+        CircuitBreaker pro = breakers.gemini("gemini-2.5-pro");
+        assertSame(pro, breakers.gemini("gemini-2.5-pro"));
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IOException.class, () -> pro.call(() -> {
+                throw new IOException("quota exhausted");
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, pro.getState());
+        assertEquals("ok", breakers.gemini("gemini-2.5-flash").call(() -> "ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.gemini("gemini-2.5-flash").getState());
+        assertEquals(List.of("gemini-2.5-flash", "gemini-2.5-pro"), List.copyOf(breakers.gemini().keySet()));
+    }
+
+    @Test
+    void opensOnSlowCallsAndLimitsConcurrentProbes() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 5, 0.5, 100, 0.6, 1000, 1);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(breaker.acquire(now), 500 * MS, false, now);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onResult(breaker.acquire(now), 20 * MS, false, now);
+        // 4 of 5 calls over the 100 ms slow-call threshold
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(500L, breaker.snapshot().get("p95LatencyMs"));
+        assertEquals(500L, breaker.snapshot().get("p50LatencyMs"));
+
+        long later = now + 1000 * MS;
+        CircuitBreaker.Permit probe = breaker.acquire(later);
+        assertEquals(CircuitBreaker.Permit.PROBE, probe);
+        assertThrows(CircuitBreaker.OpenException.class, () -> breaker.acquire(later));
+
+        // A probe that is still too slow keeps the circuit open
+        breaker.onResult(probe, 300 * MS, false, later);
+        assertThrows(CircuitBreaker.OpenException.class, () -> breaker.acquire(later + 10 * MS));
+    }
+}
@@ -0,0 +1,127 @@
+package com.Jadhav.WebCraft.Service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientRateLimiterTest {
+
+    static ClientRateLimiter newLimiter(long capacity, double refillPerMinute) {
+        ClientRateLimiter limiter = new ClientRateLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "capacity", capacity);
+        ReflectionTestUtils.setField(limiter, "refillPerMinute", refillPerMinute);
+        ReflectionTestUtils.setField(limiter, "generateCost", 1L);
+        ReflectionTestUtils.setField(limiter, "deployCost", 5L);
+        ReflectionTestUtils.setField(limiter, "idleEvictSeconds", 600L);
+        return limiter;
+    }
+
+    @Test
+    void bucketDrainsRefillsAndIsEvictedWhenIdle() {
+        ClientRateLimiter limiter = newLimiter(10, 60);
+        long now = System.nanoTime();
+
+        ClientRateLimiter.Decision first = limiter.tryAcquire("ip:a", 5, now);
+        assertTrue(first.allowed());
+        assertEquals(5, first.remaining());
+        assertEquals(5, first.resetSeconds());
+        assertTrue(limiter.tryAcquire("ip:a", 5, now).allowed());
+
+        ClientRateLimiter.Decision denied = limiter.tryAcquire("ip:a", 1, now);
+        assertFalse(denied.allowed());
+        assertEquals(0, denied.remaining());
+        assertEquals(1, denied.retryAfterSeconds());
+
+        // Other clients have their own bucket
+        assertTrue(limiter.tryAcquire("ip:b", 1, now).allowed());
+
+        // One token per second comes back
+        assertTrue(limiter.tryAcquire("ip:a", 1, now + TimeUnit.SECONDS.toNanos(1)).allowed());
+        assertFalse(limiter.tryAcquire("ip:a", 1, now + TimeUnit.SECONDS.toNanos(1)).allowed());
+
+        assertEquals(0, limiter.evictIdle(now + TimeUnit.SECONDS.toNanos(60)));
+        assertEquals(2, limiter.evictIdle(now + TimeUnit.SECONDS.toNanos(700)));
+        assertEquals(0, limiter.snapshot().get("trackedClients"));
+    }
+
+    @Test
+    void takesAsManyItemsAsTheBucketCovers() {
+        ClientRateLimiter limiter = newLimiter(10, 60);
+        long now = System.nanoTime();
+
+        ClientRateLimiter.Decision batch = limiter.tryAcquire("ip:a", 1, 25, now);
+        assertTrue(batch.allowed());
+        assertEquals(10, batch.units());
+        assertEquals(0, batch.remaining());
+
+        ClientRateLimiter.Decision none = limiter.tryAcquire("ip:a", 1, 25, now);
+        assertFalse(none.allowed());
+        assertEquals(0, none.units());
+        assertEquals(1, none.retryAfterSeconds());
+
+        // Deploys cost 5, so three seconds of refill cover none and ten cover two
+        assertFalse(limiter.tryAcquire("ip:a", 5, 4, now + TimeUnit.SECONDS.toNanos(3)).allowed());
+        assertEquals(2, limiter.tryAcquire("ip:a", 5, 4, now + TimeUnit.SECONDS.toNanos(10)).units());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void limiterOverheadAcrossManyClients() throws Exception {
+        ClientRateLimiter limiter = newLimiter(20, 10);
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int clients = 100_000;
+        int perThread = 500_000;
+        String[] keys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            keys[i] = "ip:10." + (i >> 16) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF);
+        }
+
+        // Warm up the JIT before timing
+        for (int i = 0; i < 200_000; i++) {
+            limiter.tryAcquire(keys[i % clients], ClientRateLimiter.Operation.GENERATE);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long granted = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        ClientRateLimiter.Operation op = (i & 7) == 0
+                                ? ClientRateLimiter.Operation.DEPLOY : ClientRateLimiter.Operation.GENERATE;
+                        if (limiter.tryAcquire(keys[random.nextInt(clients)], op).allowed()) {
+                            granted++;
+                        }
+                    }
+                    return granted;
+                }));
+            }
+            long granted = 0;
+            for (Future<Long> result : results) {
+                granted += result.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            long total = (long) threads * perThread;
+            double nanosPerOp = (double) elapsed * threads / total;
+            System.out.printf("Rate limiter: %d acquisitions over %d clients on %d threads, %.0f ns/op per thread, %.1f M ops/s (%d granted)%n",
+                    total, clients, threads, nanosPerOp, total / (elapsed / 1e3), granted);
+            assertTrue(nanosPerOp < 20_000, "limiter took " + nanosPerOp + " ns per acquisition");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
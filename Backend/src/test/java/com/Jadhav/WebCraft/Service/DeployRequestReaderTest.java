@@ -0,0 +1,178 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.config.JacksonConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeployRequestReaderTest {
+
+    @TempDir
+    Path spool;
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+    private DeployRequestReader reader(long maxHtmlBytes) {
+        DeployRequestReader reader = new DeployRequestReader();
+        ReflectionTestUtils.setField(reader, "maxHtmlBytes", maxHtmlBytes);
+        ReflectionTestUtils.setField(reader, "maxAssetBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(reader, "maxBodyBytes", 64L * 1024 * 1024);
+        ReflectionTestUtils.setField(reader, "maxBulkBodyBytes", 64L * 1024 * 1024);
+        ReflectionTestUtils.setField(reader, "spoolDir", spool.toString());
+        return reader;
+    }
+
+    @Test
+    void decodesFieldsLikeJackson() throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("html", "<h1 class=\"t\">Café ☃ 🚀</h1>\n\t\\ / \u0001");
+        body.put("extra", Map.of("nested", new int[]{1, 2, 3}, "flag", true));
+        body.put("css", null);
+        body.put("js", "console.log('ok');");
+        body.put("projectName", "My Site");
+        body.put("version", 3);
+
+        try (DeploymentUpload upload = reader(1024).read(new ByteArrayInputStream(objectMapper.writeValueAsBytes(body)), -1)) {
+            assertEquals(body.get("html"), upload.getHtml().readString());
+            assertTrue(upload.getCss().isBlank());
+            assertEquals("console.log('ok');", upload.getJs().readString());
+            assertEquals("My Site", upload.getProjectName());
+            assertEquals(3, upload.getVersion());
+        }
+        assertEquals(0, Files.list(spool).count());
+
+        assertThrows(IllegalArgumentException.class, () -> reader(1024).read(
+                new ByteArrayInputStream("{\"html\": \"unterminated".getBytes(StandardCharsets.UTF_8)), -1));
+        assertEquals(0, Files.list(spool).count());
+    }
+
+    @Test
+    void bulkBodyIsSpooledOneUploadPerSite() throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sites", List.of(
+                Map.of("html", "<h1>One</h1>", "css", "h1 { color: red; }", "projectName", "one"),
+                Map.of("siteId", "0123456789abcdef", "version", 2),
+                Map.of("html", "<h1>Three</h1>", "js", "let three = 3;")));
+        body.put("waitForLive", false);
+
+        try (DeployRequestReader.BulkRequest request = reader(1024).readBulk(
+                new ByteArrayInputStream(objectMapper.writeValueAsBytes(body)), -1, 3)) {
+            assertEquals(3, request.sites().size());
+            assertFalse(request.waitForLive());
+            assertEquals("<h1>One</h1>", request.sites().get(0).getHtml().readString());
+            assertEquals("one", request.sites().get(0).getProjectName());
+            assertEquals("0123456789abcdef", request.sites().get(1).getSiteId());
+            assertEquals(2, request.sites().get(1).getVersion());
+            assertEquals("let three = 3;", request.sites().get(2).getJs().readString());
+        }
+        assertEquals(0, Files.list(spool).count());
+
+        // Sites already spooled are deleted when a later one fails
+        IllegalArgumentException tooMany = assertThrows(IllegalArgumentException.class, () -> reader(1024).readBulk(
+                new ByteArrayInputStream(objectMapper.writeValueAsBytes(body)), -1, 2));
+        assertEquals("Too many sites (max 2)", tooMany.getMessage());
+        assertThrows(DeployRequestReader.PayloadTooLargeException.class, () -> reader(8).readBulk(
+                new ByteArrayInputStream(objectMapper.writeValueAsBytes(body)), -1, 3));
+        assertThrows(IllegalArgumentException.class, () -> reader(1024).readBulk(
+                new ByteArrayInputStream("{\"sites\": [{\"html\": \"<p>ok</p>\"}, {\"html\": ".getBytes(StandardCharsets.UTF_8)), -1, 3));
+        assertEquals(0, Files.list(spool).count());
+    }
+
+    @Test
+    void oversizedFieldIsRejectedWhileReadingWithBoundedHeap() throws Exception {
+        int htmlBytes = 20 * 1024 * 1024;
+        byte[] body = ("{\"projectName\":\"big\",\"html\":\"" + "<p>x</p>".repeat(htmlBytes / 8) + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        try (DeploymentUpload upload = reader(htmlBytes).read(new ByteArrayInputStream(body), body.length)) {
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+            assertEquals(htmlBytes, upload.getHtml().size());
+            assertTrue(allocated < 4 * 1024 * 1024, "allocated " + (allocated >> 10) + " KB");
+        }
+
+        CountingStream counting = new CountingStream(body);
+        assertThrows(DeployRequestReader.PayloadTooLargeException.class,
+                () -> reader(1024 * 1024).read(counting, -1));
+        assertTrue(counting.read < body.length / 4, "rejected after " + counting.read + " bytes");
+        assertEquals(0, Files.list(spool).count());
+    }
+
+    @Test
+    void streamingLinkInjectionMatchesStringReplace() throws Exception {
+        Random random = new Random(42);
+        String[] pieces = {"<head>", "</head>", "<body>", "</body>", "</html>", "<", "<h", "</", "<hea", "</bod", "x", "é", " "};
+        for (int run = 0; run < 500; run++) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = random.nextInt(30); i > 0; i--) {
+                sb.append(pieces[random.nextInt(pieces.length)]);
+            }
+            String html = sb.toString();
+            Map<String, String> replacements = Map.of("</head>", "<link>\n</head>", "</body>", "<script></script></body>");
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            HtmlMarkers.replaceTags(new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)), out, replacements);
+            String expected = html.replace("</head>", "<link>\n</head>").replace("</body>", "<script></script></body>");
+            assertEquals(expected, out.toString(StandardCharsets.UTF_8), html);
+        }
+
+        NetlifyDeploymentService service = new NetlifyDeploymentService();
+        DeploymentUpload upload = DeploymentUpload.of("<html><head><title>t</title></head><body><p>hi</p></body></html>",
+                "body { color: red; }", "console.log(1);");
+        Path zip = service.createDeploymentZip(upload);
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(zip))) {
+            ZipEntry entry = in.getNextEntry();
+            assertEquals("index.html", entry.getName());
+            assertEquals("<html><head><title>t</title>    <link rel=\"stylesheet\" href=\"styles.css\">\n</head>"
+                            + "<body><p>hi</p>    <script src=\"script.js\"></script>\n</body></html>",
+                    new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            assertEquals("styles.css", in.getNextEntry().getName());
+            assertEquals("script.js", in.getNextEntry().getName());
+        } finally {
+            Files.deleteIfExists(zip);
+        }
+    }
+
+    private static final class CountingStream extends InputStream {
+        private final byte[] data;
+        private int read;
+
+        CountingStream(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public int read() {
+            return read < data.length ? data[read++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (read >= data.length) {
+                return -1;
+            }
+            int n = Math.min(len, data.length - read);
+            System.arraycopy(data, read, b, off, n);
+            read += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.config.JacksonConfig;
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FanOutGenerationTest {
+
+    private static final String PROMPT = "A landing page for a coffee roastery";
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+    @Test
+    void partsRunConcurrentlyOnceTheOutlineIsDone() throws Exception {
+        OverlapProvider provider = new OverlapProvider(newStub(0L));
+        FanOutGenerationService fanOut = fanOut(provider, 30L);
+
+        GenerateResponse response = fanOut.generate(PROMPT, LatencyTier.BALANCED);
+
+        // Each part waits for the other two before answering, so run in sequence they peak at one
+        assertEquals(3, provider.peakParts.get());
+        assertFalse(provider.partBeforeOutline.get());
+        assertTrue(response.getHtml().contains("id=\"features\""));
+        assertTrue(new SiteConsistencyChecker().check(response.getHtml(), response.getCss(), response.getJs()).isEmpty());
+        fanOut.shutdown();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void fanOutLatencyTracksSlowestPartNotTheSum() throws Exception {
+        StubModelProvider stub = newStub(200L);
+        FanOutGenerationService fanOut = fanOut(stub, 30L);
+
+        long sequentialMs = 0;
+        for (GenerationTask task : GenerationTask.values()) {
+            long start = System.nanoTime();
+            stub.complete(task, PROMPT);
+            sequentialMs += TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+
+        long start = System.nanoTime();
+        GenerateResponse response = fanOut.generate(PROMPT, LatencyTier.BALANCED);
+        long fanOutMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        System.out.printf("outline + html + css + js sequentially: %d ms, fan-out: %d ms%n", sequentialMs, fanOutMs);
+        assertTrue(fanOutMs < sequentialMs);
+        assertTrue(response.getHtml().contains("id=\"features\""));
+        assertTrue(new SiteConsistencyChecker().check(response.getHtml(), response.getCss(), response.getJs()).isEmpty());
+        fanOut.shutdown();
+    }
+
+    @Test
+    void aFailedPartInterruptsTheOthers() throws Exception {
+        BlockingProvider provider = new BlockingProvider(GenerationTask.HTML);
+        FanOutGenerationService fanOut = fanOut(provider, 30L);
+
+        Exception error = assertThrows(Exception.class, () -> fanOut.generate(PROMPT, LatencyTier.BALANCED));
+        assertEquals("HTML failed", error.getMessage());
+        assertTrue(provider.interrupted.await(10, TimeUnit.SECONDS), "CSS and JS parts were left running");
+        fanOut.shutdown();
+    }
+
+    @Test
+    void aTimeoutInterruptsEveryPart() throws Exception {
+        BlockingProvider provider = new BlockingProvider(null);
+        provider.interrupted = new CountDownLatch(3);
+        FanOutGenerationService fanOut = fanOut(provider, 1L);
+
+        assertThrows(TimeoutException.class, () -> fanOut.generate(PROMPT, LatencyTier.BALANCED));
+        assertTrue(provider.interrupted.await(10, TimeUnit.SECONDS), "parts were left running after the timeout");
+        fanOut.shutdown();
+    }
+
+    @Test
+    void consistencyCheckerReportsDanglingSelectors() {
+        String html = "<div id=\"app\" class=\"card wide\"><button id=\"go\">Go</button></div>";
+        String css = """
+                /* .commented { } */
+                #app .card, .wide:hover { color: red; }
+                .missing-class > a[href$=".pdf"] { color: blue; }
+                @media (max-width: 600px) { #ghost { display: none; } }
+                @keyframes fade { 0% { opacity: 0; } 12.5% { opacity: .5; } }
+                .show { opacity: 1; }
+                """;
+        String js = """
+                document.getElementById('go').addEventListener('click', () => {
+                    document.querySelector('#app').classList.add('show');
+                    document.getElementById('nowhere').textContent = 'x';
+                    document.querySelectorAll('.card, .phantom').forEach(el => el.remove());
+                });
+                """;
+
+        List<String> warnings = new SiteConsistencyChecker().check(html, css, js);
+
+        assertEquals(List.of(
+                "CSS references ids missing from HTML: [ghost]",
+                "CSS references classes missing from HTML: [missing-class]",
+                "JavaScript references ids missing from HTML: [nowhere]",
+                "JavaScript references classes missing from HTML: [phantom]"
+        ), warnings);
+    }
+
+    @Test
+    void stripsMarkdownFencesFromRawParts() {
+        assertEquals("body {}", FanOutGenerationService.stripFences("```css\nbody {}\n```"));
+        assertEquals("let a = 1;", FanOutGenerationService.stripFences("let a = 1;"));
+    }
+
+    private StubModelProvider newStub(long latencyMsPerKb) {
+        StubModelProvider stub = new StubModelProvider();
+        ReflectionTestUtils.setField(stub, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(stub, "latencyMs", 0L);
+        ReflectionTestUtils.setField(stub, "latencyMsPerKb", latencyMsPerKb);
+        ReflectionTestUtils.setField(stub, "maxConcurrency", 8);
+        return stub;
+    }
+
+    private FanOutGenerationService fanOut(ModelProvider provider, long timeoutSeconds) {
+        ModelRouter router = ModelRouterTest.newRouter(null, "");
+        router.register(provider);
+        FanOutGenerationService fanOut = new FanOutGenerationService();
+        ReflectionTestUtils.setField(fanOut, "modelRouter", router);
+        ReflectionTestUtils.setField(fanOut, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(fanOut, "timeoutSeconds", timeoutSeconds);
+        return fanOut;
+    }
+
+    /** Passes calls to the stub, holding each part until all three have started. */
+    private static final class OverlapProvider implements ModelProvider {
+        private final ModelProvider delegate;
+        private final CountDownLatch partsStarted = new CountDownLatch(3);
+        private final AtomicInteger partsInFlight = new AtomicInteger();
+        private final AtomicInteger peakParts = new AtomicInteger();
+        private final AtomicBoolean outlineDone = new AtomicBoolean();
+        private final AtomicBoolean partBeforeOutline = new AtomicBoolean();
+
+        OverlapProvider(ModelProvider delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getName() {
+            return "overlap";
+        }
+
+        @Override
+        public LatencyTier getTier() {
+            return LatencyTier.FAST;
+        }
+
+        @Override
+        public int getMaxConcurrency() {
+            return 8;
+        }
+
+        @Override
+        public String generate(String prompt) throws Exception {
+            return delegate.generate(prompt);
+        }
+
+        @Override
+        public String complete(GenerationTask task, String prompt) throws Exception {
+            if (task == GenerationTask.OUTLINE) {
+                String outline = delegate.complete(task, prompt);
+                outlineDone.set(true);
+                return outline;
+            }
+            partBeforeOutline.compareAndSet(false, !outlineDone.get());
+            peakParts.accumulateAndGet(partsInFlight.incrementAndGet(), Math::max);
+            try {
+                partsStarted.countDown();
+                partsStarted.await(5, TimeUnit.SECONDS);
+                return delegate.complete(task, prompt);
+            } finally {
+                partsInFlight.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Answers the outline and blocks every part until interrupted, except the failing
+     * one, which fails once the others are blocked.
+     */
+    private static final class BlockingProvider implements ModelProvider {
+        private final GenerationTask failing;
+        private final CountDownLatch blocked = new CountDownLatch(2);
+        private volatile CountDownLatch interrupted = new CountDownLatch(2);
+
+        BlockingProvider(GenerationTask failing) {
+            this.failing = failing;
+        }
+
+        @Override
+        public String getName() {
+            return "blocking";
+        }
+
+        @Override
+        public LatencyTier getTier() {
+            return LatencyTier.FAST;
+        }
+
+        @Override
+        public int getMaxConcurrency() {
+            return 8;
+        }
+
+        @Override
+        public String generate(String prompt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String complete(GenerationTask task, String prompt) throws Exception {
+            if (task == GenerationTask.OUTLINE) {
+                return "{}";
+            }
+            if (task == failing) {
+                blocked.await(5, TimeUnit.SECONDS);
+                throw new IllegalStateException(task + " failed");
+            }
+            blocked.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(5));
+                return "";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        }
+    }
+}
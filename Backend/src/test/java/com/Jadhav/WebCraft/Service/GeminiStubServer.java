@@ -0,0 +1,151 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * In-process stand-in for the Gemini REST API. Token counts are approximated as
+ * characters / 4 and prefill latency is simulated per uncached prompt token.
+ */
+class GeminiStubServer implements AutoCloseable {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final Map<String, Integer> cachedContents = new ConcurrentHashMap<>();
+    private final AtomicInteger cachesCreated = new AtomicInteger();
+    private final List<String> deletedCaches = new CopyOnWriteArrayList<>();
+    private final List<String> modelLookups = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch cacheCreationGate;
+    private final List<String> generateRequests = new CopyOnWriteArrayList<>();
+    private volatile Function<String, String> replies = body -> "{\"html\": \"<h1>Hi</h1>\", \"css\": \"body{}\", \"js\": \"let a = 1;\"}";
+    private volatile long prefillMicrosPerToken;
+
+    GeminiStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        // A held cache creation must not hold up generate calls
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    void replies(Function<String, String> replies) {
+        this.replies = replies;
+    }
+
+    void prefillMicrosPerToken(long micros) {
+        this.prefillMicrosPerToken = micros;
+    }
+
+    List<String> generateRequests() {
+        return generateRequests;
+    }
+
+    List<String> deletedCaches() {
+        return deletedCaches;
+    }
+
+    List<String> modelLookups() {
+        return modelLookups;
+    }
+
+    // Cache creation waits on the latch, standing in for a slow cachedContents call
+    void holdCacheCreation(CountDownLatch gate) {
+        this.cacheCreationGate = gate;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        String path = exchange.getRequestURI().getPath();
+
+        if (path.endsWith("/cachedContents")) {
+            CountDownLatch gate = cacheCreationGate;
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            JsonNode request = mapper.readTree(body);
+            String name = "cachedContents/stub-" + cachesCreated.getAndIncrement();
+            cachedContents.put(name, tokens(request.path("systemInstruction").toString()));
+            respond(exchange, Map.of("name", name));
+            return;
+        }
+        if (exchange.getRequestMethod().equals("GET") && path.contains("/models/")) {
+            String name = path.substring(path.indexOf("models/"));
+            modelLookups.add(name);
+            respond(exchange, Map.of("name", name, "inputTokenLimit", 1048576));
+            return;
+        }
+        if (path.contains("/cachedContents/") && exchange.getRequestMethod().equals("DELETE")) {
+            String name = path.substring(path.indexOf("cachedContents/"));
+            cachedContents.remove(name);
+            deletedCaches.add(name);
+            respond(exchange, Map.of());
+            return;
+        }
+
+        generateRequests.add(body);
+        JsonNode request = mapper.readTree(body);
+        int cached = cachedContents.getOrDefault(request.path("cachedContent").asText(""), 0);
+        int uncached = tokens(request.path("contents").toString()) + tokens(request.path("systemInstruction").toString());
+        sleepMicros(uncached * prefillMicrosPerToken);
+
+        String text = replies.apply(body);
+        respond(exchange, Map.of(
+                "candidates", List.of(Map.of(
+                        "content", Map.of("role", "model", "parts", List.of(Map.of("text", text))),
+                        "finishReason", "STOP")),
+                "usageMetadata", Map.of(
+                        "promptTokenCount", uncached + cached,
+                        "cachedContentTokenCount", cached,
+                        "candidatesTokenCount", tokens(text))));
+    }
+
+    private void respond(HttpExchange exchange, Object payload) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(payload);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static int tokens(String text) {
+        return text == null || text.isEmpty() || text.equals("\"\"") ? 0 : text.length() / 4;
+    }
+
+    private static void sleepMicros(long micros) {
+        try {
+            TimeUnit.MICROSECONDS.sleep(micros);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,160 @@
+package com.Jadhav.WebCraft.Service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationSchedulerTest {
+
+    private static GenerationScheduler newScheduler(int maxConcurrent, long agingMs, long queueTimeoutMs) {
+        GenerationScheduler scheduler = new GenerationScheduler();
+        ReflectionTestUtils.setField(scheduler, "maxConcurrent", maxConcurrent);
+        ReflectionTestUtils.setField(scheduler, "interactiveWeight", 8);
+        ReflectionTestUtils.setField(scheduler, "batchWeight", 3);
+        ReflectionTestUtils.setField(scheduler, "backgroundWeight", 1);
+        ReflectionTestUtils.setField(scheduler, "agingMs", agingMs);
+        ReflectionTestUtils.setField(scheduler, "queueTimeoutMs", queueTimeoutMs);
+        scheduler.init();
+        return scheduler;
+    }
+
+    @Test
+    void interactiveGoesFirstAndClientsShareTheirClass() throws Exception {
+        GenerationScheduler scheduler = newScheduler(1, 60_000, 10_000);
+        ExecutorService pool = Executors.newCachedThreadPool();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            Future<?> holder = pool.submit(() -> scheduler.run("holder", GenerationPriority.BATCH, 1, () -> {
+                blocker.await();
+                return null;
+            }));
+            awaitQueued(scheduler, 0);
+
+            List<Future<?>> jobs = new ArrayList<>();
+            int queued = 0;
+            for (int i = 0; i < 4; i++) {
+                jobs.add(submit(pool, scheduler, "bulk", GenerationPriority.BATCH, "bulk-" + i, order));
+                awaitQueued(scheduler, ++queued);
+            }
+            jobs.add(submit(pool, scheduler, "small", GenerationPriority.BATCH, "small", order));
+            awaitQueued(scheduler, ++queued);
+            jobs.add(submit(pool, scheduler, "user", GenerationPriority.INTERACTIVE, "user", order));
+            awaitQueued(scheduler, ++queued);
+
+            blocker.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            for (Future<?> job : jobs) {
+                job.get(5, TimeUnit.SECONDS);
+            }
+
+            assertEquals("user", order.get(0));
+            // The second batch client does not wait behind the whole backlog of the first
+            assertTrue(order.indexOf("small") <= 2, order.toString());
+            assertEquals(List.of("bulk-0", "bulk-1", "bulk-2", "bulk-3"),
+                    order.stream().filter(name -> name.startsWith("bulk")).toList());
+
+            Map<String, Object> batch = (Map<String, Object>) scheduler.snapshot().get("batch");
+            assertEquals(6L, batch.get("dispatched"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void agedBackgroundWorkIsNotStarvedAndQueueWaitIsBounded() throws Exception {
+        GenerationScheduler scheduler = newScheduler(1, 50, 10_000);
+        ExecutorService pool = Executors.newCachedThreadPool();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            Future<?> holder = pool.submit(() -> scheduler.run("holder", GenerationPriority.INTERACTIVE, 1, () -> {
+                blocker.await();
+                return null;
+            }));
+            awaitQueued(scheduler, 0);
+
+            List<Future<?>> jobs = new ArrayList<>();
+            jobs.add(submit(pool, scheduler, "nightly", GenerationPriority.BACKGROUND, "background", order));
+            awaitQueued(scheduler, 1);
+            Thread.sleep(80);
+            for (int i = 0; i < 3; i++) {
+                jobs.add(submit(pool, scheduler, "user-" + i, GenerationPriority.INTERACTIVE, "user-" + i, order));
+                awaitQueued(scheduler, 2 + i);
+            }
+
+            blocker.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            for (Future<?> job : jobs) {
+                job.get(5, TimeUnit.SECONDS);
+            }
+            assertEquals("background", order.get(0));
+            assertEquals(1L, ((Map<String, Object>) scheduler.snapshot().get("background")).get("aged"));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        GenerationScheduler busy = newScheduler(1, 60_000, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() -> {
+            try {
+                busy.run("a", GenerationPriority.INTERACTIVE, 1, () -> {
+                    release.await();
+                    return null;
+                });
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        awaitRunning(busy);
+        assertThrows(TimeoutException.class, () -> busy.run("b", GenerationPriority.BATCH, 1, () -> null));
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        Map<String, Object> batch = (Map<String, Object>) busy.snapshot().get("batch");
+        assertEquals(1L, batch.get("timedOut"));
+        assertEquals(0, batch.get("queued"));
+        assertEquals(0, busy.snapshot().get("running"));
+    }
+
+    private static Future<?> submit(ExecutorService pool, GenerationScheduler scheduler, String client,
+                                    GenerationPriority priority, String name, List<String> order) {
+        return pool.submit(() -> scheduler.run(client, priority, 1, () -> order.add(name)));
+    }
+
+    private static int queued(GenerationScheduler scheduler) {
+        int total = 0;
+        for (GenerationPriority priority : GenerationPriority.values()) {
+            total += (int) ((Map<String, Object>) scheduler.snapshot().get(priority.name().toLowerCase())).get("queued");
+        }
+        return total;
+    }
+
+    private static void awaitQueued(GenerationScheduler scheduler, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queued(scheduler) != expected || (int) scheduler.snapshot().get("running") != 1) {
+            assertTrue(System.nanoTime() < deadline, "queue never reached " + expected);
+            Thread.sleep(2);
+        }
+    }
+
+    private static void awaitRunning(GenerationScheduler scheduler) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((int) scheduler.snapshot().get("running") != 1) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(2);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.google.genai.errors.ClientException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelRouterTest {
+
+    @Test
+    void routesToRequestedTierAndFallsBackToFasterOnError() throws Exception {
+        ModelRouter router = newRouter(null, "");
+        router.register(new FakeProvider("fast", LatencyTier.FAST, 4, 0, false));
+        router.register(new FakeProvider("balanced", LatencyTier.BALANCED, 4, 0, true));
+        router.register(new FakeProvider("quality", LatencyTier.QUALITY, 4, 0, false));
+
+        assertEquals("quality", router.generate("x", LatencyTier.QUALITY));
+        assertEquals("fast", router.generate("x", LatencyTier.FAST));
+        // balanced always fails, so the next faster tier answers
+        assertEquals("fast", router.generate("x", LatencyTier.BALANCED));
+    }
+
+    @Test
+    void neverFallsBackToASlowerTier() {
+        ModelRouter router = newRouter(null, "");
+        router.register(new FakeProvider("fast", LatencyTier.FAST, 4, 0, true));
+        FakeProvider quality = new FakeProvider("quality", LatencyTier.QUALITY, 4, 0, false);
+        router.register(quality);
+
+        assertThrows(IllegalStateException.class, () -> router.generate("x", LatencyTier.FAST));
+        assertEquals(0, quality.calls.get());
+    }
+
+    @Test
+    void rejectedRequestsAreNotRetriedElsewhereButOpenCircuitsAre() throws Exception {
+        ModelRouter router = newRouter(null, "");
+        FakeProvider balanced = new FakeProvider("balanced", LatencyTier.BALANCED, 4, 0, false);
+        FakeProvider fast = new FakeProvider("fast", LatencyTier.FAST, 4, 0, false);
+        router.register(balanced);
+        router.register(fast);
+
+        balanced.error = new Exception("Failed to generate content from AI", new ClientException(400, "INVALID_ARGUMENT", "bad prompt"));
+        Exception rejected = assertThrows(Exception.class, () -> router.generate("x", LatencyTier.BALANCED));
+        assertSame(balanced.error, rejected);
+        // Nor does a rejected request count against the provider's health
+        assertEquals(0.0, ((Map<?, ?>) router.snapshot().get("balanced")).get("errorRate"));
+        assertEquals(0, fast.calls.get());
+
+        // Breakers and quotas are per model, so an open circuit or a 429 moves on
+        ReflectionTestUtils.setField(router, "maxErrorRate", 1.0);
+        balanced.error = new CircuitBreaker.OpenException("gemini/balanced", 5_000);
+        assertEquals("fast", router.generate("x", LatencyTier.BALANCED));
+        balanced.error = new Exception("Failed to generate content from AI", new ClientException(429, "RESOURCE_EXHAUSTED", "quota"));
+        assertEquals("fast", router.generate("x", LatencyTier.BALANCED));
+        assertEquals(3, balanced.calls.get());
+        assertEquals(2, fast.calls.get());
+    }
+
+    @Test
+    void skipsProviderWhoseP95ExceedsTierBudget() throws Exception {
+        ModelRouter router = newRouter(null, "");
+        ReflectionTestUtils.setField(router, "balancedBudgetMs", 20L);
+        router.register(new FakeProvider("slow", LatencyTier.BALANCED, 4, 50, false));
+        router.register(new FakeProvider("fast", LatencyTier.FAST, 4, 0, false));
+
+        assertEquals("slow", router.generate("x", LatencyTier.BALANCED));
+        assertEquals("fast", router.generate("x", LatencyTier.BALANCED));
+    }
+
+    @Test
+    void overflowsToFasterProviderWhenPrimaryIsSaturated() throws Exception {
+        ModelRouter router = newRouter(null, "");
+        FakeProvider primary = new FakeProvider("primary", LatencyTier.BALANCED, 1, 0, false);
+        primary.gate = new CountDownLatch(1);
+        router.register(primary);
+        router.register(new FakeProvider("fast", LatencyTier.FAST, 4, 0, false));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> blocked = executor.submit(() -> router.generate("x", LatencyTier.BALANCED));
+            while (primary.started.getCount() > 0) {
+                Thread.onSpinWait();
+            }
+            assertEquals("fast", router.generate("x", LatencyTier.BALANCED));
+            primary.gate.countDown();
+            assertEquals("primary", blocked.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void statsKeepWorkingPastTwoBillionCalls() throws Exception {
+        ModelRouter router = newRouter(null, "");
+        router.register(new FakeProvider("fast", LatencyTier.FAST, 4, 0, false));
+        Object routed = ((List<?>) ReflectionTestUtils.getField(router, "providers")).get(0);
+        ReflectionTestUtils.setField(routed, "latencyCount", (long) Integer.MAX_VALUE);
+        ReflectionTestUtils.setField(routed, "outcomeCount", (long) Integer.MAX_VALUE);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("fast", router.generate("x", LatencyTier.FAST));
+        }
+        assertEquals(0.0, ((Map<?, ?>) router.snapshot().get("fast")).get("errorRate"));
+    }
+
+    @Test
+    void longPromptsAreNotSentToFastTier() {
+        ModelRouter router = newRouter(null, "");
+        assertEquals(LatencyTier.BALANCED, router.effectiveTier("x".repeat(2001), LatencyTier.FAST));
+        assertEquals(LatencyTier.FAST, router.effectiveTier("short", LatencyTier.FAST));
+    }
+
+    static ModelRouter newRouter(GoogleGenAIService genAIService, String geminiModels) {
+        ModelRouter router = new ModelRouter();
+        ReflectionTestUtils.setField(router, "googleGenAIService", genAIService);
+        ReflectionTestUtils.setField(router, "additionalProviders", List.of());
+        ReflectionTestUtils.setField(router, "geminiModels", geminiModels);
+        ReflectionTestUtils.setField(router, "pinnedProvider", "");
+        ReflectionTestUtils.setField(router, "shortPromptChars", 0);
+        ReflectionTestUtils.setField(router, "longPromptChars", 2000);
+        ReflectionTestUtils.setField(router, "fastBudgetMs", 20000L);
+        ReflectionTestUtils.setField(router, "balancedBudgetMs", 60000L);
+        ReflectionTestUtils.setField(router, "qualityBudgetMs", 120000L);
+        ReflectionTestUtils.setField(router, "maxErrorRate", 0.5);
+        ReflectionTestUtils.setField(router, "queueTimeoutMs", 1000L);
+        return router;
+    }
+
+    private static final class FakeProvider implements ModelProvider {
+        private final String name;
+        private final LatencyTier tier;
+        private final int maxConcurrency;
+        private final long latencyMs;
+        private final boolean failing;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile CountDownLatch gate;
+        private volatile Exception error;
+
+        FakeProvider(String name, LatencyTier tier, int maxConcurrency, long latencyMs, boolean failing) {
+            this.name = name;
+            this.tier = tier;
+            this.maxConcurrency = maxConcurrency;
+            this.latencyMs = latencyMs;
+            this.failing = failing;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public LatencyTier getTier() {
+            return tier;
+        }
+
+        @Override
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        @Override
+        public String complete(GenerationTask task, String prompt) throws Exception {
+            return generate(prompt);
+        }
+
+        @Override
+        public String generate(String prompt) throws Exception {
+            started.countDown();
+            calls.incrementAndGet();
+            if (error != null) {
+                throw error;
+            }
+            if (gate != null) {
+                gate.await();
+            }
+            Thread.sleep(latencyMs);
+            if (failing) {
+                throw new IllegalStateException(name + " unavailable");
+            }
+            return name;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetlifyDiagnosticsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger apiRequests = new AtomicInteger();
+    private final AtomicInteger sitesCreated = new AtomicInteger();
+    // The account and site lookups each wait here for the other
+    private final CountDownLatch lookupsStarted = new CountDownLatch(2);
+    private final AtomicInteger lookupsInFlight = new AtomicInteger();
+    private final AtomicInteger peakLookupsInFlight = new AtomicInteger();
+    private final Set<String> storedDigests = ConcurrentHashMap.newKeySet();
+    private volatile String probeContent = "";
+    private HttpServer netlify;
+    private NetlifyDeploymentService service;
+
+    @BeforeEach
+    void startFakeNetlify() throws IOException {
+        netlify = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        String base = "http://localhost:" + netlify.getAddress().getPort();
+        Map<String, Object> probeSite = Map.of("id", "probe-id", "name", "webcraft-probe-test", "ssl_url", base + "/site");
+
+        netlify.createContext("/user", exchange -> {
+            apiRequests.incrementAndGet();
+            awaitOtherLookup();
+            respond(exchange, 200, Map.of("email", "owner@example.com"));
+        });
+        netlify.createContext("/sites", exchange -> {
+            apiRequests.incrementAndGet();
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (path.equals("/sites") && method.equals("GET")) {
+                awaitOtherLookup();
+                respond(exchange, 200, List.of(Map.of("id", "a", "name", "bakery", "ssl_url", "https://bakery.netlify.app")));
+            } else if (path.equals("/sites") && method.equals("POST")) {
+                sitesCreated.incrementAndGet();
+                respond(exchange, 201, probeSite);
+            } else if (path.equals("/sites/webcraft-probe-test.netlify.app") || path.equals("/sites/probe-id")) {
+                respond(exchange, sitesCreated.get() > 0 ? 200 : 404, sitesCreated.get() > 0 ? probeSite : Map.of());
+            } else if (path.equals("/sites/probe-id/deploys")) {
+                Map<?, ?> body = objectMapper.readValue(exchange.getRequestBody(), Map.class);
+                List<Object> required = ((Map<?, ?>) body.get("files")).values().stream()
+                        .filter(digest -> !storedDigests.contains(digest))
+                        .map(Object.class::cast)
+                        .toList();
+                respond(exchange, 200, Map.of("id", "deploy-" + apiRequests.get(), "required", required));
+            } else {
+                respond(exchange, 404, Map.of());
+            }
+        });
+        netlify.createContext("/deploys", exchange -> {
+            apiRequests.incrementAndGet();
+            byte[] bytes = exchange.getRequestBody().readAllBytes();
+            storedDigests.add(sha1(bytes));
+            if (exchange.getRequestURI().getPath().endsWith("/probe.txt")) {
+                probeContent = new String(bytes, StandardCharsets.UTF_8);
+            }
+            respond(exchange, 200, Map.of());
+        });
+        netlify.createContext("/site/probe.txt", exchange -> {
+            byte[] body = probeContent.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        netlify.setExecutor(Executors.newCachedThreadPool());
+        netlify.start();
+
+        NetlifyRateLimiter limiter = new NetlifyRateLimiter();
+        ReflectionTestUtils.setField(limiter, "capacity", 10);
+        ReflectionTestUtils.setField(limiter, "refillPerMinute", 600.0);
+        ReflectionTestUtils.setField(limiter, "maxBackoffSeconds", 60L);
+
+        service = new NetlifyDeploymentService();
+        ReflectionTestUtils.setField(service, "netlifyToken", "test-token");
+        ReflectionTestUtils.setField(service, "apiUrl", base);
+        ReflectionTestUtils.setField(service, "liveCheckIntervalMs", 10L);
+        ReflectionTestUtils.setField(service, "diagnosticsCacheTtlSeconds", 60L);
+        ReflectionTestUtils.setField(service, "probeSiteName", "webcraft-probe-test");
+        ReflectionTestUtils.setField(service, "diagnosticsSitesLimit", 20);
+        ReflectionTestUtils.setField(service, "rateLimiter", limiter);
+        ReflectionTestUtils.setField(service, "circuitBreakers", CircuitBreakerTest.newBreakers());
+    }
+
+    @AfterEach
+    void stopFakeNetlify() {
+        service.shutdown();
+        netlify.stop(0);
+    }
+
+    @Test
+    void fastModeRunsChecksConcurrentlyAndCachesTheResult() {
+        Map<String, Object> first = service.runDiagnostics(false, false);
+
+        assertEquals(true, first.get("tokenValid"));
+        assertEquals(false, first.get("cached"));
+        assertEquals(1, ((List<?>) first.get("existingSites")).size());
+        assertFalse(first.containsKey("testDeploymentUrl"));
+        // Each lookup only answers once the other has arrived, so run one after the other they peak at one
+        assertEquals(2, peakLookupsInFlight.get());
+
+        int requests = apiRequests.get();
+        Map<String, Object> second = service.runDiagnostics(false, false);
+        assertEquals(true, second.get("cached"));
+        assertEquals(requests, apiRequests.get());
+
+        service.runDiagnostics(false, true);
+        assertEquals(requests + 2, apiRequests.get());
+        assertEquals(0, sitesCreated.get());
+    }
+
+    @Test
+    void deployModeReusesOneProbeSiteAndUploadsOnlyTheMarker() {
+        Map<String, Object> first = service.runDiagnostics(true, false);
+        assertEquals(true, first.get("siteAccessible"), String.valueOf(first));
+        assertEquals(2, first.get("uploadedFiles"));
+
+        Map<String, Object> second = service.runDiagnostics(true, true);
+        assertEquals(true, second.get("siteAccessible"), String.valueOf(second));
+        assertEquals(1, second.get("uploadedFiles"));
+        assertTrue((long) second.get("uploadedBytes") < 100);
+        assertEquals(first.get("testDeploymentUrl"), second.get("testDeploymentUrl"));
+        assertEquals(1, sitesCreated.get());
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void awaitOtherLookup() {
+        peakLookupsInFlight.accumulateAndGet(lookupsInFlight.incrementAndGet(), Math::max);
+        try {
+            lookupsStarted.countDown();
+            lookupsStarted.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lookupsInFlight.decrementAndGet();
+        }
+    }
+
+    private static String sha1(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(bytes));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
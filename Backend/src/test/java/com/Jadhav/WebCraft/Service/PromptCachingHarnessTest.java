@@ -0,0 +1,146 @@
+package com.Jadhav.WebCraft.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares prompt tokens, request size and latency of the inline prompt against the
+ * system instruction and cached-content layouts, using a stub that charges simulated
+ * prefill time for every uncached prompt token.
+ */
+class PromptCachingHarnessTest {
+
+    private static final int REQUESTS = 20;
+    private static final String DESCRIPTION = "A portfolio site for a landscape photographer with a gallery and contact form";
+
+    private GeminiStubServer stub;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        stub = new GeminiStubServer();
+        stub.prefillMicrosPerToken(20);
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void cachedSystemInstructionSendsOnlyTheDescription() throws Exception {
+        Map<String, Object> inline = run(false, false);
+        Map<String, Object> systemInstruction = run(true, false);
+        Map<String, Object> cached = run(true, true);
+
+        assertEquals("systemInstruction", systemInstruction.get("promptMode"));
+        assertEquals("cachedContent", cached.get("promptMode"));
+        assertTrue((long) cached.get("requestBytes") * 5 < (long) inline.get("requestBytes"));
+        long inlineUncached = (long) inline.get("avgPromptTokens") - (long) inline.get("avgCachedTokens");
+        long cachedUncached = (long) cached.get("avgPromptTokens") - (long) cached.get("avgCachedTokens");
+        assertTrue(cachedUncached * 5 < inlineUncached);
+    }
+
+    @Test
+    void cacheIsRefreshedOffTheRequestPathAndTheOldOneDeleted() throws Exception {
+        GoogleGenAIService service = newService(true, true, 2L);
+        ReflectionTestUtils.setField(service, "timeoutMs", 500);
+        CountDownLatch gate = new CountDownLatch(1);
+        stub.holdCacheCreation(gate);
+
+        // The first request does not wait for the cache it starts
+        service.generateContent(DESCRIPTION);
+        assertFalse(stub.generateRequests().getLast().contains("cachedContent"));
+        gate.countDown();
+        awaitCachedPrompt(service);
+        service.generateContent(DESCRIPTION);
+        assertTrue(stub.generateRequests().getLast().contains("cachedContents/stub-0"));
+
+        // Past refreshAt a request starts the next cache; the first is deleted once requests are done with it
+        Thread.sleep(2000);
+        service.generateContent(DESCRIPTION);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!stub.deletedCaches().contains("cachedContents/stub-0") && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(List.of("cachedContents/stub-0"), stub.deletedCaches());
+        service.generateContent(DESCRIPTION);
+        assertTrue(stub.generateRequests().getLast().contains("cachedContents/stub-1"));
+        service.shutdown();
+    }
+
+    @Test
+    void cachingStaysOffWhileTheInstructionIsBelowTheMinimum() throws Exception {
+        GoogleGenAIService service = newService(true, true, 3600L);
+        ReflectionTestUtils.setField(service, "contextCacheMinTokens", 1_000_000);
+        service.init();
+
+        service.generateContent(DESCRIPTION);
+        assertEquals("systemInstruction", service.getUsageStatistics().get("promptMode"));
+        assertFalse(stub.generateRequests().getLast().contains("cachedContent"));
+        service.shutdown();
+    }
+
+    private Map<String, Object> run(boolean systemInstruction, boolean contextCache) throws Exception {
+        GoogleGenAIService service = newService(systemInstruction, contextCache, 3600L);
+
+        // Warm up client, JIT and (when enabled) the cached content outside the measurement
+        service.generateContent(DESCRIPTION);
+        if (contextCache) {
+            awaitCachedPrompt(service);
+        }
+        service = withFreshStatistics(service);
+
+        int before = stub.generateRequests().size();
+        for (int i = 0; i < REQUESTS; i++) {
+            service.generateContent(DESCRIPTION + " #" + i);
+        }
+        long requestBytes = stub.generateRequests().subList(before, before + REQUESTS).stream()
+                .mapToLong(String::length).sum() / REQUESTS;
+
+        Map<String, Object> stats = service.getUsageStatistics();
+        stats.put("requestBytes", requestBytes);
+        return stats;
+    }
+
+    private GoogleGenAIService newService(boolean systemInstruction, boolean contextCache, long ttlSeconds) {
+        GoogleGenAIService service = new GoogleGenAIService();
+        ReflectionTestUtils.setField(service, "apiKey", "test-key");
+        ReflectionTestUtils.setField(service, "baseUrl", stub.url());
+        ReflectionTestUtils.setField(service, "structuredOutput", true);
+        ReflectionTestUtils.setField(service, "systemInstruction", systemInstruction);
+        ReflectionTestUtils.setField(service, "contextCache", contextCache);
+        ReflectionTestUtils.setField(service, "contextCacheTtlSeconds", ttlSeconds);
+        // The stub caches any size
+        ReflectionTestUtils.setField(service, "contextCacheMinTokens", 0);
+        ReflectionTestUtils.setField(service, "timeoutMs", 120000);
+        ReflectionTestUtils.setField(service, "circuitBreakers", CircuitBreakerTest.newBreakers());
+        service.init();
+        return service;
+    }
+
+    private static void awaitCachedPrompt(GoogleGenAIService service) throws InterruptedException {
+        Map<?, ?> cachedPrompts = (Map<?, ?>) ReflectionTestUtils.getField(service, "cachedPrompts");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (cachedPrompts.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertFalse(cachedPrompts.isEmpty(), "cached content was never created");
+    }
+
+    private GoogleGenAIService withFreshStatistics(GoogleGenAIService service) {
+        for (String counter : new String[]{"requests", "promptTokens", "cachedTokens", "outputTokens", "latencyNanos"}) {
+            ((LongAdder) ReflectionTestUtils.getField(service, counter)).reset();
+        }
+        return service;
+    }
+}
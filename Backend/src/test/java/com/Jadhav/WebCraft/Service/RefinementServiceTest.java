@@ -0,0 +1,117 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefinementServiceTest {
+
+    private static final String HTML = """
+            <body>
+                <header class="hero" id="home"><h1>Roastery</h1><div><div>nested</div></div></header>
+                <section class="features" id="features"><article class="feature">Fast</article></section>
+                <footer class="footer" id="contact"><p>&copy; Roastery</p></footer>
+            </body>
+            """;
+    private static final String CSS = """
+            body { margin: 0; }
+            .hero { padding: 4rem; background: #333; }
+            .features { display: grid; }
+            @media (max-width: 600px) { .hero { padding: 2rem; } .features { display: block; } }
+            .footer { text-align: center; }
+            """;
+    private static final String JS = """
+            function scrollToFeatures() {
+                const el = document.getElementById('features');
+                if (el) { el.scrollIntoView({ behavior: 'smooth' }); }
+            }
+            const showBanner = (text) => {
+                alert(`Hello {${text}}`);
+            };
+            """;
+
+    private final RefinementService service = new RefinementService();
+
+    @Test
+    void locatesTheSmallestRelevantFragment() {
+        RefinementService.Fragment css = service.locate(HTML, CSS, JS, "Make the hero background darker", null);
+        assertEquals(RefinementService.Kind.CSS, css.kind());
+        assertEquals(".hero { padding: 4rem; background: #333; }\n\n@media (max-width: 600px) {\n.hero { padding: 2rem; }\n}",
+                css.text());
+
+        RefinementService.Fragment html = service.locate(HTML, CSS, JS, "Add a third item to the features section", null);
+        assertEquals(RefinementService.Kind.HTML, html.kind());
+        assertEquals("<section class=\"features\" id=\"features\"><article class=\"feature\">Fast</article></section>", html.text());
+
+        RefinementService.Fragment nested = service.locate(HTML, CSS, JS, "Change the heading", "#home");
+        assertTrue(nested.text().endsWith("<div><div>nested</div></div></header>"));
+
+        RefinementService.Fragment js = service.locate(HTML, CSS, JS, "Make showBanner use a toast instead of alert", null);
+        assertEquals(RefinementService.Kind.JS, js.kind());
+        assertTrue(js.text().startsWith("const showBanner"));
+        assertTrue(js.text().endsWith("};"));
+    }
+
+    @Test
+    void patchIsAppliedServerSideAndOnlyTheFragmentIsSent() throws Exception {
+        AtomicReference<String> sentPrompt = new AtomicReference<>();
+        useReply(sentPrompt, "```css\n.hero { padding: 4rem; background: #111; }\n```");
+
+        GenerateResponse refined = service.refine(new GenerateResponse(HTML, CSS, JS),
+                "Make the hero background darker", null, LatencyTier.FAST);
+
+        assertFalse(sentPrompt.get().contains(".footer"));
+        assertTrue(sentPrompt.get().length() < HTML.length() + CSS.length() + JS.length());
+        assertEquals(HTML, refined.getHtml());
+        assertEquals(JS, refined.getJs());
+        assertTrue(refined.getCss().startsWith("body { margin: 0; }\n.hero { padding: 4rem; background: #111; }\n"));
+        assertTrue(refined.getCss().contains("@media (max-width: 600px) { .hero { padding: 2rem; } .features { display: block; } }"));
+        assertTrue(refined.getCss().endsWith(".footer { text-align: center; }\n"));
+        assertNull(refined.getWarnings());
+    }
+
+    @Test
+    void mediaOverridesAreEditedInPlaceAfterTheBaseRules() throws Exception {
+        AtomicReference<String> sentPrompt = new AtomicReference<>();
+        useReply(sentPrompt, """
+                .hero { padding: 4rem; background: #111; }
+
+                @media (max-width: 600px) {
+                  .hero { padding: 1rem; background: #000; }
+                }
+                """);
+
+        GenerateResponse refined = service.refine(new GenerateResponse(HTML, CSS, JS),
+                "Make the hero background darker", null, LatencyTier.FAST);
+
+        assertFalse(sentPrompt.get().contains("display: block"));
+        assertEquals("""
+                body { margin: 0; }
+                .hero { padding: 4rem; background: #111; }
+                .features { display: grid; }
+                @media (max-width: 600px) { .hero { padding: 1rem; background: #000; } .features { display: block; } }
+                .footer { text-align: center; }
+                """, refined.getCss());
+    }
+
+    private void useReply(AtomicReference<String> sentPrompt, String reply) {
+        ModelProvider provider = new ModelProvider() {
+            public String getName() { return "recorder"; }
+            public LatencyTier getTier() { return LatencyTier.FAST; }
+            public int getMaxConcurrency() { return 1; }
+            public String generate(String prompt) { throw new UnsupportedOperationException(); }
+            public String complete(GenerationTask task, String prompt) {
+                sentPrompt.set(prompt);
+                return reply;
+            }
+        };
+        ModelRouter router = ModelRouterTest.newRouter(null, "");
+        router.register(provider);
+        ReflectionTestUtils.setField(service, "modelRouter", router);
+        ReflectionTestUtils.setField(service, "siteConsistencyChecker", new SiteConsistencyChecker());
+    }
+}
@@ -0,0 +1,108 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.config.JacksonConfig;
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SiteContentTest {
+
+    @TempDir
+    Path dir;
+
+    private SiteRepository repository;
+    private String html;
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = new SiteRepository();
+        ReflectionTestUtils.setField(repository, "directory", dir.toString());
+        ReflectionTestUtils.setField(repository, "keyframeEvery", 4);
+        ReflectionTestUtils.setField(repository, "maxVersionsPerSite", 20);
+        ReflectionTestUtils.setField(repository, "maxAgeDays", 30L);
+        ReflectionTestUtils.setField(repository, "compactRatio", 0.5);
+        ReflectionTestUtils.setField(repository, "minCompactBytes", Long.MAX_VALUE);
+        ReflectionTestUtils.setField(repository, "sweepMs", 3_600_000L);
+        ReflectionTestUtils.setField(repository, "mapWindowBytes", 1 << 30);
+        repository.init();
+
+        StringBuilder page = new StringBuilder("<!DOCTYPE html>\n<html><head><title>Café \"Crème\"</title></head><body>\n");
+        for (int i = 0; page.length() < 1024 * 1024; i++) {
+            page.append("<section id=\"s").append(i).append("\"><h2>Section ").append(i)
+                    .append(" ✓</h2>\t<p>Tab\\slash & \"quotes\" 🍰</p></section>\n");
+        }
+        html = page.append("<script>if (a < b) {}</script></body></html>\n").toString();
+    }
+
+    @Test
+    void storedBytesAreServedAsTheSameJson() throws Exception {
+        GenerateResponse generated = new GenerateResponse(html, "body { color: red; }", "console.log('é');");
+        repository.save("site", generated);
+        assertTrue(generated.getHtmlContent().hasUtf8(), "encoded once when stored, reused for the response");
+
+        GenerateResponse stored = repository.load("site", null).orElseThrow();
+        ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+        String expected = objectMapper.writeValueAsString(new GenerateResponse(html, "body { color: red; }", "console.log('é');"));
+        assertEquals(expected, objectMapper.writeValueAsString(stored));
+
+        // Raw bytes keep 🍰 as four UTF-8 bytes where writeString escapes the surrogate pair; same JSON value
+        byte[] fromBytes = objectMapper.writeValueAsBytes(stored);
+        assertEquals(objectMapper.readTree(expected), objectMapper.readTree(fromBytes));
+        assertEquals(html, objectMapper.readValue(fromBytes, GenerateResponse.class).getHtml());
+        assertNull(objectMapper.readValue("{\"html\": null}", GenerateResponse.class).getHtml());
+    }
+
+    @Test
+    void deployingAStoredSiteSkipsTheStringRoundTrip() throws Exception {
+        repository.save("site", new GenerateResponse(html, "body { color: red; }", "console.log('ok');"));
+        NetlifyDeploymentService netlify = new NetlifyDeploymentService();
+        ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+        long size = html.getBytes(StandardCharsets.UTF_8).length;
+
+        long viaBytes = allocated(() -> {
+            GenerateResponse site = repository.load("site", null).orElseThrow();
+            try (DeploymentUpload upload = DeploymentUpload.of(site)) {
+                Files.delete(netlify.createDeploymentZip(upload));
+            }
+            objectMapper.writeValue(OutputStream.nullOutputStream(), site);
+        });
+        long viaStrings = allocated(() -> {
+            GenerateResponse site = repository.load("site", null).orElseThrow();
+            try (DeploymentUpload upload = DeploymentUpload.of(site.getHtml(), site.getCss(), site.getJs())) {
+                Files.delete(netlify.createDeploymentZip(upload));
+            }
+            objectMapper.writeValue(OutputStream.nullOutputStream(), new GenerateResponse(site.getHtml(), site.getCss(), site.getJs()));
+        });
+
+        // The String route decodes the page (UTF-16, as it is not Latin-1) and encodes it again
+        assertTrue(viaBytes + 2 * size < viaStrings,
+                "bytes " + viaBytes / 1024 + " KB vs strings " + viaStrings / 1024 + " KB for a " + size / 1024 + " KB page");
+    }
+
+    private static long allocated(Task task) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 8; i++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            task.run();
+            best = Math.min(best, threads.getCurrentThreadAllocatedBytes() - before);
+        }
+        return best;
+    }
+}
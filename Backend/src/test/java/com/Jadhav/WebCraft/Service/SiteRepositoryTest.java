@@ -0,0 +1,190 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SiteRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    private SiteRepository open(int maxVersions, long minCompactBytes) throws Exception {
+        SiteRepository repository = new SiteRepository();
+        ReflectionTestUtils.setField(repository, "directory", dir.toString());
+        ReflectionTestUtils.setField(repository, "keyframeEvery", 4);
+        ReflectionTestUtils.setField(repository, "maxVersionsPerSite", maxVersions);
+        ReflectionTestUtils.setField(repository, "maxAgeDays", 30L);
+        ReflectionTestUtils.setField(repository, "compactRatio", 0.5);
+        ReflectionTestUtils.setField(repository, "minCompactBytes", minCompactBytes);
+        ReflectionTestUtils.setField(repository, "sweepMs", 3_600_000L);
+        // Small enough that records span several windows and some straddle two
+        ReflectionTestUtils.setField(repository, "mapWindowBytes", 4096);
+        repository.init();
+        return repository;
+    }
+
+    private static GenerateResponse site(int revision) {
+        StringBuilder html = new StringBuilder("<html><body>\n");
+        for (int i = 0; i < 500; i++) {
+            html.append("<p id=\"p").append(i).append("\">Paragraph ").append(i).append(" ✓</p>\n");
+        }
+        html.append("<h1>Revision ").append(revision).append("</h1>\n</body></html>\n");
+        return new GenerateResponse(html.toString(), "body { color: #" + (100 + revision) + "; }\n", "console.log('v" + revision + "');\n");
+    }
+
+    @Test
+    void versionsSurviveRestartAndAreStoredAsDeltas() throws Exception {
+        SiteRepository repository = open(20, Long.MAX_VALUE);
+        for (int revision = 1; revision <= 6; revision++) {
+            assertEquals(revision, repository.save("site-a", site(revision)));
+        }
+        repository.close();
+
+        // Simulate a crash in the middle of an append
+        Files.write(dir.resolve("sites.log"), new byte[]{0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+
+        SiteRepository reopened = open(20, Long.MAX_VALUE);
+        List<Map<String, Object>> versions = reopened.versions("site-a");
+        assertEquals(6, versions.size());
+        assertEquals(false, versions.get(0).get("delta"));
+        assertEquals(true, versions.get(1).get("delta"));
+        assertEquals(false, versions.get(4).get("delta"));
+        assertTrue((int) versions.get(1).get("storedBytes") < (int) versions.get(0).get("storedBytes") / 4);
+
+        for (int revision = 1; revision <= 6; revision++) {
+            GenerateResponse loaded = reopened.load("site-a", revision).orElseThrow();
+            assertEquals(site(revision).getHtml(), loaded.getHtml());
+            assertEquals(site(revision).getCss(), loaded.getCss());
+            assertEquals(site(revision).getJs(), loaded.getJs());
+        }
+        assertEquals(site(6).getHtml(), reopened.load("site-a", null).orElseThrow().getHtml());
+        assertTrue(reopened.load("site-a", 7).isEmpty());
+
+        Map<String, String> diff = reopened.diff("site-a", 2, 3).orElseThrow();
+        assertEquals("@@ -502,1 +502,1 @@\n-<h1>Revision 2</h1>\n+<h1>Revision 3</h1>\n", diff.get("html"));
+        assertEquals(3, diff.size());
+        reopened.close();
+    }
+
+    @Test
+    void onlyOneInstanceOpensTheDirectory() throws Exception {
+        SiteRepository repository = open(20, 0);
+        repository.save("site-h", site(1));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> open(20, 0));
+        assertTrue(e.getMessage().contains("in use"), e.getMessage());
+        assertEquals(site(1).getHtml(), repository.load("site-h", null).orElseThrow().getHtml());
+        repository.close();
+
+        SiteRepository reopened = open(20, 0);
+        assertEquals(1, reopened.latestVersion("site-h").getAsInt());
+        reopened.close();
+    }
+
+    @Test
+    void retentionDropsOldVersionsAndCompactionReclaimsSpace() throws Exception {
+        SiteRepository repository = open(3, 0);
+        for (int revision = 1; revision <= 10; revision++) {
+            repository.save("site-b", site(revision));
+        }
+        repository.save("site-c", site(1));
+        // Saves only queue compaction; this waits for it
+        repository.compact();
+
+        List<Map<String, Object>> versions = repository.versions("site-b");
+        assertEquals(List.of(8, 9, 10), versions.stream().map(v -> v.get("version")).toList());
+        assertEquals(false, versions.get(0).get("delta"));
+        assertTrue((long) repository.stats().get("deadBytes") < (long) repository.stats().get("segmentBytes"));
+
+        for (int revision = 8; revision <= 10; revision++) {
+            assertEquals(site(revision).getHtml(), repository.load("site-b", revision).orElseThrow().getHtml());
+        }
+        assertTrue(repository.load("site-b", 7).isEmpty());
+        repository.close();
+
+        SiteRepository reopened = open(3, 0);
+        assertEquals(List.of(8, 9, 10), reopened.versions("site-b").stream().map(v -> v.get("version")).toList());
+        assertEquals(site(1).getJs(), reopened.load("site-c", null).orElseThrow().getJs());
+        reopened.close();
+    }
+
+    @Test
+    void sitesNotSavedWithinMaxAgeAreDroppedWhole() throws Exception {
+        SiteRepository repository = open(3, 0);
+        for (int revision = 1; revision <= 2; revision++) {
+            repository.save("site-d", site(revision));
+        }
+        repository.save("site-e", site(1));
+
+        long now = System.currentTimeMillis();
+        repository.sweep(now);
+        assertEquals(List.of(1, 2), repository.versions("site-d").stream().map(v -> v.get("version")).toList());
+
+        repository.sweep(now + Duration.ofDays(31).toMillis());
+        assertTrue(repository.latestVersion("site-d").isEmpty());
+        assertTrue(repository.load("site-e", null).isEmpty());
+        assertEquals(0, repository.stats().get("sites"));
+        assertEquals(0L, repository.stats().get("segmentBytes"));
+
+        // The id starts over when it is saved to again
+        assertEquals(1, repository.save("site-d", site(3)));
+        repository.close();
+
+        SiteRepository reopened = open(3, 0);
+        assertEquals(List.of(1), reopened.versions("site-d").stream().map(v -> v.get("version")).toList());
+        assertEquals(site(3).getHtml(), reopened.load("site-d", null).orElseThrow().getHtml());
+        assertTrue(reopened.latestVersion("site-e").isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    void savesMadeWhileCompactingAreKept() throws Exception {
+        SiteRepository repository = open(3, Long.MAX_VALUE);
+        for (int revision = 1; revision <= 10; revision++) {
+            repository.save("site-f", site(revision));
+        }
+
+        try (ExecutorService pool = Executors.newSingleThreadExecutor()) {
+            Future<?> compacting = pool.submit(() -> {
+                for (int i = 0; i < 20; i++) {
+                    repository.compact();
+                }
+                return null;
+            });
+            for (int revision = 11; revision <= 40; revision++) {
+                repository.save("site-f", site(revision));
+                repository.save("site-g", site(revision));
+            }
+            compacting.get();
+        }
+
+        assertEquals(List.of(38, 39, 40), repository.versions("site-f").stream().map(v -> v.get("version")).toList());
+        assertEquals(List.of(28, 29, 30), repository.versions("site-g").stream().map(v -> v.get("version")).toList());
+        for (int revision = 38; revision <= 40; revision++) {
+            assertEquals(site(revision).getHtml(), repository.load("site-f", revision).orElseThrow().getHtml());
+            assertEquals(site(revision).getCss(), repository.load("site-g", revision - 10).orElseThrow().getCss());
+        }
+        repository.compact();
+        assertEquals(0L, repository.stats().get("deadBytes"));
+        repository.close();
+
+        SiteRepository reopened = open(3, Long.MAX_VALUE);
+        assertEquals(List.of(38, 39, 40), reopened.versions("site-f").stream().map(v -> v.get("version")).toList());
+        assertEquals(site(40).getJs(), reopened.load("site-g", null).orElseThrow().getJs());
+        reopened.close();
+    }
+}
@@ -0,0 +1,142 @@
+package com.Jadhav.WebCraft.Service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourceValidatorTest {
+
+    @Test
+    void leavesValidScriptsAlone() throws Exception {
+        String js = """
+                const total = items.reduce((sum, item) => sum + item.price, 0);
+                const label = `Total: ${total > 0 ? `${total} items` : 'none'} {`;
+                const pattern = /[/}]+\\/(a|b)/gi;
+                const half = total / 2 / 1;
+                // a } in a comment
+                /* and { in a block
+                   comment */
+                if (label.includes("}")) { console.log('{', "(", half); }
+                const parts = [1, 2, 3]
+                return parts
+                """;
+        SourceValidator.Report report = SourceValidator.javascript(js);
+        assertFalse(report.truncated());
+        assertEquals(List.of(), report.errors());
+        assertSame(js, report.source());
+
+        String baseJs = new ClassPathResource("site-templates/base.js").getContentAsString(StandardCharsets.UTF_8);
+        assertEquals(List.of(), SourceValidator.javascript(baseJs).errors());
+        String baseCss = new ClassPathResource("site-templates/base.css").getContentAsString(StandardCharsets.UTF_8);
+        assertEquals(List.of(), SourceValidator.css(baseCss).errors());
+    }
+
+    @Test
+    void trimsOnlyTheTruncatedTail() {
+        SourceValidator.Report report = SourceValidator.javascript(
+                "function a() { return 1; }\nconst s = 'x';\nfunction b() {\n  if (x) {\n    show(s");
+        assertTrue(report.truncated());
+        assertEquals("function a() { return 1; }\nconst s = 'x';", report.source());
+        assertEquals(List.of("3 unclosed bracket(s) at end of script, outermost '{' on line 3"), report.errors());
+
+        report = SourceValidator.javascript("init();\nconst message = `Hello ${name}, welcome");
+        assertEquals("init();", report.source());
+        assertEquals(List.of("Unterminated template literal from line 2 at end of script"), report.errors());
+
+        report = SourceValidator.css("body { margin: 0; }\n.card { color: red;\n  content: \"}");
+        assertEquals("body { margin: 0; }", report.source());
+
+        report = SourceValidator.css(".a { color: red; }\n.b, .c");
+        assertTrue(report.truncated());
+        assertEquals(".a { color: red; }", report.source());
+    }
+
+    @Test
+    void reportsStructuralErrorsWithoutCutting() {
+        String js = "start();\n}\nconst a = (1];\nconst b = 'open\nend();";
+        SourceValidator.Report report = SourceValidator.javascript(js);
+        assertFalse(report.truncated());
+        assertSame(js, report.source());
+        assertEquals(List.of(
+                "Unexpected '}' on line 2",
+                "Mismatched ']' on line 3, '(' from line 3 is still open",
+                "Unterminated string on line 4"), report.errors());
+    }
+
+    @Test
+    void fuzzedInputNeverThrowsAndOnlyEverCutsToACleanPrefix() {
+        String[] tokens = {
+                "function f(a) {", "}", "if (x) {", "(", ")", "[", "]", "{", "'str'", "\"s\"", "`t ${", "`",
+                "/* c */", "/*", "*/", "// c\n", "/re[/]x/g", "a / b", ";", "\n", "return /x/;", "\\", "'", "\"",
+                "x", "items", " ", "${", "=>", ".5", "color: red;", "@media (x) {", "url(a)"
+        };
+        Random random = new Random(46);
+        for (int run = 0; run < 5_000; run++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int i = 0; i < length; i++) {
+                input.append(tokens[random.nextInt(tokens.length)]);
+            }
+            String source = input.toString();
+
+            for (boolean css : new boolean[]{false, true}) {
+                SourceValidator.Report report = css ? SourceValidator.css(source) : SourceValidator.javascript(source);
+                assertTrue(source.startsWith(report.source()), source);
+                assertTrue(report.errors().size() <= 21, source);
+                if (!report.truncated()) {
+                    assertSame(source, report.source(), source);
+                    continue;
+                }
+                SourceValidator.Report again = css ? SourceValidator.css(report.source()) : SourceValidator.javascript(report.source());
+                assertFalse(again.truncated(), source);
+                assertEquals(report.source(), again.source(), source);
+            }
+        }
+    }
+
+    @Test
+    void truncatesInputThatMadeTheOldRegexesBacktrack() {
+        // Quadratic for "if\\s*\\([^)]*\\)...": every "if (" scans to the end before failing
+        SourceValidator.Report report = SourceValidator.javascript("if (a ".repeat(100_000));
+        assertTrue(report.truncated());
+        assertEquals("", report.source());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void scalesLinearlyIncludingOnInputThatMadeTheOldRegexesBacktrack() throws Exception {
+        String unit = new ClassPathResource("site-templates/base.js").getContentAsString(StandardCharsets.UTF_8);
+        String small = unit.repeat(256);
+        String large = unit.repeat(1024);
+
+        long smallNanos = bestOf(() -> SourceValidator.javascript(small));
+        long largeNanos = bestOf(() -> SourceValidator.javascript(large));
+        assertTrue(largeNanos < smallNanos * 10,
+                "4x input took " + largeNanos / 1000 + " us vs " + smallNanos / 1000 + " us");
+
+        String unclosed = "if (a ".repeat(100_000);
+        long start = System.nanoTime();
+        SourceValidator.javascript(unclosed);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static long bestOf(Runnable task) {
+        for (int i = 0; i < 5; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,140 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.config.JacksonConfig;
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StructuredOutputParsingTest {
+
+    private static final int REQUESTS = 30;
+
+    // What a model typically returns when JSON is only requested in prose
+    private static final List<String> PROSE_REPLIES = List.of(
+            "Here is your website:\n```json\n{\"html\": \"<h1>Hi</h1>\", \"css\": \"body{}\", \"js\": \"let a = 1;\"}\n```",
+            "{\"html\": \"<h1>Hi</h1>\n<p>raw newline</p>\", \"css\": \"body{}\", \"js\": \"let a = 1;\"}",
+            "{\"html\": \"<h1>Hi</h1>\", \"css\": \"body{color:red}\", \"js\": \"function f() {"
+    );
+
+    private static final String STRUCTURED_REPLY =
+            "{\"html\": \"<h1 class=\\\"t\\\">Hi</h1>\\n<p>ok</p>\", \"css\": \"body{}\", \"js\": \"let a = 1;\"}";
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+    private GeminiStubServer stub;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        stub = new GeminiStubServer();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void structuredOutputParsesInOnePassWithoutFallbacks() throws Exception {
+        stub.replies(body -> STRUCTURED_REPLY);
+        WebsiteGeneratorService service = newService(true);
+
+        for (int i = 0; i < REQUESTS; i++) {
+            GenerateResponse response = service.generateWebsite("landing page " + i);
+            assertTrue(response.getHtml().contains("<h1 class=\"t\">Hi</h1>"));
+        }
+
+        String lastRequest = stub.generateRequests().get(REQUESTS - 1);
+        assertTrue(lastRequest.contains("\"responseMimeType\":\"application/json\""));
+        assertTrue(lastRequest.contains("\"responseSchema\""));
+
+        Map<String, Object> stats = service.getParseStatistics();
+        assertEquals(0L, stats.get("unparsed"));
+        assertEquals((long) REQUESTS, strategy(stats, "structured").get("successes"));
+        assertNull(strategy(stats, "directJson"));
+        assertNull(strategy(stats, "regex"));
+        assertNull(strategy(stats, "manual"));
+    }
+
+    @Test
+    void proseModeFallsThroughSalvageChain() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        stub.replies(body -> PROSE_REPLIES.get(counter.getAndIncrement() % PROSE_REPLIES.size()));
+        WebsiteGeneratorService service = newService(false);
+
+        for (int i = 0; i < REQUESTS; i++) {
+            assertNotNull(service.generateWebsite("landing page " + i));
+        }
+
+        assertFalse(stub.generateRequests().get(REQUESTS - 1).contains("responseSchema"));
+
+        Map<String, Object> stats = service.getParseStatistics();
+        assertEquals((long) REQUESTS / PROSE_REPLIES.size(), stats.get("unparsed"));
+        assertTrue((long) strategy(stats, "regex").get("attempts") > 0);
+        assertNull(strategy(stats, "structured"));
+    }
+
+    @Test
+    void cheaperSalvageStrategiesNeverRunAheadOfAFullParse() {
+        ParseStrategyStats stats = newStats();
+        for (int i = 0; i < 30; i++) {
+            stats.record("structured", true, 1_000_000);
+            stats.record("directJson", true, 1_000_000);
+            stats.record("manual", true, 5_000);
+            stats.record("regex", true, 1_000);
+        }
+        List<String> lossless = List.of("structured", "directJson");
+        List<String> salvage = List.of("manual", "regex");
+        assertEquals(List.of("structured", "directJson", "regex", "manual"), stats.order(lossless, salvage));
+
+        // Salvage strategies still reorder among themselves
+        for (int i = 0; i < 40; i++) {
+            stats.record("regex", false, 1_000);
+        }
+        assertEquals(List.of("structured", "directJson", "manual", "regex"), stats.order(lossless, salvage));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> strategy(Map<String, Object> stats, String name) {
+        return (Map<String, Object>) ((Map<String, Object>) stats.get("strategies")).get(name);
+    }
+
+    private WebsiteGeneratorService newService(boolean structuredOutput) {
+        GoogleGenAIService genAIService = new GoogleGenAIService();
+        ReflectionTestUtils.setField(genAIService, "apiKey", "test-key");
+        ReflectionTestUtils.setField(genAIService, "baseUrl", stub.url());
+        ReflectionTestUtils.setField(genAIService, "structuredOutput", structuredOutput);
+        ReflectionTestUtils.setField(genAIService, "systemInstruction", true);
+        ReflectionTestUtils.setField(genAIService, "circuitBreakers", CircuitBreakerTest.newBreakers());
+        genAIService.init();
+
+        ParseStrategyStats stats = newStats();
+
+        ModelRouter router = ModelRouterTest.newRouter(genAIService, "gemini-2.5-flash:BALANCED:8");
+        router.init();
+
+        WebsiteGeneratorService service = new WebsiteGeneratorService();
+        ReflectionTestUtils.setField(service, "googleGenAIService", genAIService);
+        ReflectionTestUtils.setField(service, "modelRouter", router);
+        service.setObjectMapper(objectMapper);
+        ReflectionTestUtils.setField(service, "parseStrategyStats", stats);
+        ReflectionTestUtils.setField(service, "templateLibrary", TemplateLibraryTest.newLibrary());
+        return service;
+    }
+
+    private static ParseStrategyStats newStats() {
+        ParseStrategyStats stats = new ParseStrategyStats();
+        ReflectionTestUtils.setField(stats, "alpha", 0.1);
+        ReflectionTestUtils.setField(stats, "minSamples", 20);
+        ReflectionTestUtils.setField(stats, "demoteBelow", 0.05);
+        ReflectionTestUtils.setField(stats, "probeEvery", 25);
+        return stats;
+    }
+}
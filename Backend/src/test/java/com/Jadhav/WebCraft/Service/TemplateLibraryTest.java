@@ -0,0 +1,94 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.config.JacksonConfig;
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateLibraryTest {
+
+    private TemplateLibrary library;
+
+    static TemplateLibrary newLibrary() {
+        TemplateLibrary library = new TemplateLibrary();
+        ReflectionTestUtils.setField(library, "objectMapper", new JacksonConfig().objectMapper());
+        ReflectionTestUtils.setField(library, "manifest", new ClassPathResource("site-templates/templates.json"));
+        ReflectionTestUtils.setField(library, "defaultTemplateId", "business");
+        try {
+            library.init();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return library;
+    }
+
+    @BeforeEach
+    void setUp() {
+        library = newLibrary();
+    }
+
+    @Test
+    void matchesPromptsToTemplatesByKeyword() {
+        assertEquals("restaurant", library.match("A cozy family bakery with fresh bread and pastries").template().getId());
+        assertEquals("portfolio", library.match("Portfolio for a wedding photographer").template().getId());
+        assertEquals("saas", library.match("Landing page for a SaaS analytics startup with pricing plans").template().getId());
+        assertEquals("fitness", library.match("Website for my yoga studio and gym classes").template().getId());
+
+        TemplateLibrary.Match unknown = library.match("Make me something nice");
+        assertEquals("business", unknown.template().getId());
+        assertEquals(0, unknown.score());
+    }
+
+    @Test
+    void rendersEscapedNameAndDescriptionIntoSkeleton() {
+        String prompt = "A bakery called Crumb & Co <script>alert(1)</script>";
+        GenerateResponse site = library.skeleton(prompt);
+
+        assertTrue(site.getHtml().contains("<title>Crumb &amp; Co</title>"), site.getHtml());
+        assertFalse(site.getHtml().contains("<script>alert"));
+        assertTrue(site.getHtml().contains("&lt;script&gt;alert(1)&lt;/script&gt;"));
+        assertFalse(site.getHtml().contains("{{"));
+        assertTrue(site.getCss().startsWith(":root {"));
+
+        GenerateResponse quoted = library.skeleton("Online shop \"Green Leaf\" for house plants");
+        assertTrue(quoted.getHtml().contains("<title>Green Leaf</title>"));
+    }
+
+    @Test
+    void everyTemplateRendersACompletePage() {
+        assertTrue(library.getTemplates().size() >= 10);
+        for (SiteTemplate template : library.getTemplates()) {
+            GenerateResponse site = template.render(null, template.getName());
+            String html = site.getHtml();
+            assertTrue(html.startsWith("<!DOCTYPE html>"), template.getId());
+            assertTrue(html.contains("<title>" + template.getDefaultSiteName().replace("&", "&amp;") + "</title>"), template.getId());
+            assertTrue(html.contains("href=\"styles.css\"") && html.contains("src=\"script.js\""), template.getId());
+            assertTrue(html.contains("class=\"contact-form\""), template.getId());
+            assertTrue(html.trim().endsWith("</html>"), template.getId());
+            assertFalse(site.getJs().isBlank(), template.getId());
+        }
+    }
+
+    @Test
+    void matchingAndRenderingTakeWellUnderAMillisecond() {
+        String prompt = "Build a modern website for a dental clinic with appointment booking, opening hours and patient reviews";
+        for (int i = 0; i < 2_000; i++) {
+            library.skeleton(prompt);
+        }
+
+        int runs = 2_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            library.skeleton(prompt);
+        }
+        long perCall = (System.nanoTime() - start) / runs;
+        assertEquals("clinic", library.match(prompt).template().getId());
+        assertTrue(perCall < TimeUnit.MILLISECONDS.toNanos(1), "skeleton took " + perCall + " ns");
+    }
+}
@@ -0,0 +1,106 @@
+package com.Jadhav.WebCraft.Service;
+
+import com.Jadhav.WebCraft.config.JacksonConfig;
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarmUpServiceTest {
+
+    private GeminiStubServer stub;
+    private Resource[] corpus;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new GeminiStubServer();
+        corpus = new PathMatchingResourcePatternResolver().getResources("classpath*:warmup/*.txt");
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void everyCorpusResponseParsesWithoutFallback() throws Exception {
+        WebsiteGeneratorService generator = newGenerator(newGenAIService());
+        GenerateResponse fallback = TemplateLibraryTest.newLibrary().skeleton("Warm-up");
+
+        assertTrue(corpus.length >= 4);
+        for (Resource resource : corpus) {
+            GenerateResponse site = generator.warmUp(resource.getContentAsString(StandardCharsets.UTF_8));
+            assertNotEquals(fallback.getHtml(), site.getHtml(), resource.getFilename());
+            assertFalse(site.getJs().isBlank(), resource.getFilename());
+        }
+        assertEquals(0L, generator.getParseStatistics().get("parses"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void runsCorpusAndOpensOneGeminiConnection() {
+        GoogleGenAIService genAIService = newGenAIService();
+        ModelRouter router = ModelRouterTest.newRouter(genAIService, "gemini-2.5-flash-lite:FAST:8,gemini-2.5-flash:BALANCED:8");
+        router.init();
+
+        NetlifyDeploymentService netlify = new NetlifyDeploymentService();
+        ReflectionTestUtils.setField(netlify, "netlifyToken", "");
+
+        WarmUpService warmUp = new WarmUpService();
+        ReflectionTestUtils.setField(warmUp, "corpus", corpus);
+        ReflectionTestUtils.setField(warmUp, "iterations", 3);
+        ReflectionTestUtils.setField(warmUp, "maxMs", 30_000L);
+        ReflectionTestUtils.setField(warmUp, "preconnect", true);
+        ReflectionTestUtils.setField(warmUp, "preconnectTimeoutMs", 10_000L);
+        ReflectionTestUtils.setField(warmUp, "websiteGeneratorService", newGenerator(genAIService));
+        ReflectionTestUtils.setField(warmUp, "netlifyDeploymentService", netlify);
+        ReflectionTestUtils.setField(warmUp, "modelRouter", router);
+
+        warmUp.run();
+
+        Map<String, Object> snapshot = warmUp.snapshot();
+        assertEquals(WarmUpService.State.DONE, warmUp.getState());
+        Map<String, Object> corpusStats = (Map<String, Object>) snapshot.get("corpus");
+        assertEquals(corpus.length, corpusStats.get("responses"));
+        assertEquals(3, corpusStats.get("rounds"));
+        assertTrue((long) corpusStats.get("zipBytes") > 0);
+
+        Map<String, Object> preconnect = (Map<String, Object>) snapshot.get("preconnect");
+        Map<String, Object> models = (Map<String, Object>) preconnect.get("models");
+        assertEquals(2, models.size());
+        // Both models share the host, so only the first one is looked up, and nothing is generated
+        assertEquals(List.of("models/gemini-2.5-flash"), stub.modelLookups());
+        assertEquals(0, stub.generateRequests().size());
+        assertEquals(1, models.values().stream().filter(m -> "CONNECTED".equals(((Map<String, Object>) m).get("status"))).count());
+        assertEquals("SKIPPED", ((Map<String, Object>) preconnect.get("netlify")).get("status"));
+    }
+
+    private GoogleGenAIService newGenAIService() {
+        GoogleGenAIService genAIService = new GoogleGenAIService();
+        ReflectionTestUtils.setField(genAIService, "apiKey", "test-key");
+        ReflectionTestUtils.setField(genAIService, "baseUrl", stub.url());
+        ReflectionTestUtils.setField(genAIService, "structuredOutput", true);
+        ReflectionTestUtils.setField(genAIService, "systemInstruction", true);
+        ReflectionTestUtils.setField(genAIService, "circuitBreakers", CircuitBreakerTest.newBreakers());
+        genAIService.init();
+        return genAIService;
+    }
+
+    private static WebsiteGeneratorService newGenerator(GoogleGenAIService genAIService) {
+        WebsiteGeneratorService service = new WebsiteGeneratorService();
+        ReflectionTestUtils.setField(service, "googleGenAIService", genAIService);
+        service.setObjectMapper(new JacksonConfig().objectMapper());
+        ReflectionTestUtils.setField(service, "parseStrategyStats", new ParseStrategyStats());
+        ReflectionTestUtils.setField(service, "templateLibrary", TemplateLibraryTest.newLibrary());
+        return service;
+    }
+}
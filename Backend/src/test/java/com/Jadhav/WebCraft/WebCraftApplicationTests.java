@@ -3,7 +3,10 @@ package com.Jadhav.WebCraft;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+		"webcraft.warmup.preconnect=false",
+		"webcraft.repository.dir=target/test-sites/${random.uuid}"
+})
 class WebCraftApplicationTests {
 
 	@Test
@@ -0,0 +1,106 @@
+package com.Jadhav.WebCraft.config;
+
+import com.Jadhav.WebCraft.Service.AdmissionBudget;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    private static AdmissionBudget budget(long bytes, long queueTimeoutMs) {
+        AdmissionBudget budget = new AdmissionBudget();
+        ReflectionTestUtils.setField(budget, "budgetBytes", bytes);
+        ReflectionTestUtils.setField(budget, "queueTimeoutMs", queueTimeoutMs);
+        return budget;
+    }
+
+    private static AdmissionControlFilter filter(AdmissionBudget budget) {
+        AdmissionControlFilter filter = new AdmissionControlFilter();
+        ReflectionTestUtils.setField(filter, "admissionBudget", budget);
+        filter.setObjectMapper(new JacksonConfig().objectMapper());
+        ReflectionTestUtils.setField(filter, "chunkBytes", 100L);
+        ReflectionTestUtils.setField(filter, "retryAfterSeconds", 3);
+        return filter;
+    }
+
+    @Test
+    void queuedRequestIsAdmittedWhenBudgetIsReleased() throws Exception {
+        AdmissionBudget budget = budget(1000, 5000);
+        budget.reserve(800);
+
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> {
+            try {
+                budget.reserve(500);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(waiter.isDone());
+        assertEquals(1, budget.snapshot().get("waiting"));
+
+        budget.release(800);
+        waiter.get(2, TimeUnit.SECONDS);
+        assertEquals(500L, budget.snapshot().get("reservedBytes"));
+
+        AdmissionBudget.BudgetExceededException tooBig =
+                assertThrows(AdmissionBudget.BudgetExceededException.class, () -> budget.reserve(2000));
+        assertTrue(tooBig.isPermanent());
+    }
+
+    @Test
+    void filterRejectsWithRetryAfterWhenOverBudget() throws Exception {
+        AdmissionBudget budget = budget(1000, 50);
+        AdmissionControlFilter filter = filter(budget);
+        budget.reserve(900);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/deploy");
+        request.setContent(new byte[500]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(503, response.getStatus());
+        assertEquals("3", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("Server Busy"));
+        assertEquals(1L, budget.snapshot().get("rejected"));
+
+        // Admitted requests give their reservation back once handled
+        budget.release(900);
+        MockHttpServletResponse ok = new MockHttpServletResponse();
+        filter.doFilter(request, ok, new MockFilterChain());
+        assertEquals(200, ok.getStatus());
+        assertEquals(0L, budget.snapshot().get("reservedBytes"));
+    }
+
+    @Test
+    void bodiesOfUnknownLengthAreMeteredAsTheyAreRead() throws Exception {
+        AdmissionBudget budget = budget(1000, 50);
+        AdmissionControlFilter filter = filter(budget);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/generate") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setContent(new byte[450]);
+
+        Map<String, Object>[] during = new Map[1];
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            new ByteArrayInputStream(req.getInputStream().readAllBytes());
+            during[0] = budget.snapshot();
+        });
+
+        assertEquals(500L, during[0].get("reservedBytes"));
+        assertEquals(0L, budget.snapshot().get("reservedBytes"));
+    }
+}
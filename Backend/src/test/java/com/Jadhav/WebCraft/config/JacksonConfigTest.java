@@ -0,0 +1,162 @@
+package com.Jadhav.WebCraft.config;
+
+import com.Jadhav.WebCraft.dto.DeployRequest;
+import com.Jadhav.WebCraft.dto.GenerateResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JacksonConfigTest {
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    @Test
+    void acceptsDeployPayloadsUpToTheHtmlLimit() throws Exception {
+        ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+        String html = page(25 * 1024 * 1024 - 64);
+        byte[] body = objectMapper.writeValueAsBytes(new DeployRequest(html, "body {}", "init();", "big"));
+
+        assertEquals(html, objectMapper.readValue(body, DeployRequest.class).getHtml());
+        // Jackson's own default stops at 20M chars
+        assertConstraint("getMaxStringLength", () -> new ObjectMapper().readValue(body, DeployRequest.class));
+    }
+
+    @Test
+    void rejectsOversizedStringsAndDeepNesting() {
+        JacksonConfig config = new JacksonConfig();
+        ReflectionTestUtils.setField(config, "maxStringLength", 1024);
+        ObjectMapper objectMapper = config.objectMapper();
+
+        String tooLong = "{\"html\": \"" + "a".repeat(2048) + "\"}";
+        assertConstraint("getMaxStringLength", () -> objectMapper.readValue(tooLong, GenerateResponse.class));
+
+        String tooDeep = "[".repeat(65) + "]".repeat(65);
+        assertConstraint("getMaxNestingDepth", () -> objectMapper.readTree(tooDeep));
+        assertDoesNotThrow(() -> objectMapper.readTree("[".repeat(64) + "]".repeat(64)));
+    }
+
+    @Test
+    void registersBlackbirdAndLeavesStreamsOpen() throws Exception {
+        ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+        assertTrue(objectMapper.getRegisteredModuleIds().stream().anyMatch(id -> id.toString().contains("Blackbird")),
+                objectMapper.getRegisteredModuleIds().toString());
+
+        JacksonConfig plain = new JacksonConfig();
+        ReflectionTestUtils.setField(plain, "blackbird", false);
+        assertTrue(plain.objectMapper().getRegisteredModuleIds().stream().noneMatch(id -> id.toString().contains("Blackbird")));
+
+        // NDJSON writers put several values on one response stream
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        OutputStream response = new OutputStream() {
+            @Override
+            public void write(int b) {
+                lines.write(b);
+            }
+
+            @Override
+            public void close() throws IOException {
+                throw new IOException("closed by the serializer");
+            }
+        };
+        objectMapper.writeValue(response, Map.of("type", "skeleton"));
+        response.write('\n');
+        objectMapper.writeValue(response, Map.of("type", "site"));
+        assertEquals("{\"type\":\"skeleton\"}\n{\"type\":\"site\"}", lines.toString());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void measuresGenerateAndDeployPayloadsFrom1KbTo25Mb() throws Exception {
+        ObjectMapper before = new ObjectMapper();
+        before.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        ObjectMapper after = new JacksonConfig().objectMapper();
+        ObjectReader responseReader = after.readerFor(GenerateResponse.class);
+        ObjectReader deployReader = after.readerFor(DeployRequest.class);
+        ObjectWriter writer = after.writer();
+
+        System.out.printf("%-16s %8s %16s %16s %16s %16s%n", "payload", "size",
+                "write before us", "write after us", "read before us", "read after us");
+        for (int size : new int[]{1024, 64 * 1024, 1024 * 1024, 25 * 1024 * 1024 - 64}) {
+            String html = page(size);
+            GenerateResponse site = new GenerateResponse(html, "body { margin: 0; }", "console.log('ready');");
+            DeployRequest deploy = new DeployRequest(html, "body { margin: 0; }", "console.log('ready');", "bench");
+            byte[] siteJson = after.writeValueAsBytes(site);
+            byte[] deployJson = after.writeValueAsBytes(deploy);
+            int runs = Math.max(3, Math.min(2_000, (64 << 20) / size));
+
+            long[] siteTimes = {
+                    nanos(runs, () -> before.writeValueAsBytes(site)),
+                    nanos(runs, () -> writer.writeValue(OutputStream.nullOutputStream(), site)),
+                    nanosOrRejected(runs, () -> before.readValue(siteJson, GenerateResponse.class)),
+                    nanos(runs, () -> responseReader.readValue(siteJson))
+            };
+            long[] deployTimes = {
+                    nanos(runs, () -> before.writeValueAsBytes(deploy)),
+                    nanos(runs, () -> writer.writeValue(OutputStream.nullOutputStream(), deploy)),
+                    nanosOrRejected(runs, () -> before.readValue(deployJson, DeployRequest.class)),
+                    nanos(runs, () -> deployReader.readValue(deployJson))
+            };
+            print("GenerateResponse", size, siteTimes);
+            print("DeployRequest", size, deployTimes);
+
+            assertEquals(html, ((GenerateResponse) responseReader.readValue(siteJson)).getHtml());
+            assertEquals(html, ((DeployRequest) deployReader.readValue(deployJson)).getHtml());
+        }
+    }
+
+    private static void print(String payload, int size, long[] times) {
+        System.out.printf("%-16s %7dK %16s %16s %16s %16s%n", payload, size / 1024,
+                times[0] / 1000, times[1] / 1000, times[2] < 0 ? "rejected" : String.valueOf(times[2] / 1000), times[3] / 1000);
+    }
+
+    private static long nanosOrRejected(int runs, Task task) throws Exception {
+        try {
+            return nanos(runs, task);
+        } catch (JsonProcessingException e) {
+            assertTrue(e.getMessage().contains("StreamReadConstraints"), e.getMessage());
+            return -1;
+        }
+    }
+
+    private static void assertConstraint(String limit, Task task) {
+        JsonProcessingException e = assertThrows(JsonProcessingException.class, task::run);
+        assertTrue(e.getMessage().contains(limit), e.getMessage());
+    }
+
+    // Best of the runs, after as many warm-up runs
+    private static long nanos(int runs, Task task) throws Exception {
+        for (int i = 0; i < runs; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static String page(int size) {
+        StringBuilder page = new StringBuilder(size + 128).append("<!DOCTYPE html>\n<html><body>\n");
+        for (int i = 0; page.length() < size - 16; i++) {
+            page.append("<p class=\"row\">Row ").append(i).append(" café \"quoted\"</p>\n");
+        }
+        return page.append("</body></html>").toString();
+    }
+}
@@ -0,0 +1,31 @@
+package com.Jadhav.WebCraft.config;
+
+import com.Jadhav.WebCraft.dto.BatchGenerateRequest;
+import com.Jadhav.WebCraft.dto.ErrorResponse;
+import com.google.genai.types.GenerateContentConfig;
+import com.google.genai.types.GenerateContentResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeHintsTest {
+
+    @Test
+    void registersJacksonAccessForGenAiTypesAndDtos() throws Exception {
+        RuntimeHints hints = new RuntimeHints();
+        new NativeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.reflection().onType(GenerateContentResponse.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_METHODS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of("com.google.genai.types.AutoValue_GenerateContentConfig$Builder"))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(GenerateContentConfig.Builder.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(BatchGenerateRequest.class.getMethod("setPrompts", java.util.List.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(ErrorResponse.class.getMethod("getMessage")).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("site-templates/templates.json").test(hints));
+    }
+}
@@ -0,0 +1,78 @@
+package com.Jadhav.WebCraft.config;
+
+import com.Jadhav.WebCraft.Service.ClientRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private static RateLimitFilter filter(String... apiKeys) {
+        ClientRateLimiter limiter = new ClientRateLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "capacity", 6L);
+        ReflectionTestUtils.setField(limiter, "refillPerMinute", 6.0);
+        ReflectionTestUtils.setField(limiter, "generateCost", 1L);
+        ReflectionTestUtils.setField(limiter, "deployCost", 5L);
+        ReflectionTestUtils.setField(limiter, "idleEvictSeconds", 600L);
+
+        RateLimitFilter filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "rateLimiter", limiter);
+        filter.setApiKeys(apiKeys);
+        filter.setObjectMapper(new JacksonConfig().objectMapper());
+        return filter;
+    }
+
+    @Test
+    void reportsQuotaAndRejectsOnceExhausted() throws Exception {
+        RateLimitFilter filter = filter("k1", " k2 ");
+
+        MockHttpServletResponse deployed = send(filter, "/deploy", "k1");
+        assertEquals(200, deployed.getStatus());
+        assertEquals("6", deployed.getHeader("RateLimit-Limit"));
+        assertEquals("1", deployed.getHeader("RateLimit-Remaining"));
+        assertEquals("6;w=60", deployed.getHeader("RateLimit-Policy"));
+
+        assertEquals(200, send(filter, "/generate", "k1").getStatus());
+        MockHttpServletResponse limited = send(filter, "/generate", "k1");
+        assertEquals(429, limited.getStatus());
+        assertEquals("10", limited.getHeader("Retry-After"));
+        assertTrue(limited.getContentAsString().contains("Rate Limit Exceeded"));
+
+        // A different key is unaffected, and status endpoints are never limited
+        assertEquals(200, send(filter, "/generate", "k2").getStatus());
+        assertNull(send(filter, "/deployment-status", "k1").getHeader("RateLimit-Limit"));
+    }
+
+    @Test
+    void rotatingUnknownKeysSharesTheAddressBucket() throws Exception {
+        RateLimitFilter filter = filter("k1");
+
+        for (int i = 0; i < 6; i++) {
+            assertEquals(200, send(filter, "/generate", UUID.randomUUID().toString()).getStatus());
+        }
+        assertEquals(429, send(filter, "/generate", UUID.randomUUID().toString()).getStatus());
+        assertEquals(429, send(filter, "/generate", null).getStatus());
+        ClientRateLimiter limiter = (ClientRateLimiter) ReflectionTestUtils.getField(filter, "rateLimiter");
+        assertEquals(1, limiter.snapshot().get("trackedClients"));
+
+        // A configured key still gets a bucket of its own
+        assertEquals(200, send(filter, "/generate", "k1").getStatus());
+    }
+
+    private static MockHttpServletResponse send(RateLimitFilter filter, String path, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,112 @@
+package com.Jadhav.WebCraft.config;
+
+import com.Jadhav.WebCraft.Service.DeployRequestReader;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestDecompressionFilterTest {
+
+    private static RequestDecompressionFilter filter(long maxInflatedBytes) {
+        RequestDecompressionFilter filter = new RequestDecompressionFilter();
+        ReflectionTestUtils.setField(filter, "maxInflatedBytes", maxInflatedBytes);
+        return filter;
+    }
+
+    @Test
+    void inflatingPastTheCapIsAPayloadTooLargeException() throws Exception {
+        byte[] body = gzip(new byte[4096]);
+        AtomicReference<byte[]> read = new AtomicReference<>();
+
+        filter(4096).doFilter(request(body), new MockHttpServletResponse(),
+                (request, response) -> read.set(request.getInputStream().readAllBytes()));
+        assertEquals(4096, read.get().length);
+
+        assertThrows(DeployRequestReader.PayloadTooLargeException.class,
+                () -> filter(4095).doFilter(request(body), new MockHttpServletResponse(),
+                        (request, response) -> request.getInputStream().readAllBytes()));
+    }
+
+    @Test
+    void readListenerAndReadinessComeFromTheCompressedStream() throws Exception {
+        byte[] body = gzip(new byte[16]);
+        AtomicReference<ReadListener> registered = new AtomicReference<>();
+        ServletInputStream compressed = new ServletInputStream() {
+            private final ByteArrayInputStream in = new ByteArrayInputStream(body);
+
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return false;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                registered.set(readListener);
+            }
+        };
+        HttpServletRequest request = new HttpServletRequestWrapper(request(body)) {
+            @Override
+            public ServletInputStream getInputStream() {
+                return compressed;
+            }
+        };
+        ReadListener listener = new ReadListener() {
+            @Override
+            public void onDataAvailable() {
+            }
+
+            @Override
+            public void onAllDataRead() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        };
+
+        filter(4096).doFilter(request, new MockHttpServletResponse(), (inflated, response) -> {
+            ServletInputStream in = inflated.getInputStream();
+            in.setReadListener(listener);
+            assertFalse(in.isReady());
+        });
+        assertSame(listener, registered.get());
+    }
+
+    private static MockHttpServletRequest request(byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/deploy");
+        request.addHeader("Content-Encoding", "gzip");
+        request.setContent(body);
+        return request;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+}